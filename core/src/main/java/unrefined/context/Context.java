@@ -80,7 +80,21 @@ public abstract class Context {
     public abstract int getBackgroundColor();
 
     public abstract void requestPaint();
+    /**
+     * Requests a repaint of the given region only. Regions requested before the next paint are accumulated,
+     * and implementations may restrict the clip of the next {@link ContextListener#onPaint} to them.
+     */
+    public void requestPaint(int x, int y, int width, int height) {
+        requestPaint();
+    }
     public abstract void requestSnapshot();
+    /**
+     * Returns how far the current frame lies between the last fixed update and the next one, from 0 to 1,
+     * for interpolating render state. Contexts without fixed-step updates always return 1.
+     */
+    public float getInterpolation() {
+        return 1;
+    }
     public abstract void requestFocus();
 
     public abstract void setCursor(Cursor cursor);
@@ -15,6 +15,11 @@ public interface ContextListener {
     void onResize(Context context, int width, int height);
     void onMove(Context context, int xOnParent, int yOnParent);
 
+    /**
+     * Called at a fixed rate by contexts that run their own render loop, before painting; delta is the fixed step in seconds.
+     */
+    default void onUpdate(Context context, float delta) {}
+
     default void onPaint(Context context, Object canvas, boolean snapshot) {
         if (canvas instanceof Graphics) onPaint(context, (Graphics) canvas, snapshot);
         else if (canvas instanceof GL) onPaint(context, (GL) canvas, snapshot);
@@ -40,6 +40,24 @@ public abstract class Bitmap implements Disposable, Copyable, Duplicatable {
     public static Bitmap read(Asset input, int type) throws IOException {
         return Drawing.getInstance().readBitmap(input, type);
     }
+    public static Bitmap read(File input, int type, ReadOptions options) throws IOException {
+        return Drawing.getInstance().readBitmap(input, type, options);
+    }
+    public static Bitmap read(InputStream input, int type, ReadOptions options) throws IOException {
+        return Drawing.getInstance().readBitmap(input, type, options);
+    }
+    public static Bitmap read(Asset input, int type, ReadOptions options) throws IOException {
+        return Drawing.getInstance().readBitmap(input, type, options);
+    }
+    public static Dimension readSize(File input) throws IOException {
+        return Drawing.getInstance().readBitmapSize(input);
+    }
+    public static Dimension readSize(InputStream input) throws IOException {
+        return Drawing.getInstance().readBitmapSize(input);
+    }
+    public static Dimension readSize(Asset input) throws IOException {
+        return Drawing.getInstance().readBitmapSize(input);
+    }
     public static void writeBitmap(Bitmap bitmap, File output, String format, float quality) throws IOException {
         Drawing.getInstance().writeBitmap(bitmap, output, format, quality);
     }
@@ -83,6 +101,15 @@ public abstract class Bitmap implements Disposable, Copyable, Duplicatable {
     public static Bitmap.MultiFrame readMultiFrame(Asset input, int[] types) throws IOException {
         return Drawing.getInstance().readBitmapMultiFrame(input, types);
     }
+    public static LazyMultiFrame readLazyMultiFrame(File input, int type, int windowSize, int decodeAhead) throws IOException {
+        return Drawing.getInstance().readBitmapLazyMultiFrame(input, type, windowSize, decodeAhead);
+    }
+    public static LazyMultiFrame readLazyMultiFrame(InputStream input, int type, int windowSize, int decodeAhead) throws IOException {
+        return Drawing.getInstance().readBitmapLazyMultiFrame(input, type, windowSize, decodeAhead);
+    }
+    public static LazyMultiFrame readLazyMultiFrame(Asset input, int type, int windowSize, int decodeAhead) throws IOException {
+        return Drawing.getInstance().readBitmapLazyMultiFrame(input, type, windowSize, decodeAhead);
+    }
     public static void writeMultiFrame(Bitmap.MultiFrame frames, File output, String format, float quality) throws IOException {
         Drawing.getInstance().writeBitmapMultiFrame(frames, output, format, quality);
     }
@@ -127,6 +154,164 @@ public abstract class Bitmap implements Disposable, Copyable, Duplicatable {
         public abstract boolean writeMultiFrame(MultiFrame frames, OutputStream output, String format, float[] quality, int qualityOffset) throws IOException;
         public abstract Set<String> readerFormats();
         public abstract Set<String> writerFormats();
+
+        public Bitmap read(File input, int type, ReadOptions options) throws IOException {
+            return ReadOptions.apply(read(input, type), options);
+        }
+        public Bitmap read(InputStream input, int type, ReadOptions options) throws IOException {
+            return ReadOptions.apply(read(input, type), options);
+        }
+        public Bitmap read(Asset input, int type, ReadOptions options) throws IOException {
+            return ReadOptions.apply(read(input, type), options);
+        }
+        public Dimension readSize(File input) throws IOException {
+            return ReadOptions.size(read(input, Type.RGBA_8888));
+        }
+        public Dimension readSize(InputStream input) throws IOException {
+            return ReadOptions.size(read(input, Type.RGBA_8888));
+        }
+        public Dimension readSize(Asset input) throws IOException {
+            return ReadOptions.size(read(input, Type.RGBA_8888));
+        }
+        public LazyMultiFrame.Decoder readFrameDecoder(File input, int type) throws IOException {
+            MultiFrame frames = readMultiFrame(input, type);
+            return frames == null ? null : LazyMultiFrame.Decoder.of(frames);
+        }
+        public LazyMultiFrame.Decoder readFrameDecoder(InputStream input, int type) throws IOException {
+            MultiFrame frames = readMultiFrame(input, type);
+            return frames == null ? null : LazyMultiFrame.Decoder.of(frames);
+        }
+        public LazyMultiFrame.Decoder readFrameDecoder(Asset input, int type) throws IOException {
+            MultiFrame frames = readMultiFrame(input, type);
+            return frames == null ? null : LazyMultiFrame.Decoder.of(frames);
+        }
+    }
+
+    public static class ReadOptions {
+
+        private int sourceX, sourceY, sourceWidth, sourceHeight;
+        private boolean sourceRegion = false;
+        private int subsampling = 1;
+
+        public ReadOptions() {
+        }
+
+        public ReadOptions(int subsampling) {
+            setSubsampling(subsampling);
+        }
+
+        public ReadOptions(int sourceX, int sourceY, int sourceWidth, int sourceHeight, int subsampling) {
+            setSourceRegion(sourceX, sourceY, sourceWidth, sourceHeight);
+            setSubsampling(subsampling);
+        }
+
+        public void setSourceRegion(int x, int y, int width, int height) {
+            if (x < 0) throw new IllegalArgumentException("x < 0");
+            if (y < 0) throw new IllegalArgumentException("y < 0");
+            if (width < 1) throw new IllegalArgumentException("width < 1");
+            if (height < 1) throw new IllegalArgumentException("height < 1");
+            this.sourceX = x;
+            this.sourceY = y;
+            this.sourceWidth = width;
+            this.sourceHeight = height;
+            this.sourceRegion = true;
+        }
+
+        public void clearSourceRegion() {
+            sourceRegion = false;
+            sourceX = sourceY = sourceWidth = sourceHeight = 0;
+        }
+
+        public boolean hasSourceRegion() {
+            return sourceRegion;
+        }
+
+        public int getSourceX() {
+            return sourceX;
+        }
+
+        public int getSourceY() {
+            return sourceY;
+        }
+
+        public int getSourceWidth() {
+            return sourceWidth;
+        }
+
+        public int getSourceHeight() {
+            return sourceHeight;
+        }
+
+        public int getSubsampling() {
+            return subsampling;
+        }
+
+        public void setSubsampling(int subsampling) {
+            if (subsampling < 1 || (subsampling & (subsampling - 1)) != 0)
+                throw new IllegalArgumentException("subsampling must be a positive power of two");
+            this.subsampling = subsampling;
+        }
+
+        public int getSubsampledWidth(int width) {
+            int regionX = sourceRegion ? Math.min(sourceX, width) : 0;
+            int regionWidth = sourceRegion ? Math.min(sourceWidth, width - regionX) : width;
+            return (regionWidth + subsampling - 1) / subsampling;
+        }
+
+        public int getSubsampledHeight(int height) {
+            int regionY = sourceRegion ? Math.min(sourceY, height) : 0;
+            int regionHeight = sourceRegion ? Math.min(sourceHeight, height - regionY) : height;
+            return (regionHeight + subsampling - 1) / subsampling;
+        }
+
+        // Fallback for handlers without native region/subsampling support, crops and subsamples a fully decoded bitmap
+        private static Bitmap apply(Bitmap bitmap, ReadOptions options) {
+            if (bitmap == null || options == null || (!options.sourceRegion && options.subsampling == 1)) return bitmap;
+            try {
+                int width = bitmap.getWidth();
+                int height = bitmap.getHeight();
+                int resultWidth = options.getSubsampledWidth(width);
+                int resultHeight = options.getSubsampledHeight(height);
+                if (resultWidth < 1 || resultHeight < 1) throw new IllegalArgumentException("source region does not intersect the image");
+                int x = options.sourceRegion ? options.sourceX : 0;
+                int y = options.sourceRegion ? options.sourceY : 0;
+                int rowWidth = (resultWidth - 1) * options.subsampling + 1;
+                Bitmap result = Bitmap.of(resultWidth, resultHeight, bitmap.getType());
+                int[] row = new int[rowWidth];
+                int[] sampled = new int[resultWidth];
+                for (int i = 0; i < resultHeight; i ++) {
+                    bitmap.getPixels(row, 0, rowWidth, x, y + i * options.subsampling, rowWidth, 1);
+                    for (int j = 0; j < resultWidth; j ++) {
+                        sampled[j] = row[j * options.subsampling];
+                    }
+                    result.setPixels(sampled, 0, resultWidth, 0, i, resultWidth, 1);
+                }
+                return result;
+            }
+            finally {
+                bitmap.dispose();
+            }
+        }
+
+        private static Dimension size(Bitmap bitmap) {
+            if (bitmap == null) return null;
+            try {
+                return new Dimension(bitmap.getWidth(), bitmap.getHeight());
+            }
+            finally {
+                bitmap.dispose();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName()
+                    + '{' +
+                    "sourceRegion=" + (sourceRegion ? sourceX + "," + sourceY + "," + sourceWidth + "x" + sourceHeight : "null") +
+                    ", subsampling=" + subsampling +
+                    '}';
+        }
+
     }
 
     public static final class DisposalMode {
@@ -560,6 +745,27 @@ public abstract class Bitmap implements Disposable, Copyable, Duplicatable {
 
     public abstract int getType();
 
+    /**
+     * Returns a new bitmap with the pixels of this one converted to the given type.
+     * Converting to {@link Type#RGB_565} composites translucent pixels over black, as drawing onto it would.
+     */
+    public Bitmap convert(int type) {
+        Type.checkValid(type);
+        int width = getWidth();
+        int height = getHeight();
+        Bitmap result = Bitmap.of(width, height, type);
+        if (width == 0 || height == 0) return result;
+        int rows = Math.max(1, Math.min(height, 65536 / width));
+        int[] pixels = new int[width * rows];
+        for (int y = 0; y < height; y += rows) {
+            int length = Math.min(rows, height - y);
+            getPixels(pixels, 0, width, 0, y, width, length);
+            if (type == Type.RGB_565) PixelFormats.premultiply(pixels, 0, pixels, 0, width * length);
+            result.setPixels(pixels, 0, width, 0, y, width, length);
+        }
+        return result;
+    }
+
     @Override
     public Bitmap clone() {
         try {
@@ -0,0 +1,1375 @@
+package unrefined.media.graphics;
+
+import unrefined.util.AlreadyDisposedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link Graphics} that records drawing commands instead of rasterizing them.
+ * Commands are stored as opcodes and arguments in primitive buffers, and can be replayed onto any {@link Graphics}
+ * any number of times; drawings whose recorded bounds lie outside the replay area are skipped.
+ * Paths, transforms, text and dash arrays are copied on record, bitmaps, brushes, composites and fonts are referenced.
+ */
+public class DisplayList extends Graphics {
+
+    public static DisplayList of(int width, int height) {
+        return Drawing.getInstance().createDisplayList(width, height);
+    }
+
+    private static final int CLEAR_COLOR = 0;
+    private static final int CLEAR_RECTANGLE = 1;
+    private static final int DRAW_COLOR = 2;
+    private static final int POINT = 3;
+    private static final int LINE = 4;
+    private static final int QUAD_LINE = 5;
+    private static final int CUBIC_LINE = 6;
+    private static final int ARC = 7;
+    private static final int CIRCLE = 8;
+    private static final int ELLIPSE = 9;
+    private static final int RECTANGLE = 10;
+    private static final int ROUND_RECTANGLE = 11;
+    private static final int BITMAP_TRANSFORM = 12;
+    private static final int BITMAP = 13;
+    private static final int BITMAP_RECTANGLE = 14;
+    private static final int BITMAP_FRAME_TRANSFORM = 15;
+    private static final int BITMAP_FRAME = 16;
+    private static final int PATH_TRANSFORM = 17;
+    private static final int PATH = 18;
+    private static final int TEXT = 19;
+    private static final int TEXT_TRANSFORM = 20;
+    private static final int TEXT_ON_PATH = 21;
+    private static final int TEXT_ON_PATH_TRANSFORM = 22;
+
+    private static final int CLIP = 32;
+    private static final int TRANSFORM = 33;
+    private static final int COMPOSITE = 34;
+    private static final int BRUSH = 35;
+    private static final int STYLE = 36;
+    private static final int STROKE_WIDTH = 37;
+    private static final int STROKE_JOIN = 38;
+    private static final int STROKE_CAP = 39;
+    private static final int STROKE_MITER_LIMIT = 40;
+    private static final int STROKE_DASH = 41;
+    private static final int STROKE_DASH_PHASE = 42;
+    private static final int ANTI_ALIAS = 43;
+    private static final int IMAGE_SMOOTHING = 44;
+    private static final int DITHER = 45;
+    private static final int FONT = 46;
+    private static final int TEXT_BACKGROUND = 47;
+    private static final int TEXT_FOREGROUND = 48;
+    private static final int TEXT_SIZE = 49;
+    private static final int TEXT_DIRECTION = 50;
+    private static final int TEXT_ALIGNMENT = 51;
+    private static final int SUBPIXEL_TEXT = 52;
+    private static final int UNDERLINE_TEXT = 53;
+    private static final int STRIKE_THROUGH_TEXT = 54;
+    private static final int KERNING_TEXT = 55;
+    private static final int VARIANT_LIGATURES_TEXT = 56;
+    private static final int SUPERSCRIPT_TEXT = 57;
+    private static final int LETTER_SPACING = 58;
+    private static final int TEXT_SCALE_X = 59;
+    private static final int TEXT_SCALE_Y = 60;
+    private static final int TEXT_SKEW_X = 61;
+    private static final int TEXT_SKEW_Y = 62;
+    private static final int SHADOW_COLOR = 63;
+    private static final int SHADOW_BLUR = 64;
+    private static final int SHADOW_OFFSET_X = 65;
+    private static final int SHADOW_OFFSET_Y = 66;
+
+    private final int width, height;
+    private final Info info = new Info();
+
+    private int[] ints = new int[256];
+    private int intCount = 0;
+    private float[] floats = new float[256];
+    private int floatCount = 0;
+    private final List<Object> objects = new ArrayList<>();
+    private int commandCount = 0;
+    private int drawCount = 0;
+    private volatile int version = 0;
+
+    private final float[] corners = new float[8];
+
+    private Bitmap measureBitmap;
+    private Graphics measureGraphics;
+
+    private boolean caching = false;
+    private Bitmap cache;
+    private int cacheVersion = -1;
+
+    private volatile int lastReplayedCount = 0;
+    private volatile int lastCulledCount = 0;
+
+    private volatile boolean disposed = false;
+
+    public DisplayList(int width, int height) {
+        if (width < 0) throw new IllegalArgumentException("width < 0");
+        if (height < 0) throw new IllegalArgumentException("height < 0");
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Discards all recorded commands and resets the recording state.
+     */
+    public void clear() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        intCount = 0;
+        floatCount = 0;
+        objects.clear();
+        commandCount = 0;
+        drawCount = 0;
+        info.reset();
+        version ++;
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    public int getDrawCount() {
+        return drawCount;
+    }
+
+    /**
+     * Incremented on every recorded command, usable to tell whether content derived from this list is stale.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getLastReplayedCount() {
+        return lastReplayedCount;
+    }
+
+    public int getLastCulledCount() {
+        return lastCulledCount;
+    }
+
+    /**
+     * When enabled, {@link #replay(Graphics)} rasterizes the list into a bitmap once and draws that bitmap
+     * until the list changes. Clear commands then clear the cache rather than the target.
+     */
+    public void setCaching(boolean caching) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        this.caching = caching;
+        if (!caching) disposeCache();
+    }
+
+    public boolean isCaching() {
+        return caching;
+    }
+
+    /**
+     * Replays the recorded commands onto the target, culling against the target size.
+     * The target starts from the default state and gets its own state restored afterwards.
+     */
+    public void replay(Graphics target) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (caching && width > 0 && height > 0) {
+            if (cache == null || cacheVersion != version) {
+                if (cache == null) cache = Bitmap.of(width, height, Bitmap.Type.RGBA_8888);
+                else cache.getGraphics().clearColor();
+                replay(cache.getGraphics(), 0, 0, width, height);
+                cacheVersion = version;
+            }
+            target.save();
+            try {
+                target.reset();
+                target.drawBitmap(cache, 0, 0);
+            }
+            finally {
+                target.restore();
+            }
+        }
+        else replay(target, 0, 0, target.getWidth(), target.getHeight());
+    }
+
+    /**
+     * Replays the recorded commands onto the target, skipping drawings whose bounds do not intersect the given area.
+     * The area is expressed in the coordinates of the recording surface, without the recorded transforms.
+     */
+    public void replay(Graphics target, float x, float y, float width, float height) {
+        replay(target, x, y, width, height, null);
+    }
+
+    /**
+     * Replays the given area of the recording surface onto a target of its size, its top left corner at the target origin.
+     * Every recorded transform is translated by the area offset, so recorded clips follow it too,
+     * and colors cleared or drawn over the whole surface cover the whole recording surface rather than the target.
+     */
+    void replayTile(Graphics target, int x, int y, int width, int height) {
+        replay(target, x, y, width, height, Transform.ofTranslate(-x, -y));
+    }
+
+    private void replay(Graphics target, float x, float y, float width, float height, Transform origin) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        Objects.requireNonNull(target);
+        Transform transform = origin == null ? null : Transform.of();
+        float cullLeft = x, cullTop = y, cullRight = x + width, cullBottom = y + height;
+        int replayed = 0, culled = 0;
+        int ip = 0, fp = 0;
+        target.save();
+        try {
+            target.reset();
+            if (origin != null) target.setTransform(origin);
+            while (ip < intCount) {
+                int op = ints[ip ++];
+                if (op < CLIP) {
+                    boolean visible;
+                    float left = floats[fp];
+                    if (Float.isNaN(left)) visible = true;
+                    else visible = !(floats[fp + 2] < cullLeft || left > cullRight || floats[fp + 3] < cullTop || floats[fp + 1] > cullBottom);
+                    fp += 4;
+                    if (visible) replayed ++;
+                    else culled ++;
+                    switch (op) {
+                        case CLEAR_COLOR:
+                            if (!visible) break;
+                            if (origin == null) target.clearColor();
+                            else target.clearRectangle(0, 0, this.width, this.height);    // The whole surface, not the tile
+                            break;
+                        case CLEAR_RECTANGLE:
+                            if (visible) target.clearRectangle(ints[ip], ints[ip + 1], ints[ip + 2], ints[ip + 3]);
+                            ip += 4;
+                            break;
+                        case DRAW_COLOR:
+                            if (!visible) break;
+                            if (origin == null) target.drawColor();
+                            else fillSurface(target);
+                            break;
+                        case POINT:
+                            if (visible) target.drawPoint(floats[fp], floats[fp + 1]);
+                            fp += 2;
+                            break;
+                        case LINE:
+                            if (visible) target.drawLine(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3]);
+                            fp += 4;
+                            break;
+                        case QUAD_LINE:
+                            if (visible) target.drawQuadLine(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3],
+                                    floats[fp + 4], floats[fp + 5]);
+                            fp += 6;
+                            break;
+                        case CUBIC_LINE:
+                            if (visible) target.drawCubicLine(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3],
+                                    floats[fp + 4], floats[fp + 5], floats[fp + 6], floats[fp + 7]);
+                            fp += 8;
+                            break;
+                        case ARC:
+                            if (visible) target.drawArc(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3],
+                                    floats[fp + 4], floats[fp + 5]);
+                            fp += 6;
+                            break;
+                        case CIRCLE:
+                            if (visible) target.drawCircle(floats[fp], floats[fp + 1], floats[fp + 2]);
+                            fp += 3;
+                            break;
+                        case ELLIPSE:
+                            if (visible) target.drawEllipse(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3]);
+                            fp += 4;
+                            break;
+                        case RECTANGLE:
+                            if (visible) target.drawRectangle(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3]);
+                            fp += 4;
+                            break;
+                        case ROUND_RECTANGLE:
+                            if (visible) target.drawRoundRectangle(floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3],
+                                    floats[fp + 4], floats[fp + 5]);
+                            fp += 6;
+                            break;
+                        case BITMAP_TRANSFORM:
+                            if (visible) target.drawBitmap((Bitmap) objects.get(ints[ip]), (Transform) objects.get(ints[ip + 1]));
+                            ip += 2;
+                            break;
+                        case BITMAP:
+                            if (visible) target.drawBitmap((Bitmap) objects.get(ints[ip]), floats[fp], floats[fp + 1]);
+                            ip += 1;
+                            fp += 2;
+                            break;
+                        case BITMAP_RECTANGLE:
+                            if (visible) target.drawBitmap((Bitmap) objects.get(ints[ip]), ints[ip + 1], ints[ip + 2], ints[ip + 3], ints[ip + 4],
+                                    floats[fp], floats[fp + 1], floats[fp + 2], floats[fp + 3]);
+                            ip += 5;
+                            fp += 4;
+                            break;
+                        case BITMAP_FRAME_TRANSFORM:
+                            if (visible) target.drawBitmapFrame((Bitmap.Frame) objects.get(ints[ip]), (Transform) objects.get(ints[ip + 1]));
+                            ip += 2;
+                            break;
+                        case BITMAP_FRAME:
+                            if (visible) target.drawBitmapFrame((Bitmap.Frame) objects.get(ints[ip]), floats[fp], floats[fp + 1]);
+                            ip += 1;
+                            fp += 2;
+                            break;
+                        case PATH_TRANSFORM:
+                            if (visible) target.drawPath((Path) objects.get(ints[ip]), (Transform) objects.get(ints[ip + 1]));
+                            ip += 2;
+                            break;
+                        case PATH:
+                            if (visible) target.drawPath((Path) objects.get(ints[ip]), floats[fp], floats[fp + 1]);
+                            ip += 1;
+                            fp += 2;
+                            break;
+                        case TEXT:
+                            if (visible) {
+                                CharSequence text = (CharSequence) objects.get(ints[ip]);
+                                target.drawText(text, 0, text.length(), floats[fp], floats[fp + 1]);
+                            }
+                            ip += 1;
+                            fp += 2;
+                            break;
+                        case TEXT_TRANSFORM:
+                            if (visible) {
+                                CharSequence text = (CharSequence) objects.get(ints[ip]);
+                                target.drawText(text, 0, text.length(), (Transform) objects.get(ints[ip + 1]));
+                            }
+                            ip += 2;
+                            break;
+                        case TEXT_ON_PATH:
+                            if (visible) {
+                                String text = (String) objects.get(ints[ip]);
+                                target.drawTextOnPath(text, 0, text.length(), (Path) objects.get(ints[ip + 1]),
+                                        floats[fp], floats[fp + 1], floats[fp + 2]);
+                            }
+                            ip += 2;
+                            fp += 3;
+                            break;
+                        case TEXT_ON_PATH_TRANSFORM:
+                            if (visible) {
+                                String text = (String) objects.get(ints[ip]);
+                                target.drawTextOnPath(text, 0, text.length(), (Path) objects.get(ints[ip + 1]),
+                                        floats[fp], (Transform) objects.get(ints[ip + 2]));
+                            }
+                            ip += 3;
+                            fp += 1;
+                            break;
+                        default:
+                            throw new IllegalStateException("Illegal display list opcode: " + op);
+                    }
+                }
+                else {
+                    switch (op) {
+                        case CLIP: target.setClip((Path) objects.get(ints[ip ++])); break;
+                        case TRANSFORM:
+                            if (origin == null) target.setTransform((Transform) objects.get(ints[ip ++]));
+                            else {
+                                Transform recorded = (Transform) objects.get(ints[ip ++]);
+                                if (recorded == null) target.setTransform(origin);
+                                else {
+                                    transform.concatenate(origin, recorded);
+                                    target.setTransform(transform);
+                                }
+                            }
+                            break;
+                        case COMPOSITE: target.setComposite((Composite) objects.get(ints[ip ++])); break;
+                        case BRUSH: target.setBrush((Brush) objects.get(ints[ip ++])); break;
+                        case STYLE: target.setStyle(ints[ip ++]); break;
+                        case STROKE_WIDTH: target.setStrokeWidth(floats[fp ++]); break;
+                        case STROKE_JOIN: target.setStrokeJoin(ints[ip ++]); break;
+                        case STROKE_CAP: target.setStrokeCap(ints[ip ++]); break;
+                        case STROKE_MITER_LIMIT: target.setStrokeMiterLimit(floats[fp ++]); break;
+                        case STROKE_DASH: target.setStrokeDash((float[]) objects.get(ints[ip ++])); break;
+                        case STROKE_DASH_PHASE: target.setStrokeDashPhase(floats[fp ++]); break;
+                        case ANTI_ALIAS: target.setAntiAlias(ints[ip ++] != 0); break;
+                        case IMAGE_SMOOTHING: target.setImageSmoothing(ints[ip ++] != 0); break;
+                        case DITHER: target.setDither(ints[ip ++] != 0); break;
+                        case FONT: target.setFont((Font) objects.get(ints[ip ++])); break;
+                        case TEXT_BACKGROUND: target.setTextBackground((Brush) objects.get(ints[ip ++])); break;
+                        case TEXT_FOREGROUND: target.setTextForeground((Brush) objects.get(ints[ip ++])); break;
+                        case TEXT_SIZE: target.setTextSize(floats[fp ++]); break;
+                        case TEXT_DIRECTION: target.setTextDirection(ints[ip ++]); break;
+                        case TEXT_ALIGNMENT: target.setTextAlignment(ints[ip ++]); break;
+                        case SUBPIXEL_TEXT: target.setSubpixelText(ints[ip ++] != 0); break;
+                        case UNDERLINE_TEXT: target.setUnderlineText(ints[ip ++] != 0); break;
+                        case STRIKE_THROUGH_TEXT: target.setStrikeThroughText(ints[ip ++] != 0); break;
+                        case KERNING_TEXT: target.setKerningText(ints[ip ++] != 0); break;
+                        case VARIANT_LIGATURES_TEXT: target.setVariantLigaturesText(ints[ip ++] != 0); break;
+                        case SUPERSCRIPT_TEXT: target.setSuperscriptText(ints[ip ++]); break;
+                        case LETTER_SPACING: target.setLetterSpacing(floats[fp ++]); break;
+                        case TEXT_SCALE_X: target.setTextScaleX(floats[fp ++]); break;
+                        case TEXT_SCALE_Y: target.setTextScaleY(floats[fp ++]); break;
+                        case TEXT_SKEW_X: target.setTextSkewX(floats[fp ++]); break;
+                        case TEXT_SKEW_Y: target.setTextSkewY(floats[fp ++]); break;
+                        case SHADOW_COLOR: target.setShadowColor(ints[ip ++]); break;
+                        case SHADOW_BLUR: target.setShadowBlur(floats[fp ++]); break;
+                        case SHADOW_OFFSET_X: target.setShadowOffsetX(floats[fp ++]); break;
+                        case SHADOW_OFFSET_Y: target.setShadowOffsetY(floats[fp ++]); break;
+                        default: throw new IllegalStateException("Illegal display list opcode: " + op);
+                    }
+                }
+            }
+        }
+        finally {
+            target.restore();
+        }
+        lastReplayedCount = replayed;
+        lastCulledCount = culled;
+    }
+
+    private void ensureInts(int count) {
+        if (intCount + count > ints.length) ints = Arrays.copyOf(ints, Math.max(ints.length * 2, intCount + count));
+    }
+
+    private void ensureFloats(int count) {
+        if (floatCount + count > floats.length) floats = Arrays.copyOf(floats, Math.max(floats.length * 2, floatCount + count));
+    }
+
+    private void putOp(int op) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        ensureInts(1);
+        ints[intCount ++] = op;
+        commandCount ++;
+        version ++;
+    }
+
+    private void putInt(int value) {
+        ensureInts(1);
+        ints[intCount ++] = value;
+    }
+
+    private void putFloat(float value) {
+        ensureFloats(1);
+        floats[floatCount ++] = value;
+    }
+
+    private void putFloats(float... values) {
+        ensureFloats(values.length);
+        System.arraycopy(values, 0, floats, floatCount, values.length);
+        floatCount += values.length;
+    }
+
+    private void putObject(Object object) {
+        putInt(objects.size());
+        objects.add(object);
+    }
+
+    private void putDrawOp(int op) {
+        putOp(op);
+        drawCount ++;
+    }
+
+    private void putUnbounded() {
+        putFloats(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+    }
+
+    // Device-space bounds of a local rectangle, widened by the stroke and shadow that may draw around it
+    private void putBounds(float x, float y, float width, float height, Transform transform, boolean stroked) {
+        float pad = 0;
+        if (stroked) pad = info.getStrokeWidth() * 0.5f * Math.max(1, info.getStrokeMiterLimit());
+        float left = Math.min(x, x + width) - pad, top = Math.min(y, y + height) - pad;
+        float right = Math.max(x, x + width) + pad, bottom = Math.max(y, y + height) + pad;
+        corners[0] = left; corners[1] = top;
+        corners[2] = right; corners[3] = top;
+        corners[4] = right; corners[5] = bottom;
+        corners[6] = left; corners[7] = bottom;
+        if (transform != null) transform.transformPoints(corners, 0, corners, 0, 4);
+        if (info.getTransform() != null) info.getTransform().transformPoints(corners, 0, corners, 0, 4);
+        left = right = corners[0];
+        top = bottom = corners[1];
+        for (int i = 2; i < 8; i += 2) {
+            left = Math.min(left, corners[i]);
+            right = Math.max(right, corners[i]);
+            top = Math.min(top, corners[i + 1]);
+            bottom = Math.max(bottom, corners[i + 1]);
+        }
+        if (Color.alpha(info.getShadowColor()) != 0) {
+            float blur = info.getShadowBlur() * 2;
+            float offsetX = info.getShadowOffsetX(), offsetY = info.getShadowOffsetY();
+            left += Math.min(0, offsetX) - blur;
+            right += Math.max(0, offsetX) + blur;
+            top += Math.min(0, offsetY) - blur;
+            bottom += Math.max(0, offsetY) + blur;
+        }
+        if (Float.isNaN(left) || Float.isNaN(top) || Float.isNaN(right) || Float.isNaN(bottom)) putUnbounded();
+        else putFloats(left, top, right, bottom);
+    }
+
+    private void putPathBounds(Path path, float x, float y, Transform transform) {
+        RectangleF bounds = new RectangleF();
+        path.getBounds(bounds);
+        putBounds(bounds.getX() + x, bounds.getY() + y, bounds.getWidth(), bounds.getHeight(), transform, info.getStyle() == Style.STROKE);
+    }
+
+    // Fills the whole recording surface like drawColor, unstyled and unshadowed, under the current transform
+    private void fillSurface(Graphics target) {
+        int style = target.getStyle();
+        int shadowColor = target.getShadowColor();
+        target.setStyle(Style.FILL);
+        target.setShadowColor(Color.TRANSPARENT);
+        target.drawRectangle(0, 0, width, height);
+        target.setStyle(style);
+        target.setShadowColor(shadowColor);
+    }
+
+    private static Transform copy(Transform transform) {
+        return transform == null ? null : transform.copy();
+    }
+
+    private static Path copy(Path path) {
+        return path == null ? null : path.copy();
+    }
+
+    // Styled text keeps the span marks over the range, moved to start with it
+    private static CharSequence copy(CharSequence text, int start, int end) {
+        String string = new StringBuilder(end - start).append(text, start, end).toString();
+        if (!(text instanceof Text) || ((Text) text).spanMarks().isEmpty()) return string;
+        List<Text.SpanMark> spanMarks = new ArrayList<>();
+        for (Text.SpanMark spanMark : ((Text) text).spanMarks()) {
+            int spanStart = Math.max(spanMark.getStart(), start);
+            int spanEnd = Math.min(spanMark.getEnd(), end);
+            if (spanStart < spanEnd) spanMarks.add(new Text.SpanMark(spanStart - start, spanEnd - start, spanMark.getAttributes()));
+        }
+        return new Text(string, spanMarks);
+    }
+
+    @Override
+    public int getWidth() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return height;
+    }
+
+    @Override
+    public void clearColor() {
+        putDrawOp(CLEAR_COLOR);
+        putUnbounded();
+    }
+
+    @Override
+    public void clearRectangle(int x, int y, int width, int height) {
+        putDrawOp(CLEAR_RECTANGLE);
+        putBounds(x, y, width, height, null, false);
+        putInt(x);
+        putInt(y);
+        putInt(width);
+        putInt(height);
+    }
+
+    @Override
+    public void drawColor() {
+        putDrawOp(DRAW_COLOR);
+        putUnbounded();
+    }
+
+    @Override
+    public void drawPoint(float x, float y) {
+        putDrawOp(POINT);
+        putBounds(x, y, 0, 0, null, true);
+        putFloats(x, y);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        putDrawOp(LINE);
+        putBounds(x1, y1, x2 - x1, y2 - y1, null, true);
+        putFloats(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawQuadLine(float x1, float y1, float cx1, float cy1, float x2, float y2) {
+        putDrawOp(QUAD_LINE);
+        // The control polygon contains the curve
+        float left = Math.min(x1, Math.min(cx1, x2)), top = Math.min(y1, Math.min(cy1, y2));
+        float right = Math.max(x1, Math.max(cx1, x2)), bottom = Math.max(y1, Math.max(cy1, y2));
+        putBounds(left, top, right - left, bottom - top, null, true);
+        putFloats(x1, y1, cx1, cy1, x2, y2);
+    }
+
+    @Override
+    public void drawCubicLine(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2) {
+        putDrawOp(CUBIC_LINE);
+        float left = Math.min(Math.min(x1, cx1), Math.min(cx2, x2)), top = Math.min(Math.min(y1, cy1), Math.min(cy2, y2));
+        float right = Math.max(Math.max(x1, cx1), Math.max(cx2, x2)), bottom = Math.max(Math.max(y1, cy1), Math.max(cy2, y2));
+        putBounds(left, top, right - left, bottom - top, null, true);
+        putFloats(x1, y1, cx1, cy1, cx2, cy2, x2, y2);
+    }
+
+    @Override
+    public void drawArc(float x, float y, float width, float height, float startAngle, float sweepAngle) {
+        putDrawOp(ARC);
+        putBounds(x, y, width, height, null, true);
+        putFloats(x, y, width, height, startAngle, sweepAngle);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius) {
+        putDrawOp(CIRCLE);
+        putBounds(x - radius, y - radius, radius * 2, radius * 2, null, info.getStyle() == Style.STROKE);
+        putFloats(x, y, radius);
+    }
+
+    @Override
+    public void drawEllipse(float x, float y, float width, float height) {
+        putDrawOp(ELLIPSE);
+        putBounds(x, y, width, height, null, info.getStyle() == Style.STROKE);
+        putFloats(x, y, width, height);
+    }
+
+    @Override
+    public void drawRectangle(float x, float y, float width, float height) {
+        putDrawOp(RECTANGLE);
+        putBounds(x, y, width, height, null, info.getStyle() == Style.STROKE);
+        putFloats(x, y, width, height);
+    }
+
+    @Override
+    public void drawRoundRectangle(float x, float y, float width, float height, float rx, float ry) {
+        putDrawOp(ROUND_RECTANGLE);
+        putBounds(x, y, width, height, null, info.getStyle() == Style.STROKE);
+        putFloats(x, y, width, height, rx, ry);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Transform transform) {
+        putDrawOp(BITMAP_TRANSFORM);
+        putBounds(0, 0, bitmap.getWidth(), bitmap.getHeight(), transform, false);
+        putObject(bitmap);
+        putObject(copy(transform));
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y) {
+        putDrawOp(BITMAP);
+        putBounds(x, y, bitmap.getWidth(), bitmap.getHeight(), null, false);
+        putObject(bitmap);
+        putFloats(x, y);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, int srcX, int srcY, int srcWidth, int srcHeight,
+                           float dstX, float dstY, float dstWidth, float dstHeight) {
+        putDrawOp(BITMAP_RECTANGLE);
+        putBounds(dstX, dstY, dstWidth, dstHeight, null, false);
+        putObject(bitmap);
+        putInt(srcX);
+        putInt(srcY);
+        putInt(srcWidth);
+        putInt(srcHeight);
+        putFloats(dstX, dstY, dstWidth, dstHeight);
+    }
+
+    @Override
+    public void drawBitmapFrame(Bitmap.Frame frame, Transform transform) {
+        putDrawOp(BITMAP_FRAME_TRANSFORM);
+        putUnbounded();
+        putObject(frame);
+        putObject(copy(transform));
+    }
+
+    @Override
+    public void drawBitmapFrame(Bitmap.Frame frame, float x, float y) {
+        putDrawOp(BITMAP_FRAME);
+        putUnbounded();
+        putObject(frame);
+        putFloats(x, y);
+    }
+
+    @Override
+    public void drawPath(Path path, Transform transform) {
+        putDrawOp(PATH_TRANSFORM);
+        putPathBounds(path, 0, 0, transform);
+        putObject(path.copy());
+        putObject(copy(transform));
+    }
+
+    @Override
+    public void drawPath(Path path, float x, float y) {
+        putDrawOp(PATH);
+        putPathBounds(path, x, y, null);
+        putObject(path.copy());
+        putFloats(x, y);
+    }
+
+    // Text bounds depend on shaping and alignment, text is never culled
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        putDrawOp(TEXT);
+        putUnbounded();
+        putObject(copy(text, start, end));
+        putFloats(x, y);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, Transform transform) {
+        putDrawOp(TEXT_TRANSFORM);
+        putUnbounded();
+        putObject(copy(text, start, end));
+        putObject(copy(transform));
+    }
+
+    @Override
+    public void drawText(char[] text, int offset, int length, float x, float y) {
+        putDrawOp(TEXT);
+        putUnbounded();
+        putObject(new String(text, offset, length));
+        putFloats(x, y);
+    }
+
+    @Override
+    public void drawText(char[] text, int offset, int length, Transform transform) {
+        putDrawOp(TEXT_TRANSFORM);
+        putUnbounded();
+        putObject(new String(text, offset, length));
+        putObject(copy(transform));
+    }
+
+    @Override
+    public void drawTextOnPath(String text, int start, int end, Path path, float startOffset, float x, float y) {
+        putDrawOp(TEXT_ON_PATH);
+        putUnbounded();
+        putObject(text.substring(start, end));
+        putObject(path.copy());
+        putFloats(startOffset, x, y);
+    }
+
+    @Override
+    public void drawTextOnPath(char[] text, int offset, int length, Path path, float startOffset, float x, float y) {
+        putDrawOp(TEXT_ON_PATH);
+        putUnbounded();
+        putObject(new String(text, offset, length));
+        putObject(path.copy());
+        putFloats(startOffset, x, y);
+    }
+
+    @Override
+    public void drawTextOnPath(String text, int start, int end, Path path, float startOffset, Transform transform) {
+        putDrawOp(TEXT_ON_PATH_TRANSFORM);
+        putUnbounded();
+        putObject(text.substring(start, end));
+        putObject(path.copy());
+        putObject(copy(transform));
+        putFloat(startOffset);
+    }
+
+    @Override
+    public void drawTextOnPath(char[] text, int offset, int length, Path path, float startOffset, Transform transform) {
+        putDrawOp(TEXT_ON_PATH_TRANSFORM);
+        putUnbounded();
+        putObject(new String(text, offset, length));
+        putObject(path.copy());
+        putObject(copy(transform));
+        putFloat(startOffset);
+    }
+
+    // Text measurement needs a real text engine, it is delegated to a tiny bitmap sharing the recording state
+    private Graphics measureGraphics() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (measureGraphics == null) {
+            measureBitmap = Bitmap.of(1, 1, Bitmap.Type.RGBA_8888);
+            measureGraphics = measureBitmap.getGraphics();
+        }
+        measureGraphics.setInfo(info);
+        return measureGraphics;
+    }
+
+    @Override
+    public float measureText(CharSequence text, int start, int end) {
+        return measureGraphics().measureText(text, start, end);
+    }
+
+    @Override
+    public float measureText(char[] text, int offset, int length) {
+        return measureGraphics().measureText(text, offset, length);
+    }
+
+    @Override
+    public void measureText(CharSequence text, int start, int end, Text.Metrics metrics, RectangleF bounds) {
+        measureGraphics().measureText(text, start, end, metrics, bounds);
+    }
+
+    @Override
+    public void measureText(char[] text, int offset, int length, Text.Metrics metrics, RectangleF bounds) {
+        measureGraphics().measureText(text, offset, length, metrics, bounds);
+    }
+
+    @Override
+    public void hitText(CharSequence text, int start, int end, float xOffset, float yOffset, Text.HitInfo hitInfo) {
+        measureGraphics().hitText(text, start, end, xOffset, yOffset, hitInfo);
+    }
+
+    @Override
+    public void hitText(char[] text, int offset, int length, float xOffset, float yOffset, Text.HitInfo hitInfo) {
+        measureGraphics().hitText(text, offset, length, xOffset, yOffset, hitInfo);
+    }
+
+    @Override
+    public Paragraph multilineText(CharSequence text, int start, int end) {
+        return measureGraphics().multilineText(text, start, end);
+    }
+
+    @Override
+    public Paragraph multilineText(char[] text, int offset, int length) {
+        return measureGraphics().multilineText(text, offset, length);
+    }
+
+    @Override
+    public void getInfo(Info info) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        info.setInfo(this.info);
+    }
+
+    @Override
+    public Path getClip() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getClip();
+    }
+
+    @Override
+    public void setClip(Path clip) {
+        clip = copy(clip);
+        putOp(CLIP);
+        putObject(clip);
+        info.setClip(clip);
+    }
+
+    @Override
+    public Transform getTransform() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTransform();
+    }
+
+    @Override
+    public void setTransform(Transform transform) {
+        transform = copy(transform);
+        putOp(TRANSFORM);
+        putObject(transform);
+        info.setTransform(transform);
+    }
+
+    @Override
+    public Composite getComposite() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getComposite();
+    }
+
+    @Override
+    public void setComposite(Composite composite) {
+        if (info.getComposite() == composite) return;
+        putOp(COMPOSITE);
+        putObject(composite);
+        info.setComposite(composite);
+    }
+
+    @Override
+    public Brush getBrush() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getBrush();
+    }
+
+    @Override
+    public void setBrush(Brush brush) {
+        if (info.getBrush() == brush) return;
+        putOp(BRUSH);
+        putObject(brush);
+        info.setBrush(brush);
+    }
+
+    @Override
+    public int getStyle() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStyle();
+    }
+
+    @Override
+    public void setStyle(int style) {
+        Style.checkValid(style);
+        if (info.getStyle() == style) return;
+        putOp(STYLE);
+        putInt(style);
+        info.setStyle(style);
+    }
+
+    @Override
+    public float getStrokeWidth() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeWidth();
+    }
+
+    @Override
+    public void setStrokeWidth(float width) {
+        if (info.getStrokeWidth() == width) return;
+        putOp(STROKE_WIDTH);
+        putFloat(width);
+        info.setStrokeWidth(width);
+    }
+
+    @Override
+    public int getStrokeJoin() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeJoin();
+    }
+
+    @Override
+    public void setStrokeJoin(int join) {
+        if (info.getStrokeJoin() == join) return;
+        putOp(STROKE_JOIN);
+        putInt(join);
+        info.setStrokeJoin(join);
+    }
+
+    @Override
+    public int getStrokeCap() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeCap();
+    }
+
+    @Override
+    public void setStrokeCap(int cap) {
+        if (info.getStrokeCap() == cap) return;
+        putOp(STROKE_CAP);
+        putInt(cap);
+        info.setStrokeCap(cap);
+    }
+
+    @Override
+    public float getStrokeMiterLimit() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeMiterLimit();
+    }
+
+    @Override
+    public void setStrokeMiterLimit(float miterLimit) {
+        if (info.getStrokeMiterLimit() == miterLimit) return;
+        putOp(STROKE_MITER_LIMIT);
+        putFloat(miterLimit);
+        info.setStrokeMiterLimit(miterLimit);
+    }
+
+    @Override
+    public float[] getStrokeDash() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeDash();
+    }
+
+    @Override
+    public void setStrokeDash(float... dash) {
+        if (Arrays.equals(info.getStrokeDash(), dash)) return;
+        putOp(STROKE_DASH);
+        putObject(dash == null ? null : dash.clone());
+        info.setStrokeDash(dash);
+    }
+
+    @Override
+    public float getStrokeDashPhase() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getStrokeDashPhase();
+    }
+
+    @Override
+    public void setStrokeDashPhase(float dashPhase) {
+        if (info.getStrokeDashPhase() == dashPhase) return;
+        putOp(STROKE_DASH_PHASE);
+        putFloat(dashPhase);
+        info.setStrokeDashPhase(dashPhase);
+    }
+
+    @Override
+    public boolean isAntiAlias() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isAntiAlias();
+    }
+
+    @Override
+    public void setAntiAlias(boolean antiAlias) {
+        if (info.isAntiAlias() == antiAlias) return;
+        putOp(ANTI_ALIAS);
+        putInt(antiAlias ? 1 : 0);
+        info.setAntiAlias(antiAlias);
+    }
+
+    @Override
+    public boolean isImageSmoothing() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isImageSmoothing();
+    }
+
+    @Override
+    public void setImageSmoothing(boolean imageSmoothing) {
+        if (info.isImageSmoothing() == imageSmoothing) return;
+        putOp(IMAGE_SMOOTHING);
+        putInt(imageSmoothing ? 1 : 0);
+        info.setImageSmoothing(imageSmoothing);
+    }
+
+    @Override
+    public boolean isDither() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isDither();
+    }
+
+    @Override
+    public void setDither(boolean dither) {
+        if (info.isDither() == dither) return;
+        putOp(DITHER);
+        putInt(dither ? 1 : 0);
+        info.setDither(dither);
+    }
+
+    @Override
+    public Font getFont() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getFont();
+    }
+
+    @Override
+    public void setFont(Font font) {
+        if (info.getFont() == font) return;
+        putOp(FONT);
+        putObject(font);
+        info.setFont(font);
+    }
+
+    @Override
+    public Brush getTextBackground() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextBackground();
+    }
+
+    @Override
+    public void setTextBackground(Brush textBackground) {
+        if (info.getTextBackground() == textBackground) return;
+        putOp(TEXT_BACKGROUND);
+        putObject(textBackground);
+        info.setTextBackground(textBackground);
+    }
+
+    @Override
+    public Brush getTextForeground() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextForeground();
+    }
+
+    @Override
+    public void setTextForeground(Brush textForeground) {
+        if (info.getTextForeground() == textForeground) return;
+        putOp(TEXT_FOREGROUND);
+        putObject(textForeground);
+        info.setTextForeground(textForeground);
+    }
+
+    @Override
+    public float getTextSize() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextSize();
+    }
+
+    @Override
+    public void setTextSize(float size) {
+        if (info.getTextSize() == size) return;
+        putOp(TEXT_SIZE);
+        putFloat(size);
+        info.setTextSize(size);
+    }
+
+    @Override
+    public int getTextDirection() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextDirection();
+    }
+
+    @Override
+    public void setTextDirection(int direction) {
+        if (info.getTextDirection() == direction) return;
+        putOp(TEXT_DIRECTION);
+        putInt(direction);
+        info.setTextDirection(direction);
+    }
+
+    @Override
+    public int getTextAlignment() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextAlignment();
+    }
+
+    @Override
+    public void setTextAlignment(int alignment) {
+        if (info.getTextAlignment() == alignment) return;
+        putOp(TEXT_ALIGNMENT);
+        putInt(alignment);
+        info.setTextAlignment(alignment);
+    }
+
+    @Override
+    public boolean isSubpixelText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isSubpixelText();
+    }
+
+    @Override
+    public void setSubpixelText(boolean subpixelText) {
+        if (info.isSubpixelText() == subpixelText) return;
+        putOp(SUBPIXEL_TEXT);
+        putInt(subpixelText ? 1 : 0);
+        info.setSubpixelText(subpixelText);
+    }
+
+    @Override
+    public boolean isUnderlineText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isUnderlineText();
+    }
+
+    @Override
+    public void setUnderlineText(boolean underlineText) {
+        if (info.isUnderlineText() == underlineText) return;
+        putOp(UNDERLINE_TEXT);
+        putInt(underlineText ? 1 : 0);
+        info.setUnderlineText(underlineText);
+    }
+
+    @Override
+    public boolean isStrikeThroughText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isStrikeThroughText();
+    }
+
+    @Override
+    public void setStrikeThroughText(boolean strikeThroughText) {
+        if (info.isStrikeThroughText() == strikeThroughText) return;
+        putOp(STRIKE_THROUGH_TEXT);
+        putInt(strikeThroughText ? 1 : 0);
+        info.setStrikeThroughText(strikeThroughText);
+    }
+
+    @Override
+    public boolean isKerningText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isKerningText();
+    }
+
+    @Override
+    public void setKerningText(boolean kerningText) {
+        if (info.isKerningText() == kerningText) return;
+        putOp(KERNING_TEXT);
+        putInt(kerningText ? 1 : 0);
+        info.setKerningText(kerningText);
+    }
+
+    @Override
+    public boolean isVariantLigaturesText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.isVariantLigaturesText();
+    }
+
+    @Override
+    public void setVariantLigaturesText(boolean variantLigaturesText) {
+        if (info.isVariantLigaturesText() == variantLigaturesText) return;
+        putOp(VARIANT_LIGATURES_TEXT);
+        putInt(variantLigaturesText ? 1 : 0);
+        info.setVariantLigaturesText(variantLigaturesText);
+    }
+
+    @Override
+    public int getSuperscriptText() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getSuperscriptText();
+    }
+
+    @Override
+    public void setSuperscriptText(int superscriptText) {
+        if (info.getSuperscriptText() == superscriptText) return;
+        putOp(SUPERSCRIPT_TEXT);
+        putInt(superscriptText);
+        info.setSuperscriptText(superscriptText);
+    }
+
+    @Override
+    public float getLetterSpacing() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getLetterSpacing();
+    }
+
+    @Override
+    public void setLetterSpacing(float letterSpacing) {
+        if (info.getLetterSpacing() == letterSpacing) return;
+        putOp(LETTER_SPACING);
+        putFloat(letterSpacing);
+        info.setLetterSpacing(letterSpacing);
+    }
+
+    @Override
+    public void setTextScaleX(float scaleX) {
+        if (info.getTextScaleX() == scaleX) return;
+        putOp(TEXT_SCALE_X);
+        putFloat(scaleX);
+        info.setTextScaleX(scaleX);
+    }
+
+    @Override
+    public void setTextScaleY(float scaleY) {
+        if (info.getTextScaleY() == scaleY) return;
+        putOp(TEXT_SCALE_Y);
+        putFloat(scaleY);
+        info.setTextScaleY(scaleY);
+    }
+
+    @Override
+    public float getTextScaleX() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextScaleX();
+    }
+
+    @Override
+    public float getTextScaleY() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextScaleY();
+    }
+
+    @Override
+    public void getTextScale(float[] scale, int offset) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        info.getTextScale(scale, offset);
+    }
+
+    @Override
+    public void setTextSkewX(float skewX) {
+        if (info.getTextSkewX() == skewX) return;
+        putOp(TEXT_SKEW_X);
+        putFloat(skewX);
+        info.setTextSkewX(skewX);
+    }
+
+    @Override
+    public void setTextSkewY(float skewY) {
+        if (info.getTextSkewY() == skewY) return;
+        putOp(TEXT_SKEW_Y);
+        putFloat(skewY);
+        info.setTextSkewY(skewY);
+    }
+
+    @Override
+    public float getTextSkewX() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextSkewX();
+    }
+
+    @Override
+    public float getTextSkewY() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getTextSkewY();
+    }
+
+    @Override
+    public void getTextSkew(float[] skew, int offset) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        info.getTextSkew(skew, offset);
+    }
+
+    @Override
+    public int getShadowColor() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getShadowColor();
+    }
+
+    @Override
+    public void setShadowColor(int color) {
+        if (info.getShadowColor() == color) return;
+        putOp(SHADOW_COLOR);
+        putInt(color);
+        info.setShadowColor(color);
+    }
+
+    @Override
+    public float getShadowBlur() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getShadowBlur();
+    }
+
+    @Override
+    public void setShadowBlur(float blur) {
+        if (info.getShadowBlur() == blur) return;
+        putOp(SHADOW_BLUR);
+        putFloat(blur);
+        info.setShadowBlur(blur);
+    }
+
+    @Override
+    public void setShadowOffsetX(float offsetX) {
+        if (info.getShadowOffsetX() == offsetX) return;
+        putOp(SHADOW_OFFSET_X);
+        putFloat(offsetX);
+        info.setShadowOffsetX(offsetX);
+    }
+
+    @Override
+    public void setShadowOffsetY(float offsetY) {
+        if (info.getShadowOffsetY() == offsetY) return;
+        putOp(SHADOW_OFFSET_Y);
+        putFloat(offsetY);
+        info.setShadowOffsetY(offsetY);
+    }
+
+    @Override
+    public float getShadowOffsetX() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getShadowOffsetX();
+    }
+
+    @Override
+    public float getShadowOffsetY() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return info.getShadowOffsetY();
+    }
+
+    @Override
+    public Graphics slice(int x, int y, int width, int height) {
+        throw new UnsupportedOperationException("Display lists cannot be sliced");
+    }
+
+    @Override
+    public Graphics duplicate() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        DisplayList duplicate = new DisplayList(width, height);
+        duplicate.ints = Arrays.copyOf(ints, Math.max(intCount, 1));
+        duplicate.intCount = intCount;
+        duplicate.floats = Arrays.copyOf(floats, Math.max(floatCount, 1));
+        duplicate.floatCount = floatCount;
+        duplicate.objects.addAll(objects);
+        duplicate.commandCount = commandCount;
+        duplicate.drawCount = drawCount;
+        duplicate.info.setInfo(info);
+        return duplicate;
+    }
+
+    @Override
+    public Graphics attachment() {
+        return null;
+    }
+
+    private void disposeCache() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+            cacheVersion = -1;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed) return;
+        disposed = true;
+        objects.clear();
+        disposeCache();
+        if (measureBitmap != null) {
+            measureBitmap.dispose();
+            measureBitmap = null;
+            measureGraphics = null;
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+}
@@ -117,6 +117,10 @@ public abstract class Drawing {
 
     public abstract Bitmap createBitmap(int width, int height, int type);
 
+    public DisplayList createDisplayList(int width, int height) {
+        return new DisplayList(width, height);
+    }
+
     public Bitmap readBitmap(File input) throws IOException {
         return readBitmap(input, -1);
     }
@@ -147,6 +151,48 @@ public abstract class Drawing {
         }
         throw new UnsupportedFormatException();
     }
+    public Bitmap readBitmap(File input, int type, Bitmap.ReadOptions options) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Bitmap bitmap = handler.read(input, type, options);
+            if (bitmap != null) return bitmap;
+        }
+        throw new UnsupportedFormatException();
+    }
+    public Bitmap readBitmap(InputStream input, int type, Bitmap.ReadOptions options) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Bitmap bitmap = handler.read(input, type, options);
+            if (bitmap != null) return bitmap;
+        }
+        throw new UnsupportedFormatException();
+    }
+    public Bitmap readBitmap(Asset input, int type, Bitmap.ReadOptions options) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Bitmap bitmap = handler.read(input, type, options);
+            if (bitmap != null) return bitmap;
+        }
+        throw new UnsupportedFormatException();
+    }
+    public Dimension readBitmapSize(File input) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Dimension size = handler.readSize(input);
+            if (size != null) return size;
+        }
+        throw new UnsupportedFormatException();
+    }
+    public Dimension readBitmapSize(InputStream input) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Dimension size = handler.readSize(input);
+            if (size != null) return size;
+        }
+        throw new UnsupportedFormatException();
+    }
+    public Dimension readBitmapSize(Asset input) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            Dimension size = handler.readSize(input);
+            if (size != null) return size;
+        }
+        throw new UnsupportedFormatException();
+    }
     public void writeBitmap(Bitmap bitmap, File output, String format, float quality) throws IOException {
         for (Bitmap.Handler handler : bitmapHandlers()) {
             if (handler.write(bitmap, output, format, quality)) return;
@@ -220,6 +266,27 @@ public abstract class Drawing {
     public Bitmap.MultiFrame readBitmapMultiFrame(Asset input, int[] types) throws IOException {
         return readBitmapMultiFrame(input, types, 0);
     }
+    public LazyMultiFrame readBitmapLazyMultiFrame(File input, int type, int windowSize, int decodeAhead) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            LazyMultiFrame.Decoder decoder = handler.readFrameDecoder(input, type);
+            if (decoder != null) return new LazyMultiFrame(decoder, windowSize, decodeAhead);
+        }
+        throw new UnsupportedFormatException();
+    }
+    public LazyMultiFrame readBitmapLazyMultiFrame(InputStream input, int type, int windowSize, int decodeAhead) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            LazyMultiFrame.Decoder decoder = handler.readFrameDecoder(input, type);
+            if (decoder != null) return new LazyMultiFrame(decoder, windowSize, decodeAhead);
+        }
+        throw new UnsupportedFormatException();
+    }
+    public LazyMultiFrame readBitmapLazyMultiFrame(Asset input, int type, int windowSize, int decodeAhead) throws IOException {
+        for (Bitmap.Handler handler : bitmapHandlers()) {
+            LazyMultiFrame.Decoder decoder = handler.readFrameDecoder(input, type);
+            if (decoder != null) return new LazyMultiFrame(decoder, windowSize, decodeAhead);
+        }
+        throw new UnsupportedFormatException();
+    }
     public void writeBitmapMultiFrame(Bitmap.MultiFrame frames, File output, String format, float quality) throws IOException {
         for (Bitmap.Handler handler : bitmapHandlers()) {
             if (handler.writeMultiFrame(frames, output, format, quality)) return;
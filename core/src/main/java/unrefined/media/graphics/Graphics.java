@@ -788,13 +788,40 @@ public abstract class Graphics implements Disposable, Resettable {
     public abstract void clearRectangle(int x, int y, int width, int height);
     public abstract void drawColor();
     public abstract void drawPoint(float x, float y);
+    public void drawPoints(float[] points, int offset, int count) {
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 2;
+            drawPoint(points[index], points[index + 1]);
+        }
+    }
+    public void drawPoints(float[] points) {
+        drawPoints(points, 0, points.length / 2);
+    }
     public abstract void drawLine(float x1, float y1, float x2, float y2);
+    public void drawLines(float[] lines, int offset, int count) {
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 4;
+            drawLine(lines[index], lines[index + 1], lines[index + 2], lines[index + 3]);
+        }
+    }
+    public void drawLines(float[] lines) {
+        drawLines(lines, 0, lines.length / 4);
+    }
     public abstract void drawQuadLine(float x1, float y1, float cx1, float cy1, float x2, float y2);
     public abstract void drawCubicLine(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2);
     public abstract void drawArc(float x, float y, float width, float height, float startAngle, float sweepAngle);
     public abstract void drawCircle(float x, float y, float radius);
     public abstract void drawEllipse(float x, float y, float width, float height);
     public abstract void drawRectangle(float x, float y, float width, float height);
+    public void drawRectangles(float[] rectangles, int offset, int count) {
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 4;
+            drawRectangle(rectangles[index], rectangles[index + 1], rectangles[index + 2], rectangles[index + 3]);
+        }
+    }
+    public void drawRectangles(float[] rectangles) {
+        drawRectangles(rectangles, 0, rectangles.length / 4);
+    }
     public abstract void drawRoundRectangle(float x, float y, float width, float height, float rx, float ry);
     public void drawRoundRectangle(float x, float y, float width, float height, float r) {
         drawRoundRectangle(x, y, width, height, r, r);
@@ -805,6 +832,19 @@ public abstract class Graphics implements Disposable, Resettable {
         drawBitmap(bitmap, null);
     }
     public abstract void drawBitmap(Bitmap bitmap, float x, float y);
+    public abstract void drawBitmap(Bitmap bitmap, int srcX, int srcY, int srcWidth, int srcHeight,
+                                    float dstX, float dstY, float dstWidth, float dstHeight);
+    public void drawBitmap(Bitmap bitmap, int srcX, int srcY, int srcWidth, int srcHeight, float dstX, float dstY) {
+        drawBitmap(bitmap, srcX, srcY, srcWidth, srcHeight, dstX, dstY, srcWidth, srcHeight);
+    }
+    public void drawBitmapBatch(Bitmap bitmap, int[] srcRects, int srcRectsOffset, float[] dstRects, int dstRectsOffset, int count) {
+        for (int i = 0; i < count; i ++) {
+            int srcIndex = srcRectsOffset + i * 4;
+            int dstIndex = dstRectsOffset + i * 4;
+            drawBitmap(bitmap, srcRects[srcIndex], srcRects[srcIndex + 1], srcRects[srcIndex + 2], srcRects[srcIndex + 3],
+                    dstRects[dstIndex], dstRects[dstIndex + 1], dstRects[dstIndex + 2], dstRects[dstIndex + 3]);
+        }
+    }
     public abstract void drawBitmapFrame(Bitmap.Frame frame, Transform transform);
     public void drawBitmapFrame(Bitmap.Frame frame) {
         drawBitmapFrame(frame, null);
@@ -0,0 +1,325 @@
+package unrefined.media.graphics;
+
+import unrefined.io.Disposable;
+import unrefined.util.AlreadyDisposedException;
+import unrefined.util.LruCache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A multi-frame bitmap whose frames are decoded and composed on demand.
+ * Only a bounded window of composed frames is retained; frames may be composed ahead of time on a background thread.
+ */
+public class LazyMultiFrame implements Disposable {
+
+    public static abstract class Decoder implements Disposable {
+
+        public static Decoder of(Bitmap.MultiFrame frames) {
+            Objects.requireNonNull(frames);
+            return new Decoder() {
+                private final AtomicBoolean disposed = new AtomicBoolean(false);
+                @Override
+                public int getFrameCount() {
+                    return frames.size();
+                }
+                @Override
+                public int getLooping() {
+                    return frames.getLooping();
+                }
+                @Override
+                public int getWidth() {
+                    return frames.getCompatibleWidth();
+                }
+                @Override
+                public int getHeight() {
+                    return frames.getCompatibleHeight();
+                }
+                @Override
+                public int getType() {
+                    return frames.getCompatibleType();
+                }
+                @Override
+                public long getDuration(int index) {
+                    return frames.get(index).getDuration();
+                }
+                @Override
+                public Bitmap.Frame decode(int index) {
+                    return frames.get(index);
+                }
+                @Override
+                public void recycle(Bitmap.Frame frame) {
+                }
+                @Override
+                public void dispose() {
+                    if (disposed.compareAndSet(false, true)) {
+                        for (Bitmap.Frame frame : frames) {
+                            frame.getBitmap().dispose();
+                        }
+                    }
+                }
+                @Override
+                public boolean isDisposed() {
+                    return disposed.get();
+                }
+            };
+        }
+
+        public abstract int getFrameCount();
+        public abstract int getLooping();
+        public abstract int getWidth();
+        public abstract int getHeight();
+        public abstract int getType();
+        public abstract long getDuration(int index);
+        public abstract Bitmap.Frame decode(int index) throws IOException;
+        public void recycle(Bitmap.Frame frame) {
+            frame.getBitmap().dispose();
+        }
+
+    }
+
+    private static final ExecutorService DECODE_AHEAD_EXECUTOR = new ThreadPoolExecutor(0,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "LazyMultiFrame");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Decoder decoder;
+    private final int frameCount;
+    private final int width, height, type;
+    private final int decodeAhead;
+    private final LruCache<Integer, Bitmap> window;
+    private final Object lock = new Object();
+    private final AtomicBoolean prefetching = new AtomicBoolean(false);
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    // Composition state: the canvas after drawing frame canvasIndex, before its disposal is applied
+    private final int[] canvas;
+    private int[] previous;
+    private int[] framePixels;
+    private int canvasIndex = -1;
+    private final int[] disposalModes;
+    private final int[] disposalRects;
+
+    private volatile int decodeCount = 0;
+    private volatile int hitCount = 0;
+    private volatile int missCount = 0;
+
+    public LazyMultiFrame(Decoder decoder, int windowSize, int decodeAhead) {
+        this.decoder = Objects.requireNonNull(decoder);
+        if (windowSize < 1) throw new IllegalArgumentException("windowSize < 1");
+        if (decodeAhead < 0) throw new IllegalArgumentException("decodeAhead < 0");
+        this.frameCount = decoder.getFrameCount();
+        this.width = decoder.getWidth();
+        this.height = decoder.getHeight();
+        this.type = decoder.getType();
+        this.decodeAhead = Math.min(decodeAhead, windowSize - 1);
+        this.window = new LruCache<>(windowSize);
+        this.canvas = new int[width * height];
+        this.disposalModes = new int[frameCount];
+        this.disposalRects = new int[frameCount * 4];
+        Arrays.fill(disposalModes, -1);
+    }
+
+    public LazyMultiFrame(Decoder decoder) {
+        this(decoder, 4, 1);
+    }
+
+    public int size() {
+        return frameCount;
+    }
+
+    public int getLooping() {
+        return decoder.getLooping();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getDuration(int index) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return decoder.getDuration(index);
+    }
+
+    /**
+     * Returns the fully composed canvas for the frame at index.
+     * The bitmap is shared with the frame window and must not be disposed or modified by the caller.
+     */
+    public Bitmap getFrame(int index) throws IOException {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (index < 0 || index >= frameCount) throw new IndexOutOfBoundsException("Index out of range: " + index);
+        Bitmap bitmap;
+        synchronized (lock) {
+            bitmap = window.get(index);
+            if (bitmap == null) {
+                missCount ++;
+                bitmap = compose(index);
+            }
+            else hitCount ++;
+        }
+        if (decodeAhead > 0 && frameCount > 1) prefetch(index);
+        return bitmap;
+    }
+
+    public int getDecodeCount() {
+        return decodeCount;
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private void prefetch(int index) {
+        if (!prefetching.compareAndSet(false, true)) return;
+        DECODE_AHEAD_EXECUTOR.execute(() -> {
+            try {
+                for (int i = 1; i <= decodeAhead; i ++) {
+                    if (isDisposed()) break;
+                    int next = (index + i) % frameCount;
+                    synchronized (lock) {
+                        if (isDisposed()) break;
+                        if (window.get(next) == null) compose(next);
+                    }
+                }
+            }
+            catch (IOException | RuntimeException ignored) {
+                // Surfaced again by the foreground getFrame call of the same index
+            }
+            finally {
+                prefetching.set(false);
+            }
+        });
+    }
+
+    private Bitmap compose(int index) throws IOException {
+        if (canvasIndex >= index) restart(index);
+        while (canvasIndex < index) {
+            step(canvasIndex + 1);
+        }
+        Bitmap bitmap = Bitmap.of(width, height, type);
+        bitmap.setPixels(canvas, 0, width, 0, 0, width, height);
+        window.put(index, bitmap);
+        return bitmap;
+    }
+
+    // Resumes from the latest windowed frame before index whose disposal does not depend on earlier state
+    private void restart(int index) {
+        for (int i = index - 1; i >= 0; i --) {
+            if (disposalModes[i] == Bitmap.DisposalMode.NONE || disposalModes[i] == Bitmap.DisposalMode.BACKGROUND) {
+                Bitmap bitmap = window.get(i);
+                if (bitmap != null) {
+                    bitmap.getPixels(canvas, 0, width, 0, 0, width, height);
+                    canvasIndex = i;
+                    return;
+                }
+            }
+        }
+        Arrays.fill(canvas, 0);
+        canvasIndex = -1;
+    }
+
+    private void step(int index) throws IOException {
+        if (canvasIndex >= 0) {
+            int rect = canvasIndex * 4;
+            switch (disposalModes[canvasIndex]) {
+                case Bitmap.DisposalMode.BACKGROUND:
+                    for (int y = disposalRects[rect + 1]; y < disposalRects[rect + 3]; y ++) {
+                        Arrays.fill(canvas, y * width + disposalRects[rect], y * width + disposalRects[rect + 2], 0);
+                    }
+                    break;
+                case Bitmap.DisposalMode.PREVIOUS:
+                    System.arraycopy(previous, 0, canvas, 0, canvas.length);
+                    break;
+            }
+        }
+        Bitmap.Frame frame = decoder.decode(index);
+        decodeCount ++;
+        try {
+            Bitmap bitmap = frame.getBitmap();
+            int frameWidth = bitmap.getWidth();
+            int frameHeight = bitmap.getHeight();
+            int x1 = Math.max(0, frame.getHotSpotX());
+            int y1 = Math.max(0, frame.getHotSpotY());
+            int x2 = Math.min(width, frame.getHotSpotX() + frameWidth);
+            int y2 = Math.min(height, frame.getHotSpotY() + frameHeight);
+            int rect = index * 4;
+            disposalModes[index] = frame.getDisposalMode();
+            disposalRects[rect] = x1;
+            disposalRects[rect + 1] = y1;
+            disposalRects[rect + 2] = Math.max(x1, x2);
+            disposalRects[rect + 3] = Math.max(y1, y2);
+            if (frame.getDisposalMode() == Bitmap.DisposalMode.PREVIOUS) {
+                if (previous == null) previous = new int[canvas.length];
+                System.arraycopy(canvas, 0, previous, 0, canvas.length);
+            }
+            if (x2 <= x1 || y2 <= y1) return;
+            int regionWidth = x2 - x1;
+            if (framePixels == null || framePixels.length < regionWidth) framePixels = new int[Math.max(regionWidth, width)];
+            boolean over = frame.getBlendMode() == Bitmap.BlendMode.OVER;
+            for (int y = y1; y < y2; y ++) {
+                bitmap.getPixels(framePixels, 0, regionWidth, x1 - frame.getHotSpotX(), y - frame.getHotSpotY(), regionWidth, 1);
+                int offset = y * width + x1;
+                if (over) {
+                    for (int x = 0; x < regionWidth; x ++) {
+                        canvas[offset + x] = blendOver(framePixels[x], canvas[offset + x]);
+                    }
+                }
+                else System.arraycopy(framePixels, 0, canvas, offset, regionWidth);
+            }
+        }
+        finally {
+            canvasIndex = index;
+            decoder.recycle(frame);
+        }
+    }
+
+    private static int blendOver(int src, int dst) {
+        int sa = src >>> 24;
+        if (sa == 0xFF) return src;
+        if (sa == 0) return dst;
+        int da = dst >>> 24;
+        int a = sa + da * (255 - sa) / 255;
+        if (a == 0) return 0;
+        int r = (((src >>> 16) & 0xFF) * sa + ((dst >>> 16) & 0xFF) * da * (255 - sa) / 255) / a;
+        int g = (((src >>> 8) & 0xFF) * sa + ((dst >>> 8) & 0xFF) * da * (255 - sa) / 255) / a;
+        int b = ((src & 0xFF) * sa + (dst & 0xFF) * da * (255 - sa) / 255) / a;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            synchronized (lock) {
+                window.evictAll();
+                decoder.dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+}
@@ -45,11 +45,12 @@ public abstract class Path implements Cacheable {
         public static final int LINE_TO = 1;
         public static final int QUAD_TO = 2;
         public static final int CUBIC_TO = 3;
+        public static final int CLOSE = 4;
         public static boolean isValid(int type) {
-            return type >= MOVE_TO && type <= CUBIC_TO;
+            return type >= MOVE_TO && type <= CLOSE;
         }
         public static int checkValid(int type) {
-            if (type < MOVE_TO || type > CUBIC_TO) throw new IllegalArgumentException("Illegal segment type: " + type);
+            if (type < MOVE_TO || type > CLOSE) throw new IllegalArgumentException("Illegal segment type: " + type);
             else return type;
         }
         public static String toString(int type) {
@@ -58,6 +59,16 @@ public abstract class Path implements Cacheable {
                 case LINE_TO: return "LINE_TO";
                 case QUAD_TO: return "QUAD_TO";
                 case CUBIC_TO: return "CUBIC_TO";
+                case CLOSE: return "CLOSE";
+                default: throw new IllegalArgumentException("Illegal segment type: " + type);
+            }
+        }
+        public static int getCoordCount(int type) {
+            switch (type) {
+                case MOVE_TO: case LINE_TO: return 2;
+                case QUAD_TO: return 4;
+                case CUBIC_TO: return 6;
+                case CLOSE: return 0;
                 default: throw new IllegalArgumentException("Illegal segment type: " + type);
             }
         }
@@ -99,10 +110,63 @@ public abstract class Path implements Cacheable {
             case LINE_TO: lineTo(coords[0], coords[1]); break;
             case QUAD_TO: quadTo(coords[0], coords[1], coords[2], coords[3]); break;
             case CUBIC_TO: cubicTo(coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]); break;
+            case CLOSE: close(); break;
             default: throw new IllegalArgumentException("Illegal segment type: " + type);
         }
     }
 
+    /**
+     * Appends a polyline of {@code count} points, stored as x, y pairs starting at {@code offset}.
+     */
+    public void addPolyline(float[] points, int offset, int count, boolean close) {
+        if (count < 1) return;
+        moveTo(points[offset], points[offset + 1]);
+        for (int i = 1; i < count; i ++) {
+            int index = offset + i * 2;
+            lineTo(points[index], points[index + 1]);
+        }
+        if (close) close();
+    }
+    public void addPolyline(float[] points, boolean close) {
+        addPolyline(points, 0, points.length / 2, close);
+    }
+
+    /**
+     * Appends {@code count} segments; every type consumes {@link SegmentType#getCoordCount(int)} coords in order.
+     */
+    public void addSegments(byte[] types, int typesOffset, float[] coords, int coordsOffset, int count) {
+        for (int i = 0; i < count; i ++) {
+            int type = types[typesOffset + i];
+            switch (type) {
+                case MOVE_TO: moveTo(coords[coordsOffset], coords[coordsOffset + 1]); break;
+                case LINE_TO: lineTo(coords[coordsOffset], coords[coordsOffset + 1]); break;
+                case QUAD_TO: quadTo(coords[coordsOffset], coords[coordsOffset + 1], coords[coordsOffset + 2], coords[coordsOffset + 3]); break;
+                case CUBIC_TO: cubicTo(coords[coordsOffset], coords[coordsOffset + 1], coords[coordsOffset + 2], coords[coordsOffset + 3],
+                        coords[coordsOffset + 4], coords[coordsOffset + 5]); break;
+                case CLOSE: close(); break;
+                default: throw new IllegalArgumentException("Illegal segment type: " + type);
+            }
+            coordsOffset += SegmentType.getCoordCount(type);
+        }
+    }
+    public void addSegments(byte[] types, float[] coords) {
+        addSegments(types, 0, coords, 0, types.length);
+    }
+
+    public abstract int getSegmentCount();
+    public abstract int getCoordCount();
+
+    /**
+     * Dumps the segments of this path, the reverse of {@link #addSegments(byte[], int, float[], int, int)}.
+     * The arrays must hold at least {@link #getSegmentCount()} types and {@link #getCoordCount()} coords.
+     *
+     * @return the number of segments written
+     */
+    public abstract int getSegments(byte[] types, int typesOffset, float[] coords, int coordsOffset);
+    public int getSegments(byte[] types, float[] coords) {
+        return getSegments(types, 0, coords, 0);
+    }
+
     public abstract void arcTo(float x, float y, float width, float height, float startAngle, float sweepAngle);
 
     public void rMoveTo(float dx, float dy) {
@@ -123,6 +187,7 @@ public abstract class Path implements Cacheable {
             case LINE_TO: rLineTo(coords[0], coords[1]); break;
             case QUAD_TO: rQuadTo(coords[0], coords[1], coords[2], coords[3]); break;
             case CUBIC_TO: rCubicTo(coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]); break;
+            case CLOSE: close(); break;
             default: throw new IllegalArgumentException("Illegal segment type: " + type);
         }
     }
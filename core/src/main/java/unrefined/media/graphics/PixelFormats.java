@@ -0,0 +1,226 @@
+package unrefined.media.graphics;
+
+import unrefined.util.NotInstantiableError;
+
+/**
+ * Bulk conversions between packed pixel formats, working on whole arrays without going through a {@link Graphics}.
+ * Colors are ARGB ints, as everywhere in {@link Bitmap}, non-premultiplied unless stated otherwise.
+ * Every method converts {@code length} pixels; when the source and destination arrays have the same element type,
+ * they may be the same array at the same offset.
+ */
+public final class PixelFormats {
+
+    private PixelFormats() {
+        throw new NotInstantiableError(PixelFormats.class);
+    }
+
+    // round(c * 255 / a) for every alpha and channel, indexed by (a << 8) | c
+    private static final byte[] UNPREMULTIPLY = new byte[256 * 256];
+    // round(c * 255 / 31) and round(c * 255 / 63), as the color model of a 565 image expands channels
+    private static final int[] EXPAND_5 = new int[32];
+    private static final int[] EXPAND_6 = new int[64];
+    private static final byte[] SRGB_TO_LINEAR_8 = new byte[256];
+    private static final byte[] LINEAR_TO_SRGB_8 = new byte[256];
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+    private static final int LINEAR_TO_SRGB_BITS = 12;
+    private static final byte[] LINEAR_TO_SRGB = new byte[(1 << LINEAR_TO_SRGB_BITS) + 1];
+    static {
+        for (int a = 1; a < 256; a ++) {
+            for (int c = 0; c < 256; c ++) {
+                UNPREMULTIPLY[(a << 8) | c] = (byte) Math.min(255, (c * 255 + a / 2) / a);
+            }
+        }
+        for (int c = 0; c < 32; c ++) {
+            EXPAND_5[c] = (c * 255 + 15) / 31;
+        }
+        for (int c = 0; c < 64; c ++) {
+            EXPAND_6[c] = (c * 255 + 31) / 63;
+        }
+        for (int c = 0; c < 256; c ++) {
+            float linear = srgbToLinear(c / 255f);
+            SRGB_TO_LINEAR[c] = linear;
+            SRGB_TO_LINEAR_8[c] = (byte) Math.round(linear * 255f);
+            LINEAR_TO_SRGB_8[c] = (byte) Math.round(linearToSrgb(c / 255f) * 255f);
+        }
+        for (int i = 0; i < LINEAR_TO_SRGB.length; i ++) {
+            LINEAR_TO_SRGB[i] = (byte) Math.round(linearToSrgb(i / (float) (1 << LINEAR_TO_SRGB_BITS)) * 255f);
+        }
+    }
+
+    private static float srgbToLinear(float c) {
+        return c <= 0.04045f ? c / 12.92f : (float) Math.pow((c + 0.055f) / 1.055f, 2.4);
+    }
+
+    private static float linearToSrgb(float c) {
+        return c <= 0.0031308f ? c * 12.92f : (float) (1.055 * Math.pow(c, 1 / 2.4) - 0.055);
+    }
+
+    // Exact round(a * c / 255)
+    private static int multiply(int a, int c) {
+        int t = a * c + 128;
+        return (t + (t >>> 8)) >>> 8;
+    }
+
+    public static void premultiply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            int a = color >>> 24;
+            if (a == 255) dst[dstOffset + i] = color;
+            else if (a == 0) dst[dstOffset + i] = 0;
+            else dst[dstOffset + i] = (a << 24)
+                    | (multiply(a, (color >>> 16) & 0xFF) << 16)
+                    | (multiply(a, (color >>> 8) & 0xFF) << 8)
+                    | multiply(a, color & 0xFF);
+        }
+    }
+
+    public static void unpremultiply(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            int a = color >>> 24;
+            if (a == 255) dst[dstOffset + i] = color;
+            else if (a == 0) dst[dstOffset + i] = 0;
+            else {
+                int row = a << 8;
+                dst[dstOffset + i] = (a << 24)
+                        | ((UNPREMULTIPLY[row | ((color >>> 16) & 0xFF)] & 0xFF) << 16)
+                        | ((UNPREMULTIPLY[row | ((color >>> 8) & 0xFF)] & 0xFF) << 8)
+                        | (UNPREMULTIPLY[row | (color & 0xFF)] & 0xFF);
+            }
+        }
+    }
+
+    public static void argbToRgba(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            dst[dstOffset + i] = (color << 8) | (color >>> 24);
+        }
+    }
+
+    public static void rgbaToArgb(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            dst[dstOffset + i] = (color >>> 8) | (color << 24);
+        }
+    }
+
+    /**
+     * Packs to {@link Bitmap.Type#RGB_565}, composited over black as drawing onto an opaque bitmap does.
+     * Channels are truncated, as by the Java2D loops.
+     */
+    public static void packRGB565(int[] src, int srcOffset, short[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            int a = color >>> 24;
+            // Branch free, multiplying by an opaque alpha changes nothing
+            int r = multiply(a, (color >>> 16) & 0xFF);
+            int g = multiply(a, (color >>> 8) & 0xFF);
+            int b = multiply(a, color & 0xFF);
+            dst[dstOffset + i] = (short) (((r >>> 3) << 11) | ((g >>> 2) << 5) | (b >>> 3));
+        }
+    }
+
+    public static void unpackRGB565(short[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int pixel = src[srcOffset + i];
+            int r = (pixel >>> 11) & 0x1F, g = (pixel >>> 5) & 0x3F, b = pixel & 0x1F;
+            dst[dstOffset + i] = 0xFF000000 | (EXPAND_5[r] << 16) | (EXPAND_6[g] << 8) | EXPAND_5[b];
+        }
+    }
+
+    /**
+     * Packs to {@link Bitmap.Type#RGBA_4444}, channels rounded to the nearest 4 bits value.
+     */
+    public static void packRGBA4444(int[] src, int srcOffset, short[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            dst[dstOffset + i] = (short) ((quantize4(color >>> 24) << 12)
+                    | (quantize4((color >>> 16) & 0xFF) << 8)
+                    | (quantize4((color >>> 8) & 0xFF) << 4)
+                    | quantize4(color & 0xFF));
+        }
+    }
+
+    // Exact round(c * 15 / 255) = (c + 8) / 17
+    private static int quantize4(int c) {
+        return ((c + 8) * 3856) >>> 16;
+    }
+
+    public static void unpackRGBA4444(short[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int pixel = src[srcOffset + i] & 0xFFFF;
+            // Every 4 bits channel times 0x11, e.g. 0xA -> 0xAA
+            int argb = ((pixel & 0xF000) << 12) | ((pixel & 0x0F00) << 8) | ((pixel & 0x00F0) << 4) | (pixel & 0x000F);
+            dst[dstOffset + i] = argb | (argb << 4);
+        }
+    }
+
+    public static void packAlpha8(int[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            dst[dstOffset + i] = (byte) (src[srcOffset + i] >>> 24);
+        }
+    }
+
+    public static void unpackAlpha8(byte[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            dst[dstOffset + i] = src[srcOffset + i] << 24;
+        }
+    }
+
+    /**
+     * Converts the color channels from sRGB to linear, 8 bits per channel; alpha is kept.
+     * Dark shades lose precision in 8 bits, use {@link #srgbToLinear(int[], int, float[], int, int)} when it matters.
+     */
+    public static void srgbToLinear(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        convertChannels(src, srcOffset, dst, dstOffset, length, SRGB_TO_LINEAR_8);
+    }
+
+    public static void linearToSrgb(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        convertChannels(src, srcOffset, dst, dstOffset, length, LINEAR_TO_SRGB_8);
+    }
+
+    private static void convertChannels(int[] src, int srcOffset, int[] dst, int dstOffset, int length, byte[] table) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            dst[dstOffset + i] = (color & 0xFF000000)
+                    | ((table[(color >>> 16) & 0xFF] & 0xFF) << 16)
+                    | ((table[(color >>> 8) & 0xFF] & 0xFF) << 8)
+                    | (table[color & 0xFF] & 0xFF);
+        }
+    }
+
+    /**
+     * Converts sRGB colors to linear float RGBA, 4 floats per pixel in [0, 1].
+     */
+    public static void srgbToLinear(int[] src, int srcOffset, float[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int color = src[srcOffset + i];
+            int index = dstOffset + i * 4;
+            dst[index] = SRGB_TO_LINEAR[(color >>> 16) & 0xFF];
+            dst[index + 1] = SRGB_TO_LINEAR[(color >>> 8) & 0xFF];
+            dst[index + 2] = SRGB_TO_LINEAR[color & 0xFF];
+            dst[index + 3] = (color >>> 24) / 255f;
+        }
+    }
+
+    /**
+     * Converts linear float RGBA, 4 floats per pixel, to sRGB colors. Values are clamped to [0, 1].
+     */
+    public static void linearToSrgb(float[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i ++) {
+            int index = srcOffset + i * 4;
+            float a = src[index + 3];
+            dst[dstOffset + i] = ((int) ((a < 0 ? 0 : a > 1 ? 1 : a) * 255f + 0.5f) << 24)
+                    | (linearToSrgb8(src[index]) << 16)
+                    | (linearToSrgb8(src[index + 1]) << 8)
+                    | linearToSrgb8(src[index + 2]);
+        }
+    }
+
+    private static int linearToSrgb8(float c) {
+        if (!(c > 0)) return 0;
+        else if (c >= 1) return 255;
+        else return LINEAR_TO_SRGB[(int) (c * (1 << LINEAR_TO_SRGB_BITS) + 0.5f)] & 0xFF;
+    }
+
+}
@@ -0,0 +1,248 @@
+package unrefined.media.graphics;
+
+import unrefined.util.NotInstantiableError;
+
+import java.util.Arrays;
+
+/**
+ * Simplification and viewport culling of polylines stored as x, y pairs in float arrays,
+ * for drawing paths of many points at a given zoom.
+ * The tolerances are in the units of the points; to simplify to a tolerance in pixels, divide it by the zoom scale.
+ */
+public final class Polylines {
+
+    private Polylines() {
+        throw new NotInstantiableError(Polylines.class);
+    }
+
+    /**
+     * Ramer–Douglas–Peucker simplification: keeps the points deviating more than {@code tolerance}
+     * from the simplified line. The first and last points are always kept.
+     * {@code dst} may be {@code points}, as long as {@code dstOffset <= offset}.
+     *
+     * @return the number of points written to {@code dst}
+     */
+    public static int simplifyDouglasPeucker(float[] points, int offset, int count, float tolerance, float[] dst, int dstOffset) {
+        if (count < 0) throw new IllegalArgumentException("count < 0");
+        if (tolerance < 0) throw new IllegalArgumentException("tolerance < 0");
+        if (count < 3) return copy(points, offset, count, dst, dstOffset);
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        float toleranceSq = tolerance * tolerance;
+        // Explicit stack of (first, last) ranges instead of recursion, long polylines would overflow the call stack
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top ++] = 0;
+        stack[top ++] = count - 1;
+        while (top > 0) {
+            int last = stack[-- top];
+            int first = stack[-- top];
+            float ax = points[offset + first * 2], ay = points[offset + first * 2 + 1];
+            float bx = points[offset + last * 2], by = points[offset + last * 2 + 1];
+            float maxDistanceSq = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i ++) {
+                float distanceSq = segmentDistanceSq(points[offset + i * 2], points[offset + i * 2 + 1], ax, ay, bx, by);
+                if (distanceSq > maxDistanceSq) {
+                    maxDistanceSq = distanceSq;
+                    farthest = i;
+                }
+            }
+            if (farthest != -1 && maxDistanceSq > toleranceSq) {
+                keep[farthest] = true;
+                if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                if (farthest - first > 1) {
+                    stack[top ++] = first;
+                    stack[top ++] = farthest;
+                }
+                if (last - farthest > 1) {
+                    stack[top ++] = farthest;
+                    stack[top ++] = last;
+                }
+            }
+        }
+        return compact(points, offset, count, keep, dst, dstOffset);
+    }
+
+    public static int simplifyDouglasPeucker(float[] points, float tolerance, float[] dst) {
+        return simplifyDouglasPeucker(points, 0, points.length / 2, tolerance, dst, 0);
+    }
+
+    /**
+     * Visvalingam–Whyatt simplification: repeatedly removes the point forming the smallest triangle
+     * with its neighbors, until every remaining triangle covers at least {@code minArea}.
+     * The first and last points are always kept.
+     * {@code dst} may be {@code points}, as long as {@code dstOffset <= offset}.
+     *
+     * @return the number of points written to {@code dst}
+     */
+    public static int simplifyVisvalingam(float[] points, int offset, int count, float minArea, float[] dst, int dstOffset) {
+        if (count < 0) throw new IllegalArgumentException("count < 0");
+        if (minArea < 0) throw new IllegalArgumentException("minArea < 0");
+        if (count < 3) return copy(points, offset, count, dst, dstOffset);
+        int[] previous = new int[count];
+        int[] next = new int[count];
+        float[] areas = new float[count];
+        // Binary min-heap of point indexes by area, with the position of every point in the heap
+        int[] heap = new int[count];
+        int[] positions = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i ++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+        }
+        for (int i = 1; i < count - 1; i ++) {
+            areas[i] = triangleArea(points, offset, i - 1, i, i + 1);
+            heap[size] = i;
+            positions[i] = size;
+            size ++;
+        }
+        for (int i = size / 2 - 1; i >= 0; i --) {
+            siftDown(heap, positions, areas, size, i);
+        }
+        boolean[] keep = new boolean[count];
+        Arrays.fill(keep, true);
+        float lastArea = 0;
+        while (size > 0) {
+            int point = heap[0];
+            float area = areas[point];
+            if (area >= minArea) break;
+            heap[0] = heap[-- size];
+            positions[heap[0]] = 0;
+            siftDown(heap, positions, areas, size, 0);
+            keep[point] = false;
+            int before = previous[point], after = next[point];
+            next[before] = after;
+            previous[after] = before;
+            // A neighbor never gets a smaller area than the point just removed, so removal order stays monotonic
+            lastArea = Math.max(lastArea, area);
+            if (before > 0) update(heap, positions, areas, size, before,
+                    Math.max(lastArea, triangleArea(points, offset, previous[before], before, after)));
+            if (after < count - 1) update(heap, positions, areas, size, after,
+                    Math.max(lastArea, triangleArea(points, offset, before, after, next[after])));
+        }
+        return compact(points, offset, count, keep, dst, dstOffset);
+    }
+
+    public static int simplifyVisvalingam(float[] points, float minArea, float[] dst) {
+        return simplifyVisvalingam(points, 0, points.length / 2, minArea, dst, 0);
+    }
+
+    /**
+     * Appends to {@code dst} only the parts of the polyline that may be visible in the viewport.
+     * Runs of segments entirely outside the viewport are dropped and the polyline is split there,
+     * so no segment is invented across the viewport. {@code margin} widens the viewport, e.g. by half the stroke width.
+     *
+     * @return the number of points appended
+     */
+    public static int cull(float[] points, int offset, int count, float left, float top, float right, float bottom, float margin, Path dst) {
+        if (count < 0) throw new IllegalArgumentException("count < 0");
+        left -= margin;
+        top -= margin;
+        right += margin;
+        bottom += margin;
+        if (count == 1) {
+            float x = points[offset], y = points[offset + 1];
+            if (x < left || x > right || y < top || y > bottom) return 0;
+            dst.addPolyline(points, offset, 1, false);
+            return 1;
+        }
+        int appended = 0;
+        int runStart = -1;
+        for (int i = 0; i < count - 1; i ++) {
+            int index = offset + i * 2;
+            float x1 = points[index], y1 = points[index + 1], x2 = points[index + 2], y2 = points[index + 3];
+            boolean visible = !(Math.max(x1, x2) < left || Math.min(x1, x2) > right || Math.max(y1, y2) < top || Math.min(y1, y2) > bottom);
+            if (visible) {
+                if (runStart == -1) runStart = i;
+            }
+            else if (runStart != -1) {
+                dst.addPolyline(points, offset + runStart * 2, i - runStart + 1, false);
+                appended += i - runStart + 1;
+                runStart = -1;
+            }
+        }
+        if (runStart != -1) {
+            dst.addPolyline(points, offset + runStart * 2, count - runStart, false);
+            appended += count - runStart;
+        }
+        return appended;
+    }
+
+    public static int cull(float[] points, RectangleF viewport, float margin, Path dst) {
+        return cull(points, 0, points.length / 2, viewport.getX(), viewport.getY(),
+                viewport.getX() + viewport.getWidth(), viewport.getY() + viewport.getHeight(), margin, dst);
+    }
+
+    private static float segmentDistanceSq(float px, float py, float ax, float ay, float bx, float by) {
+        float dx = bx - ax, dy = by - ay;
+        float lengthSq = dx * dx + dy * dy;
+        float t = lengthSq == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSq;
+        if (t < 0) t = 0;
+        else if (t > 1) t = 1;
+        float x = ax + t * dx - px, y = ay + t * dy - py;
+        return x * x + y * y;
+    }
+
+    private static float triangleArea(float[] points, int offset, int a, int b, int c) {
+        float ax = points[offset + a * 2], ay = points[offset + a * 2 + 1];
+        float bx = points[offset + b * 2], by = points[offset + b * 2 + 1];
+        float cx = points[offset + c * 2], cy = points[offset + c * 2 + 1];
+        return Math.abs((bx - ax) * (cy - ay) - (cx - ax) * (by - ay)) * 0.5f;
+    }
+
+    private static void update(int[] heap, int[] positions, float[] areas, int size, int point, float area) {
+        float old = areas[point];
+        areas[point] = area;
+        if (area < old) siftUp(heap, positions, areas, positions[point]);
+        else siftDown(heap, positions, areas, size, positions[point]);
+    }
+
+    private static void siftUp(int[] heap, int[] positions, float[] areas, int index) {
+        int point = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (areas[heap[parent]] <= areas[point]) break;
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = point;
+        positions[point] = index;
+    }
+
+    private static void siftDown(int[] heap, int[] positions, float[] areas, int size, int index) {
+        int point = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) break;
+            if (child + 1 < size && areas[heap[child + 1]] < areas[heap[child]]) child ++;
+            if (areas[point] <= areas[heap[child]]) break;
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = point;
+        positions[point] = index;
+    }
+
+    private static int copy(float[] points, int offset, int count, float[] dst, int dstOffset) {
+        System.arraycopy(points, offset, dst, dstOffset, count * 2);
+        return count;
+    }
+
+    private static int compact(float[] points, int offset, int count, boolean[] keep, float[] dst, int dstOffset) {
+        int kept = 0;
+        for (int i = 0; i < count; i ++) {
+            if (keep[i]) {
+                // In place compaction is safe, the write position never passes the read position
+                dst[dstOffset + kept * 2] = points[offset + i * 2];
+                dst[dstOffset + kept * 2 + 1] = points[offset + i * 2 + 1];
+                kept ++;
+            }
+        }
+        return kept;
+    }
+
+}
@@ -0,0 +1,467 @@
+package unrefined.media.graphics;
+
+import unrefined.io.Disposable;
+import unrefined.media.opengl.GL20;
+import unrefined.media.opengl.GL30;
+import unrefined.util.AlreadyDisposedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static unrefined.media.opengl.GL20.*;
+
+public class SpriteBatch implements Disposable {
+
+    private static final String VERTEX_SHADER_110 =
+            "#version 110\n" +
+            "attribute vec4 a_vertex;\n" +
+            "uniform vec2 u_viewport;\n" +
+            "varying vec2 v_texCoord;\n" +
+            "void main() {\n" +
+            "    v_texCoord = a_vertex.zw;\n" +
+            "    gl_Position = vec4(a_vertex.x / u_viewport.x * 2.0 - 1.0, 1.0 - a_vertex.y / u_viewport.y * 2.0, 0.0, 1.0);\n" +
+            "}\n";
+    private static final String FRAGMENT_SHADER_110 =
+            "#version 110\n" +
+            "uniform sampler2D u_texture;\n" +
+            "varying vec2 v_texCoord;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = texture2D(u_texture, v_texCoord);\n" +
+            "}\n";
+    private static final String VERTEX_SHADER_330 =
+            "#version 330 core\n" +
+            "in vec4 a_vertex;\n" +
+            "uniform vec2 u_viewport;\n" +
+            "out vec2 v_texCoord;\n" +
+            "void main() {\n" +
+            "    v_texCoord = a_vertex.zw;\n" +
+            "    gl_Position = vec4(a_vertex.x / u_viewport.x * 2.0 - 1.0, 1.0 - a_vertex.y / u_viewport.y * 2.0, 0.0, 1.0);\n" +
+            "}\n";
+    private static final String FRAGMENT_SHADER_330 =
+            "#version 330 core\n" +
+            "uniform sampler2D u_texture;\n" +
+            "in vec2 v_texCoord;\n" +
+            "out vec4 o_color;\n" +
+            "void main() {\n" +
+            "    o_color = texture(u_texture, v_texCoord);\n" +
+            "}\n";
+
+    private static final int FLOATS_PER_SPRITE = 6 * 4;
+
+    private final int capacity;
+    private final Bitmap[] bitmaps;
+    private final int[] versions;
+    private final int[] slots;
+    private final int[] src;
+    private final float[] dst;
+    private final int[] sortedSrc;
+    private final float[] sortedDst;
+    private final Bitmap[] slotBitmaps;
+    private final int[] slotVersions;
+    private final int[] slotCounts;
+    private int count = 0;
+    private int slotCount = 0;
+
+    private boolean sorting = true;
+    private Graphics graphics;
+    private GL20 gl;
+    private float viewportWidth, viewportHeight;
+    private int renderCalls = 0;
+    private int totalRenderCalls = 0;
+
+    private FloatBuffer vertices;
+    private final Map<Bitmap, int[]> textures = new IdentityHashMap<>();
+    private int program = 0, vertexShader = 0, fragmentShader = 0, buffer = 0, vertexArray = 0;
+    private int vertexLocation, viewportLocation, textureLocation;
+    private GL20 glResourcesOwner;
+
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    public SpriteBatch(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        this.capacity = capacity;
+        bitmaps = new Bitmap[capacity];
+        versions = new int[capacity];
+        slots = new int[capacity];
+        src = new int[capacity * 4];
+        dst = new float[capacity * 4];
+        sortedSrc = new int[capacity * 4];
+        sortedDst = new float[capacity * 4];
+        slotBitmaps = new Bitmap[capacity];
+        slotVersions = new int[capacity];
+        slotCounts = new int[capacity + 1];
+    }
+
+    public SpriteBatch() {
+        this(4096);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isSorting() {
+        return sorting;
+    }
+
+    /**
+     * When enabled (default), queued sprites are grouped by bitmap on flush, so every atlas page is submitted once.
+     * Sprites on different pages may then be drawn out of submission order.
+     */
+    public void setSorting(boolean sorting) {
+        this.sorting = sorting;
+    }
+
+    public boolean isDrawing() {
+        return graphics != null || gl != null;
+    }
+
+    public void begin(Graphics graphics) {
+        Objects.requireNonNull(graphics);
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (isDrawing()) throw new IllegalStateException("SpriteBatch.end must be called before begin");
+        this.graphics = graphics;
+        renderCalls = 0;
+    }
+
+    public void begin(GL20 gl, float viewportWidth, float viewportHeight) {
+        Objects.requireNonNull(gl);
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (isDrawing()) throw new IllegalStateException("SpriteBatch.end must be called before begin");
+        if (glResourcesOwner != null && glResourcesOwner != gl) throw new IllegalStateException("SpriteBatch GL resources belong to another GL instance");
+        this.gl = gl;
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+        renderCalls = 0;
+        try {
+            setupGL();
+        }
+        catch (RuntimeException e) {
+            this.gl = null;
+            throw e;
+        }
+    }
+
+    public void draw(TextureAtlas.Region region, float x, float y) {
+        draw(region, x, y, region.getWidth(), region.getHeight());
+    }
+
+    public void draw(TextureAtlas.Region region, float x, float y, float width, float height) {
+        push(region.getBitmap(), region.getAtlas().getPageVersion(region.getPage()),
+                region.getX(), region.getY(), region.getWidth(), region.getHeight(), x, y, width, height);
+    }
+
+    public void draw(Bitmap bitmap, int srcX, int srcY, int srcWidth, int srcHeight, float x, float y, float width, float height) {
+        push(Objects.requireNonNull(bitmap), 0, srcX, srcY, srcWidth, srcHeight, x, y, width, height);
+    }
+
+    public void draw(Bitmap bitmap, float x, float y) {
+        push(Objects.requireNonNull(bitmap), 0, 0, 0, bitmap.getWidth(), bitmap.getHeight(), x, y, bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    private void push(Bitmap bitmap, int version, int srcX, int srcY, int srcWidth, int srcHeight, float x, float y, float width, float height) {
+        if (!isDrawing()) throw new IllegalStateException("SpriteBatch.begin must be called before draw");
+        if (count == capacity) flush();
+        bitmaps[count] = bitmap;
+        versions[count] = version;
+        int index = count * 4;
+        src[index] = srcX;
+        src[index + 1] = srcY;
+        src[index + 2] = srcWidth;
+        src[index + 3] = srcHeight;
+        dst[index] = x;
+        dst[index + 1] = y;
+        dst[index + 2] = width;
+        dst[index + 3] = height;
+        count ++;
+    }
+
+    public void flush() {
+        if (!isDrawing()) throw new IllegalStateException("SpriteBatch.begin must be called before flush");
+        if (count == 0) return;
+        if (sorting) sort();
+        else runs();
+        int offset = 0;
+        for (int slot = 0; slot < slotCount; slot ++) {
+            int length = slotCounts[slot];
+            if (graphics != null) graphics.drawBitmapBatch(slotBitmaps[slot], sortedSrc, offset * 4, sortedDst, offset * 4, length);
+            else drawGL(slotBitmaps[slot], slotVersions[slot], offset, length);
+            offset += length;
+            renderCalls ++;
+            totalRenderCalls ++;
+        }
+        Arrays.fill(bitmaps, 0, count, null);
+        Arrays.fill(slotBitmaps, 0, slotCount, null);
+        count = 0;
+        slotCount = 0;
+    }
+
+    public void end() {
+        if (!isDrawing()) throw new IllegalStateException("SpriteBatch.begin must be called before end");
+        flush();
+        if (gl != null && vertexArray != 0) ((GL30) gl).glBindVertexArray(0);
+        graphics = null;
+        gl = null;
+    }
+
+    /**
+     * The number of backend submissions (one per bitmap run) issued since the last begin.
+     */
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    public int getTotalRenderCalls() {
+        return totalRenderCalls;
+    }
+
+    // Stable counting sort of the queued sprites by bitmap identity
+    private void sort() {
+        Bitmap last = null;
+        int lastSlot = -1;
+        for (int i = 0; i < count; i ++) {
+            Bitmap bitmap = bitmaps[i];
+            int slot;
+            if (bitmap == last) slot = lastSlot;
+            else {
+                slot = -1;
+                for (int j = 0; j < slotCount; j ++) {
+                    if (slotBitmaps[j] == bitmap) {
+                        slot = j;
+                        break;
+                    }
+                }
+                if (slot == -1) {
+                    slot = slotCount ++;
+                    slotBitmaps[slot] = bitmap;
+                    slotVersions[slot] = versions[i];
+                    slotCounts[slot] = 0;
+                }
+                last = bitmap;
+                lastSlot = slot;
+            }
+            slotVersions[slot] = Math.max(slotVersions[slot], versions[i]);
+            slotCounts[slot] ++;
+            slots[i] = slot;
+        }
+        int[] starts = slotCounts;
+        // Convert counts to start offsets in place
+        int sum = 0;
+        for (int slot = 0; slot < slotCount; slot ++) {
+            int c = starts[slot];
+            starts[slot] = sum;
+            sum += c;
+        }
+        for (int i = 0; i < count; i ++) {
+            int target = starts[slots[i]] ++ * 4;
+            int index = i * 4;
+            System.arraycopy(src, index, sortedSrc, target, 4);
+            System.arraycopy(dst, index, sortedDst, target, 4);
+        }
+        // starts[slot] now holds the end offset of each slot; turn it back into counts
+        int previous = 0;
+        for (int slot = 0; slot < slotCount; slot ++) {
+            int end = starts[slot];
+            starts[slot] = end - previous;
+            previous = end;
+        }
+    }
+
+    private void runs() {
+        for (int i = 0; i < count; i ++) {
+            if (slotCount > 0 && slotBitmaps[slotCount - 1] == bitmaps[i]) {
+                slotVersions[slotCount - 1] = Math.max(slotVersions[slotCount - 1], versions[i]);
+                slotCounts[slotCount - 1] ++;
+            }
+            else {
+                slotBitmaps[slotCount] = bitmaps[i];
+                slotVersions[slotCount] = versions[i];
+                slotCounts[slotCount] = 1;
+                slotCount ++;
+            }
+        }
+        System.arraycopy(src, 0, sortedSrc, 0, count * 4);
+        System.arraycopy(dst, 0, sortedDst, 0, count * 4);
+    }
+
+    private void setupGL() {
+        if (program != 0) {
+            gl.glUseProgram(program);
+            if (vertexArray != 0) ((GL30) gl).glBindVertexArray(vertexArray);
+            gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+            gl.glVertexAttribPointer(vertexLocation, 4, GL_FLOAT, false, 0, 0);
+            gl.glEnableVertexAttribArray(vertexLocation);
+        }
+        else {
+            boolean core = gl instanceof GL30;
+            vertexShader = compileShader(GL_VERTEX_SHADER, core ? VERTEX_SHADER_330 : VERTEX_SHADER_110);
+            fragmentShader = compileShader(GL_FRAGMENT_SHADER, core ? FRAGMENT_SHADER_330 : FRAGMENT_SHADER_110);
+            program = gl.glCreateProgram();
+            gl.glAttachShader(program, vertexShader);
+            gl.glAttachShader(program, fragmentShader);
+            gl.glLinkProgram(program);
+            int[] status = new int[1];
+            gl.glGetProgramiv(program, GL_LINK_STATUS, status, 0);
+            if (status[0] == 0) {
+                String log = gl.glGetProgramInfoLog(program);
+                disposeGL();
+                throw new IllegalStateException(log);
+            }
+            vertexLocation = gl.glGetAttribLocation(program, "a_vertex");
+            viewportLocation = gl.glGetUniformLocation(program, "u_viewport");
+            textureLocation = gl.glGetUniformLocation(program, "u_texture");
+            int[] names = new int[1];
+            if (core) {
+                ((GL30) gl).glGenVertexArrays(1, names, 0);
+                vertexArray = names[0];
+                ((GL30) gl).glBindVertexArray(vertexArray);
+            }
+            gl.glGenBuffers(1, names, 0);
+            buffer = names[0];
+            vertices = ByteBuffer.allocateDirect(capacity * FLOATS_PER_SPRITE * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            gl.glUseProgram(program);
+            gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+            gl.glVertexAttribPointer(vertexLocation, 4, GL_FLOAT, false, 0, 0);
+            gl.glEnableVertexAttribArray(vertexLocation);
+            glResourcesOwner = gl;
+        }
+        gl.glUniform2f(viewportLocation, viewportWidth, viewportHeight);
+        gl.glUniform1i(textureLocation, 0);
+        gl.glActiveTexture(GL_TEXTURE0);
+        gl.glEnable(GL_BLEND);
+        gl.glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    private int compileShader(int type, String source) {
+        int shader = gl.glCreateShader(type);
+        gl.glShaderSource(shader, source);
+        gl.glCompileShader(shader);
+        int[] status = new int[1];
+        gl.glGetShaderiv(shader, GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            String log = gl.glGetShaderInfoLog(shader);
+            gl.glDeleteShader(shader);
+            throw new IllegalStateException(log);
+        }
+        return shader;
+    }
+
+    private void bindTexture(Bitmap bitmap, int version) {
+        int[] texture = textures.get(bitmap);
+        boolean upload;
+        if (texture == null) {
+            texture = new int[2];
+            gl.glGenTextures(1, texture, 0);
+            texture[1] = version;
+            textures.put(bitmap, texture);
+            gl.glBindTexture(GL_TEXTURE_2D, texture[0]);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+            gl.glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+            upload = true;
+        }
+        else {
+            gl.glBindTexture(GL_TEXTURE_2D, texture[0]);
+            upload = texture[1] != version;
+            texture[1] = version;
+        }
+        if (upload) {
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+            int[] argb = new int[width * height];
+            bitmap.getPixels(argb, 0, width, 0, 0, width, height);
+            ByteBuffer rgba = ByteBuffer.allocateDirect(argb.length * 4);
+            for (int color : argb) {
+                rgba.put((byte) (color >>> 16));
+                rgba.put((byte) (color >>> 8));
+                rgba.put((byte) color);
+                rgba.put((byte) (color >>> 24));
+            }
+            rgba.flip();
+            gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+            gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, rgba);
+        }
+    }
+
+    /**
+     * Forces the GL texture of the bitmap to be re-uploaded on next use. Atlas pages are tracked automatically.
+     */
+    public void invalidate(Bitmap bitmap) {
+        int[] texture = textures.get(bitmap);
+        if (texture != null) texture[1] = -1;
+    }
+
+    private void drawGL(Bitmap bitmap, int version, int offset, int length) {
+        bindTexture(bitmap, version);
+        float tw = bitmap.getWidth();
+        float th = bitmap.getHeight();
+        vertices.clear();
+        for (int i = offset; i < offset + length; i ++) {
+            int index = i * 4;
+            float u1 = sortedSrc[index] / tw;
+            float v1 = sortedSrc[index + 1] / th;
+            float u2 = (sortedSrc[index] + sortedSrc[index + 2]) / tw;
+            float v2 = (sortedSrc[index + 1] + sortedSrc[index + 3]) / th;
+            float x1 = sortedDst[index];
+            float y1 = sortedDst[index + 1];
+            float x2 = x1 + sortedDst[index + 2];
+            float y2 = y1 + sortedDst[index + 3];
+            vertices.put(x1).put(y1).put(u1).put(v1);
+            vertices.put(x2).put(y1).put(u2).put(v1);
+            vertices.put(x2).put(y2).put(u2).put(v2);
+            vertices.put(x1).put(y1).put(u1).put(v1);
+            vertices.put(x2).put(y2).put(u2).put(v2);
+            vertices.put(x1).put(y2).put(u1).put(v2);
+        }
+        vertices.flip();
+        // Orphan the previous storage so the driver does not stall on in-flight draws
+        gl.glBufferData(GL_ARRAY_BUFFER, capacity * FLOATS_PER_SPRITE * 4, null, GL_STREAM_DRAW);
+        gl.glBufferSubData(GL_ARRAY_BUFFER, 0, vertices.remaining() * 4, vertices);
+        gl.glDrawArrays(GL_TRIANGLES, 0, length * 6);
+    }
+
+    /**
+     * Releases GL resources. Must be called on the GL thread of the instance passed to {@link #begin(GL20, float, float)}.
+     */
+    public void disposeGL() {
+        if (glResourcesOwner == null && program == 0) return;
+        GL20 gl = glResourcesOwner == null ? this.gl : glResourcesOwner;
+        for (int[] texture : textures.values()) {
+            gl.glDeleteTextures(1, texture, 0);
+        }
+        textures.clear();
+        if (buffer != 0) gl.glDeleteBuffers(1, new int[] {buffer}, 0);
+        if (vertexArray != 0) ((GL30) gl).glDeleteVertexArrays(1, new int[] {vertexArray}, 0);
+        if (program != 0) gl.glDeleteProgram(program);
+        if (vertexShader != 0) gl.glDeleteShader(vertexShader);
+        if (fragmentShader != 0) gl.glDeleteShader(fragmentShader);
+        buffer = vertexArray = program = vertexShader = fragmentShader = 0;
+        vertices = null;
+        glResourcesOwner = null;
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            Arrays.fill(bitmaps, null);
+            Arrays.fill(slotBitmaps, null);
+            count = 0;
+            slotCount = 0;
+            graphics = null;
+            gl = null;
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+}
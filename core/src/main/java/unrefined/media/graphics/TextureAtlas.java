@@ -0,0 +1,255 @@
+package unrefined.media.graphics;
+
+import unrefined.io.Disposable;
+import unrefined.util.AlreadyDisposedException;
+import unrefined.util.GrowableIntArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TextureAtlas implements Disposable {
+
+    public static final class Region {
+
+        private final TextureAtlas atlas;
+        private final int page;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        private Region(TextureAtlas atlas, int page, int x, int y, int width, int height) {
+            this.atlas = atlas;
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public TextureAtlas getAtlas() {
+            return atlas;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public Bitmap getBitmap() {
+            return atlas.getPageBitmap(page);
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName()
+                    + '{' +
+                    "page=" + page +
+                    ", x=" + x +
+                    ", y=" + y +
+                    ", width=" + width +
+                    ", height=" + height +
+                    '}';
+        }
+
+    }
+
+    private final int pageWidth;
+    private final int pageHeight;
+    private final int padding;
+    private final int type;
+
+    private final List<Bitmap> pages = new ArrayList<>();
+    // Skyline of each page, stored as (x, y, width) triples sorted by x
+    private final List<GrowableIntArray> skylines = new ArrayList<>();
+    private final GrowableIntArray versions = new GrowableIntArray();
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    public TextureAtlas(int pageWidth, int pageHeight, int padding, int type) {
+        if (pageWidth < 1) throw new IllegalArgumentException("pageWidth < 1");
+        if (pageHeight < 1) throw new IllegalArgumentException("pageHeight < 1");
+        if (padding < 0) throw new IllegalArgumentException("padding < 0");
+        Bitmap.Type.checkValid(type);
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.padding = padding;
+        this.type = type;
+    }
+
+    public TextureAtlas(int pageWidth, int pageHeight, int padding) {
+        this(pageWidth, pageHeight, padding, Bitmap.Type.RGBA_8888);
+    }
+
+    public TextureAtlas(int pageWidth, int pageHeight) {
+        this(pageWidth, pageHeight, 1, Bitmap.Type.RGBA_8888);
+    }
+
+    public int getPageWidth() {
+        return pageWidth;
+    }
+
+    public int getPageHeight() {
+        return pageHeight;
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public Bitmap getPageBitmap(int page) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return pages.get(page);
+    }
+
+    /**
+     * Incremented every time pixels are written to the page, so that uploaded copies (e.g. GL textures) can be refreshed.
+     */
+    public int getPageVersion(int page) {
+        return versions.get(page);
+    }
+
+    public Region add(Bitmap bitmap) {
+        return add(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    public Region add(Bitmap bitmap, int x, int y, int width, int height) {
+        Objects.requireNonNull(bitmap);
+        if (isDisposed()) throw new AlreadyDisposedException();
+        Region region = allocate(width, height);
+        int[] pixels = new int[width * height];
+        bitmap.getPixels(pixels, 0, width, x, y, width, height);
+        pages.get(region.page).setPixels(pixels, 0, width, region.x, region.y, width, height);
+        versions.set(region.page, versions.get(region.page) + 1);
+        return region;
+    }
+
+    public Region allocate(int width, int height) {
+        if (width < 1) throw new IllegalArgumentException("width < 1");
+        if (height < 1) throw new IllegalArgumentException("height < 1");
+        if (isDisposed()) throw new AlreadyDisposedException();
+        int paddedWidth = width + padding * 2;
+        int paddedHeight = height + padding * 2;
+        if (paddedWidth > pageWidth || paddedHeight > pageHeight)
+            throw new IllegalArgumentException("Region " + width + "x" + height + " does not fit into page " + pageWidth + "x" + pageHeight);
+        for (int page = 0; page < skylines.size(); page ++) {
+            Region region = allocate(page, paddedWidth, paddedHeight);
+            if (region != null) return region;
+        }
+        pages.add(Bitmap.of(pageWidth, pageHeight, type));
+        GrowableIntArray skyline = new GrowableIntArray();
+        skyline.add(0);
+        skyline.add(0);
+        skyline.add(pageWidth);
+        skylines.add(skyline);
+        versions.add(0);
+        return allocate(skylines.size() - 1, paddedWidth, paddedHeight);
+    }
+
+    private Region allocate(int page, int paddedWidth, int paddedHeight) {
+        GrowableIntArray skyline = skylines.get(page);
+        int bestIndex = -1, bestX = 0, bestY = Integer.MAX_VALUE, bestWidth = Integer.MAX_VALUE;
+        for (int i = 0; i < skyline.size(); i += 3) {
+            int y = fit(skyline, i, paddedWidth, paddedHeight);
+            if (y < 0) continue;
+            int width = skyline.get(i + 2);
+            if (y + paddedHeight < bestY || (y + paddedHeight == bestY && width < bestWidth)) {
+                bestIndex = i;
+                bestX = skyline.get(i);
+                bestY = y + paddedHeight;
+                bestWidth = width;
+            }
+        }
+        if (bestIndex < 0) return null;
+        skyline.add(bestIndex, paddedWidth);
+        skyline.add(bestIndex, bestY);
+        skyline.add(bestIndex, bestX);
+        for (int i = bestIndex + 3; i < skyline.size(); ) {
+            int x = skyline.get(i);
+            int width = skyline.get(i + 2);
+            int shrink = bestX + paddedWidth - x;
+            if (shrink <= 0) break;
+            if (width > shrink) {
+                skyline.set(i, x + shrink);
+                skyline.set(i + 2, width - shrink);
+                break;
+            }
+            skyline.removeAtRange(i, i + 3);
+        }
+        for (int i = 0; i + 3 < skyline.size(); ) {
+            if (skyline.get(i + 1) == skyline.get(i + 4)) {
+                skyline.set(i + 2, skyline.get(i + 2) + skyline.get(i + 5));
+                skyline.removeAtRange(i + 3, i + 6);
+            }
+            else i += 3;
+        }
+        return new Region(this, page, bestX + padding, bestY - paddedHeight + padding,
+                paddedWidth - padding * 2, paddedHeight - padding * 2);
+    }
+
+    private int fit(GrowableIntArray skyline, int index, int width, int height) {
+        int x = skyline.get(index);
+        if (x + width > pageWidth) return -1;
+        int remaining = width;
+        int y = 0;
+        for (int i = index; remaining > 0; i += 3) {
+            if (i >= skyline.size()) return -1;
+            y = Math.max(y, skyline.get(i + 1));
+            if (y + height > pageHeight) return -1;
+            remaining -= skyline.get(i + 2);
+        }
+        return y;
+    }
+
+    public void clear() {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        for (Bitmap page : pages) {
+            page.dispose();
+        }
+        pages.clear();
+        skylines.clear();
+        versions.clear();
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            for (Bitmap page : pages) {
+                page.dispose();
+            }
+            pages.clear();
+            skylines.clear();
+            versions.clear();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+}
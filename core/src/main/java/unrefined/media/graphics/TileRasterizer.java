@@ -0,0 +1,150 @@
+package unrefined.media.graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a {@link DisplayList} into a large bitmap in parallel.
+ * The bitmap is split into tiles, each rendered through its own slice of the bitmap graphics,
+ * clipped to the tile and with the slice offset taken back out of every recorded transform,
+ * so drawings land where they would on the whole bitmap and no two threads write the same pixels;
+ * the output is therefore the same as replaying the list onto the whole bitmap on a single thread.
+ * Gradient brushes are computed in spans of 32 pixels on desktop, which only line up with the tiles
+ * when the tile sizes are multiples of 32; other sizes may round some gradient pixels differently.
+ * Java2D also clips antialiased paths before rasterizing them, so curve edges crossing a tile border
+ * may differ slightly unless the application is launched with {@code -Dsun.java2d.renderer.clip=false},
+ * which turns that clipping off for the whole process.
+ */
+public class TileRasterizer {
+
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    private static final ExecutorService TILE_EXECUTOR = new ThreadPoolExecutor(0,
+            Math.max(1, Runtime.getRuntime().availableProcessors()), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "TileRasterizer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final int tileWidth, tileHeight;
+    private final int parallelism;
+
+    public TileRasterizer(int tileWidth, int tileHeight, int parallelism) {
+        if (tileWidth < 1) throw new IllegalArgumentException("tileWidth < 1");
+        if (tileHeight < 1) throw new IllegalArgumentException("tileHeight < 1");
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1");
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.parallelism = parallelism;
+    }
+
+    public TileRasterizer(int tileWidth, int tileHeight) {
+        this(tileWidth, tileHeight, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TileRasterizer() {
+        this(DEFAULT_TILE_SIZE, DEFAULT_TILE_SIZE);
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Renders the list into the bitmap and returns once every tile is done.
+     * The list must not be modified while rendering.
+     */
+    public void render(DisplayList list, Bitmap bitmap) {
+        Objects.requireNonNull(list);
+        Graphics graphics = bitmap.getGraphics();
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int columns = (width + tileWidth - 1) / tileWidth;
+        int rows = (height + tileHeight - 1) / tileHeight;
+        int tiles = columns * rows;
+        if (tiles == 0) return;
+        // Slices share the parent graphics while being created, so they are all created up front on this thread
+        Graphics[] slices = new Graphics[tiles];
+        int[] origins = new int[tiles * 2];
+        try {
+            for (int row = 0, tile = 0; row < rows; row ++) {
+                for (int column = 0; column < columns; column ++, tile ++) {
+                    int x = column * tileWidth;
+                    int y = row * tileHeight;
+                    slices[tile] = graphics.slice(x, y, Math.min(tileWidth, width - x), Math.min(tileHeight, height - y));
+                    origins[tile * 2] = x;
+                    origins[tile * 2 + 1] = y;
+                }
+            }
+            if (parallelism == 1 || tiles == 1) {
+                for (int tile = 0; tile < tiles; tile ++) {
+                    renderTile(list, slices[tile], origins[tile * 2], origins[tile * 2 + 1]);
+                }
+                return;
+            }
+            // Each worker takes tiles in a fixed stride, so no tile is shared between threads
+            int workers = Math.min(parallelism, tiles);
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int worker = 0; worker < workers; worker ++) {
+                int first = worker;
+                futures.add(TILE_EXECUTOR.submit(() -> {
+                    for (int tile = first; tile < tiles; tile += workers) {
+                        renderTile(list, slices[tile], origins[tile * 2], origins[tile * 2 + 1]);
+                    }
+                }));
+            }
+            awaitAll(futures);
+        }
+        finally {
+            for (Graphics slice : slices) {
+                if (slice != null) slice.dispose();
+            }
+        }
+    }
+
+    private static void renderTile(DisplayList list, Graphics slice, int x, int y) {
+        list.replayTile(slice, x, y, slice.getWidth(), slice.getHeight());
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        // Every worker is awaited before failing, the slices are disposed right after
+        Throwable throwable = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (ExecutionException e) {
+                    if (throwable == null) throwable = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (throwable instanceof Error) throw (Error) throwable;
+        else if (throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+        else if (throwable != null) throw new RuntimeException(throwable);
+    }
+
+}
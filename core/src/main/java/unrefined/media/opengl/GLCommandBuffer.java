@@ -0,0 +1,3383 @@
+package unrefined.media.opengl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A GL wrapper which shadows the bound objects, the common fixed-function state and the uniform values
+ * of the current program, dropping the calls that would not change anything, and which can record commands
+ * on any thread for submission on the GL thread.
+ * <p>
+ * Calls made between {@link #begin()} and {@link #end()} on the recording thread are queued, and executed in order
+ * by {@link #submit()} on the GL thread; calls made on any other thread execute immediately. Calls returning values
+ * or writing into arrays or buffers (glGen*, glGet*, glReadPixels...) cannot be recorded. Arrays and buffers passed to
+ * recorded calls are read at submission, so they must not be modified before.
+ * <p>
+ * The shadow state assumes that every GL call goes through this wrapper; call {@link #invalidate()} whenever
+ * something else may have changed it, e.g. at the start of every frame of a GLJPanel, which renders through its own state.
+ */
+public class GLCommandBuffer extends GL30 {
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final GL gl;
+    private final GL30 gl30;
+
+    private volatile Thread recorder;
+    private List<Runnable> recorded = new ArrayList<>();
+    private List<Runnable> pending = new ArrayList<>();
+    private final Object pendingLock = new Object();
+
+    private int submittedCount = 0;
+    private int elidedCount = 0;
+    private int recordedCount = 0;
+
+    private int program;
+    private UniformTable uniforms;
+    private final Map<Integer, UniformTable> uniformTables = new HashMap<>();
+    private int activeTexture;
+    private final IntTable textureBindings = new IntTable();
+    private final IntTable bufferBindings = new IntTable();
+    private int drawFramebuffer, readFramebuffer;
+    private int renderbuffer;
+    private int vertexArray;
+    private final IntTable capabilities = new IntTable();
+    private int blendSrcRGB, blendDstRGB, blendSrcAlpha, blendDstAlpha;
+    private int blendEquationRGB, blendEquationAlpha;
+    private final float[] blendColor = new float[4];
+    private final float[] clearColor = new float[4];
+    private int colorMask;
+    private int depthFunc;
+    private int depthMask;
+    private int cullFace;
+    private int frontFace;
+    private float lineWidth;
+    private float polygonOffsetFactor, polygonOffsetUnits;
+    private final IntTable pixelStore = new IntTable();
+    private final int[] viewport = new int[4];
+    private final int[] scissor = new int[4];
+
+    public GLCommandBuffer(GL gl) {
+        this.gl = Objects.requireNonNull(gl);
+        this.gl30 = gl.getGL30();
+        invalidate();
+    }
+
+    public GL getBackend() {
+        return gl;
+    }
+
+    @Override
+    public boolean isGLES30Supported() {
+        return gl30 != null;
+    }
+
+    @Override
+    public GL30 getGL30() {
+        return gl30 == null ? null : this;
+    }
+
+    /**
+     * Forgets all the shadow state, the next call of every kind is submitted.
+     * Must be called on the GL thread.
+     */
+    public void invalidate() {
+        setProgram(UNKNOWN);
+        uniformTables.clear();
+        activeTexture = UNKNOWN;
+        textureBindings.clear();
+        bufferBindings.clear();
+        drawFramebuffer = readFramebuffer = UNKNOWN;
+        renderbuffer = UNKNOWN;
+        vertexArray = UNKNOWN;
+        capabilities.clear();
+        blendSrcRGB = blendDstRGB = blendSrcAlpha = blendDstAlpha = UNKNOWN;
+        blendEquationRGB = blendEquationAlpha = UNKNOWN;
+        Arrays.fill(blendColor, Float.NaN);
+        Arrays.fill(clearColor, Float.NaN);
+        colorMask = UNKNOWN;
+        depthFunc = UNKNOWN;
+        depthMask = UNKNOWN;
+        cullFace = UNKNOWN;
+        frontFace = UNKNOWN;
+        lineWidth = Float.NaN;
+        polygonOffsetFactor = polygonOffsetUnits = Float.NaN;
+        pixelStore.clear();
+        Arrays.fill(viewport, UNKNOWN);
+        Arrays.fill(scissor, UNKNOWN);
+    }
+
+    /**
+     * Starts recording the calls made on the current thread.
+     */
+    public synchronized void begin() {
+        if (recorder != null) throw new IllegalStateException("Already recording on " + recorder.getName());
+        recorder = Thread.currentThread();
+    }
+
+    /**
+     * Stops recording, the recorded commands are queued for the next {@link #submit()}.
+     */
+    public synchronized void end() {
+        if (!isRecording()) throw new IllegalStateException("Not recording on the current thread");
+        synchronized (pendingLock) {
+            pending.addAll(recorded);
+        }
+        recorded.clear();
+        recorder = null;
+    }
+
+    public boolean isRecording() {
+        return recorder == Thread.currentThread();
+    }
+
+    /**
+     * Executes the queued commands in order, on the GL thread.
+     *
+     * @return the number of commands executed
+     */
+    public int submit() {
+        if (isRecording()) throw new IllegalStateException("Cannot submit while recording on the current thread");
+        List<Runnable> commands;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) return 0;
+            commands = pending;
+            pending = new ArrayList<>(commands.size());
+        }
+        for (Runnable command : commands) {
+            command.run();
+        }
+        return commands.size();
+    }
+
+    public int getPendingCount() {
+        synchronized (pendingLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Returns the number of calls forwarded to the backend.
+     */
+    public int getSubmittedCount() {
+        return submittedCount;
+    }
+
+    /**
+     * Returns the number of calls dropped because they would not have changed the state.
+     */
+    public int getElidedCount() {
+        return elidedCount;
+    }
+
+    public int getRecordedCount() {
+        return recordedCount;
+    }
+
+    public void resetCounters() {
+        submittedCount = 0;
+        elidedCount = 0;
+        recordedCount = 0;
+    }
+
+    private void record(Runnable command) {
+        recorded.add(command);
+        recordedCount ++;
+    }
+
+    private void checkNotRecording() {
+        if (isRecording()) throw new IllegalStateException("Calls returning values cannot be recorded");
+    }
+
+    private GL gl() {
+        submittedCount ++;
+        return gl;
+    }
+
+    private GL30 gl30() {
+        if (gl30 == null) throw new UnsupportedOperationException("OpenGL ES 3.0 not supported by the backend");
+        submittedCount ++;
+        return gl30;
+    }
+
+    private void setProgram(int program) {
+        this.program = program;
+        if (program == UNKNOWN || program == 0) uniforms = null;
+        else uniforms = uniformTables.computeIfAbsent(program, k -> new UniformTable());
+    }
+
+    private boolean uniformUnchanged(int location, int kind, int v0, int v1, int v2, int v3) {
+        return uniforms != null && location >= 0 && uniforms.update(location, kind, v0, v1, v2, v3);
+    }
+
+    private void forgetUniforms(int location, int count) {
+        if (uniforms == null || location < 0) return;
+        // Array elements are not guaranteed to have consecutive locations
+        if (count == 1) uniforms.forget(location);
+        else uniforms.clear();
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        if (isRecording()) {
+            record(() -> glActiveTexture(texture));
+            return;
+        }
+        if (activeTexture == texture) {
+            elidedCount ++;
+            return;
+        }
+        gl().glActiveTexture(texture);
+        activeTexture = texture;
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        if (isRecording()) {
+            record(() -> glAttachShader(program, shader));
+            return;
+        }
+        gl().glAttachShader(program, shader);
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        if (isRecording()) {
+            record(() -> glBindAttribLocation(program, index, name));
+            return;
+        }
+        gl().glBindAttribLocation(program, index, name);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        if (isRecording()) {
+            record(() -> glBindBuffer(target, buffer));
+            return;
+        }
+        if (bufferBindings.get(target) == buffer) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBindBuffer(target, buffer);
+        bufferBindings.put(target, buffer);
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        if (isRecording()) {
+            record(() -> glBindFramebuffer(target, framebuffer));
+            return;
+        }
+        boolean draw = target == GL_FRAMEBUFFER || target == GL_DRAW_FRAMEBUFFER;
+        boolean read = target == GL_FRAMEBUFFER || target == GL_READ_FRAMEBUFFER;
+        if ((draw || read) && (!draw || drawFramebuffer == framebuffer) && (!read || readFramebuffer == framebuffer)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBindFramebuffer(target, framebuffer);
+        if (draw) drawFramebuffer = framebuffer;
+        if (read) readFramebuffer = framebuffer;
+    }
+
+    @Override
+    public void glBindRenderbuffer(int target, int renderbuffer) {
+        if (isRecording()) {
+            record(() -> glBindRenderbuffer(target, renderbuffer));
+            return;
+        }
+        if (target == GL_RENDERBUFFER && this.renderbuffer == renderbuffer) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBindRenderbuffer(target, renderbuffer);
+        if (target == GL_RENDERBUFFER) this.renderbuffer = renderbuffer;
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        if (isRecording()) {
+            record(() -> glBindTexture(target, texture));
+            return;
+        }
+        int key = activeTexture == UNKNOWN ? UNKNOWN : ((activeTexture - GL_TEXTURE0) << 16) | (target & 0xFFFF);
+        if (key != UNKNOWN && textureBindings.get(key) == texture) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBindTexture(target, texture);
+        if (key != UNKNOWN) textureBindings.put(key, texture);
+    }
+
+    @Override
+    public void glBlendColor(float red, float green, float blue, float alpha) {
+        if (isRecording()) {
+            record(() -> glBlendColor(red, green, blue, alpha));
+            return;
+        }
+        if (blendColor[0] == red && blendColor[1] == green && blendColor[2] == blue && blendColor[3] == alpha) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBlendColor(red, green, blue, alpha);
+        blendColor[0] = red;
+        blendColor[1] = green;
+        blendColor[2] = blue;
+        blendColor[3] = alpha;
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        if (isRecording()) {
+            record(() -> glBlendEquation(mode));
+            return;
+        }
+        if (blendEquationRGB == mode && blendEquationAlpha == mode) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBlendEquation(mode);
+        blendEquationRGB = blendEquationAlpha = mode;
+    }
+
+    @Override
+    public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+        if (isRecording()) {
+            record(() -> glBlendEquationSeparate(modeRGB, modeAlpha));
+            return;
+        }
+        if (blendEquationRGB == modeRGB && blendEquationAlpha == modeAlpha) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBlendEquationSeparate(modeRGB, modeAlpha);
+        blendEquationRGB = modeRGB;
+        blendEquationAlpha = modeAlpha;
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        if (isRecording()) {
+            record(() -> glBlendFunc(sfactor, dfactor));
+            return;
+        }
+        if (blendSrcRGB == sfactor && blendDstRGB == dfactor && blendSrcAlpha == sfactor && blendDstAlpha == dfactor) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBlendFunc(sfactor, dfactor);
+        blendSrcRGB = blendSrcAlpha = sfactor;
+        blendDstRGB = blendDstAlpha = dfactor;
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        if (isRecording()) {
+            record(() -> glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha));
+            return;
+        }
+        if (blendSrcRGB == srcRGB && blendDstRGB == dstRGB && blendSrcAlpha == srcAlpha && blendDstAlpha == dstAlpha) {
+            elidedCount ++;
+            return;
+        }
+        gl().glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+        blendSrcRGB = srcRGB;
+        blendDstRGB = dstRGB;
+        blendSrcAlpha = srcAlpha;
+        blendDstAlpha = dstAlpha;
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        if (isRecording()) {
+            record(() -> glBufferData(target, size, data, usage));
+            return;
+        }
+        gl().glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        if (isRecording()) {
+            record(() -> glBufferSubData(target, offset, size, data));
+            return;
+        }
+        gl().glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        checkNotRecording();
+        return gl().glCheckFramebufferStatus(target);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        if (isRecording()) {
+            record(() -> glClear(mask));
+            return;
+        }
+        gl().glClear(mask);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        if (isRecording()) {
+            record(() -> glClearColor(red, green, blue, alpha));
+            return;
+        }
+        if (clearColor[0] == red && clearColor[1] == green && clearColor[2] == blue && clearColor[3] == alpha) {
+            elidedCount ++;
+            return;
+        }
+        gl().glClearColor(red, green, blue, alpha);
+        clearColor[0] = red;
+        clearColor[1] = green;
+        clearColor[2] = blue;
+        clearColor[3] = alpha;
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        if (isRecording()) {
+            record(() -> glClearDepthf(depth));
+            return;
+        }
+        gl().glClearDepthf(depth);
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        if (isRecording()) {
+            record(() -> glClearStencil(s));
+            return;
+        }
+        gl().glClearStencil(s);
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        if (isRecording()) {
+            record(() -> glColorMask(red, green, blue, alpha));
+            return;
+        }
+        int mask = (red ? 1 : 0) | (green ? 2 : 0) | (blue ? 4 : 0) | (alpha ? 8 : 0);
+        if (colorMask == mask) {
+            elidedCount ++;
+            return;
+        }
+        gl().glColorMask(red, green, blue, alpha);
+        colorMask = mask;
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        if (isRecording()) {
+            record(() -> glCompileShader(shader));
+            return;
+        }
+        gl().glCompileShader(shader);
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        if (isRecording()) {
+            record(() -> glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data));
+            return;
+        }
+        gl().glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        if (isRecording()) {
+            record(() -> glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data));
+            return;
+        }
+        gl().glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        if (isRecording()) {
+            record(() -> glCopyTexImage2D(target, level, internalformat, x, y, width, height, border));
+            return;
+        }
+        gl().glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height));
+            return;
+        }
+        gl().glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+    }
+
+    @Override
+    public int glCreateProgram() {
+        checkNotRecording();
+        return gl().glCreateProgram();
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        checkNotRecording();
+        return gl().glCreateShader(type);
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        if (isRecording()) {
+            record(() -> glCullFace(mode));
+            return;
+        }
+        if (cullFace == mode) {
+            elidedCount ++;
+            return;
+        }
+        gl().glCullFace(mode);
+        cullFace = mode;
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteBuffers(n, buffers, offset));
+            return;
+        }
+        gl().glDeleteBuffers(n, buffers, offset);
+        for (int i = 0; i < n; i ++) {
+            int name = buffers[offset + i];
+            bufferBindings.removeValue(name);
+        }
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        if (isRecording()) {
+            record(() -> glDeleteBuffers(n, buffers));
+            return;
+        }
+        gl().glDeleteBuffers(n, buffers);
+        for (int i = 0; i < n; i ++) {
+            int name = buffers.get(buffers.position() + i);
+            bufferBindings.removeValue(name);
+        }
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteFramebuffers(n, framebuffers, offset));
+            return;
+        }
+        gl().glDeleteFramebuffers(n, framebuffers, offset);
+        for (int i = 0; i < n; i ++) {
+            int name = framebuffers[offset + i];
+            if (drawFramebuffer == name) drawFramebuffer = UNKNOWN;
+            if (readFramebuffer == name) readFramebuffer = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+        if (isRecording()) {
+            record(() -> glDeleteFramebuffers(n, framebuffers));
+            return;
+        }
+        gl().glDeleteFramebuffers(n, framebuffers);
+        for (int i = 0; i < n; i ++) {
+            int name = framebuffers.get(framebuffers.position() + i);
+            if (drawFramebuffer == name) drawFramebuffer = UNKNOWN;
+            if (readFramebuffer == name) readFramebuffer = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        if (isRecording()) {
+            record(() -> glDeleteProgram(program));
+            return;
+        }
+        gl().glDeleteProgram(program);
+        uniformTables.remove(program);
+        if (this.program == program) setProgram(UNKNOWN);
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteRenderbuffers(n, renderbuffers, offset));
+            return;
+        }
+        gl().glDeleteRenderbuffers(n, renderbuffers, offset);
+        for (int i = 0; i < n; i ++) {
+            int name = renderbuffers[offset + i];
+            if (renderbuffer == name) renderbuffer = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        if (isRecording()) {
+            record(() -> glDeleteRenderbuffers(n, renderbuffers));
+            return;
+        }
+        gl().glDeleteRenderbuffers(n, renderbuffers);
+        for (int i = 0; i < n; i ++) {
+            int name = renderbuffers.get(renderbuffers.position() + i);
+            if (renderbuffer == name) renderbuffer = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        if (isRecording()) {
+            record(() -> glDeleteShader(shader));
+            return;
+        }
+        gl().glDeleteShader(shader);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteTextures(n, textures, offset));
+            return;
+        }
+        gl().glDeleteTextures(n, textures, offset);
+        for (int i = 0; i < n; i ++) {
+            int name = textures[offset + i];
+            textureBindings.removeValue(name);
+        }
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        if (isRecording()) {
+            record(() -> glDeleteTextures(n, textures));
+            return;
+        }
+        gl().glDeleteTextures(n, textures);
+        for (int i = 0; i < n; i ++) {
+            int name = textures.get(textures.position() + i);
+            textureBindings.removeValue(name);
+        }
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        if (isRecording()) {
+            record(() -> glDepthFunc(func));
+            return;
+        }
+        if (depthFunc == func) {
+            elidedCount ++;
+            return;
+        }
+        gl().glDepthFunc(func);
+        depthFunc = func;
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        if (isRecording()) {
+            record(() -> glDepthMask(flag));
+            return;
+        }
+        int mask = flag ? 1 : 0;
+        if (depthMask == mask) {
+            elidedCount ++;
+            return;
+        }
+        gl().glDepthMask(flag);
+        depthMask = mask;
+    }
+
+    @Override
+    public void glDepthRangef(float zNear, float zFar) {
+        if (isRecording()) {
+            record(() -> glDepthRangef(zNear, zFar));
+            return;
+        }
+        gl().glDepthRangef(zNear, zFar);
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        if (isRecording()) {
+            record(() -> glDetachShader(program, shader));
+            return;
+        }
+        gl().glDetachShader(program, shader);
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        if (isRecording()) {
+            record(() -> glDisable(cap));
+            return;
+        }
+        if (capabilities.get(cap) == 0) {
+            elidedCount ++;
+            return;
+        }
+        gl().glDisable(cap);
+        capabilities.put(cap, 0);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        if (isRecording()) {
+            record(() -> glDisableVertexAttribArray(index));
+            return;
+        }
+        gl().glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        if (isRecording()) {
+            record(() -> glDrawArrays(mode, first, count));
+            return;
+        }
+        gl().glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        if (isRecording()) {
+            record(() -> glDrawElements(mode, count, type, offset));
+            return;
+        }
+        gl().glDrawElements(mode, count, type, offset);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        if (isRecording()) {
+            record(() -> glDrawElements(mode, count, type, indices));
+            return;
+        }
+        gl().glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        if (isRecording()) {
+            record(() -> glEnable(cap));
+            return;
+        }
+        if (capabilities.get(cap) == 1) {
+            elidedCount ++;
+            return;
+        }
+        gl().glEnable(cap);
+        capabilities.put(cap, 1);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        if (isRecording()) {
+            record(() -> glEnableVertexAttribArray(index));
+            return;
+        }
+        gl().glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glFinish() {
+        if (isRecording()) {
+            record(() -> glFinish());
+            return;
+        }
+        gl().glFinish();
+    }
+
+    @Override
+    public void glFlush() {
+        if (isRecording()) {
+            record(() -> glFlush());
+            return;
+        }
+        gl().glFlush();
+    }
+
+    @Override
+    public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        if (isRecording()) {
+            record(() -> glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer));
+            return;
+        }
+        gl().glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        if (isRecording()) {
+            record(() -> glFramebufferTexture2D(target, attachment, textarget, texture, level));
+            return;
+        }
+        gl().glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        if (isRecording()) {
+            record(() -> glFrontFace(mode));
+            return;
+        }
+        if (frontFace == mode) {
+            elidedCount ++;
+            return;
+        }
+        gl().glFrontFace(mode);
+        frontFace = mode;
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        checkNotRecording();
+        gl().glGenBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        checkNotRecording();
+        gl().glGenBuffers(n, buffers);
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+        if (isRecording()) {
+            record(() -> glGenerateMipmap(target));
+            return;
+        }
+        gl().glGenerateMipmap(target);
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        checkNotRecording();
+        gl().glGenFramebuffers(n, framebuffers, offset);
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+        checkNotRecording();
+        gl().glGenFramebuffers(n, framebuffers);
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, int[] renderbuffers, int offset) {
+        checkNotRecording();
+        gl().glGenRenderbuffers(n, renderbuffers, offset);
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+        checkNotRecording();
+        gl().glGenRenderbuffers(n, renderbuffers);
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        checkNotRecording();
+        gl().glGenTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        checkNotRecording();
+        gl().glGenTextures(n, textures);
+    }
+
+    @Override
+    public void glGetActiveAttrib(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        checkNotRecording();
+        gl().glGetActiveAttrib(program, index, bufsize, length, lengthOffset, size, sizeOffset, type, typeOffset, name, nameOffset);
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        checkNotRecording();
+        return gl().glGetActiveAttrib(program, index, size, sizeOffset, type, typeOffset);
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, IntBuffer size, IntBuffer type) {
+        checkNotRecording();
+        return gl().glGetActiveAttrib(program, index, size, type);
+    }
+
+    @Override
+    public void glGetActiveUniform(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        checkNotRecording();
+        gl().glGetActiveUniform(program, index, bufsize, length, lengthOffset, size, sizeOffset, type, typeOffset, name, nameOffset);
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        checkNotRecording();
+        return gl().glGetActiveUniform(program, index, size, sizeOffset, type, typeOffset);
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, IntBuffer size, IntBuffer type) {
+        checkNotRecording();
+        return gl().glGetActiveUniform(program, index, size, type);
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, int[] count, int countOffset, int[] shaders, int shadersOffset) {
+        checkNotRecording();
+        gl().glGetAttachedShaders(program, maxcount, count, countOffset, shaders, shadersOffset);
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+        checkNotRecording();
+        gl().glGetAttachedShaders(program, maxcount, count, shaders);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        checkNotRecording();
+        return gl().glGetAttribLocation(program, name);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, boolean[] params, int offset) {
+        checkNotRecording();
+        gl().glGetBooleanv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetBooleanv(pname, params);
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetBufferParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetBufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public int glGetError() {
+        checkNotRecording();
+        return gl().glGetError();
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        checkNotRecording();
+        gl().glGetFloatv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        checkNotRecording();
+        gl().glGetFloatv(pname, params);
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetFramebufferAttachmentParameteriv(target, attachment, pname, params, offset);
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetFramebufferAttachmentParameteriv(target, attachment, pname, params);
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetIntegerv(pname, params, offset);
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetIntegerv(pname, params);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetProgramiv(program, pname, params, offset);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetProgramiv(program, pname, params);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        checkNotRecording();
+        return gl().glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetRenderbufferParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetRenderbufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetShaderiv(shader, pname, params, offset);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetShaderiv(shader, pname, params);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        checkNotRecording();
+        return gl().glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, int[] range, int rangeOffset, int[] precision, int precisionOffset) {
+        checkNotRecording();
+        gl().glGetShaderPrecisionFormat(shadertype, precisiontype, range, rangeOffset, precision, precisionOffset);
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        checkNotRecording();
+        gl().glGetShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+    }
+
+    @Override
+    public void glGetShaderSource(int shader, int bufsize, int[] length, int lengthOffset, byte[] source, int sourceOffset) {
+        checkNotRecording();
+        gl().glGetShaderSource(shader, bufsize, length, lengthOffset, source, sourceOffset);
+    }
+
+    @Override
+    public void glGetShaderSource(int shader, int bufsize, IntBuffer length, byte source) {
+        checkNotRecording();
+        gl().glGetShaderSource(shader, bufsize, length, source);
+    }
+
+    @Override
+    public String glGetShaderSource(int shader) {
+        checkNotRecording();
+        return gl().glGetShaderSource(shader);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        checkNotRecording();
+        return gl().glGetString(name);
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+        checkNotRecording();
+        gl().glGetTexParameterfv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        checkNotRecording();
+        gl().glGetTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetTexParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, float[] params, int offset) {
+        checkNotRecording();
+        gl().glGetUniformfv(program, location, params, offset);
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, FloatBuffer params) {
+        checkNotRecording();
+        gl().glGetUniformfv(program, location, params);
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetUniformiv(program, location, params, offset);
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetUniformiv(program, location, params);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        checkNotRecording();
+        return gl().glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, float[] params, int offset) {
+        checkNotRecording();
+        gl().glGetVertexAttribfv(index, pname, params, offset);
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+        checkNotRecording();
+        gl().glGetVertexAttribfv(index, pname, params);
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl().glGetVertexAttribiv(index, pname, params, offset);
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl().glGetVertexAttribiv(index, pname, params);
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        if (isRecording()) {
+            record(() -> glHint(target, mode));
+            return;
+        }
+        gl().glHint(target, mode);
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        checkNotRecording();
+        return gl().glIsBuffer(buffer);
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        checkNotRecording();
+        return gl().glIsEnabled(cap);
+    }
+
+    @Override
+    public boolean glIsFramebuffer(int framebuffer) {
+        checkNotRecording();
+        return gl().glIsFramebuffer(framebuffer);
+    }
+
+    @Override
+    public boolean glIsProgram(int program) {
+        checkNotRecording();
+        return gl().glIsProgram(program);
+    }
+
+    @Override
+    public boolean glIsRenderbuffer(int renderbuffer) {
+        checkNotRecording();
+        return gl().glIsRenderbuffer(renderbuffer);
+    }
+
+    @Override
+    public boolean glIsShader(int shader) {
+        checkNotRecording();
+        return gl().glIsShader(shader);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        checkNotRecording();
+        return gl().glIsTexture(texture);
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        if (isRecording()) {
+            record(() -> glLineWidth(width));
+            return;
+        }
+        if (lineWidth == width) {
+            elidedCount ++;
+            return;
+        }
+        gl().glLineWidth(width);
+        lineWidth = width;
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        if (isRecording()) {
+            record(() -> glLinkProgram(program));
+            return;
+        }
+        gl().glLinkProgram(program);
+        // Linking resets the uniforms
+        uniformTables.remove(program);
+        if (this.program == program) setProgram(program);
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        if (isRecording()) {
+            record(() -> glPixelStorei(pname, param));
+            return;
+        }
+        if (pixelStore.get(pname) == param) {
+            elidedCount ++;
+            return;
+        }
+        gl().glPixelStorei(pname, param);
+        pixelStore.put(pname, param);
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        if (isRecording()) {
+            record(() -> glPolygonOffset(factor, units));
+            return;
+        }
+        if (polygonOffsetFactor == factor && polygonOffsetUnits == units) {
+            elidedCount ++;
+            return;
+        }
+        gl().glPolygonOffset(factor, units);
+        polygonOffsetFactor = factor;
+        polygonOffsetUnits = units;
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        checkNotRecording();
+        gl().glReadPixels(x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glReleaseShaderCompiler() {
+        if (isRecording()) {
+            record(() -> glReleaseShaderCompiler());
+            return;
+        }
+        gl().glReleaseShaderCompiler();
+    }
+
+    @Override
+    public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        if (isRecording()) {
+            record(() -> glRenderbufferStorage(target, internalformat, width, height));
+            return;
+        }
+        gl().glRenderbufferStorage(target, internalformat, width, height);
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        if (isRecording()) {
+            record(() -> glSampleCoverage(value, invert));
+            return;
+        }
+        gl().glSampleCoverage(value, invert);
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glScissor(x, y, width, height));
+            return;
+        }
+        if (scissor[0] == x && scissor[1] == y && scissor[2] == width && scissor[3] == height) {
+            elidedCount ++;
+            return;
+        }
+        gl().glScissor(x, y, width, height);
+        scissor[0] = x;
+        scissor[1] = y;
+        scissor[2] = width;
+        scissor[3] = height;
+    }
+
+    @Override
+    public void glShaderBinary(int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+        if (isRecording()) {
+            record(() -> glShaderBinary(n, shaders, offset, binaryformat, binary, length));
+            return;
+        }
+        gl().glShaderBinary(n, shaders, offset, binaryformat, binary, length);
+    }
+
+    @Override
+    public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        if (isRecording()) {
+            record(() -> glShaderBinary(n, shaders, binaryformat, binary, length));
+            return;
+        }
+        gl().glShaderBinary(n, shaders, binaryformat, binary, length);
+    }
+
+    @Override
+    public void glShaderSource(int shader, String... string) {
+        if (isRecording()) {
+            record(() -> glShaderSource(shader, string));
+            return;
+        }
+        gl().glShaderSource(shader, string);
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        if (isRecording()) {
+            record(() -> glStencilFunc(func, ref, mask));
+            return;
+        }
+        gl().glStencilFunc(func, ref, mask);
+    }
+
+    @Override
+    public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+        if (isRecording()) {
+            record(() -> glStencilFuncSeparate(face, func, ref, mask));
+            return;
+        }
+        gl().glStencilFuncSeparate(face, func, ref, mask);
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        if (isRecording()) {
+            record(() -> glStencilMask(mask));
+            return;
+        }
+        gl().glStencilMask(mask);
+    }
+
+    @Override
+    public void glStencilMaskSeparate(int face, int mask) {
+        if (isRecording()) {
+            record(() -> glStencilMaskSeparate(face, mask));
+            return;
+        }
+        gl().glStencilMaskSeparate(face, mask);
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        if (isRecording()) {
+            record(() -> glStencilOp(fail, zfail, zpass));
+            return;
+        }
+        gl().glStencilOp(fail, zfail, zpass);
+    }
+
+    @Override
+    public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        if (isRecording()) {
+            record(() -> glStencilOpSeparate(face, fail, zfail, zpass));
+            return;
+        }
+        gl().glStencilOpSeparate(face, fail, zfail, zpass);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        if (isRecording()) {
+            record(() -> glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels));
+            return;
+        }
+        gl().glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        if (isRecording()) {
+            record(() -> glTexParameterf(target, pname, param));
+            return;
+        }
+        gl().glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+        if (isRecording()) {
+            record(() -> glTexParameterfv(target, pname, params, offset));
+            return;
+        }
+        gl().glTexParameterfv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        if (isRecording()) {
+            record(() -> glTexParameterfv(target, pname, params));
+            return;
+        }
+        gl().glTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        if (isRecording()) {
+            record(() -> glTexParameteri(target, pname, param));
+            return;
+        }
+        gl().glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+        if (isRecording()) {
+            record(() -> glTexParameteriv(target, pname, params, offset));
+            return;
+        }
+        gl().glTexParameteriv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        if (isRecording()) {
+            record(() -> glTexParameteriv(target, pname, params));
+            return;
+        }
+        gl().glTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        if (isRecording()) {
+            record(() -> glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels));
+            return;
+        }
+        gl().glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        if (isRecording()) {
+            record(() -> glUniform1f(location, x));
+            return;
+        }
+        if (uniformUnchanged(location, 1, Float.floatToRawIntBits(x), 0, 0, 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform1f(location, x);
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, float[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform1fv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform1fv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, FloatBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform1fv(location, count, v));
+            return;
+        }
+        gl().glUniform1fv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        if (isRecording()) {
+            record(() -> glUniform1i(location, x));
+            return;
+        }
+        if (uniformUnchanged(location, 5, x, 0, 0, 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform1i(location, x);
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform1iv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform1iv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform1iv(location, count, v));
+            return;
+        }
+        gl().glUniform1iv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        if (isRecording()) {
+            record(() -> glUniform2f(location, x, y));
+            return;
+        }
+        if (uniformUnchanged(location, 2, Float.floatToRawIntBits(x), Float.floatToRawIntBits(y), 0, 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, float[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform2fv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform2fv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, FloatBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform2fv(location, count, v));
+            return;
+        }
+        gl().glUniform2fv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2i(int location, int x, int y) {
+        if (isRecording()) {
+            record(() -> glUniform2i(location, x, y));
+            return;
+        }
+        if (uniformUnchanged(location, 6, x, y, 0, 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform2i(location, x, y);
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform2iv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform2iv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform2iv(location, count, v));
+            return;
+        }
+        gl().glUniform2iv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        if (isRecording()) {
+            record(() -> glUniform3f(location, x, y, z));
+            return;
+        }
+        if (uniformUnchanged(location, 3, Float.floatToRawIntBits(x), Float.floatToRawIntBits(y), Float.floatToRawIntBits(z), 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform3fv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform3fv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, FloatBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform3fv(location, count, v));
+            return;
+        }
+        gl().glUniform3fv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3i(int location, int x, int y, int z) {
+        if (isRecording()) {
+            record(() -> glUniform3i(location, x, y, z));
+            return;
+        }
+        if (uniformUnchanged(location, 7, x, y, z, 0)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform3i(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform3iv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform3iv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform3iv(location, count, v));
+            return;
+        }
+        gl().glUniform3iv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4f(int location, float x, float y, float z, float w) {
+        if (isRecording()) {
+            record(() -> glUniform4f(location, x, y, z, w));
+            return;
+        }
+        if (uniformUnchanged(location, 4, Float.floatToRawIntBits(x), Float.floatToRawIntBits(y), Float.floatToRawIntBits(z), Float.floatToRawIntBits(w))) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform4fv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform4fv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, FloatBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform4fv(location, count, v));
+            return;
+        }
+        gl().glUniform4fv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4i(int location, int x, int y, int z, int w) {
+        if (isRecording()) {
+            record(() -> glUniform4i(location, x, y, z, w));
+            return;
+        }
+        if (uniformUnchanged(location, 8, x, y, z, w)) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUniform4i(location, x, y, z, w);
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform4iv(location, count, v, offset));
+            return;
+        }
+        gl().glUniform4iv(location, count, v, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glUniform4iv(location, count, v));
+            return;
+        }
+        gl().glUniform4iv(location, count, v);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl().glUniformMatrix2fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2fv(location, count, transpose, value));
+            return;
+        }
+        gl().glUniformMatrix2fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl().glUniformMatrix3fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3fv(location, count, transpose, value));
+            return;
+        }
+        gl().glUniformMatrix3fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl().glUniformMatrix4fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4fv(location, count, transpose, value));
+            return;
+        }
+        gl().glUniformMatrix4fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        if (isRecording()) {
+            record(() -> glUseProgram(program));
+            return;
+        }
+        if (this.program == program) {
+            elidedCount ++;
+            return;
+        }
+        gl().glUseProgram(program);
+        setProgram(program);
+    }
+
+    @Override
+    public void glValidateProgram(int program) {
+        if (isRecording()) {
+            record(() -> glValidateProgram(program));
+            return;
+        }
+        gl().glValidateProgram(program);
+    }
+
+    @Override
+    public void glVertexAttrib1f(int indx, float x) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib1f(indx, x));
+            return;
+        }
+        gl().glVertexAttrib1f(indx, x);
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, float[] values, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib1fv(indx, values, offset));
+            return;
+        }
+        gl().glVertexAttrib1fv(indx, values, offset);
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib1fv(indx, values));
+            return;
+        }
+        gl().glVertexAttrib1fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib2f(int indx, float x, float y) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib2f(indx, x, y));
+            return;
+        }
+        gl().glVertexAttrib2f(indx, x, y);
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, float[] values, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib2fv(indx, values, offset));
+            return;
+        }
+        gl().glVertexAttrib2fv(indx, values, offset);
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib2fv(indx, values));
+            return;
+        }
+        gl().glVertexAttrib2fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib3f(int indx, float x, float y, float z) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib3f(indx, x, y, z));
+            return;
+        }
+        gl().glVertexAttrib3f(indx, x, y, z);
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, float[] values, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib3fv(indx, values, offset));
+            return;
+        }
+        gl().glVertexAttrib3fv(indx, values, offset);
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib3fv(indx, values));
+            return;
+        }
+        gl().glVertexAttrib3fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib4f(indx, x, y, z, w));
+            return;
+        }
+        gl().glVertexAttrib4f(indx, x, y, z, w);
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, float[] values, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib4fv(indx, values, offset));
+            return;
+        }
+        gl().glVertexAttrib4fv(indx, values, offset);
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+        if (isRecording()) {
+            record(() -> glVertexAttrib4fv(indx, values));
+            return;
+        }
+        gl().glVertexAttrib4fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttribPointer(indx, size, type, normalized, stride, offset));
+            return;
+        }
+        gl().glVertexAttribPointer(indx, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        if (isRecording()) {
+            record(() -> glVertexAttribPointer(indx, size, type, normalized, stride, ptr));
+            return;
+        }
+        gl().glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glViewport(x, y, width, height));
+            return;
+        }
+        if (viewport[0] == x && viewport[1] == y && viewport[2] == width && viewport[3] == height) {
+            elidedCount ++;
+            return;
+        }
+        gl().glViewport(x, y, width, height);
+        viewport[0] = x;
+        viewport[1] = y;
+        viewport[2] = width;
+        viewport[3] = height;
+    }
+
+    @Override
+    public void glReadBuffer(int mode) {
+        if (isRecording()) {
+            record(() -> glReadBuffer(mode));
+            return;
+        }
+        gl30().glReadBuffer(mode);
+    }
+
+    @Override
+    public void glDrawRangeElements(int mode, int start, int end, int count, int type, Buffer indices) {
+        if (isRecording()) {
+            record(() -> glDrawRangeElements(mode, start, end, count, type, indices));
+            return;
+        }
+        gl30().glDrawRangeElements(mode, start, end, count, type, indices);
+    }
+
+    @Override
+    public void glDrawRangeElements(int mode, int start, int end, int count, int type, int offset) {
+        if (isRecording()) {
+            record(() -> glDrawRangeElements(mode, start, end, count, type, offset));
+            return;
+        }
+        gl30().glDrawRangeElements(mode, start, end, count, type, offset);
+    }
+
+    @Override
+    public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, Buffer pixels) {
+        if (isRecording()) {
+            record(() -> glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, pixels));
+            return;
+        }
+        gl30().glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, int offset) {
+        if (isRecording()) {
+            record(() -> glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, offset));
+            return;
+        }
+        gl30().glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, offset);
+    }
+
+    @Override
+    public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, Buffer pixels) {
+        if (isRecording()) {
+            record(() -> glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels));
+            return;
+        }
+        gl30().glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+    }
+
+    @Override
+    public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, int offset) {
+        if (isRecording()) {
+            record(() -> glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, offset));
+            return;
+        }
+        gl30().glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, offset);
+    }
+
+    @Override
+    public void glCopyTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glCopyTexSubImage3D(target, level, xoffset, yoffset, zoffset, x, y, width, height));
+            return;
+        }
+        gl30().glCopyTexSubImage3D(target, level, xoffset, yoffset, zoffset, x, y, width, height);
+    }
+
+    @Override
+    public void glCompressedTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int imageSize, Buffer data) {
+        if (isRecording()) {
+            record(() -> glCompressedTexImage3D(target, level, internalformat, width, height, depth, border, imageSize, data));
+            return;
+        }
+        gl30().glCompressedTexImage3D(target, level, internalformat, width, height, depth, border, imageSize, data);
+    }
+
+    @Override
+    public void glCompressedTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int imageSize, int offset) {
+        if (isRecording()) {
+            record(() -> glCompressedTexImage3D(target, level, internalformat, width, height, depth, border, imageSize, offset));
+            return;
+        }
+        gl30().glCompressedTexImage3D(target, level, internalformat, width, height, depth, border, imageSize, offset);
+    }
+
+    @Override
+    public void glCompressedTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int imageSize, Buffer data) {
+        if (isRecording()) {
+            record(() -> glCompressedTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, imageSize, data));
+            return;
+        }
+        gl30().glCompressedTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, imageSize, data);
+    }
+
+    @Override
+    public void glCompressedTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int imageSize, int offset) {
+        if (isRecording()) {
+            record(() -> glCompressedTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, imageSize, offset));
+            return;
+        }
+        gl30().glCompressedTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, imageSize, offset);
+    }
+
+    @Override
+    public void glGenQueries(int n, int[] ids, int offset) {
+        checkNotRecording();
+        gl30().glGenQueries(n, ids, offset);
+    }
+
+    @Override
+    public void glGenQueries(int n, IntBuffer ids) {
+        checkNotRecording();
+        gl30().glGenQueries(n, ids);
+    }
+
+    @Override
+    public void glDeleteQueries(int n, int[] ids, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteQueries(n, ids, offset));
+            return;
+        }
+        gl30().glDeleteQueries(n, ids, offset);
+    }
+
+    @Override
+    public void glDeleteQueries(int n, IntBuffer ids) {
+        if (isRecording()) {
+            record(() -> glDeleteQueries(n, ids));
+            return;
+        }
+        gl30().glDeleteQueries(n, ids);
+    }
+
+    @Override
+    public boolean glIsQuery(int id) {
+        checkNotRecording();
+        return gl30().glIsQuery(id);
+    }
+
+    @Override
+    public void glBeginQuery(int target, int id) {
+        if (isRecording()) {
+            record(() -> glBeginQuery(target, id));
+            return;
+        }
+        gl30().glBeginQuery(target, id);
+    }
+
+    @Override
+    public void glEndQuery(int target) {
+        if (isRecording()) {
+            record(() -> glEndQuery(target));
+            return;
+        }
+        gl30().glEndQuery(target);
+    }
+
+    @Override
+    public void glGetQueryiv(int target, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetQueryiv(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetQueryiv(int target, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetQueryiv(target, pname, params);
+    }
+
+    @Override
+    public void glGetQueryObjectuiv(int id, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetQueryObjectuiv(id, pname, params, offset);
+    }
+
+    @Override
+    public void glGetQueryObjectuiv(int id, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetQueryObjectuiv(id, pname, params);
+    }
+
+    @Override
+    public boolean glUnmapBuffer(int target) {
+        checkNotRecording();
+        return gl30().glUnmapBuffer(target);
+    }
+
+    @Override
+    public Buffer glGetBufferPointerv(int target, int pname) {
+        checkNotRecording();
+        return gl30().glGetBufferPointerv(target, pname);
+    }
+
+    @Override
+    public void glDrawBuffers(int n, int[] bufs, int offset) {
+        if (isRecording()) {
+            record(() -> glDrawBuffers(n, bufs, offset));
+            return;
+        }
+        gl30().glDrawBuffers(n, bufs, offset);
+    }
+
+    @Override
+    public void glDrawBuffers(int n, IntBuffer bufs) {
+        if (isRecording()) {
+            record(() -> glDrawBuffers(n, bufs));
+            return;
+        }
+        gl30().glDrawBuffers(n, bufs);
+    }
+
+    @Override
+    public void glUniformMatrix2x3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2x3fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix2x3fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix2x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2x3fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix2x3fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3x2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3x2fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix3x2fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3x2fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix3x2fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix2x4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2x4fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix2x4fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix2x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix2x4fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix2x4fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4x2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4x2fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix4x2fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4x2fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix4x2fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3x4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3x4fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix3x4fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix3x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix3x4fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix3x4fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4x3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4x3fv(location, count, transpose, value, offset));
+            return;
+        }
+        gl30().glUniformMatrix4x3fv(location, count, transpose, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniformMatrix4x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniformMatrix4x3fv(location, count, transpose, value));
+            return;
+        }
+        gl30().glUniformMatrix4x3fv(location, count, transpose, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glBlitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
+        if (isRecording()) {
+            record(() -> glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter));
+            return;
+        }
+        gl30().glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+    }
+
+    @Override
+    public void glRenderbufferStorageMultisample(int target, int samples, int internalformat, int width, int height) {
+        if (isRecording()) {
+            record(() -> glRenderbufferStorageMultisample(target, samples, internalformat, width, height));
+            return;
+        }
+        gl30().glRenderbufferStorageMultisample(target, samples, internalformat, width, height);
+    }
+
+    @Override
+    public void glFramebufferTextureLayer(int target, int attachment, int texture, int level, int layer) {
+        if (isRecording()) {
+            record(() -> glFramebufferTextureLayer(target, attachment, texture, level, layer));
+            return;
+        }
+        gl30().glFramebufferTextureLayer(target, attachment, texture, level, layer);
+    }
+
+    @Override
+    public Buffer glMapBufferRange(int target, int offset, int length, int access) {
+        checkNotRecording();
+        return gl30().glMapBufferRange(target, offset, length, access);
+    }
+
+    @Override
+    public void glFlushMappedBufferRange(int target, int offset, int length) {
+        if (isRecording()) {
+            record(() -> glFlushMappedBufferRange(target, offset, length));
+            return;
+        }
+        gl30().glFlushMappedBufferRange(target, offset, length);
+    }
+
+    @Override
+    public void glBindVertexArray(int array) {
+        if (isRecording()) {
+            record(() -> glBindVertexArray(array));
+            return;
+        }
+        if (vertexArray == array) {
+            elidedCount ++;
+            return;
+        }
+        gl30().glBindVertexArray(array);
+        vertexArray = array;
+        // The element array buffer binding is part of the vertex array state
+        bufferBindings.put(GL_ELEMENT_ARRAY_BUFFER, UNKNOWN);
+    }
+
+    @Override
+    public void glDeleteVertexArrays(int n, int[] arrays, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteVertexArrays(n, arrays, offset));
+            return;
+        }
+        gl30().glDeleteVertexArrays(n, arrays, offset);
+        for (int i = 0; i < n; i ++) {
+            int name = arrays[offset + i];
+            if (vertexArray == name) vertexArray = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glDeleteVertexArrays(int n, IntBuffer arrays) {
+        if (isRecording()) {
+            record(() -> glDeleteVertexArrays(n, arrays));
+            return;
+        }
+        gl30().glDeleteVertexArrays(n, arrays);
+        for (int i = 0; i < n; i ++) {
+            int name = arrays.get(arrays.position() + i);
+            if (vertexArray == name) vertexArray = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void glGenVertexArrays(int n, int[] arrays, int offset) {
+        checkNotRecording();
+        gl30().glGenVertexArrays(n, arrays, offset);
+    }
+
+    @Override
+    public void glGenVertexArrays(int n, IntBuffer arrays) {
+        checkNotRecording();
+        gl30().glGenVertexArrays(n, arrays);
+    }
+
+    @Override
+    public boolean glIsVertexArray(int array) {
+        checkNotRecording();
+        return gl30().glIsVertexArray(array);
+    }
+
+    @Override
+    public void glGetIntegeri_v(int target, int index, int[] data, int offset) {
+        checkNotRecording();
+        gl30().glGetIntegeri_v(target, index, data, offset);
+    }
+
+    @Override
+    public void glGetIntegeri_v(int target, int index, IntBuffer data) {
+        checkNotRecording();
+        gl30().glGetIntegeri_v(target, index, data);
+    }
+
+    @Override
+    public void glBeginTransformFeedback(int primitiveMode) {
+        if (isRecording()) {
+            record(() -> glBeginTransformFeedback(primitiveMode));
+            return;
+        }
+        gl30().glBeginTransformFeedback(primitiveMode);
+    }
+
+    @Override
+    public void glEndTransformFeedback() {
+        if (isRecording()) {
+            record(() -> glEndTransformFeedback());
+            return;
+        }
+        gl30().glEndTransformFeedback();
+    }
+
+    @Override
+    public void glBindBufferRange(int target, int index, int buffer, int offset, int size) {
+        if (isRecording()) {
+            record(() -> glBindBufferRange(target, index, buffer, offset, size));
+            return;
+        }
+        gl30().glBindBufferRange(target, index, buffer, offset, size);
+        bufferBindings.put(target, buffer);
+    }
+
+    @Override
+    public void glBindBufferBase(int target, int index, int buffer) {
+        if (isRecording()) {
+            record(() -> glBindBufferBase(target, index, buffer));
+            return;
+        }
+        gl30().glBindBufferBase(target, index, buffer);
+        bufferBindings.put(target, buffer);
+    }
+
+    @Override
+    public void glTransformFeedbackVaryings(int program, String[] varyings, int bufferMode) {
+        if (isRecording()) {
+            record(() -> glTransformFeedbackVaryings(program, varyings, bufferMode));
+            return;
+        }
+        gl30().glTransformFeedbackVaryings(program, varyings, bufferMode);
+    }
+
+    @Override
+    public void glGetTransformFeedbackVarying(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        checkNotRecording();
+        gl30().glGetTransformFeedbackVarying(program, index, bufsize, length, lengthOffset, size, sizeOffset, type, typeOffset, name, nameOffset);
+    }
+
+    @Override
+    public void glGetTransformFeedbackVarying(int program, int index, int bufsize, IntBuffer length, IntBuffer size, IntBuffer type, ByteBuffer name) {
+        checkNotRecording();
+        gl30().glGetTransformFeedbackVarying(program, index, bufsize, length, size, type, name);
+    }
+
+    @Override
+    public String glGetTransformFeedbackVarying(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        checkNotRecording();
+        return gl30().glGetTransformFeedbackVarying(program, index, size, sizeOffset, type, typeOffset);
+    }
+
+    @Override
+    public String glGetTransformFeedbackVarying(int program, int index, IntBuffer size, IntBuffer type) {
+        checkNotRecording();
+        return gl30().glGetTransformFeedbackVarying(program, index, size, type);
+    }
+
+    @Override
+    public void glVertexAttribIPointer(int index, int size, int type, int stride, Buffer pointer) {
+        if (isRecording()) {
+            record(() -> glVertexAttribIPointer(index, size, type, stride, pointer));
+            return;
+        }
+        gl30().glVertexAttribIPointer(index, size, type, stride, pointer);
+    }
+
+    @Override
+    public void glVertexAttribIPointer(int index, int size, int type, int stride, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttribIPointer(index, size, type, stride, offset));
+            return;
+        }
+        gl30().glVertexAttribIPointer(index, size, type, stride, offset);
+    }
+
+    @Override
+    public void glGetVertexAttribIiv(int index, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetVertexAttribIiv(index, pname, params, offset);
+    }
+
+    @Override
+    public void glGetVertexAttribIiv(int index, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetVertexAttribIiv(index, pname, params);
+    }
+
+    @Override
+    public void glGetVertexAttribIuiv(int index, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetVertexAttribIuiv(index, pname, params, offset);
+    }
+
+    @Override
+    public void glGetVertexAttribIuiv(int index, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetVertexAttribIuiv(index, pname, params);
+    }
+
+    @Override
+    public void glVertexAttribI4i(int index, int x, int y, int z, int w) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4i(index, x, y, z, w));
+            return;
+        }
+        gl30().glVertexAttribI4i(index, x, y, z, w);
+    }
+
+    @Override
+    public void glVertexAttribI4ui(int index, int x, int y, int z, int w) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4ui(index, x, y, z, w));
+            return;
+        }
+        gl30().glVertexAttribI4ui(index, x, y, z, w);
+    }
+
+    @Override
+    public void glVertexAttribI4iv(int index, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4iv(index, v, offset));
+            return;
+        }
+        gl30().glVertexAttribI4iv(index, v, offset);
+    }
+
+    @Override
+    public void glVertexAttribI4iv(int index, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4iv(index, v));
+            return;
+        }
+        gl30().glVertexAttribI4iv(index, v);
+    }
+
+    @Override
+    public void glVertexAttribI4uiv(int index, int[] v, int offset) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4uiv(index, v, offset));
+            return;
+        }
+        gl30().glVertexAttribI4uiv(index, v, offset);
+    }
+
+    @Override
+    public void glVertexAttribI4uiv(int index, IntBuffer v) {
+        if (isRecording()) {
+            record(() -> glVertexAttribI4uiv(index, v));
+            return;
+        }
+        gl30().glVertexAttribI4uiv(index, v);
+    }
+
+    @Override
+    public void glGetUniformuiv(int program, int location, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetUniformuiv(program, location, params, offset);
+    }
+
+    @Override
+    public void glGetUniformuiv(int program, int location, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetUniformuiv(program, location, params);
+    }
+
+    @Override
+    public int glGetFragDataLocation(int program, String name) {
+        checkNotRecording();
+        return gl30().glGetFragDataLocation(program, name);
+    }
+
+    @Override
+    public void glUniform1ui(int location, int v0) {
+        if (isRecording()) {
+            record(() -> glUniform1ui(location, v0));
+            return;
+        }
+        gl30().glUniform1ui(location, v0);
+        forgetUniforms(location, 1);
+    }
+
+    @Override
+    public void glUniform2ui(int location, int v0, int v1) {
+        if (isRecording()) {
+            record(() -> glUniform2ui(location, v0, v1));
+            return;
+        }
+        gl30().glUniform2ui(location, v0, v1);
+        forgetUniforms(location, 1);
+    }
+
+    @Override
+    public void glUniform3ui(int location, int v0, int v1, int v2) {
+        if (isRecording()) {
+            record(() -> glUniform3ui(location, v0, v1, v2));
+            return;
+        }
+        gl30().glUniform3ui(location, v0, v1, v2);
+        forgetUniforms(location, 1);
+    }
+
+    @Override
+    public void glUniform4ui(int location, int v0, int v1, int v2, int v3) {
+        if (isRecording()) {
+            record(() -> glUniform4ui(location, v0, v1, v2, v3));
+            return;
+        }
+        gl30().glUniform4ui(location, v0, v1, v2, v3);
+        forgetUniforms(location, 1);
+    }
+
+    @Override
+    public void glUniform1uiv(int location, int count, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform1uiv(location, count, value, offset));
+            return;
+        }
+        gl30().glUniform1uiv(location, count, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform1uiv(int location, int count, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniform1uiv(location, count, value));
+            return;
+        }
+        gl30().glUniform1uiv(location, count, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2uiv(int location, int count, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform2uiv(location, count, value, offset));
+            return;
+        }
+        gl30().glUniform2uiv(location, count, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform2uiv(int location, int count, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniform2uiv(location, count, value));
+            return;
+        }
+        gl30().glUniform2uiv(location, count, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3uiv(int location, int count, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform3uiv(location, count, value, offset));
+            return;
+        }
+        gl30().glUniform3uiv(location, count, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform3uiv(int location, int count, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniform3uiv(location, count, value));
+            return;
+        }
+        gl30().glUniform3uiv(location, count, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4uiv(int location, int count, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glUniform4uiv(location, count, value, offset));
+            return;
+        }
+        gl30().glUniform4uiv(location, count, value, offset);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glUniform4uiv(int location, int count, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glUniform4uiv(location, count, value));
+            return;
+        }
+        gl30().glUniform4uiv(location, count, value);
+        forgetUniforms(location, count);
+    }
+
+    @Override
+    public void glClearBufferiv(int buffer, int drawbuffer, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glClearBufferiv(buffer, drawbuffer, value, offset));
+            return;
+        }
+        gl30().glClearBufferiv(buffer, drawbuffer, value, offset);
+    }
+
+    @Override
+    public void glClearBufferiv(int buffer, int drawbuffer, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glClearBufferiv(buffer, drawbuffer, value));
+            return;
+        }
+        gl30().glClearBufferiv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void glClearBufferuiv(int buffer, int drawbuffer, int[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glClearBufferuiv(buffer, drawbuffer, value, offset));
+            return;
+        }
+        gl30().glClearBufferuiv(buffer, drawbuffer, value, offset);
+    }
+
+    @Override
+    public void glClearBufferuiv(int buffer, int drawbuffer, IntBuffer value) {
+        if (isRecording()) {
+            record(() -> glClearBufferuiv(buffer, drawbuffer, value));
+            return;
+        }
+        gl30().glClearBufferuiv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void glClearBufferfv(int buffer, int drawbuffer, float[] value, int offset) {
+        if (isRecording()) {
+            record(() -> glClearBufferfv(buffer, drawbuffer, value, offset));
+            return;
+        }
+        gl30().glClearBufferfv(buffer, drawbuffer, value, offset);
+    }
+
+    @Override
+    public void glClearBufferfv(int buffer, int drawbuffer, FloatBuffer value) {
+        if (isRecording()) {
+            record(() -> glClearBufferfv(buffer, drawbuffer, value));
+            return;
+        }
+        gl30().glClearBufferfv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void glClearBufferfi(int buffer, int drawbuffer, float depth, int stencil) {
+        if (isRecording()) {
+            record(() -> glClearBufferfi(buffer, drawbuffer, depth, stencil));
+            return;
+        }
+        gl30().glClearBufferfi(buffer, drawbuffer, depth, stencil);
+    }
+
+    @Override
+    public String glGetStringi(int name, int index) {
+        checkNotRecording();
+        return gl30().glGetStringi(name, index);
+    }
+
+    @Override
+    public void glCopyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset, int size) {
+        if (isRecording()) {
+            record(() -> glCopyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size));
+            return;
+        }
+        gl30().glCopyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+    }
+
+    @Override
+    public void glGetUniformIndices(int program, String[] uniformNames, int[] uniformIndices, int uniformIndicesOffset) {
+        checkNotRecording();
+        gl30().glGetUniformIndices(program, uniformNames, uniformIndices, uniformIndicesOffset);
+    }
+
+    @Override
+    public void glGetUniformIndices(int program, String[] uniformNames, IntBuffer uniformIndices) {
+        checkNotRecording();
+        gl30().glGetUniformIndices(program, uniformNames, uniformIndices);
+    }
+
+    @Override
+    public void glGetActiveUniformsiv(int program, int uniformCount, int[] uniformIndices, int uniformIndicesOffset, int pname, int[] params, int paramsOffset) {
+        checkNotRecording();
+        gl30().glGetActiveUniformsiv(program, uniformCount, uniformIndices, uniformIndicesOffset, pname, params, paramsOffset);
+    }
+
+    @Override
+    public void glGetActiveUniformsiv(int program, int uniformCount, IntBuffer uniformIndices, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetActiveUniformsiv(program, uniformCount, uniformIndices, pname, params);
+    }
+
+    @Override
+    public int glGetUniformBlockIndex(int program, String uniformBlockName) {
+        checkNotRecording();
+        return gl30().glGetUniformBlockIndex(program, uniformBlockName);
+    }
+
+    @Override
+    public void glGetActiveUniformBlockiv(int program, int uniformBlockIndex, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetActiveUniformBlockiv(program, uniformBlockIndex, pname, params, offset);
+    }
+
+    @Override
+    public void glGetActiveUniformBlockiv(int program, int uniformBlockIndex, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetActiveUniformBlockiv(program, uniformBlockIndex, pname, params);
+    }
+
+    @Override
+    public void glGetActiveUniformBlockName(int program, int uniformBlockIndex, int bufSize, int[] length, int lengthOffset, byte[] uniformBlockName, int uniformBlockNameOffset) {
+        checkNotRecording();
+        gl30().glGetActiveUniformBlockName(program, uniformBlockIndex, bufSize, length, lengthOffset, uniformBlockName, uniformBlockNameOffset);
+    }
+
+    @Override
+    public void glGetActiveUniformBlockName(int program, int uniformBlockIndex, Buffer length, Buffer uniformBlockName) {
+        checkNotRecording();
+        gl30().glGetActiveUniformBlockName(program, uniformBlockIndex, length, uniformBlockName);
+    }
+
+    @Override
+    public String glGetActiveUniformBlockName(int program, int uniformBlockIndex) {
+        checkNotRecording();
+        return gl30().glGetActiveUniformBlockName(program, uniformBlockIndex);
+    }
+
+    @Override
+    public void glUniformBlockBinding(int program, int uniformBlockIndex, int uniformBlockBinding) {
+        if (isRecording()) {
+            record(() -> glUniformBlockBinding(program, uniformBlockIndex, uniformBlockBinding));
+            return;
+        }
+        gl30().glUniformBlockBinding(program, uniformBlockIndex, uniformBlockBinding);
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        if (isRecording()) {
+            record(() -> glDrawArraysInstanced(mode, first, count, instanceCount));
+            return;
+        }
+        gl30().glDrawArraysInstanced(mode, first, count, instanceCount);
+    }
+
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, Buffer indices, int instanceCount) {
+        if (isRecording()) {
+            record(() -> glDrawElementsInstanced(mode, count, type, indices, instanceCount));
+            return;
+        }
+        gl30().glDrawElementsInstanced(mode, count, type, indices, instanceCount);
+    }
+
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, int indicesOffset, int instanceCount) {
+        if (isRecording()) {
+            record(() -> glDrawElementsInstanced(mode, count, type, indicesOffset, instanceCount));
+            return;
+        }
+        gl30().glDrawElementsInstanced(mode, count, type, indicesOffset, instanceCount);
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        checkNotRecording();
+        return gl30().glFenceSync(condition, flags);
+    }
+
+    @Override
+    public boolean glIsSync(long sync) {
+        checkNotRecording();
+        return gl30().glIsSync(sync);
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        if (isRecording()) {
+            record(() -> glDeleteSync(sync));
+            return;
+        }
+        gl30().glDeleteSync(sync);
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        checkNotRecording();
+        return gl30().glClientWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void glWaitSync(long sync, int flags, long timeout) {
+        if (isRecording()) {
+            record(() -> glWaitSync(sync, flags, timeout));
+            return;
+        }
+        gl30().glWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void glGetInteger64v(int pname, long[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetInteger64v(pname, params, offset);
+    }
+
+    @Override
+    public void glGetInteger64v(int pname, LongBuffer params) {
+        checkNotRecording();
+        gl30().glGetInteger64v(pname, params);
+    }
+
+    @Override
+    public void glGetSynciv(long sync, int pname, int bufSize, int[] length, int lengthOffset, int[] values, int valuesOffset) {
+        checkNotRecording();
+        gl30().glGetSynciv(sync, pname, bufSize, length, lengthOffset, values, valuesOffset);
+    }
+
+    @Override
+    public void glGetSynciv(long sync, int pname, int bufSize, IntBuffer length, IntBuffer values) {
+        checkNotRecording();
+        gl30().glGetSynciv(sync, pname, bufSize, length, values);
+    }
+
+    @Override
+    public void glGetInteger64i_v(int target, int index, long[] data, int offset) {
+        checkNotRecording();
+        gl30().glGetInteger64i_v(target, index, data, offset);
+    }
+
+    @Override
+    public void glGetInteger64i_v(int target, int index, LongBuffer data) {
+        checkNotRecording();
+        gl30().glGetInteger64i_v(target, index, data);
+    }
+
+    @Override
+    public void glGetBufferParameteri64v(int target, int pname, long[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetBufferParameteri64v(target, pname, params, offset);
+    }
+
+    @Override
+    public void glGetBufferParameteri64v(int target, int pname, LongBuffer params) {
+        checkNotRecording();
+        gl30().glGetBufferParameteri64v(target, pname, params);
+    }
+
+    @Override
+    public void glGenSamplers(int count, int[] samplers, int offset) {
+        checkNotRecording();
+        gl30().glGenSamplers(count, samplers, offset);
+    }
+
+    @Override
+    public void glGenSamplers(int count, IntBuffer samplers) {
+        checkNotRecording();
+        gl30().glGenSamplers(count, samplers);
+    }
+
+    @Override
+    public void glDeleteSamplers(int count, int[] samplers, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteSamplers(count, samplers, offset));
+            return;
+        }
+        gl30().glDeleteSamplers(count, samplers, offset);
+    }
+
+    @Override
+    public void glDeleteSamplers(int count, IntBuffer samplers) {
+        if (isRecording()) {
+            record(() -> glDeleteSamplers(count, samplers));
+            return;
+        }
+        gl30().glDeleteSamplers(count, samplers);
+    }
+
+    @Override
+    public boolean glIsSampler(int sampler) {
+        checkNotRecording();
+        return gl30().glIsSampler(sampler);
+    }
+
+    @Override
+    public void glBindSampler(int unit, int sampler) {
+        if (isRecording()) {
+            record(() -> glBindSampler(unit, sampler));
+            return;
+        }
+        gl30().glBindSampler(unit, sampler);
+    }
+
+    @Override
+    public void glSamplerParameteri(int sampler, int pname, int param) {
+        if (isRecording()) {
+            record(() -> glSamplerParameteri(sampler, pname, param));
+            return;
+        }
+        gl30().glSamplerParameteri(sampler, pname, param);
+    }
+
+    @Override
+    public void glSamplerParameteriv(int sampler, int pname, int[] param, int offset) {
+        if (isRecording()) {
+            record(() -> glSamplerParameteriv(sampler, pname, param, offset));
+            return;
+        }
+        gl30().glSamplerParameteriv(sampler, pname, param, offset);
+    }
+
+    @Override
+    public void glSamplerParameteriv(int sampler, int pname, IntBuffer param) {
+        if (isRecording()) {
+            record(() -> glSamplerParameteriv(sampler, pname, param));
+            return;
+        }
+        gl30().glSamplerParameteriv(sampler, pname, param);
+    }
+
+    @Override
+    public void glSamplerParameterf(int sampler, int pname, float param) {
+        if (isRecording()) {
+            record(() -> glSamplerParameterf(sampler, pname, param));
+            return;
+        }
+        gl30().glSamplerParameterf(sampler, pname, param);
+    }
+
+    @Override
+    public void glSamplerParameterfv(int sampler, int pname, float[] param, int offset) {
+        if (isRecording()) {
+            record(() -> glSamplerParameterfv(sampler, pname, param, offset));
+            return;
+        }
+        gl30().glSamplerParameterfv(sampler, pname, param, offset);
+    }
+
+    @Override
+    public void glSamplerParameterfv(int sampler, int pname, FloatBuffer param) {
+        if (isRecording()) {
+            record(() -> glSamplerParameterfv(sampler, pname, param));
+            return;
+        }
+        gl30().glSamplerParameterfv(sampler, pname, param);
+    }
+
+    @Override
+    public void glGetSamplerParameteriv(int sampler, int pname, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetSamplerParameteriv(sampler, pname, params, offset);
+    }
+
+    @Override
+    public void glGetSamplerParameteriv(int sampler, int pname, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetSamplerParameteriv(sampler, pname, params);
+    }
+
+    @Override
+    public void glGetSamplerParameterfv(int sampler, int pname, float[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetSamplerParameterfv(sampler, pname, params, offset);
+    }
+
+    @Override
+    public void glGetSamplerParameterfv(int sampler, int pname, FloatBuffer params) {
+        checkNotRecording();
+        gl30().glGetSamplerParameterfv(sampler, pname, params);
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        if (isRecording()) {
+            record(() -> glVertexAttribDivisor(index, divisor));
+            return;
+        }
+        gl30().glVertexAttribDivisor(index, divisor);
+    }
+
+    @Override
+    public void glBindTransformFeedback(int target, int id) {
+        if (isRecording()) {
+            record(() -> glBindTransformFeedback(target, id));
+            return;
+        }
+        gl30().glBindTransformFeedback(target, id);
+    }
+
+    @Override
+    public void glDeleteTransformFeedbacks(int n, int[] ids, int offset) {
+        if (isRecording()) {
+            record(() -> glDeleteTransformFeedbacks(n, ids, offset));
+            return;
+        }
+        gl30().glDeleteTransformFeedbacks(n, ids, offset);
+    }
+
+    @Override
+    public void glDeleteTransformFeedbacks(int n, IntBuffer ids) {
+        if (isRecording()) {
+            record(() -> glDeleteTransformFeedbacks(n, ids));
+            return;
+        }
+        gl30().glDeleteTransformFeedbacks(n, ids);
+    }
+
+    @Override
+    public void glGenTransformFeedbacks(int n, int[] ids, int offset) {
+        checkNotRecording();
+        gl30().glGenTransformFeedbacks(n, ids, offset);
+    }
+
+    @Override
+    public void glGenTransformFeedbacks(int n, IntBuffer ids) {
+        checkNotRecording();
+        gl30().glGenTransformFeedbacks(n, ids);
+    }
+
+    @Override
+    public boolean glIsTransformFeedback(int id) {
+        checkNotRecording();
+        return gl30().glIsTransformFeedback(id);
+    }
+
+    @Override
+    public void glPauseTransformFeedback() {
+        if (isRecording()) {
+            record(() -> glPauseTransformFeedback());
+            return;
+        }
+        gl30().glPauseTransformFeedback();
+    }
+
+    @Override
+    public void glResumeTransformFeedback() {
+        if (isRecording()) {
+            record(() -> glResumeTransformFeedback());
+            return;
+        }
+        gl30().glResumeTransformFeedback();
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset, int[] binaryFormat, int binaryFormatOffset, Buffer binary) {
+        checkNotRecording();
+        gl30().glGetProgramBinary(program, bufSize, length, lengthOffset, binaryFormat, binaryFormatOffset, binary);
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, IntBuffer length, IntBuffer binaryFormat, Buffer binary) {
+        checkNotRecording();
+        gl30().glGetProgramBinary(program, bufSize, length, binaryFormat, binary);
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, Buffer binary, int length) {
+        if (isRecording()) {
+            record(() -> glProgramBinary(program, binaryFormat, binary, length));
+            return;
+        }
+        gl30().glProgramBinary(program, binaryFormat, binary, length);
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+        if (isRecording()) {
+            record(() -> glProgramParameteri(program, pname, value));
+            return;
+        }
+        gl30().glProgramParameteri(program, pname, value);
+    }
+
+    @Override
+    public void glInvalidateFramebuffer(int target, int numAttachments, int[] attachments, int offset) {
+        if (isRecording()) {
+            record(() -> glInvalidateFramebuffer(target, numAttachments, attachments, offset));
+            return;
+        }
+        gl30().glInvalidateFramebuffer(target, numAttachments, attachments, offset);
+    }
+
+    @Override
+    public void glInvalidateFramebuffer(int target, int numAttachments, IntBuffer attachments) {
+        if (isRecording()) {
+            record(() -> glInvalidateFramebuffer(target, numAttachments, attachments));
+            return;
+        }
+        gl30().glInvalidateFramebuffer(target, numAttachments, attachments);
+    }
+
+    @Override
+    public void glInvalidateSubFramebuffer(int target, int numAttachments, int[] attachments, int offset, int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glInvalidateSubFramebuffer(target, numAttachments, attachments, offset, x, y, width, height));
+            return;
+        }
+        gl30().glInvalidateSubFramebuffer(target, numAttachments, attachments, offset, x, y, width, height);
+    }
+
+    @Override
+    public void glInvalidateSubFramebuffer(int target, int numAttachments, IntBuffer attachments, int x, int y, int width, int height) {
+        if (isRecording()) {
+            record(() -> glInvalidateSubFramebuffer(target, numAttachments, attachments, x, y, width, height));
+            return;
+        }
+        gl30().glInvalidateSubFramebuffer(target, numAttachments, attachments, x, y, width, height);
+    }
+
+    @Override
+    public void glTexStorage2D(int target, int levels, int internalformat, int width, int height) {
+        if (isRecording()) {
+            record(() -> glTexStorage2D(target, levels, internalformat, width, height));
+            return;
+        }
+        gl30().glTexStorage2D(target, levels, internalformat, width, height);
+    }
+
+    @Override
+    public void glTexStorage3D(int target, int levels, int internalformat, int width, int height, int depth) {
+        if (isRecording()) {
+            record(() -> glTexStorage3D(target, levels, internalformat, width, height, depth));
+            return;
+        }
+        gl30().glTexStorage3D(target, levels, internalformat, width, height, depth);
+    }
+
+    @Override
+    public void glGetInternalformativ(int target, int internalformat, int pname, int bufSize, int[] params, int offset) {
+        checkNotRecording();
+        gl30().glGetInternalformativ(target, internalformat, pname, bufSize, params, offset);
+    }
+
+    @Override
+    public void glGetInternalformativ(int target, int internalformat, int pname, int bufSize, IntBuffer params) {
+        checkNotRecording();
+        gl30().glGetInternalformativ(target, internalformat, pname, bufSize, params);
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, int offset) {
+        checkNotRecording();
+        gl30().glReadPixels(x, y, width, height, format, type, offset);
+    }
+
+    /**
+     * A small int to int map for the few keys of a kind of state, UNKNOWN when absent.
+     */
+    private static final class IntTable {
+
+        private int[] keys = new int[16];
+        private int[] values = new int[16];
+        private int size = 0;
+
+        public int get(int key) {
+            for (int i = 0; i < size; i ++) {
+                if (keys[i] == key) return values[i];
+            }
+            return UNKNOWN;
+        }
+
+        public void put(int key, int value) {
+            for (int i = 0; i < size; i ++) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size ++;
+        }
+
+        public void removeValue(int value) {
+            int count = 0;
+            for (int i = 0; i < size; i ++) {
+                if (values[i] != value) {
+                    keys[count] = keys[i];
+                    values[count] = values[i];
+                    count ++;
+                }
+            }
+            size = count;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+    }
+
+    /**
+     * The last values set to the uniforms of a program, indexed by location.
+     * Kinds 1 to 4 are float vectors and 5 to 8 int vectors of that many components, 0 is unknown.
+     */
+    private static final class UniformTable {
+
+        private byte[] kinds = new byte[16];
+        private int[] values = new int[64];
+
+        public boolean update(int location, int kind, int v0, int v1, int v2, int v3) {
+            if (location >= kinds.length) {
+                int length = Math.max(location + 1, kinds.length * 2);
+                kinds = Arrays.copyOf(kinds, length);
+                values = Arrays.copyOf(values, length * 4);
+            }
+            int index = location * 4;
+            if (kinds[location] == kind && values[index] == v0 && values[index + 1] == v1
+                    && values[index + 2] == v2 && values[index + 3] == v3) return true;
+            kinds[location] = (byte) kind;
+            values[index] = v0;
+            values[index + 1] = v1;
+            values[index + 2] = v2;
+            values[index + 3] = v3;
+            return false;
+        }
+
+        public void forget(int location) {
+            if (location < kinds.length) kinds[location] = 0;
+        }
+
+        public void clear() {
+            Arrays.fill(kinds, (byte) 0);
+        }
+
+    }
+
+}
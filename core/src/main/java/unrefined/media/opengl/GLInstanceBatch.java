@@ -0,0 +1,326 @@
+package unrefined.media.opengl;
+
+import unrefined.io.Disposable;
+import unrefined.util.AlreadyDisposedException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static unrefined.media.opengl.GL20.*;
+
+/**
+ * Batches instances of one mesh, e.g. sprites or particles, into instanced draw calls.
+ * <p>
+ * Every instance is a fixed set of float attributes, fed with a divisor of 1 to the given attribute locations.
+ * Instances are staged in a reused direct buffer and uploaded to a single GL buffer on {@link #flush()}, which happens
+ * automatically when the batch is full, and when the program, texture or mesh changes.
+ * The mesh comes from the vertex array of the batch: per-vertex attributes may be added to {@link #getVertexArray()},
+ * or the shader may build the mesh from {@code gl_VertexID}.
+ * <p>
+ * Between {@link #begin(GL30)} and {@link #end()}, the vertex array and the {@code GL_ARRAY_BUFFER} binding belong to the batch.
+ */
+public class GLInstanceBatch implements Disposable {
+
+    /**
+     * How the GL buffer is reused between flushes without stalling on draws still in flight.
+     */
+    public enum Strategy {
+        /**
+         * Reallocates (orphans) the buffer storage before every upload.
+         */
+        ORPHAN,
+        /**
+         * Appends every upload after the previous one in a buffer holding {@link #RING_BATCHES} full batches,
+         * orphaning only when it wraps around.
+         */
+        RING
+    }
+
+    public static final int RING_BATCHES = 8;
+
+    private final int capacity;
+    private final Strategy strategy;
+    private final int[] locations;
+    private final int[] sizes;
+    private final int floatsPerInstance;
+    private final int stride;
+    private final int bufferSize;
+
+    private GL30 gl;
+    private GL30 glResourcesOwner;
+    private ByteBuffer staging;
+    private FloatBuffer stagingFloats;
+    private int count = 0;
+    private int vertexArray = 0, buffer = 0;
+    private int bufferOffset = 0, pointerOffset = 0;
+
+    private int mode = GL_TRIANGLE_STRIP, first = 0, vertexCount = 4;
+    private int program = 0, texture = 0;
+    private int appliedProgram, appliedTexture;
+
+    private int renderCalls = 0;
+    private int totalRenderCalls = 0;
+    private int orphanCount = 0;
+
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    /**
+     * @param capacity the maximum number of instances per draw call
+     * @param locations the attribute locations of the instance attributes
+     * @param sizes the number of floats (1 to 4) of every instance attribute
+     */
+    public GLInstanceBatch(int capacity, Strategy strategy, int[] locations, int[] sizes) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        Objects.requireNonNull(strategy);
+        if (locations.length != sizes.length) throw new IllegalArgumentException("locations.length != sizes.length");
+        if (locations.length == 0) throw new IllegalArgumentException("No instance attributes");
+        int floatsPerInstance = 0;
+        for (int size : sizes) {
+            if (size < 1 || size > 4) throw new IllegalArgumentException("Attribute size out of range [1, 4]: " + size);
+            floatsPerInstance += size;
+        }
+        this.capacity = capacity;
+        this.strategy = strategy;
+        this.locations = locations.clone();
+        this.sizes = sizes.clone();
+        this.floatsPerInstance = floatsPerInstance;
+        this.stride = floatsPerInstance * 4;
+        this.bufferSize = strategy == Strategy.RING ? capacity * stride * RING_BATCHES : capacity * stride;
+    }
+
+    public GLInstanceBatch(int[] locations, int[] sizes) {
+        this(1024, Strategy.RING, locations, sizes);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public int getFloatsPerInstance() {
+        return floatsPerInstance;
+    }
+
+    /**
+     * The number of instances added since the last flush.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isDrawing() {
+        return gl != null;
+    }
+
+    public void begin(GL30 gl) {
+        Objects.requireNonNull(gl);
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (isDrawing()) throw new IllegalStateException("GLInstanceBatch.end must be called before begin");
+        if (glResourcesOwner != null && glResourcesOwner != gl) throw new IllegalStateException("GLInstanceBatch GL resources belong to another GL instance");
+        this.gl = gl;
+        renderCalls = 0;
+        // Nothing is known about the program and texture bound by others
+        appliedProgram = -1;
+        appliedTexture = -1;
+        if (vertexArray == 0) setupGL();
+        else {
+            gl.glBindVertexArray(vertexArray);
+            gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+        }
+    }
+
+    public void end() {
+        if (!isDrawing()) throw new IllegalStateException("GLInstanceBatch.begin must be called before end");
+        flush();
+        gl.glBindVertexArray(0);
+        gl = null;
+    }
+
+    public int getProgram() {
+        return program;
+    }
+
+    public void setProgram(int program) {
+        if (program != this.program) {
+            if (count > 0) flush();
+            this.program = program;
+        }
+    }
+
+    public int getTexture() {
+        return texture;
+    }
+
+    /**
+     * Sets the {@code GL_TEXTURE_2D} bound to the active texture unit when drawing.
+     */
+    public void setTexture(int texture) {
+        if (texture != this.texture) {
+            if (count > 0) flush();
+            this.texture = texture;
+        }
+    }
+
+    /**
+     * Sets the vertices drawn for every instance, as for {@code glDrawArrays}. Defaults to a 4 vertices triangle strip.
+     */
+    public void setMesh(int mode, int first, int vertexCount) {
+        if (first < 0) throw new IllegalArgumentException("first < 0");
+        if (vertexCount < 1) throw new IllegalArgumentException("vertexCount < 1");
+        if (mode != this.mode || first != this.first || vertexCount != this.vertexCount) {
+            if (count > 0) flush();
+            this.mode = mode;
+            this.first = first;
+            this.vertexCount = vertexCount;
+        }
+    }
+
+    /**
+     * Adds one instance, reading {@link #getFloatsPerInstance()} floats from {@code attributes}.
+     */
+    public void add(float[] attributes, int offset) {
+        add(attributes, offset, 1);
+    }
+
+    /**
+     * Adds {@code count} consecutive instances, flushing as many times as the capacity requires.
+     */
+    public void add(float[] attributes, int offset, int count) {
+        if (!isDrawing()) throw new IllegalStateException("GLInstanceBatch.begin must be called before add");
+        if (count < 0) throw new IllegalArgumentException("count < 0");
+        if (offset < 0 || offset + count * floatsPerInstance > attributes.length) throw new ArrayIndexOutOfBoundsException();
+        while (count > 0) {
+            if (this.count == capacity) flush();
+            int length = Math.min(count, capacity - this.count);
+            stagingFloats.put(attributes, offset, length * floatsPerInstance);
+            this.count += length;
+            offset += length * floatsPerInstance;
+            count -= length;
+        }
+    }
+
+    public void flush() {
+        if (!isDrawing()) throw new IllegalStateException("GLInstanceBatch.begin must be called before flush");
+        if (count == 0) return;
+        if (program != appliedProgram) {
+            gl.glUseProgram(program);
+            appliedProgram = program;
+        }
+        if (texture != appliedTexture) {
+            gl.glBindTexture(GL_TEXTURE_2D, texture);
+            appliedTexture = texture;
+        }
+        int bytes = count * stride;
+        if (strategy == Strategy.ORPHAN || bufferOffset + bytes > bufferSize) {
+            // Fresh storage, the driver keeps the old one alive for the draws still reading it
+            gl.glBufferData(GL_ARRAY_BUFFER, bufferSize, null, GL_STREAM_DRAW);
+            bufferOffset = 0;
+            orphanCount ++;
+        }
+        staging.position(0);
+        staging.limit(bytes);
+        gl.glBufferSubData(GL_ARRAY_BUFFER, bufferOffset, bytes, staging);
+        // GLES 3.0 has no base instance, so the ring is walked by moving the attribute pointers
+        if (bufferOffset != pointerOffset) {
+            setAttributePointers(bufferOffset);
+            pointerOffset = bufferOffset;
+        }
+        gl.glDrawArraysInstanced(mode, first, vertexCount, count);
+        if (strategy == Strategy.RING) bufferOffset += bytes;
+        staging.clear();
+        stagingFloats.clear();
+        count = 0;
+        renderCalls ++;
+        totalRenderCalls ++;
+    }
+
+    /**
+     * The number of draw calls issued since the last begin.
+     */
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    public int getTotalRenderCalls() {
+        return totalRenderCalls;
+    }
+
+    /**
+     * The number of times the buffer storage has been reallocated.
+     */
+    public int getOrphanCount() {
+        return orphanCount;
+    }
+
+    /**
+     * The vertex array the batch draws with; 0 before the first {@link #begin(GL30)}.
+     */
+    public int getVertexArray() {
+        return vertexArray;
+    }
+
+    public int getBuffer() {
+        return buffer;
+    }
+
+    private void setupGL() {
+        int[] names = new int[1];
+        gl.glGenVertexArrays(1, names, 0);
+        vertexArray = names[0];
+        gl.glBindVertexArray(vertexArray);
+        gl.glGenBuffers(1, names, 0);
+        buffer = names[0];
+        gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+        gl.glBufferData(GL_ARRAY_BUFFER, bufferSize, null, GL_STREAM_DRAW);
+        for (int i = 0; i < locations.length; i ++) {
+            gl.glEnableVertexAttribArray(locations[i]);
+            gl.glVertexAttribDivisor(locations[i], 1);
+        }
+        setAttributePointers(0);
+        bufferOffset = pointerOffset = 0;
+        staging = ByteBuffer.allocateDirect(capacity * stride).order(ByteOrder.nativeOrder());
+        stagingFloats = staging.asFloatBuffer();
+        glResourcesOwner = gl;
+    }
+
+    private void setAttributePointers(int offset) {
+        for (int i = 0; i < locations.length; i ++) {
+            gl.glVertexAttribPointer(locations[i], sizes[i], GL_FLOAT, false, stride, offset);
+            offset += sizes[i] * 4;
+        }
+    }
+
+    /**
+     * Releases GL resources. Must be called on the GL thread of the instance passed to {@link #begin(GL30)}.
+     */
+    public void disposeGL() {
+        if (glResourcesOwner == null) return;
+        if (buffer != 0) glResourcesOwner.glDeleteBuffers(1, new int[] {buffer}, 0);
+        if (vertexArray != 0) glResourcesOwner.glDeleteVertexArrays(1, new int[] {vertexArray}, 0);
+        buffer = vertexArray = 0;
+        staging = null;
+        stagingFloats = null;
+        count = 0;
+        glResourcesOwner = null;
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            count = 0;
+            gl = null;
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+}
@@ -1,5 +1,7 @@
 package unrefined.util;
 
+import java.util.Arrays;
+
 /**
  * A quite simple frames-per-second counter. NOT thread-safe.
  * Usage:
@@ -25,11 +27,22 @@ public final class FPSCounter {
 	private long lastTime = -1;
 	private long elapsed = 0;
 	private float delta = 0;
+	private final long[] frameTimes;
+	private long[] sortedFrameTimes;
+	private int frameTimesIndex = 0;
+	private int frameTimesSize = 0;
+	private boolean frameTimesSorted = false;
 
-	public FPSCounter(int maximum, int count) {
+	public FPSCounter(int maximum, int count, int history) {
 		if (maximum < 0) throw new IllegalArgumentException("maximum fps cannot be < 0");
+		if (history < 1) throw new IllegalArgumentException("frame time history cannot be < 1");
 		this.maximum = maximum;
 		this.fpsBuffer = new double[count];
+		this.frameTimes = new long[history];
+	}
+
+	public FPSCounter(int maximum, int count) {
+		this(maximum, count, Math.max(count, 240));
 	}
 
 	public FPSCounter(int maximum) {
@@ -50,6 +63,10 @@ public final class FPSCounter {
 			long nowTime = System.nanoTime();
 			updateBuffer((elapsed = (nowTime - lastTime)) / 1.e9);
 			delta = elapsed / 1_000_000_000f;
+			frameTimes[frameTimesIndex ++] = elapsed;
+			frameTimesIndex %= frameTimes.length;
+			frameTimesSize = Math.min(frameTimesSize + 1, frameTimes.length);
+			frameTimesSorted = false;
 			calculate();
 			lastTime = nowTime;
 		}
@@ -76,6 +93,46 @@ public final class FPSCounter {
 		return average;
 	}
 
+	public int getHistory() {
+		return frameTimes.length;
+	}
+
+	/**
+	 * @param percentile the percentile to query, between 0 and 100.
+	 * @return the frame time at the percentile of the recorded history, in nanoseconds; 0 if no frame has been recorded.
+	 */
+	public long getFrameTimePercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile out of range: " + percentile);
+		if (frameTimesSize == 0) return 0;
+		if (!frameTimesSorted) {
+			if (sortedFrameTimes == null) sortedFrameTimes = new long[frameTimes.length];
+			System.arraycopy(frameTimes, 0, sortedFrameTimes, 0, frameTimesSize);
+			Arrays.sort(sortedFrameTimes, 0, frameTimesSize);
+			frameTimesSorted = true;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * frameTimesSize) - 1;
+		return sortedFrameTimes[Math.max(0, Math.min(frameTimesSize - 1, index))];
+	}
+
+	/**
+	 * @return the longest frame time in the recorded history, in nanoseconds.
+	 */
+	public long getMaximumFrameTime() {
+		return getFrameTimePercentile(100);
+	}
+
+	public void reset() {
+		size = 0;
+		average = 0;
+		fpsBufferIndex = 0;
+		lastTime = -1;
+		elapsed = 0;
+		delta = 0;
+		frameTimesIndex = 0;
+		frameTimesSize = 0;
+		frameTimesSorted = false;
+	}
+
 	private void updateBuffer(double deltaTime) {
 		fpsBuffer[fpsBufferIndex ++] = 1.0 / deltaTime;
 		fpsBufferIndex %= fpsBuffer.length;
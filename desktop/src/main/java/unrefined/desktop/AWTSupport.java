@@ -37,6 +37,10 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -80,6 +84,44 @@ public final class AWTSupport {
         return ReflectionSupport.getIntField(path2D, numCoordsField);
     }
 
+    private static final Field numTypesField;
+    static {
+        try {
+            numTypesField = Path2D.class.getDeclaredField("numTypes");
+        } catch (NoSuchFieldException e) {
+            throw new UnexpectedError(e);
+        }
+    }
+
+    public static int getNumTypes(Path2D path2D) {
+        return ReflectionSupport.getIntField(path2D, numTypesField);
+    }
+
+    private static final Field dataBufferIntDataField;
+    private static final Field dataBufferUShortDataField;
+    private static final Field dataBufferByteDataField;
+    static {
+        try {
+            dataBufferIntDataField = DataBufferInt.class.getDeclaredField("data");
+            dataBufferUShortDataField = DataBufferUShort.class.getDeclaredField("data");
+            dataBufferByteDataField = DataBufferByte.class.getDeclaredField("data");
+        } catch (NoSuchFieldException e) {
+            throw new UnexpectedError(e);
+        }
+    }
+
+    /**
+     * Returns the array of a single bank int, ushort or byte data buffer, or null for any other data buffer.
+     * Unlike {@code getData()}, it does not stop Java2D from caching (accelerating) the image.
+     */
+    public static Object getDataArray(DataBuffer dataBuffer) {
+        if (dataBuffer.getNumBanks() != 1) return null;
+        else if (dataBuffer instanceof DataBufferInt) return ReflectionSupport.getObjectField(dataBuffer, dataBufferIntDataField);
+        else if (dataBuffer instanceof DataBufferUShort) return ReflectionSupport.getObjectField(dataBuffer, dataBufferUShortDataField);
+        else if (dataBuffer instanceof DataBufferByte) return ReflectionSupport.getObjectField(dataBuffer, dataBufferByteDataField);
+        else return null;
+    }
+
     private static final Method trimToSizeMethod;
     static {
         Method method;
@@ -449,7 +491,7 @@ public final class AWTSupport {
             Graphics.Info info = graphics.getInfo();
 
             AttributedCharSequence sequence = new AttributedCharSequence(text.subSequence(start, end), graphics2D.getFont().getAttributes());
-            if (info.getStyle() == Graphics.Style.FILL || info.getTextBackground() != null)
+            if (info.getStyle() == Graphics.Style.FILL && info.getTextBackground() != null)
                 sequence.addAttribute(TextAttribute.BACKGROUND, ((DesktopBrush) info.getTextBackground()).getPaint());
 
             for (Text.SpanMark mark : text.spanMarks()) {
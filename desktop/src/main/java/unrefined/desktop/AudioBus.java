@@ -0,0 +1,251 @@
+package unrefined.desktop;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static unrefined.desktop.AudioSupport.AUDIO_BUS_PARALLEL_VOICES;
+
+/**
+ * A sub-mix: its inputs are summed into a buffer of its own, run through its effects in order, then added to the output
+ * with its gain. Buses nest, so a whole graph is mixed by mixing its root, played by a {@link SoundMuxer}
+ * or rendered offline into a float[]. A bus is an input of one bus at most.
+ * <p>
+ * With an executor, the child buses of a bus playing at least {@link #getParallelVoiceThreshold()} voices are processed
+ * in parallel. They are summed in the order they were added either way, so the output does not depend on it.
+ * Buses processed in parallel process their own children in turn, so that no task ever waits for another one.
+ */
+public class AudioBus implements AudioSource {
+
+	// Copied on write and published atomically, the mixing thread takes them once per block
+	private final AtomicReference<AudioSource[]> inputs = new AtomicReference<>(new AudioSource[0]);
+	private final AtomicReference<AudioEffect[]> effects = new AtomicReference<>(new AudioEffect[0]);
+
+	private volatile float gain = 1;
+	private float appliedGain = 1;
+	private float[] buffer = new float[0];
+
+	private volatile Executor executor;
+	private volatile int parallelVoiceThreshold = AUDIO_BUS_PARALLEL_VOICES;
+
+	// Set by the parent before the bus is handed to its executor
+	private AudioBus parent;
+	private int taskLength;
+	private long taskFrame;
+	private final Runnable task = this::runTask;
+	// Child buses still processing, and the thread waiting for them
+	private final AtomicInteger pending = new AtomicInteger();
+	private volatile Thread waiter;
+
+	public float getGain() {
+		return gain;
+	}
+
+	/**
+	 * Ramped to over the next block.
+	 */
+	public void setGain(float gain) {
+		this.gain = Math.max(gain, 0);
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @param executor processes child buses in parallel, null to process everything on the mixing thread
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public int getParallelVoiceThreshold() {
+		return parallelVoiceThreshold;
+	}
+
+	public void setParallelVoiceThreshold(int voices) {
+		this.parallelVoiceThreshold = Math.max(voices, 0);
+	}
+
+	public void addInput(AudioSource input) {
+		Objects.requireNonNull(input);
+		if (input == this) throw new IllegalArgumentException("A bus can't be an input of itself");
+		AudioSource[] current, updated;
+		do {
+			current = inputs.get();
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = input;
+		}
+		while (!inputs.compareAndSet(current, updated));
+	}
+
+	public void removeInput(AudioSource input) {
+		AudioSource[] current, updated;
+		do {
+			current = inputs.get();
+			int index = indexOf(current, input);
+			if (index < 0) return;
+			updated = new AudioSource[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+		}
+		while (!inputs.compareAndSet(current, updated));
+	}
+
+	public AudioSource[] getInputs() {
+		return inputs.get().clone();
+	}
+
+	/**
+	 * Appends an effect to the chain, processed after the ones added before it.
+	 */
+	public void addEffect(AudioEffect effect) {
+		Objects.requireNonNull(effect);
+		AudioEffect[] current, updated;
+		do {
+			current = effects.get();
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = effect;
+		}
+		while (!effects.compareAndSet(current, updated));
+	}
+
+	public void removeEffect(AudioEffect effect) {
+		AudioEffect[] current, updated;
+		do {
+			current = effects.get();
+			int index = indexOf(current, effect);
+			if (index < 0) return;
+			updated = new AudioEffect[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+		}
+		while (!effects.compareAndSet(current, updated));
+	}
+
+	public AudioEffect[] getEffects() {
+		return effects.get().clone();
+	}
+
+	private static int indexOf(Object[] array, Object element) {
+		for (int i = 0; i < array.length; i ++) {
+			if (array[i] == element) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int getVoiceCount() {
+		int count = 0;
+		for (AudioSource input : inputs.get()) {
+			count += input.getVoiceCount();
+		}
+		return count;
+	}
+
+	@Override
+	public void mix(float[] buffer, int offset, int length, long frame) {
+		if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
+		else if (offset + length > buffer.length) throw new ArrayIndexOutOfBoundsException(offset + length);
+
+		render(length, frame, true);
+		addTo(buffer, offset, length);
+	}
+
+	// Inputs and effects into the own buffer
+	private void render(int length, long frame, boolean parallel) {
+		// only grows, so that steady block sizes allocate nothing
+		if (buffer.length < length) buffer = new float[length];
+		Arrays.fill(buffer, 0, length, 0);
+
+		AudioSource[] inputs = this.inputs.get();
+		int buses = 0;
+		for (AudioSource input : inputs) {
+			if (input instanceof AudioBus) buses ++;
+		}
+		Executor executor = this.executor;
+		if (parallel && executor != null && buses > 1 && getVoiceCount() >= parallelVoiceThreshold) {
+			// every child bus but the first to the executor, the first and the other inputs meanwhile on this thread
+			waiter = Thread.currentThread();
+			pending.set(buses - 1);
+			AudioBus first = null;
+			for (AudioSource input : inputs) {
+				if (!(input instanceof AudioBus)) continue;
+				AudioBus bus = (AudioBus) input;
+				if (first == null) first = bus;
+				else {
+					bus.parent = this;
+					bus.taskLength = length;
+					bus.taskFrame = frame;
+					try {
+						executor.execute(bus.task);
+					}
+					catch (RejectedExecutionException e) {
+						bus.runTask();
+					}
+				}
+			}
+			first.render(length, frame, false);
+			mixSources(inputs, length, frame);
+			while (pending.get() > 0) {
+				LockSupport.park(this);
+			}
+		}
+		else {
+			for (AudioSource input : inputs) {
+				if (input instanceof AudioBus) ((AudioBus) input).render(length, frame, true);
+			}
+			mixSources(inputs, length, frame);
+		}
+		// buses summed last and in order, whichever thread rendered them
+		for (AudioSource input : inputs) {
+			if (input instanceof AudioBus) ((AudioBus) input).addTo(buffer, 0, length);
+		}
+
+		int frames = length / 2;
+		for (AudioEffect effect : effects.get()) {
+			effect.process(buffer, 0, frames);
+		}
+	}
+
+	private void mixSources(AudioSource[] inputs, int length, long frame) {
+		for (AudioSource input : inputs) {
+			if (!(input instanceof AudioBus)) input.mix(buffer, 0, length, frame);
+		}
+	}
+
+	private void runTask() {
+		AudioBus parent = this.parent;
+		try {
+			render(taskLength, taskFrame, false);
+		}
+		finally {
+			if (parent.pending.decrementAndGet() == 0) LockSupport.unpark(parent.waiter);
+		}
+	}
+
+	// The rendered buffer into the output, the gain ramping from the last block's
+	private void addTo(float[] output, int offset, int length) {
+		float target = gain, current = appliedGain;
+		int frames = length / 2;
+		if (current == target) {
+			for (int i = 0; i < frames * 2; i ++) {
+				output[offset + i] += buffer[i] * target;
+			}
+		}
+		else {
+			float incr = (target - current) / frames;
+			for (int i = 0; i < frames; i ++) {
+				float gain = current + i * incr;
+				output[offset + i * 2] += buffer[i * 2] * gain;
+				output[offset + i * 2 + 1] += buffer[i * 2 + 1] * gain;
+			}
+		}
+		appliedGain = target;
+	}
+
+}
@@ -0,0 +1,17 @@
+package unrefined.desktop;
+
+/**
+ * Processes interleaved stereo in place, block by block on the mixing thread of its {@link AudioBus}.
+ * Parameters may be set from any thread and are taken into account from the next block.
+ */
+public interface AudioEffect {
+
+	void process(float[] buffer, int offset, int frames);
+
+	/**
+	 * Clears the internal state, e.g. filter history or reverb tails, as if nothing had been processed yet.
+	 * Not thread safe, only call it while the effect is not being processed.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,21 @@
+package unrefined.desktop;
+
+/**
+ * Anything that can be mixed block by block into interleaved stereo, on a single mixing thread at a time.
+ * @see SoundClip
+ * @see AudioBus
+ */
+public interface AudioSource {
+
+	/**
+	 * Adds the next length samples into the buffer, without clearing or clamping it.
+	 * @param frame the mixing clock at the start of the buffer
+	 */
+	void mix(float[] buffer, int offset, int length, long frame);
+
+	/**
+	 * @return the voices currently playing, to weigh whether the source is worth processing in parallel
+	 */
+	int getVoiceCount();
+
+}
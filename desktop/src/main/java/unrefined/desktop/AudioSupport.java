@@ -7,6 +7,9 @@ import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.DataLine;
 import javax.sound.sampled.SourceDataLine;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
@@ -14,33 +17,26 @@ import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 public final class AudioSupport {
 
     public static final int DEFAULT_BUFFER_FRAMES = 2048;
+    public static final int DEFAULT_READ_AHEAD_FRAMES = 32768;
     public static final AudioFormat DEFAULT_AUDIO_FORMAT = new AudioFormat(44100, 16, 2, true, false);
     public static final DataLine.Info DEFAULT_AUDIO_LINE_INFO = new DataLine.Info(SourceDataLine.class, DEFAULT_AUDIO_FORMAT);
     public static final int SOUND_VOLUME_STEPS = 1024;
     public static final int SOUND_SPEED_STEPS = 4096;
+    public static final int SOUND_COMMAND_QUEUE_CAPACITY = 1024;
+    public static final int AUDIO_BUS_PARALLEL_VOICES = 64;
+    public static final int LOW_LATENCY_LINE_FRAMES = 2048;
+    public static final int LOW_LATENCY_QUANTUM_FRAMES = 256;
+    public static final int LOW_LATENCY_MIN_QUANTUM_FRAMES = 64;
 
     private AudioSupport() {
         throw new NotInstantiableError(AudioSupport.class);
     }
 
+    /**
+     * Scales interleaved 16-bit signed little-endian stereo samples in place.
+     */
     public static void adjustVolume(byte[] samples, int offset, int length, double leftVolume, double rightVolume) {
-        short[] buf = new short[4];
-        short left, right;
-        for (int i = offset; i < offset + length; i += 4) {
-
-            buf[0] = (short) ((samples[i + 1] & 0xFF) << 8);
-            buf[1] = (short) (samples[i] & 0xFF);
-            buf[2] = (short) ((samples[i + 3] & 0xFF) << 8);
-            buf[3] = (short) (samples[i + 2] & 0xFF);
-
-            left  = (short) ((buf[0] | buf[1]) * leftVolume);
-            right = (short) ((buf[2] | buf[3]) * rightVolume);
-
-            samples[i]     = (byte) left;
-            samples[i + 1] = (byte) (left >> 8);
-            samples[i + 2] = (byte) right;
-            samples[i + 3] = (byte) (right >> 8);
-        }
+        applyGain(samples, offset, length / 4, (float) leftVolume, (float) rightVolume, 0, 0);
     }
 
     public static AudioInputStream getSupportedAudioInputStream(AudioFormat targetFormat, AudioInputStream sourceStream) {
@@ -62,18 +58,284 @@ public final class AudioSupport {
         return AudioSystem.getAudioInputStream(targetFormat, AudioSystem.getAudioInputStream(decodedFormat, sourceStream));
     }
 
+    /**
+     * Decodes to 16 bits signed little-endian PCM, keeping the sample rate and channels of the source.
+     */
+    public static AudioInputStream getDecodedAudioInputStream(AudioInputStream sourceStream) {
+        Objects.requireNonNull(sourceStream);
+        AudioFormat sourceFormat = sourceStream.getFormat();
+
+        float sampleRate = sourceFormat.getSampleRate();
+        if (sampleRate == NOT_SPECIFIED) sampleRate = DEFAULT_AUDIO_FORMAT.getSampleRate();
+        int channels = sourceFormat.getChannels();
+        if (channels == NOT_SPECIFIED) channels = DEFAULT_AUDIO_FORMAT.getChannels();
+
+        AudioFormat targetFormat = new AudioFormat(sampleRate, 16, channels, true, false);
+        if (sourceFormat.matches(targetFormat)) return sourceStream;
+        else return getSupportedAudioInputStream(targetFormat, sourceStream);
+    }
+
     public static void fromPcmToAudioBytes(byte[] audioBytes, float[] sourcePcm) {
         if (sourcePcm.length * 2 != audioBytes.length) {
             throw new IllegalArgumentException(
                     "Destination array must be exactly twice the length of the source array");
         }
+        floatToS16LE(sourcePcm, 0, audioBytes, 0, sourcePcm.length);
+    }
+
+    /*
+     * PCM conversions. Samples are counted per channel, so a stereo frame is two samples; floats are normalized
+     * to [-1, 1] and clamped when converted to integers. Nothing is allocated, and the source is never modified.
+     */
+
+    private static final float S16_SCALE = 32767f;
+    private static final float S16_INVERSE = 1 / S16_SCALE;
+    private static final float S24_SCALE = 8388607f;
+    private static final float S24_INVERSE = 1 / S24_SCALE;
+    private static final double S32_SCALE = 2147483647.0;
+    private static final float S32_INVERSE = (float) (1 / S32_SCALE);
+
+    // biased to be positive, where truncating rounds to the nearest, which is cheaper than Math.round
+    private static int toS16(float sample) {
+        return (int) ((sample > 1 ? 1 : sample < -1 ? -1 : sample) * S16_SCALE + 32768.5f) - 32768;
+    }
+
+    public static void floatToS16LE(float[] source, int sourceOffset, byte[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples);
+        checkRange(destination.length, destinationOffset, samples * 2);
+        int i = 0;
+        // four samples per iteration, the bounds checked above
+        for (; i < (samples & ~3); i += 4) {
+            int a = toS16(source[sourceOffset + i]);
+            int b = toS16(source[sourceOffset + i + 1]);
+            int c = toS16(source[sourceOffset + i + 2]);
+            int d = toS16(source[sourceOffset + i + 3]);
+            int index = destinationOffset + i * 2;
+            destination[index] = (byte) a;
+            destination[index + 1] = (byte) (a >> 8);
+            destination[index + 2] = (byte) b;
+            destination[index + 3] = (byte) (b >> 8);
+            destination[index + 4] = (byte) c;
+            destination[index + 5] = (byte) (c >> 8);
+            destination[index + 6] = (byte) d;
+            destination[index + 7] = (byte) (d >> 8);
+        }
+        for (; i < samples; i ++) {
+            int sample = toS16(source[sourceOffset + i]);
+            destination[destinationOffset + i * 2] = (byte) sample;
+            destination[destinationOffset + i * 2 + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    public static void s16LEToFloat(byte[] source, int sourceOffset, float[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples * 2);
+        checkRange(destination.length, destinationOffset, samples);
+        int i = 0;
+        for (; i < (samples & ~3); i += 4) {
+            int index = sourceOffset + i * 2;
+            destination[destinationOffset + i] = (short) ((source[index] & 0xFF) | source[index + 1] << 8) * S16_INVERSE;
+            destination[destinationOffset + i + 1] = (short) ((source[index + 2] & 0xFF) | source[index + 3] << 8) * S16_INVERSE;
+            destination[destinationOffset + i + 2] = (short) ((source[index + 4] & 0xFF) | source[index + 5] << 8) * S16_INVERSE;
+            destination[destinationOffset + i + 3] = (short) ((source[index + 6] & 0xFF) | source[index + 7] << 8) * S16_INVERSE;
+        }
+        for (; i < samples; i ++) {
+            int index = sourceOffset + i * 2;
+            destination[destinationOffset + i] = (short) ((source[index] & 0xFF) | source[index + 1] << 8) * S16_INVERSE;
+        }
+    }
+
+    public static void floatToS24LE(float[] source, int sourceOffset, byte[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples);
+        checkRange(destination.length, destinationOffset, samples * 3);
+        for (int i = 0; i < samples; i ++) {
+            float sample = source[sourceOffset + i];
+            int value = Math.round((sample > 1 ? 1 : sample < -1 ? -1 : sample) * S24_SCALE);
+            int index = destinationOffset + i * 3;
+            destination[index] = (byte) value;
+            destination[index + 1] = (byte) (value >> 8);
+            destination[index + 2] = (byte) (value >> 16);
+        }
+    }
+
+    public static void s24LEToFloat(byte[] source, int sourceOffset, float[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples * 3);
+        checkRange(destination.length, destinationOffset, samples);
+        for (int i = 0; i < samples; i ++) {
+            int index = sourceOffset + i * 3;
+            // the top byte shifted in with its sign
+            int value = (source[index] & 0xFF) | (source[index + 1] & 0xFF) << 8 | source[index + 2] << 16;
+            destination[destinationOffset + i] = value * S24_INVERSE;
+        }
+    }
+
+    public static void floatToS32LE(float[] source, int sourceOffset, byte[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples);
+        checkRange(destination.length, destinationOffset, samples * 4);
+        for (int i = 0; i < samples; i ++) {
+            float sample = source[sourceOffset + i];
+            // in double, since a float can't hold every 32-bit value
+            int value = (int) Math.round((sample > 1 ? 1 : sample < -1 ? -1 : sample) * S32_SCALE);
+            int index = destinationOffset + i * 4;
+            destination[index] = (byte) value;
+            destination[index + 1] = (byte) (value >> 8);
+            destination[index + 2] = (byte) (value >> 16);
+            destination[index + 3] = (byte) (value >> 24);
+        }
+    }
+
+    public static void s32LEToFloat(byte[] source, int sourceOffset, float[] destination, int destinationOffset, int samples) {
+        checkRange(source.length, sourceOffset, samples * 4);
+        checkRange(destination.length, destinationOffset, samples);
+        for (int i = 0; i < samples; i ++) {
+            int index = sourceOffset + i * 4;
+            int value = (source[index] & 0xFF) | (source[index + 1] & 0xFF) << 8 | (source[index + 2] & 0xFF) << 16 | source[index + 3] << 24;
+            destination[destinationOffset + i] = value * S32_INVERSE;
+        }
+    }
+
+    /**
+     * Writes 16-bit samples at the buffer's position in its byte order, and advances it.
+     */
+    public static void floatToS16(float[] source, int sourceOffset, ByteBuffer destination, int samples) {
+        checkRange(source.length, sourceOffset, samples);
+        if (destination.remaining() < samples * 2) throw new BufferOverflowException();
+        int position = destination.position();
+        for (int i = 0; i < samples; i ++) {
+            destination.putShort(position + i * 2, (short) toS16(source[sourceOffset + i]));
+        }
+        destination.position(position + samples * 2);
+    }
+
+    /**
+     * Reads 16-bit samples at the buffer's position in its byte order, and advances it.
+     */
+    public static void s16ToFloat(ByteBuffer source, float[] destination, int destinationOffset, int samples) {
+        checkRange(destination.length, destinationOffset, samples);
+        if (source.remaining() < samples * 2) throw new BufferUnderflowException();
+        int position = source.position();
+        for (int i = 0; i < samples; i ++) {
+            destination[destinationOffset + i] = source.getShort(position + i * 2) * S16_INVERSE;
+        }
+        source.position(position + samples * 2);
+    }
+
+    /**
+     * Converts to 16 bits with triangular dither of one least significant bit, which turns the truncation distortion
+     * of quiet signals into a constant noise floor.
+     * @param seed the state of the noise, non zero
+     * @return the state to pass to the next call, so that the noise continues
+     */
+    public static int floatToS16LEDithered(float[] source, int sourceOffset, byte[] destination, int destinationOffset, int samples, int seed) {
+        checkRange(source.length, sourceOffset, samples);
+        checkRange(destination.length, destinationOffset, samples * 2);
+        if (seed == 0) seed = 1;
+        for (int i = 0; i < samples; i ++) {
+            // two uniform values from a xorshift generator, their difference is triangular in (-1, 1)
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            int first = seed & 0xFFFF, second = seed >>> 16;
+            float noise = (first - second) * (1f / 65536);
+            float sample = source[sourceOffset + i] * S16_SCALE + noise;
+            int value = Math.round(sample > S16_SCALE ? S16_SCALE : sample < -S16_SCALE ? -S16_SCALE : sample);
+            destination[destinationOffset + i * 2] = (byte) value;
+            destination[destinationOffset + i * 2 + 1] = (byte) (value >> 8);
+        }
+        return seed;
+    }
 
-        for (int i = 0, n = sourcePcm.length; i < n; i ++) {
-            sourcePcm[i] *= 32767;
+    /**
+     * Interleaves two channels into stereo frames.
+     */
+    public static void interleave(float[] left, int leftOffset, float[] right, int rightOffset, float[] destination, int destinationOffset, int frames) {
+        checkRange(left.length, leftOffset, frames);
+        checkRange(right.length, rightOffset, frames);
+        checkRange(destination.length, destinationOffset, frames * 2);
+        for (int i = 0; i < frames; i ++) {
+            destination[destinationOffset + i * 2] = left[leftOffset + i];
+            destination[destinationOffset + i * 2 + 1] = right[rightOffset + i];
+        }
+    }
 
-            audioBytes[i * 2] = (byte) sourcePcm[i];
-            audioBytes[i * 2 + 1] = (byte)((int) sourcePcm[i] >> 8);
+    /**
+     * Splits stereo frames into two channels.
+     */
+    public static void deinterleave(float[] source, int sourceOffset, float[] left, int leftOffset, float[] right, int rightOffset, int frames) {
+        checkRange(source.length, sourceOffset, frames * 2);
+        checkRange(left.length, leftOffset, frames);
+        checkRange(right.length, rightOffset, frames);
+        for (int i = 0; i < frames; i ++) {
+            left[leftOffset + i] = source[sourceOffset + i * 2];
+            right[rightOffset + i] = source[sourceOffset + i * 2 + 1];
         }
     }
 
+    public static void monoToStereo(float[] source, int sourceOffset, float[] destination, int destinationOffset, int frames) {
+        checkRange(source.length, sourceOffset, frames);
+        checkRange(destination.length, destinationOffset, frames * 2);
+        // backwards, so that the conversion can be done in place at the same offset
+        for (int i = frames - 1; i >= 0; i --) {
+            float sample = source[sourceOffset + i];
+            destination[destinationOffset + i * 2] = sample;
+            destination[destinationOffset + i * 2 + 1] = sample;
+        }
+    }
+
+    /**
+     * Averages both channels, which can be done in place at the same offset.
+     */
+    public static void stereoToMono(float[] source, int sourceOffset, float[] destination, int destinationOffset, int frames) {
+        checkRange(source.length, sourceOffset, frames * 2);
+        checkRange(destination.length, destinationOffset, frames);
+        for (int i = 0; i < frames; i ++) {
+            destination[destinationOffset + i] = (source[sourceOffset + i * 2] + source[sourceOffset + i * 2 + 1]) * 0.5f;
+        }
+    }
+
+    /**
+     * Scales interleaved stereo frames in place, each channel's gain ramping linearly by its increment per frame.
+     */
+    public static void applyGain(float[] samples, int offset, int frames, float left, float right, float leftIncr, float rightIncr) {
+        checkRange(samples.length, offset, frames * 2);
+        if (leftIncr == 0 && rightIncr == 0) {
+            for (int i = offset; i < offset + frames * 2; i += 2) {
+                samples[i] *= left;
+                samples[i + 1] *= right;
+            }
+        }
+        else {
+            for (int i = 0; i < frames; i ++) {
+                samples[offset + i * 2] *= left + i * leftIncr;
+                samples[offset + i * 2 + 1] *= right + i * rightIncr;
+            }
+        }
+    }
+
+    /**
+     * Scales interleaved 16-bit signed little-endian stereo frames in place, each channel's gain ramping linearly
+     * by its increment per frame.
+     */
+    public static void applyGain(byte[] samples, int offset, int frames, float left, float right, float leftIncr, float rightIncr) {
+        checkRange(samples.length, offset, frames * 4);
+        float leftGain = left, rightGain = right;
+        for (int i = offset; i < offset + frames * 4; i += 4) {
+            // in the 16-bit domain, rounded as toS16 does
+            int leftSample = (int) ((short) ((samples[i] & 0xFF) | samples[i + 1] << 8) * leftGain + 32768.5f) - 32768;
+            int rightSample = (int) ((short) ((samples[i + 2] & 0xFF) | samples[i + 3] << 8) * rightGain + 32768.5f) - 32768;
+            leftSample = Math.max(Math.min(leftSample, Short.MAX_VALUE), Short.MIN_VALUE);
+            rightSample = Math.max(Math.min(rightSample, Short.MAX_VALUE), Short.MIN_VALUE);
+            samples[i] = (byte) leftSample;
+            samples[i + 1] = (byte) (leftSample >> 8);
+            samples[i + 2] = (byte) rightSample;
+            samples[i + 3] = (byte) (rightSample >> 8);
+            leftGain += leftIncr;
+            rightGain += rightIncr;
+        }
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
+        else if (length < 0 || offset + length > arrayLength) throw new ArrayIndexOutOfBoundsException(offset + length);
+    }
+
 }
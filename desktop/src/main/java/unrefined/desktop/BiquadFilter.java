@@ -0,0 +1,184 @@
+package unrefined.desktop;
+
+import java.util.Objects;
+
+import static unrefined.desktop.AudioSupport.DEFAULT_AUDIO_FORMAT;
+
+/**
+ * Second order IIR filter from the Audio EQ Cookbook, in transposed direct form II with double precision state,
+ * applied to both channels.
+ */
+public class BiquadFilter implements AudioEffect {
+
+	public enum Type {
+		LOW_PASS,
+		HIGH_PASS,
+		BAND_PASS,
+		NOTCH,
+		/** Boosts or cuts around the frequency by the gain */
+		PEAK,
+		/** Boosts or cuts below the frequency by the gain */
+		LOW_SHELF,
+		/** Boosts or cuts above the frequency by the gain */
+		HIGH_SHELF
+	}
+
+	// Below this the state is flushed to zero, before it decays into slow denormal arithmetic
+	private static final double DENORMAL_THRESHOLD = 1e-30;
+
+	private final double sampleRate;
+
+	private volatile Type type;
+	private volatile double frequency, q, gain;
+	private volatile boolean changed = true;
+
+	private double b0, b1, b2, a1, a2;
+	private double leftState1, leftState2, rightState1, rightState2;
+
+	public BiquadFilter(Type type, double frequency) {
+		this(type, frequency, Math.sqrt(0.5), 0);
+	}
+
+	public BiquadFilter(Type type, double frequency, double q, double gain) {
+		this(type, frequency, q, gain, DEFAULT_AUDIO_FORMAT.getSampleRate());
+	}
+
+	public BiquadFilter(Type type, double frequency, double q, double gain, double sampleRate) {
+		if (!(sampleRate > 0)) throw new IllegalArgumentException("sample rate must be positive");
+		this.sampleRate = sampleRate;
+		set(type, frequency, q, gain);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public double getFrequency() {
+		return frequency;
+	}
+
+	public double getQ() {
+		return q;
+	}
+
+	/**
+	 * @return the gain in decibels, of the peak and shelf types
+	 */
+	public double getGain() {
+		return gain;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @param frequency the cutoff or center frequency in hertz, kept below the Nyquist frequency
+	 * @param q the quality factor, higher is narrower; the square root of 1/2 is the flattest for passes and shelves
+	 * @param gain in decibels, of the peak and shelf types
+	 */
+	public void set(Type type, double frequency, double q, double gain) {
+		this.type = Objects.requireNonNull(type);
+		this.frequency = Math.max(1, Math.min(frequency, sampleRate * 0.499));
+		this.q = Math.max(q, 1e-3);
+		this.gain = gain;
+		changed = true;
+	}
+
+	public void setFrequency(double frequency) {
+		set(type, frequency, q, gain);
+	}
+
+	private void updateCoefficients() {
+		double omega = 2 * Math.PI * frequency / sampleRate;
+		double sin = Math.sin(omega), cos = Math.cos(omega);
+		double alpha = sin / (2 * q);
+		double amplitude = Math.pow(10, gain / 40);
+		double b0, b1, b2, a0, a1, a2;
+		switch (type) {
+			case HIGH_PASS:
+				b0 = (1 + cos) / 2; b1 = -(1 + cos); b2 = (1 + cos) / 2;
+				a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+				break;
+			case BAND_PASS:
+				b0 = alpha; b1 = 0; b2 = -alpha;
+				a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+				break;
+			case NOTCH:
+				b0 = 1; b1 = -2 * cos; b2 = 1;
+				a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+				break;
+			case PEAK:
+				b0 = 1 + alpha * amplitude; b1 = -2 * cos; b2 = 1 - alpha * amplitude;
+				a0 = 1 + alpha / amplitude; a1 = -2 * cos; a2 = 1 - alpha / amplitude;
+				break;
+			case LOW_SHELF: {
+				double root = 2 * Math.sqrt(amplitude) * alpha;
+				b0 = amplitude * ((amplitude + 1) - (amplitude - 1) * cos + root);
+				b1 = 2 * amplitude * ((amplitude - 1) - (amplitude + 1) * cos);
+				b2 = amplitude * ((amplitude + 1) - (amplitude - 1) * cos - root);
+				a0 = (amplitude + 1) + (amplitude - 1) * cos + root;
+				a1 = -2 * ((amplitude - 1) + (amplitude + 1) * cos);
+				a2 = (amplitude + 1) + (amplitude - 1) * cos - root;
+				break;
+			}
+			case HIGH_SHELF: {
+				double root = 2 * Math.sqrt(amplitude) * alpha;
+				b0 = amplitude * ((amplitude + 1) + (amplitude - 1) * cos + root);
+				b1 = -2 * amplitude * ((amplitude - 1) + (amplitude + 1) * cos);
+				b2 = amplitude * ((amplitude + 1) + (amplitude - 1) * cos - root);
+				a0 = (amplitude + 1) - (amplitude - 1) * cos + root;
+				a1 = 2 * ((amplitude - 1) - (amplitude + 1) * cos);
+				a2 = (amplitude + 1) - (amplitude - 1) * cos - root;
+				break;
+			}
+			default:
+				b0 = (1 - cos) / 2; b1 = 1 - cos; b2 = (1 - cos) / 2;
+				a0 = 1 + alpha; a1 = -2 * cos; a2 = 1 - alpha;
+				break;
+		}
+		this.b0 = b0 / a0;
+		this.b1 = b1 / a0;
+		this.b2 = b2 / a0;
+		this.a1 = a1 / a0;
+		this.a2 = a2 / a0;
+	}
+
+	@Override
+	public void process(float[] buffer, int offset, int frames) {
+		if (changed) {
+			changed = false;
+			updateCoefficients();
+		}
+		double b0 = this.b0, b1 = this.b1, b2 = this.b2, a1 = this.a1, a2 = this.a2;
+		double leftState1 = this.leftState1, leftState2 = this.leftState2;
+		double rightState1 = this.rightState1, rightState2 = this.rightState2;
+		for (int i = offset; i < offset + frames * 2; i += 2) {
+			double left = buffer[i];
+			double filtered = b0 * left + leftState1;
+			leftState1 = b1 * left - a1 * filtered + leftState2;
+			leftState2 = b2 * left - a2 * filtered;
+			buffer[i] = (float) filtered;
+
+			double right = buffer[i + 1];
+			filtered = b0 * right + rightState1;
+			rightState1 = b1 * right - a1 * filtered + rightState2;
+			rightState2 = b2 * right - a2 * filtered;
+			buffer[i + 1] = (float) filtered;
+		}
+		this.leftState1 = flush(leftState1);
+		this.leftState2 = flush(leftState2);
+		this.rightState1 = flush(rightState1);
+		this.rightState2 = flush(rightState2);
+	}
+
+	private static double flush(double state) {
+		return Math.abs(state) < DENORMAL_THRESHOLD ? 0 : state;
+	}
+
+	@Override
+	public void reset() {
+		leftState1 = leftState2 = rightState1 = rightState2 = 0;
+	}
+
+}
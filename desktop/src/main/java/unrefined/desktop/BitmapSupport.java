@@ -1,5 +1,6 @@
 package unrefined.desktop;
 
+import unrefined.media.graphics.PixelFormats;
 import unrefined.util.NotInstantiableError;
 
 import java.awt.Graphics2D;
@@ -7,9 +8,21 @@ import java.awt.RenderingHints;
 import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DirectColorModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static unrefined.media.graphics.Bitmap.Type.*;
 
@@ -149,37 +162,363 @@ public final class BitmapSupport {
                 break;
         }
         if (bitmapType == -1) bitmapType = bufferedImage.getColorModel().hasAlpha() ? RGBA_8888 : RGB_565;
+        BufferedImage image = convertImage(bufferedImage, bitmapType);
+        if (dispose) bufferedImage.flush();
+        return image;
+    }
+
+    /**
+     * Converts the pixels of the image into a new image of the bitmap type, without drawing through a Graphics2D.
+     * Translucent pixels are composited over black when converting to an opaque type.
+     */
+    public static BufferedImage convertImage(BufferedImage bufferedImage, int bitmapType) {
         BufferedImage image = createImage(bufferedImage.getWidth(), bufferedImage.getHeight(), bitmapType);
-        Graphics2D graphics2D = image.createGraphics();
+        if (!convertPixels(bufferedImage, image)) drawPixels(bufferedImage, image);
+        return image;
+    }
+
+    public static BufferedImage getBufferedImage(BufferedImage bufferedImage, int type, boolean dispose) {
+        if (type == BufferedImage.TYPE_CUSTOM) throw new IllegalArgumentException("Illegal image type: " + type);
+        else if (bufferedImage.getType() == type) return bufferedImage;
+        else {
+            BufferedImage image = new BufferedImage(bufferedImage.getWidth(), bufferedImage.getHeight(), type);
+            if (!convertPixels(bufferedImage, image)) drawPixels(bufferedImage, image);
+            if (dispose) bufferedImage.flush();
+            return image;
+        }
+    }
+
+    private static void drawPixels(BufferedImage src, BufferedImage dst) {
+        Graphics2D graphics2D = dst.createGraphics();
         try {
             graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
             graphics2D.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
-            graphics2D.drawImage(bufferedImage, 0, 0, null);
+            graphics2D.drawImage(src, 0, 0, null);
         }
         finally {
             graphics2D.dispose();
-            if (dispose) bufferedImage.flush();
         }
-        return image;
     }
 
-    public static BufferedImage getBufferedImage(BufferedImage bufferedImage, int type, boolean dispose) {
-        if (type == BufferedImage.TYPE_CUSTOM) throw new IllegalArgumentException("Illegal image type: " + type);
-        else if (bufferedImage.getType() == type) return bufferedImage;
-        else {
-            BufferedImage image = new BufferedImage(bufferedImage.getWidth(), bufferedImage.getHeight(), type);
-            Graphics2D graphics2D = image.createGraphics();
-            try {
-                graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-                graphics2D.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
-                graphics2D.drawImage(bufferedImage, 0, 0, null);
+    private static final int FORMAT_OTHER = -1;
+    private static final int FORMAT_INT_ARGB = 0;
+    private static final int FORMAT_INT_ARGB_PRE = 1;
+    private static final int FORMAT_INT_RGB = 2;
+    private static final int FORMAT_INT_BGR = 3;
+    private static final int FORMAT_4BYTE_ABGR = 4;
+    private static final int FORMAT_4BYTE_ABGR_PRE = 5;
+    private static final int FORMAT_3BYTE_BGR = 6;
+    private static final int FORMAT_USHORT_565 = 7;
+    private static final int FORMAT_RGBA_4444 = 8;
+    private static final int FORMAT_ALPHA_8 = 9;
+    private static final int FORMAT_BYTE_GRAY = 10;
+    private static final int FORMAT_USHORT_GRAY = 11;
+
+    private static int getFormat(BufferedImage bufferedImage) {
+        switch (bufferedImage.getType()) {
+            case BufferedImage.TYPE_INT_ARGB: return FORMAT_INT_ARGB;
+            case BufferedImage.TYPE_INT_ARGB_PRE: return FORMAT_INT_ARGB_PRE;
+            case BufferedImage.TYPE_INT_RGB: return FORMAT_INT_RGB;
+            case BufferedImage.TYPE_INT_BGR: return FORMAT_INT_BGR;
+            case BufferedImage.TYPE_4BYTE_ABGR: return FORMAT_4BYTE_ABGR;
+            case BufferedImage.TYPE_4BYTE_ABGR_PRE: return FORMAT_4BYTE_ABGR_PRE;
+            case BufferedImage.TYPE_3BYTE_BGR: return FORMAT_3BYTE_BGR;
+            case BufferedImage.TYPE_USHORT_565_RGB: return FORMAT_USHORT_565;
+            case BufferedImage.TYPE_BYTE_GRAY: return FORMAT_BYTE_GRAY;
+            case BufferedImage.TYPE_USHORT_GRAY: return FORMAT_USHORT_GRAY;
+            case BufferedImage.TYPE_CUSTOM:
+                try {
+                    switch (getBitmapType(bufferedImage)) {
+                        case RGBA_4444: return FORMAT_RGBA_4444;
+                        case ALPHA_8: return FORMAT_ALPHA_8;
+                    }
+                }
+                catch (IllegalArgumentException ignored) {
+                }
+                return FORMAT_OTHER;
+            default: return FORMAT_OTHER;
+        }
+    }
+
+    // Large images are converted in bands of rows in parallel
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final int CHUNK_PIXELS = 1 << 14;
+
+    private static final ExecutorService CONVERT_EXECUTOR = new ThreadPoolExecutor(0,
+            Math.max(1, Runtime.getRuntime().availableProcessors()), 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "BitmapSupport");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Converts every pixel of the source into the destination of the same size, through non-premultiplied ARGB rows.
+     * Java2D has native loops between its own image types, faster than these rows, so only conversions
+     * from or to the custom RGBA_4444 and ALPHA_8 layouts, which Java2D converts pixel by pixel, are done here.
+     *
+     * @return false if there is no faster path than drawing, leaving the destination untouched
+     */
+    private static boolean convertPixels(BufferedImage src, BufferedImage dst) {
+        int dstFormat = getFormat(dst);
+        if (dstFormat == FORMAT_OTHER || dstFormat == FORMAT_INT_ARGB_PRE || dstFormat == FORMAT_4BYTE_ABGR_PRE
+                || dstFormat == FORMAT_INT_BGR || dstFormat == FORMAT_BYTE_GRAY || dstFormat == FORMAT_USHORT_GRAY) return false;
+        int srcFormat = getFormat(src);
+        if (srcFormat == dstFormat && copyPixels(src, dst, srcFormat)) return true;
+        if (!isCustom(srcFormat) && !isCustom(dstFormat)) return false;
+        int width = src.getWidth();
+        int height = src.getHeight();
+        if ((long) width * height < PARALLEL_THRESHOLD || height < 2) {
+            convertRows(src, srcFormat, dst, dstFormat, 0, height);
+            return true;
+        }
+        int bands = Math.min(height, Math.max(1, Runtime.getRuntime().availableProcessors()));
+        List<Future<?>> futures = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band ++) {
+            int first = (int) ((long) height * band / bands);
+            int last = (int) ((long) height * (band + 1) / bands);
+            futures.add(CONVERT_EXECUTOR.submit(() -> convertRows(src, srcFormat, dst, dstFormat, first, last)));
+        }
+        awaitAll(futures);
+        return true;
+    }
+
+    private static boolean isCustom(int format) {
+        return format == FORMAT_RGBA_4444 || format == FORMAT_ALPHA_8;
+    }
+
+    // Same layout on both sides, the whole pixel array is copied at once
+    private static boolean copyPixels(BufferedImage src, BufferedImage dst, int format) {
+        Object srcArray = getPixelArray(src, format);
+        Object dstArray = srcArray == null ? null : getPixelArray(dst, format);
+        if (dstArray == null) return false;
+        System.arraycopy(srcArray, 0, dstArray, 0, Array.getLength(srcArray));
+        return true;
+    }
+
+    private static int getElementsPerPixel(int format) {
+        switch (format) {
+            case FORMAT_4BYTE_ABGR:
+            case FORMAT_4BYTE_ABGR_PRE: return 4;
+            case FORMAT_3BYTE_BGR: return 3;
+            default: return 1;
+        }
+    }
+
+    /**
+     * The pixel array of an image with its own, tightly packed raster, or null.
+     * Reading and writing it directly avoids the per element copy of the short and byte rasters.
+     */
+    private static Object getPixelArray(BufferedImage image, int format) {
+        WritableRaster raster = image.getRaster();
+        if (raster.getParent() != null || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0) return null;
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (dataBuffer.getOffset() != 0) return null;
+        SampleModel model = raster.getSampleModel();
+        int stride;
+        if (model instanceof SinglePixelPackedSampleModel) stride = ((SinglePixelPackedSampleModel) model).getScanlineStride();
+        else if (model instanceof ComponentSampleModel) stride = ((ComponentSampleModel) model).getScanlineStride();
+        else return null;
+        if (stride != image.getWidth() * getElementsPerPixel(format)) return null;
+        return AWTSupport.getDataArray(dataBuffer);
+    }
+
+    private static void convertRows(BufferedImage src, int srcFormat, BufferedImage dst, int dstFormat, int first, int last) {
+        WritableRaster srcRaster = src.getRaster();
+        WritableRaster dstRaster = dst.getRaster();
+        int width = src.getWidth();
+        int rows = Math.max(1, CHUNK_PIXELS / Math.max(1, width));
+        int[] argb = new int[width * rows];
+        // Int rasters copy rows with System.arraycopy; the other ones are accessed directly when possible.
+        // Direct 3 and 4 bytes pixels are in memory order (B, G, R and A, B, G, R), data elements in band order (R, G, B, A)
+        Object srcArray = null, dstArray = null;
+        Object srcData = null, dstData = null;
+        switch (srcFormat) {
+            case FORMAT_4BYTE_ABGR:
+            case FORMAT_4BYTE_ABGR_PRE:
+            case FORMAT_3BYTE_BGR:
+            case FORMAT_USHORT_565:
+            case FORMAT_RGBA_4444:
+            case FORMAT_ALPHA_8:
+            case FORMAT_BYTE_GRAY:
+            case FORMAT_USHORT_GRAY:
+                srcArray = getPixelArray(src, srcFormat);
+                if (srcArray == null) srcFormat = FORMAT_OTHER;
+                break;
+        }
+        switch (dstFormat) {
+            case FORMAT_INT_ARGB:
+            case FORMAT_INT_RGB:
+                break;
+            default:
+                dstArray = getPixelArray(dst, dstFormat);
+                if (dstArray == null) {
+                    switch (dstFormat) {
+                        case FORMAT_3BYTE_BGR: dstData = new byte[width * rows * 3]; break;
+                        case FORMAT_4BYTE_ABGR: dstData = new byte[width * rows * 4]; break;
+                        case FORMAT_USHORT_565:
+                        case FORMAT_RGBA_4444: dstData = new short[width * rows]; break;
+                        case FORMAT_ALPHA_8: dstData = new byte[width * rows]; break;
+                    }
+                }
+                break;
+        }
+        for (int y = first; y < last; y += rows) {
+            int height = Math.min(rows, last - y);
+            int length = width * height;
+            int offset = y * width;
+            switch (srcFormat) {
+                case FORMAT_INT_ARGB:
+                    srcRaster.getDataElements(0, y, width, height, argb);
+                    break;
+                case FORMAT_INT_ARGB_PRE:
+                    srcRaster.getDataElements(0, y, width, height, argb);
+                    PixelFormats.unpremultiply(argb, 0, argb, 0, length);
+                    break;
+                case FORMAT_INT_RGB:
+                    srcRaster.getDataElements(0, y, width, height, argb);
+                    for (int i = 0; i < length; i ++) {
+                        argb[i] |= 0xFF000000;
+                    }
+                    break;
+                case FORMAT_INT_BGR:
+                    srcRaster.getDataElements(0, y, width, height, argb);
+                    for (int i = 0; i < length; i ++) {
+                        int color = argb[i];
+                        argb[i] = 0xFF000000 | ((color & 0xFF) << 16) | (color & 0xFF00) | ((color >>> 16) & 0xFF);
+                    }
+                    break;
+                case FORMAT_4BYTE_ABGR:
+                case FORMAT_4BYTE_ABGR_PRE: {
+                    byte[] abgr = (byte[]) srcArray;
+                    for (int i = 0, j = offset * 4; i < length; i ++, j += 4) {
+                        argb[i] = ((abgr[j] & 0xFF) << 24) | ((abgr[j + 3] & 0xFF) << 16) | ((abgr[j + 2] & 0xFF) << 8) | (abgr[j + 1] & 0xFF);
+                    }
+                    if (srcFormat == FORMAT_4BYTE_ABGR_PRE) PixelFormats.unpremultiply(argb, 0, argb, 0, length);
+                    break;
+                }
+                case FORMAT_3BYTE_BGR: {
+                    byte[] bgr = (byte[]) srcArray;
+                    for (int i = 0, j = offset * 3; i < length; i ++, j += 3) {
+                        argb[i] = 0xFF000000 | ((bgr[j + 2] & 0xFF) << 16) | ((bgr[j + 1] & 0xFF) << 8) | (bgr[j] & 0xFF);
+                    }
+                    break;
+                }
+                case FORMAT_USHORT_565:
+                    PixelFormats.unpackRGB565((short[]) srcArray, offset, argb, 0, length);
+                    break;
+                case FORMAT_RGBA_4444:
+                    PixelFormats.unpackRGBA4444((short[]) srcArray, offset, argb, 0, length);
+                    break;
+                case FORMAT_ALPHA_8:
+                    PixelFormats.unpackAlpha8((byte[]) srcArray, offset, argb, 0, length);
+                    break;
+                case FORMAT_BYTE_GRAY: {
+                    // Gray is copied as is, as by the Java2D loops, rather than converted from a linear gray color space
+                    byte[] gray = (byte[]) srcArray;
+                    for (int i = 0; i < length; i ++) {
+                        argb[i] = 0xFF000000 | ((gray[offset + i] & 0xFF) * 0x010101);
+                    }
+                    break;
+                }
+                case FORMAT_USHORT_GRAY: {
+                    short[] gray = (short[]) srcArray;
+                    for (int i = 0; i < length; i ++) {
+                        argb[i] = 0xFF000000 | (((gray[offset + i] & 0xFFFF) >>> 8) * 0x010101);
+                    }
+                    break;
+                }
+                default:
+                    // Indexed, or anything else the color model has to interpret
+                    src.getRGB(0, y, width, height, argb, 0, width);
+                    break;
+            }
+            switch (dstFormat) {
+                case FORMAT_INT_ARGB:
+                    dstRaster.setDataElements(0, y, width, height, argb);
+                    break;
+                case FORMAT_INT_RGB:
+                    PixelFormats.premultiply(argb, 0, argb, 0, length);
+                    for (int i = 0; i < length; i ++) {
+                        argb[i] &= 0xFFFFFF;
+                    }
+                    dstRaster.setDataElements(0, y, width, height, argb);
+                    break;
+                case FORMAT_3BYTE_BGR: {
+                    PixelFormats.premultiply(argb, 0, argb, 0, length);
+                    boolean direct = dstArray != null;
+                    byte[] bytes = direct ? (byte[]) dstArray : (byte[]) dstData;
+                    int r = direct ? 2 : 0, b = direct ? 0 : 2;
+                    for (int i = 0, j = direct ? offset * 3 : 0; i < length; i ++, j += 3) {
+                        int color = argb[i];
+                        bytes[j + r] = (byte) (color >>> 16);
+                        bytes[j + 1] = (byte) (color >>> 8);
+                        bytes[j + b] = (byte) color;
+                    }
+                    if (!direct) dstRaster.setDataElements(0, y, width, height, bytes);
+                    break;
+                }
+                case FORMAT_4BYTE_ABGR: {
+                    boolean direct = dstArray != null;
+                    byte[] bytes = direct ? (byte[]) dstArray : (byte[]) dstData;
+                    int a = direct ? 0 : 3, r = direct ? 3 : 0, g = direct ? 2 : 1, b = direct ? 1 : 2;
+                    for (int i = 0, j = direct ? offset * 4 : 0; i < length; i ++, j += 4) {
+                        int color = argb[i];
+                        bytes[j + a] = (byte) (color >>> 24);
+                        bytes[j + r] = (byte) (color >>> 16);
+                        bytes[j + g] = (byte) (color >>> 8);
+                        bytes[j + b] = (byte) color;
+                    }
+                    if (!direct) dstRaster.setDataElements(0, y, width, height, bytes);
+                    break;
+                }
+                case FORMAT_USHORT_565:
+                    if (dstArray != null) PixelFormats.packRGB565(argb, 0, (short[]) dstArray, offset, length);
+                    else {
+                        PixelFormats.packRGB565(argb, 0, (short[]) dstData, 0, length);
+                        dstRaster.setDataElements(0, y, width, height, dstData);
+                    }
+                    break;
+                case FORMAT_RGBA_4444:
+                    if (dstArray != null) PixelFormats.packRGBA4444(argb, 0, (short[]) dstArray, offset, length);
+                    else {
+                        PixelFormats.packRGBA4444(argb, 0, (short[]) dstData, 0, length);
+                        dstRaster.setDataElements(0, y, width, height, dstData);
+                    }
+                    break;
+                case FORMAT_ALPHA_8:
+                    if (dstArray != null) PixelFormats.packAlpha8(argb, 0, (byte[]) dstArray, offset, length);
+                    else {
+                        PixelFormats.packAlpha8(argb, 0, (byte[]) dstData, 0, length);
+                        dstRaster.setDataElements(0, y, width, height, dstData);
+                    }
+                    break;
             }
-            finally {
-                graphics2D.dispose();
-                if (dispose) bufferedImage.flush();
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        Throwable throwable = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (ExecutionException e) {
+                    if (throwable == null) throwable = e.getCause();
+                    break;
+                }
             }
-            return image;
         }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (throwable instanceof Error) throw (Error) throwable;
+        else if (throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+        else if (throwable != null) throw new RuntimeException(throwable);
     }
 
 }
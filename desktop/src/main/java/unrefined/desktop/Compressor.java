@@ -0,0 +1,119 @@
+package unrefined.desktop;
+
+import static unrefined.desktop.AudioSupport.DEFAULT_AUDIO_FORMAT;
+
+/**
+ * Feed-forward dynamic range compressor on the stereo-linked peak level. With an infinite ratio and no attack
+ * it limits: no sample leaves louder than the threshold, plus the makeup gain.
+ */
+public class Compressor implements AudioEffect {
+
+	private static final double DENORMAL_THRESHOLD = 1e-30;
+
+	private final double sampleRate;
+
+	private volatile double threshold, ratio, attack, release, makeup;
+	private volatile boolean changed = true;
+
+	private double thresholdLevel, exponent, attackCoefficient, releaseCoefficient, makeupGain;
+	private double envelope;
+
+	/**
+	 * @param threshold in decibels relative to full scale, where compression begins
+	 * @param ratio how many decibels in above the threshold make one decibel out, 1 or more
+	 * @param attack in milliseconds, how fast the level follows a rise
+	 * @param release in milliseconds, how fast the level follows a fall
+	 * @param makeup in decibels, added after compression
+	 */
+	public Compressor(double threshold, double ratio, double attack, double release, double makeup) {
+		this(threshold, ratio, attack, release, makeup, DEFAULT_AUDIO_FORMAT.getSampleRate());
+	}
+
+	public Compressor(double threshold, double ratio, double attack, double release, double makeup, double sampleRate) {
+		if (!(sampleRate > 0)) throw new IllegalArgumentException("sample rate must be positive");
+		this.sampleRate = sampleRate;
+		set(threshold, ratio, attack, release, makeup);
+	}
+
+	/**
+	 * A compressor with an infinite ratio and an instant attack.
+	 * @param ceiling in decibels relative to full scale
+	 * @param release in milliseconds
+	 */
+	public static Compressor limiter(double ceiling, double release) {
+		return new Compressor(ceiling, Double.POSITIVE_INFINITY, 0, release, 0);
+	}
+
+	public void set(double threshold, double ratio, double attack, double release, double makeup) {
+		this.threshold = Math.min(threshold, 0);
+		this.ratio = Math.max(ratio, 1);
+		this.attack = Math.max(attack, 0);
+		this.release = Math.max(release, 0);
+		this.makeup = makeup;
+		changed = true;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	public double getRatio() {
+		return ratio;
+	}
+
+	public double getAttack() {
+		return attack;
+	}
+
+	public double getRelease() {
+		return release;
+	}
+
+	public double getMakeup() {
+		return makeup;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	private void updateCoefficients() {
+		thresholdLevel = Math.pow(10, threshold / 20);
+		// above the threshold the gain is (level / threshold) ^ (1 / ratio - 1)
+		exponent = 1 / ratio - 1;
+		attackCoefficient = coefficient(attack);
+		releaseCoefficient = coefficient(release);
+		makeupGain = Math.pow(10, makeup / 20);
+	}
+
+	// One pole smoothing reaching 1 - 1 / e of a step in the given milliseconds, 0 for an instant response
+	private double coefficient(double milliseconds) {
+		return milliseconds <= 0 ? 0 : Math.exp(-1000 / (milliseconds * sampleRate));
+	}
+
+	@Override
+	public void process(float[] buffer, int offset, int frames) {
+		if (changed) {
+			changed = false;
+			updateCoefficients();
+		}
+		double thresholdLevel = this.thresholdLevel, exponent = this.exponent, makeupGain = this.makeupGain;
+		double attackCoefficient = this.attackCoefficient, releaseCoefficient = this.releaseCoefficient;
+		double envelope = this.envelope;
+		for (int i = offset; i < offset + frames * 2; i += 2) {
+			double level = Math.max(Math.abs(buffer[i]), Math.abs(buffer[i + 1]));
+			double coefficient = level > envelope ? attackCoefficient : releaseCoefficient;
+			envelope = level + coefficient * (envelope - level);
+			double gain = envelope > thresholdLevel ? Math.pow(envelope / thresholdLevel, exponent) * makeupGain : makeupGain;
+			buffer[i] *= gain;
+			buffer[i + 1] *= gain;
+		}
+		this.envelope = envelope < DENORMAL_THRESHOLD ? 0 : envelope;
+	}
+
+	@Override
+	public void reset() {
+		envelope = 0;
+	}
+
+}
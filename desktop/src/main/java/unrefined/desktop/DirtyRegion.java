@@ -0,0 +1,116 @@
+package unrefined.desktop;
+
+import java.awt.Rectangle;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates damaged rectangles between two paints. Overlapping or nearby rectangles are merged,
+ * and the region collapses to its bounding box once it holds too many disjoint parts.
+ */
+public class DirtyRegion {
+
+    public static final int DEFAULT_MAX_RECTANGLES = 8;
+
+    private final List<Rectangle> rectangles = new ArrayList<>();
+    private final int maxRectangles;
+    private boolean full = false;
+
+    public DirtyRegion(int maxRectangles) {
+        if (maxRectangles < 1) throw new IllegalArgumentException("maxRectangles < 1");
+        this.maxRectangles = maxRectangles;
+    }
+
+    public DirtyRegion() {
+        this(DEFAULT_MAX_RECTANGLES);
+    }
+
+    public synchronized void add(int x, int y, int width, int height) {
+        if (full || width <= 0 || height <= 0) return;
+        Rectangle added = new Rectangle(x, y, width, height);
+        boolean merged;
+        do {
+            merged = false;
+            for (int i = 0; i < rectangles.size(); i ++) {
+                Rectangle rectangle = rectangles.get(i);
+                if (rectangle.contains(added)) return;
+                if (shouldMerge(rectangle, added)) {
+                    added = rectangle.union(added);
+                    rectangles.remove(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        while (merged);
+        rectangles.add(added);
+        if (rectangles.size() > maxRectangles) {
+            Rectangle bounds = rectangles.get(0);
+            for (int i = 1; i < rectangles.size(); i ++) {
+                bounds = bounds.union(rectangles.get(i));
+            }
+            rectangles.clear();
+            rectangles.add(bounds);
+        }
+    }
+
+    // Merge when the union wastes no more area than the two rectangles cover together
+    private static boolean shouldMerge(Rectangle a, Rectangle b) {
+        if (a.intersects(b)) return true;
+        Rectangle union = a.union(b);
+        return (long) union.width * union.height <= (long) a.width * a.height + (long) b.width * b.height;
+    }
+
+    public synchronized void addAll() {
+        full = true;
+        rectangles.clear();
+    }
+
+    public synchronized boolean isFull() {
+        return full;
+    }
+
+    public synchronized boolean isEmpty() {
+        return !full && rectangles.isEmpty();
+    }
+
+    public synchronized Rectangle getBounds() {
+        if (rectangles.isEmpty()) return null;
+        Rectangle bounds = new Rectangle(rectangles.get(0));
+        for (int i = 1; i < rectangles.size(); i ++) {
+            bounds.add(rectangles.get(i));
+        }
+        return bounds;
+    }
+
+    public synchronized Path2D.Float toPath2D() {
+        Path2D.Float path2D = new Path2D.Float(Path2D.WIND_NON_ZERO);
+        for (Rectangle rectangle : rectangles) {
+            path2D.append(rectangle, false);
+        }
+        return path2D;
+    }
+
+    public synchronized int size() {
+        return rectangles.size();
+    }
+
+    public synchronized void clear() {
+        full = false;
+        rectangles.clear();
+    }
+
+    /**
+     * Moves the accumulated state into the target region and clears this one.
+     */
+    public synchronized void drainTo(DirtyRegion region) {
+        synchronized (region) {
+            region.full = full;
+            region.rectangles.clear();
+            region.rectangles.addAll(rectangles);
+        }
+        clear();
+    }
+
+}
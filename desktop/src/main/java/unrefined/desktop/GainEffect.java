@@ -0,0 +1,60 @@
+package unrefined.desktop;
+
+import static unrefined.desktop.AudioSupport.applyGain;
+
+/**
+ * Scales each channel, ramping over a block whenever the gain changes so that it does not click.
+ */
+public class GainEffect implements AudioEffect {
+
+	private volatile float leftGain, rightGain;
+	private float appliedLeftGain, appliedRightGain;
+
+	public GainEffect() {
+		this(1);
+	}
+
+	public GainEffect(float gain) {
+		this(gain, gain);
+	}
+
+	public GainEffect(float leftGain, float rightGain) {
+		setGain(leftGain, rightGain);
+		appliedLeftGain = this.leftGain;
+		appliedRightGain = this.rightGain;
+	}
+
+	public float getLeftGain() {
+		return leftGain;
+	}
+
+	public float getRightGain() {
+		return rightGain;
+	}
+
+	public void setGain(float gain) {
+		setGain(gain, gain);
+	}
+
+	public void setGain(float leftGain, float rightGain) {
+		this.leftGain = Math.max(leftGain, 0);
+		this.rightGain = Math.max(rightGain, 0);
+	}
+
+	@Override
+	public void process(float[] buffer, int offset, int frames) {
+		if (frames <= 0) return;
+		float left = leftGain, right = rightGain;
+		applyGain(buffer, offset, frames, appliedLeftGain, appliedRightGain,
+				(left - appliedLeftGain) / frames, (right - appliedRightGain) / frames);
+		appliedLeftGain = left;
+		appliedRightGain = right;
+	}
+
+	@Override
+	public void reset() {
+		appliedLeftGain = leftGain;
+		appliedRightGain = rightGain;
+	}
+
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright (c) 2006, 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package unrefined.desktop;
+
+import unrefined.util.LruCache;
+
+import java.awt.Color;
+import java.awt.MultipleGradientPaint.ColorSpaceType;
+import java.awt.MultipleGradientPaint.CycleMethod;
+import java.awt.image.ColorModel;
+import java.awt.image.DirectColorModel;
+import java.util.Arrays;
+
+/**
+ * Immutable color lookup data of a multiple-stop gradient, shared through a global LRU cache
+ * by every gradient paint with the same fractions, colors, color space and cycle method.
+ */
+public final class GradientLookupTable {
+
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    /**
+     * Color model used if gradient colors are all opaque.
+     */
+    private static final ColorModel xrgbmodel = new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF);
+
+    /**
+     * Color space conversion lookup tables.
+     */
+    private static final int[] SRGBtoLinearRGB = new int[256];
+    private static final int[] LinearRGBtoSRGB = new int[256];
+    static {
+        // build the tables
+        for (int k = 0; k < 256; k++) {
+            SRGBtoLinearRGB[k] = convertSRGBtoLinearRGB(k);
+            LinearRGBtoSRGB[k] = convertLinearRGBtoSRGB(k);
+        }
+    }
+
+    /**
+     * Constant number of max colors between any 2 arbitrary colors.
+     * Used for creating and indexing gradients arrays.
+     */
+    private static final int GRADIENT_SIZE = 256;
+    private static final int GRADIENT_SIZE_INDEX = GRADIENT_SIZE - 1;
+
+    /**
+     * Maximum length of the fast single-array.  If the estimated array size
+     * is greater than this, switch over to the slow lookup method.
+     * No particular reason for choosing this number, but it seems to provide
+     * satisfactory performance for the common case (fast lookup).
+     */
+    private static final int MAX_GRADIENT_ARRAY_SIZE = 5000;
+
+    private static final class Key {
+
+        private final float[] fractions;
+        private final int[] colors;
+        private final ColorSpaceType colorSpace;
+        private final CycleMethod cycleMethod;
+        private final int hashCode;
+
+        private Key(float[] fractions, int[] colors, ColorSpaceType colorSpace, CycleMethod cycleMethod) {
+            this.fractions = fractions;
+            this.colors = colors;
+            this.colorSpace = colorSpace;
+            this.cycleMethod = cycleMethod;
+            int result = Arrays.hashCode(fractions);
+            result = 31 * result + Arrays.hashCode(colors);
+            result = 31 * result + colorSpace.hashCode();
+            result = 31 * result + cycleMethod.hashCode();
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+            return hashCode == key.hashCode && colorSpace == key.colorSpace && cycleMethod == key.cycleMethod
+                    && Arrays.equals(fractions, key.fractions) && Arrays.equals(colors, key.colors);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+    private static final LruCache<Key, GradientLookupTable> CACHE = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    public static GradientLookupTable get(float[] fractions, Color[] colors, CycleMethod cycleMethod, ColorSpaceType colorSpace) {
+        int[] rgbs = new int[colors.length];
+        for (int i = 0; i < colors.length; i ++) {
+            rgbs[i] = colors[i].getRGB();
+        }
+        Key key = new Key(fractions.clone(), rgbs, colorSpace, cycleMethod);
+        GradientLookupTable table = CACHE.get(key);
+        if (table == null) {
+            table = new GradientLookupTable(key.fractions, rgbs, cycleMethod, colorSpace);
+            CACHE.put(key, table);
+        }
+        return table;
+    }
+
+    public static void resize(int maxSize) {
+        CACHE.resize(maxSize);
+    }
+
+    public static int maxSize() {
+        return CACHE.maxSize();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.evictAll();
+    }
+
+    public static int hitCount() {
+        return CACHE.hitCount();
+    }
+
+    public static int missCount() {
+        return CACHE.missCount();
+    }
+
+    private final float[] fractions;
+    private final CycleMethod cycleMethod;
+    private final ColorSpaceType colorSpace;
+
+    /**
+     * Normalized intervals array.
+     */
+    private final float[] normalizedIntervals;
+
+    /**
+     * This boolean specifies whether we are in simple lookup mode, where an
+     * input value between 0 and 1 may be used to directly index into a single
+     * array of gradient colors.  If this boolean value is false, then we have
+     * to use a 2-step process where we have to determine which gradient array
+     * we fall into, then determine the index into that array.
+     */
+    private boolean isSimpleLookup;
+
+    /**
+     * Size of gradients array for scaling the 0-1 index when looking up
+     * colors the fast way.
+     */
+    private int fastGradientArraySize;
+
+    /**
+     * Array which contains the interpolated color values for each interval,
+     * used by calculateSingleArrayGradient().
+     */
+    private int[] gradient;
+
+    /**
+     * Array of gradient arrays, one array for each interval.  Used by
+     * calculateMultipleArrayGradient().
+     */
+    private final int[][] gradients;
+
+    /**
+     * Used to determine if gradient colors are all opaque.
+     */
+    private int transparencyTest;
+
+    /**
+     * This function is the meat of this class.  It calculates an array of
+     * gradient colors based on an array of fractions and color values at
+     * those fractions.
+     */
+    private GradientLookupTable(float[] fractions, int[] colors, CycleMethod cycleMethod, ColorSpaceType colorSpace) {
+        this.fractions = fractions;
+        this.cycleMethod = cycleMethod;
+        this.colorSpace = colorSpace;
+
+        int[] normalizedColors;
+        if (colorSpace == ColorSpaceType.LINEAR_RGB) {
+            // create a new colors array
+            normalizedColors = new int[colors.length];
+            // convert the colors using the lookup table
+            for (int i = 0; i < colors.length; i++) {
+                int argb = colors[i];
+                int a = argb >>> 24;
+                int r = SRGBtoLinearRGB[(argb >> 16) & 0xff];
+                int g = SRGBtoLinearRGB[(argb >> 8) & 0xff];
+                int b = SRGBtoLinearRGB[(argb) & 0xff];
+                normalizedColors[i] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+        } else {
+            // we can just use this array by reference since we do not
+            // modify its values in the case of SRGB
+            normalizedColors = colors;
+        }
+
+        // this will store the intervals (distances) between gradient stops
+        normalizedIntervals = new float[fractions.length - 1];
+
+        // convert from fractions into intervals
+        for (int i = 0; i < normalizedIntervals.length; i++) {
+            // interval distance is equal to the difference in positions
+            normalizedIntervals[i] = this.fractions[i + 1] - this.fractions[i];
+        }
+
+        // initialize to be fully opaque for ANDing with colors
+        transparencyTest = 0xff000000;
+
+        // array of interpolation arrays
+        gradients = new int[normalizedIntervals.length][];
+
+        // find smallest interval
+        float Imin = 1;
+        for (float normalizedInterval : normalizedIntervals) {
+            Imin = Math.min(Imin, normalizedInterval);
+        }
+
+        // Estimate the size of the entire gradients array.
+        // This is to prevent a tiny interval from causing the size of array
+        // to explode.  If the estimated size is too large, break to using
+        // separate arrays for each interval, and using an indexing scheme at
+        // look-up time.
+        int estimatedSize = 0;
+        for (float normalizedInterval : normalizedIntervals) {
+            estimatedSize += (normalizedInterval / Imin) * GRADIENT_SIZE;
+        }
+
+        if (estimatedSize > MAX_GRADIENT_ARRAY_SIZE) {
+            // slow method
+            calculateMultipleArrayGradient(normalizedColors);
+        } else {
+            // fast method
+            calculateSingleArrayGradient(normalizedColors, Imin);
+        }
+    }
+
+    /**
+     * FAST LOOKUP METHOD
+     * <p>
+     * This method calculates the gradient color values and places them in a
+     * single int array, gradient[].  It does this by allocating space for
+     * each interval based on its size relative to the smallest interval in
+     * the array.  The smallest interval is allocated 255 interpolated values
+     * (the maximum number of unique in-between colors in a 24 bit color
+     * system), and all other intervals are allocated
+     * size = (255 * the ratio of their size to the smallest interval).
+     * <p>
+     * This scheme expedites a speedy retrieval because the colors are
+     * distributed along the array according to their user-specified
+     * distribution.  All that is needed is a relative index from 0 to 1.
+     * <p>
+     * The only problem with this method is that the possibility exists for
+     * the array size to balloon in the case where there is a
+     * disproportionately small gradient interval.  In this case the other
+     * intervals will be allocated huge space, but much of that data is
+     * redundant.  We thus need to use the space conserving scheme below.
+     *
+     * @param Imin the size of the smallest interval
+     */
+    private void calculateSingleArrayGradient(int[] colors, float Imin) {
+        // set the flag so we know later it is a simple (fast) lookup
+        isSimpleLookup = true;
+
+        // 2 colors to interpolate
+        int rgb1, rgb2;
+
+        //the eventual size of the single array
+        int gradientsTot = 1;
+
+        // for every interval (transition between 2 colors)
+        for (int i = 0; i < gradients.length; i++) {
+            // create an array whose size is based on the ratio to the
+            // smallest interval
+            int nGradients = (int) ((normalizedIntervals[i] / Imin) * 255f);
+            gradientsTot += nGradients;
+            gradients[i] = new int[nGradients];
+
+            // the 2 colors (keyframes) to interpolate between
+            rgb1 = colors[i];
+            rgb2 = colors[i + 1];
+
+            // fill this array with the colors in between rgb1 and rgb2
+            interpolate(rgb1, rgb2, gradients[i]);
+
+            // if the colors are opaque, transparency should still
+            // be 0xff000000
+            transparencyTest &= rgb1;
+            transparencyTest &= rgb2;
+        }
+
+        // put all gradients in a single array
+        gradient = new int[gradientsTot];
+        int curOffset = 0;
+        for (int[] ints : gradients) {
+            System.arraycopy(ints, 0, gradient, curOffset, ints.length);
+            curOffset += ints.length;
+        }
+        gradient[gradient.length - 1] = colors[colors.length - 1];
+
+        // if interpolation occurred in Linear RGB space, convert the
+        // gradients back to sRGB using the lookup table
+        if (colorSpace == ColorSpaceType.LINEAR_RGB) {
+            for (int i = 0; i < gradient.length; i++) {
+                gradient[i] = convertEntireColorLinearRGBtoSRGB(gradient[i]);
+            }
+        }
+
+        fastGradientArraySize = gradient.length - 1;
+    }
+
+    /**
+     * SLOW LOOKUP METHOD
+     * <p>
+     * This method calculates the gradient color values for each interval and
+     * places each into its own 255 size array.  The arrays are stored in
+     * gradients[][].  (255 is used because this is the maximum number of
+     * unique colors between 2 arbitrary colors in a 24 bit color system.)
+     * <p>
+     * This method uses the minimum amount of space (only 255 * number of
+     * intervals), but it aggravates the lookup procedure, because now we
+     * have to find out which interval to select, then calculate the index
+     * within that interval.  This causes a significant performance hit,
+     * because it requires this calculation be done for every point in
+     * the rendering loop.
+     * <p>
+     * For those of you who are interested, this is a classic example of the
+     * time-space tradeoff.
+     */
+    private void calculateMultipleArrayGradient(int[] colors) {
+        // set the flag so we know later it is a non-simple lookup
+        isSimpleLookup = false;
+
+        // 2 colors to interpolate
+        int rgb1, rgb2;
+
+        // for every interval (transition between 2 colors)
+        for (int i = 0; i < gradients.length; i++) {
+            // create an array of the maximum theoretical size for
+            // each interval
+            gradients[i] = new int[GRADIENT_SIZE];
+
+            // get the 2 colors
+            rgb1 = colors[i];
+            rgb2 = colors[i + 1];
+
+            // fill this array with the colors in between rgb1 and rgb2
+            interpolate(rgb1, rgb2, gradients[i]);
+
+            // if the colors are opaque, transparency should still
+            // be 0xff000000
+            transparencyTest &= rgb1;
+            transparencyTest &= rgb2;
+        }
+
+        // if interpolation occurred in Linear RGB space, convert the
+        // gradients back to SRGB using the lookup table
+        if (colorSpace == ColorSpaceType.LINEAR_RGB) {
+            for (int j = 0; j < gradients.length; j++) {
+                for (int i = 0; i < gradients[j].length; i++) {
+                    gradients[j][i] =
+                            convertEntireColorLinearRGBtoSRGB(gradients[j][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Yet another helper function.  This one linearly interpolates between
+     * 2 colors, filling up the output array.
+     *
+     * @param rgb1   the start color
+     * @param rgb2   the end color
+     * @param output the output array of colors; must not be null
+     */
+    private static void interpolate(int rgb1, int rgb2, int[] output) {
+        // color components
+        int a1, r1, g1, b1, da, dr, dg, db;
+
+        // step between interpolated values
+        float stepSize = 1.0f / output.length;
+
+        // extract color components from packed integer
+        a1 = (rgb1 >> 24) & 0xff;
+        r1 = (rgb1 >> 16) & 0xff;
+        g1 = (rgb1 >> 8) & 0xff;
+        b1 = (rgb1) & 0xff;
+
+        // calculate the total change in alpha, red, green, blue
+        da = ((rgb2 >> 24) & 0xff) - a1;
+        dr = ((rgb2 >> 16) & 0xff) - r1;
+        dg = ((rgb2 >> 8) & 0xff) - g1;
+        db = ((rgb2) & 0xff) - b1;
+
+        // for each step in the interval calculate the in-between color by
+        // multiplying the normalized current position by the total color
+        // change (0.5 is added to prevent truncation round-off error)
+        for (int i = 0; i < output.length; i++) {
+            output[i] =
+                    (((int) ((a1 + i * da * stepSize) + 0.5) << 24)) |
+                            (((int) ((r1 + i * dr * stepSize) + 0.5) << 16)) |
+                            (((int) ((g1 + i * dg * stepSize) + 0.5) << 8)) |
+                            (((int) ((b1 + i * db * stepSize) + 0.5)));
+        }
+    }
+
+    /**
+     * Yet another helper function.  This one extracts the color components
+     * of an integer RGB triple, converts them from LinearRGB to SRGB, then
+     * recompacts them into an int.
+     */
+    private static int convertEntireColorLinearRGBtoSRGB(int rgb) {
+        // color components
+        int a1, r1, g1, b1;
+
+        // extract red, green, blue components
+        a1 = (rgb >> 24) & 0xff;
+        r1 = (rgb >> 16) & 0xff;
+        g1 = (rgb >> 8) & 0xff;
+        b1 = (rgb) & 0xff;
+
+        // use the lookup table
+        r1 = LinearRGBtoSRGB[r1];
+        g1 = LinearRGBtoSRGB[g1];
+        b1 = LinearRGBtoSRGB[b1];
+
+        // re-compact the components
+        return ((a1 << 24) |
+                (r1 << 16) |
+                (g1 << 8) |
+                (b1));
+    }
+
+    /**
+     * Helper function to index into the gradients array.  This is necessary
+     * because each interval has an array of colors with uniform size 255.
+     * However, the color intervals are not necessarily of uniform length, so
+     * a conversion is required.
+     *
+     * @param position the unmanipulated position, which will be mapped
+     *                 into the range 0 to 1
+     * @return integer color to display
+     */
+    public int indexIntoGradientsArrays(float position) {
+        // first, manipulate position value depending on the cycle method
+        if (cycleMethod == CycleMethod.NO_CYCLE) {
+            if (position > 1) {
+                // upper bound is 1
+                position = 1;
+            } else if (position < 0) {
+                // lower bound is 0
+                position = 0;
+            }
+        } else if (cycleMethod == CycleMethod.REPEAT) {
+            // get the fractional part
+            // (modulo behavior discards integer component)
+            position = position - (int) position;
+
+            //position should now be between -1 and 1
+            if (position < 0) {
+                // force it to be in the range 0-1
+                position = position + 1;
+            }
+        } else { // cycleMethod == CycleMethod.REFLECT
+            if (position < 0) {
+                // take absolute value
+                position = -position;
+            }
+
+            // get the integer part
+            int part = (int) position;
+
+            // get the fractional part
+            position = position - part;
+
+            if ((part & 1) == 1) {
+                // integer part is odd, get reflected color instead
+                position = 1 - position;
+            }
+        }
+
+        // now, get the color based on this 0-1 position...
+
+        if (isSimpleLookup) {
+            // easy to compute: just scale index by array size
+            return gradient[(int) (position * fastGradientArraySize)];
+        } else {
+            // more complicated computation, to save space
+
+            // for all the gradient interval arrays
+            for (int i = 0; i < gradients.length; i++) {
+                if (position < fractions[i + 1]) {
+                    // this is the array we want
+                    float delta = position - fractions[i];
+
+                    // this is the interval we want
+                    int index = (int) ((delta / normalizedIntervals[i])
+                            * (GRADIENT_SIZE_INDEX));
+
+                    return gradients[i][index];
+                }
+            }
+        }
+
+        return gradients[gradients.length - 1][GRADIENT_SIZE_INDEX];
+    }
+
+    /**
+     * Helper function to convert a color component in sRGB space to linear
+     * RGB space.  Used to build a static lookup table.
+     */
+    private static int convertSRGBtoLinearRGB(int color) {
+        float input, output;
+
+        input = color / 255.0f;
+        if (input <= 0.04045f) {
+            output = input / 12.92f;
+        } else {
+            output = (float) Math.pow((input + 0.055) / 1.055, 2.4);
+        }
+
+        return Math.round(output * 255.0f);
+    }
+
+    /**
+     * Helper function to convert a color component in linear RGB space to
+     * SRGB space.  Used to build a static lookup table.
+     */
+    private static int convertLinearRGBtoSRGB(int color) {
+        float input, output;
+
+        input = color / 255.0f;
+        if (input <= 0.0031308) {
+            output = input * 12.92f;
+        } else {
+            output = (1.055f *
+                    ((float) Math.pow(input, (1.0 / 2.4)))) - 0.055f;
+        }
+
+        return Math.round(output * 255.0f);
+    }
+
+    public boolean isSimpleLookup() {
+        return isSimpleLookup;
+    }
+
+    /**
+     * Returns the single lookup array, only present in simple lookup mode. Must not be modified.
+     */
+    public int[] getGradient() {
+        return gradient;
+    }
+
+    public int getFastGradientArraySize() {
+        return fastGradientArraySize;
+    }
+
+    /**
+     * Returns the most "economical" model: RGB if the colors are all opaque, ARGB otherwise.
+     */
+    public ColorModel getColorModel() {
+        return (transparencyTest >>> 24) == 0xff ? xrgbmodel : ColorModel.getRGBdefault();
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2006, 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package unrefined.desktop;
+
+import java.awt.PaintContext;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.lang.ref.WeakReference;
+
+/**
+ * Base of the multiple-stop gradient paint contexts: colors come from a shared {@link GradientLookupTable},
+ * and working rasters are recycled through a per-thread pool, so contexts on different threads never contend.
+ */
+public abstract class GradientPaintContext implements PaintContext {
+
+    private static final class RasterPool {
+        private ColorModel model;
+        private WeakReference<Raster> raster;
+    }
+
+    private static final ThreadLocal<RasterPool> RASTER_POOL = ThreadLocal.withInitial(RasterPool::new);
+
+    protected final GradientLookupTable table;
+
+    /**
+     * The PaintContext's ColorModel.  This is ARGB if colors are not all
+     * opaque, otherwise it is RGB.
+     */
+    protected final ColorModel model;
+
+    /**
+     * Lookup data copied from the table, for direct access by the fill loops.
+     */
+    protected final boolean isSimpleLookup;
+    protected final int[] gradient;
+    protected final int fastGradientArraySize;
+
+    /**
+     * Raster is reused whenever possible.
+     */
+    private Raster saved;
+
+    protected GradientPaintContext(GradientLookupTable table) {
+        this.table = table;
+        this.model = table.getColorModel();
+        this.isSimpleLookup = table.isSimpleLookup();
+        this.gradient = table.getGradient();
+        this.fastGradientArraySize = table.getFastGradientArraySize();
+    }
+
+    protected final int indexIntoGradientsArrays(float position) {
+        return table.indexIntoGradientsArrays(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final Raster getRaster(int x, int y, int w, int h) {
+        // If working raster is big enough, reuse it. Otherwise,
+        // build a large enough new one.
+        Raster raster = saved;
+        if (raster == null ||
+                raster.getWidth() < w || raster.getHeight() < h) {
+            raster = getCachedRaster(model, w, h);
+            saved = raster;
+        }
+
+        // Access raster internal int array. Because we use a DirectColorModel,
+        // we know the DataBuffer is of type DataBufferInt and the SampleModel
+        // is SinglePixelPackedSampleModel.
+        // Adjust for initial offset in DataBuffer and also for the scanline
+        // stride.
+        // These calls make the DataBuffer non-acceleratable, but the
+        // Raster is never Stable long enough to accelerate anyway...
+        DataBufferInt rasterDB = (DataBufferInt) raster.getDataBuffer();
+        int[] pixels = rasterDB.getData(0);
+        int off = rasterDB.getOffset();
+        int scanlineStride = ((SinglePixelPackedSampleModel)
+                raster.getSampleModel()).getScanlineStride();
+        int adjust = scanlineStride - w;
+
+        fillRaster(pixels, off, adjust, x, y, w, h); // delegate to subclass
+
+        return raster;
+    }
+
+    protected abstract void fillRaster(int[] pixels, int off, int adjust, int x, int y, int w, int h);
+
+    private static Raster getCachedRaster(ColorModel cm, int w, int h) {
+        RasterPool pool = RASTER_POOL.get();
+        if (cm == pool.model && pool.raster != null) {
+            Raster ras = pool.raster.get();
+            if (ras != null &&
+                    ras.getWidth() >= w &&
+                    ras.getHeight() >= h) {
+                pool.raster = null;
+                return ras;
+            }
+        }
+        return cm.createCompatibleWritableRaster(w, h);
+    }
+
+    private static void putCachedRaster(ColorModel cm, Raster ras) {
+        RasterPool pool = RASTER_POOL.get();
+        if (pool.raster != null) {
+            Raster cras = pool.raster.get();
+            if (cras != null) {
+                int cw = cras.getWidth();
+                int ch = cras.getHeight();
+                int iw = ras.getWidth();
+                int ih = ras.getHeight();
+                if (cw >= iw && ch >= ih) {
+                    return;
+                }
+                if (cw * ch >= iw * ih) {
+                    return;
+                }
+            }
+        }
+        pool.model = cm;
+        pool.raster = new WeakReference<>(ras);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose() {
+        if (saved != null) {
+            putCachedRaster(model, saved);
+            saved = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ColorModel getColorModel() {
+        return model;
+    }
+
+}
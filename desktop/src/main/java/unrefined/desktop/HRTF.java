@@ -0,0 +1,148 @@
+package unrefined.desktop;
+
+import java.util.Objects;
+
+import static unrefined.desktop.AudioSupport.DEFAULT_AUDIO_FORMAT;
+
+/**
+ * Head related transfer functions: a pair of impulse responses, one per ear, for each of a set of directions around the
+ * listener. A {@link SoundSpace} convolves every emitter with the pair nearest to its direction.
+ */
+public class HRTF {
+
+	private static final double HEAD_RADIUS = 0.0875;
+	private static final double SPEED_OF_SOUND = 343.3;
+	// Taps of the fractional delay, centered this far in so that it stays causal
+	private static final int DELAY_HALF_WIDTH = 4;
+	private static final int SPHERICAL_HEAD_LENGTH = 64;
+
+	// Unit vectors in listener space: x to the right, y up, z to the front
+	private final float[] directions;
+	private final float[][] leftResponses, rightResponses;
+	private final int length;
+
+	/**
+	 * @param azimuths in degrees, clockwise from the front, 90 being to the right
+	 * @param elevations in degrees, up from the horizontal plane
+	 * @param leftResponses the impulse responses of the left ear for each direction, all of the same length,
+	 *                      at the mixing sample rate
+	 * @param rightResponses the impulse responses of the right ear alike
+	 */
+	public HRTF(double[] azimuths, double[] elevations, float[][] leftResponses, float[][] rightResponses) {
+		int count = azimuths.length;
+		if (elevations.length != count || leftResponses.length != count || rightResponses.length != count)
+			throw new IllegalArgumentException("One azimuth, elevation and pair of responses per direction expected");
+		if (count == 0) throw new IllegalArgumentException("No directions");
+		length = leftResponses[0].length;
+		if (length == 0) throw new IllegalArgumentException("Empty impulse response");
+		directions = new float[count * 3];
+		this.leftResponses = new float[count][];
+		this.rightResponses = new float[count][];
+		for (int i = 0; i < count; i ++) {
+			if (Objects.requireNonNull(leftResponses[i]).length != length || Objects.requireNonNull(rightResponses[i]).length != length)
+				throw new IllegalArgumentException("Impulse responses of different lengths");
+			this.leftResponses[i] = leftResponses[i].clone();
+			this.rightResponses[i] = rightResponses[i].clone();
+			double azimuth = Math.toRadians(azimuths[i]), elevation = Math.toRadians(elevations[i]);
+			directions[i * 3] = (float) (Math.sin(azimuth) * Math.cos(elevation));
+			directions[i * 3 + 1] = (float) Math.sin(elevation);
+			directions[i * 3 + 2] = (float) (Math.cos(azimuth) * Math.cos(elevation));
+		}
+	}
+
+	/**
+	 * An approximation needing no measured data, from the spherical head model of Brown and Duda: each ear hears the
+	 * source delayed by the path around the head, and through a shelving filter cutting the high frequencies as the
+	 * head shadows it. It renders left and right well, front and back or elevation not at all.
+	 */
+	public static HRTF sphericalHead() {
+		return sphericalHead(DEFAULT_AUDIO_FORMAT.getSampleRate());
+	}
+
+	public static HRTF sphericalHead(double sampleRate) {
+		if (!(sampleRate > 0)) throw new IllegalArgumentException("sample rate must be positive");
+		int count = 0;
+		double[] azimuths = new double[36 * 5 + 1], elevations = new double[azimuths.length];
+		for (int elevation = -60; elevation < 90; elevation += 30) {
+			for (int azimuth = 0; azimuth < 360; azimuth += 10) {
+				azimuths[count] = azimuth;
+				elevations[count ++] = elevation;
+			}
+		}
+		elevations[count ++] = 90;
+		float[][] left = new float[count][], right = new float[count][];
+		for (int i = 0; i < count; i ++) {
+			double azimuth = Math.toRadians(azimuths[i]), elevation = Math.toRadians(elevations[i]);
+			// the cosine of the angle to the right ear, on the x axis
+			double lateral = Math.sin(azimuth) * Math.cos(elevation);
+			right[i] = sphericalHeadResponse(Math.acos(lateral), sampleRate);
+			left[i] = sphericalHeadResponse(Math.acos(-lateral), sampleRate);
+		}
+		return new HRTF(azimuths, elevations, left, right);
+	}
+
+	// The response of an ear at the angle from it, in radians
+	private static float[] sphericalHeadResponse(double angle, double sampleRate) {
+		double headDelay = HEAD_RADIUS / SPEED_OF_SOUND;
+		// straight to the ear on its side, around the head beyond
+		double delay = headDelay + (angle < Math.PI / 2 ? -headDelay * Math.cos(angle) : headDelay * (angle - Math.PI / 2));
+		double center = DELAY_HALF_WIDTH + delay * sampleRate;
+		float[] response = new float[SPHERICAL_HEAD_LENGTH];
+		// the delayed impulse, Lanczos windowed
+		for (int i = 0; i < response.length; i ++) {
+			double x = i - center;
+			if (Math.abs(x) < DELAY_HALF_WIDTH) response[i] = (float) (sinc(x) * sinc(x / DELAY_HALF_WIDTH));
+		}
+		// then the head shadow, unity at 0 Hz and alpha above 2 w0, bilinear transformed
+		double alpha = 1.05 + 0.95 * Math.cos(Math.min(angle / Math.toRadians(150), 1) * Math.PI);
+		double k = sampleRate * HEAD_RADIUS / SPEED_OF_SOUND;
+		double b0 = (alpha * k + 1) / (k + 1), b1 = (1 - alpha * k) / (k + 1), a1 = (1 - k) / (k + 1);
+		double x1 = 0, y1 = 0;
+		for (int i = 0; i < response.length; i ++) {
+			double x = response[i];
+			double y = b0 * x + b1 * x1 - a1 * y1;
+			x1 = x;
+			y1 = y;
+			response[i] = (float) y;
+		}
+		return response;
+	}
+
+	private static double sinc(double x) {
+		return x == 0 ? 1 : Math.sin(Math.PI * x) / (Math.PI * x);
+	}
+
+	/**
+	 * @return the taps of every impulse response
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	public int getDirectionCount() {
+		return leftResponses.length;
+	}
+
+	// The direction with the largest cosine to the given one, in listener space
+	int nearest(double x, double y, double z) {
+		int nearest = 0;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < leftResponses.length; i ++) {
+			double dot = directions[i * 3] * x + directions[i * 3 + 1] * y + directions[i * 3 + 2] * z;
+			if (dot > max) {
+				max = dot;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	float[] leftResponse(int index) {
+		return leftResponses[index];
+	}
+
+	float[] rightResponse(int index) {
+		return rightResponses[index];
+	}
+
+}
@@ -2,10 +2,15 @@ package unrefined.desktop;
 
 import unrefined.io.asset.Asset;
 import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Dimension;
+import unrefined.media.graphics.LazyMultiFrame;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -13,7 +18,76 @@ import java.io.OutputStream;
 
 public abstract class IIOBitmapHandler extends Bitmap.Handler {
 
-    public abstract Bitmap read(ImageInputStream input, int type) throws IOException;
+    public Bitmap read(ImageInputStream input, int type) throws IOException {
+        return read(input, type, null);
+    }
+
+    public abstract Bitmap read(ImageInputStream input, int type, Bitmap.ReadOptions options) throws IOException;
+
+    @Override
+    public Bitmap read(File input, int type, Bitmap.ReadOptions options) throws IOException {
+        return read(ImageIO.createImageInputStream(input), type, options);
+    }
+
+    @Override
+    public Bitmap read(InputStream input, int type, Bitmap.ReadOptions options) throws IOException {
+        return read(ImageIO.createImageInputStream(input), type, options);
+    }
+
+    @Override
+    public Bitmap read(Asset input, int type, Bitmap.ReadOptions options) throws IOException {
+        return read(ImageIO.createImageInputStream(input.openStream()), type, options);
+    }
+
+    public abstract Dimension readSize(ImageInputStream input) throws IOException;
+
+    @Override
+    public Dimension readSize(File input) throws IOException {
+        return readSize(ImageIO.createImageInputStream(input));
+    }
+
+    @Override
+    public Dimension readSize(InputStream input) throws IOException {
+        return readSize(ImageIO.createImageInputStream(input));
+    }
+
+    @Override
+    public Dimension readSize(Asset input) throws IOException {
+        return readSize(ImageIO.createImageInputStream(input.openStream()));
+    }
+
+    protected static ImageReadParam getImageReadParam(ImageReader reader, int imageIndex, Bitmap.ReadOptions options) throws IOException {
+        if (options == null || (!options.hasSourceRegion() && options.getSubsampling() == 1)) return null;
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (options.hasSourceRegion()) {
+            int width = reader.getWidth(imageIndex);
+            int height = reader.getHeight(imageIndex);
+            int x = Math.min(options.getSourceX(), width);
+            int y = Math.min(options.getSourceY(), height);
+            int regionWidth = Math.min(options.getSourceWidth(), width - x);
+            int regionHeight = Math.min(options.getSourceHeight(), height - y);
+            if (regionWidth < 1 || regionHeight < 1) throw new IllegalArgumentException("source region does not intersect the image");
+            param.setSourceRegion(new Rectangle(x, y, regionWidth, regionHeight));
+        }
+        int subsampling = options.getSubsampling();
+        if (subsampling > 1) param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return param;
+    }
+
+    protected static Dimension readSize(ImageReader reader, ImageInputStream input) throws IOException {
+        reader.setInput(input, true, true);
+        try {
+            return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        }
+        finally {
+            reader.dispose();
+            try {
+                input.close();
+            }
+            catch (IOException ignored) {
+            }
+        }
+    }
 
     @Override
     public Bitmap read(File input, int type) throws IOException {
@@ -76,6 +150,26 @@ public abstract class IIOBitmapHandler extends Bitmap.Handler {
         return readMultiFrame(ImageIO.createImageInputStream(input.openStream()), types, typesOffset);
     }
 
+    public LazyMultiFrame.Decoder readFrameDecoder(ImageInputStream input, int type) throws IOException {
+        Bitmap.MultiFrame frames = readMultiFrame(input, type);
+        return frames == null ? null : LazyMultiFrame.Decoder.of(frames);
+    }
+
+    @Override
+    public LazyMultiFrame.Decoder readFrameDecoder(File input, int type) throws IOException {
+        return readFrameDecoder(ImageIO.createImageInputStream(input), type);
+    }
+
+    @Override
+    public LazyMultiFrame.Decoder readFrameDecoder(InputStream input, int type) throws IOException {
+        return readFrameDecoder(ImageIO.createImageInputStream(input), type);
+    }
+
+    @Override
+    public LazyMultiFrame.Decoder readFrameDecoder(Asset input, int type) throws IOException {
+        return readFrameDecoder(ImageIO.createImageInputStream(input.openStream()), type);
+    }
+
     public abstract boolean writeMultiFrame(Bitmap.MultiFrame frames, ImageOutputStream output, String format, float quality) throws IOException;
 
     @Override
@@ -0,0 +1,103 @@
+package unrefined.desktop;
+
+import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.LazyMultiFrame;
+import unrefined.runtime.DesktopBitmap;
+
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class IIOFrameDecoder extends LazyMultiFrame.Decoder {
+
+    private final ImageReader reader;
+    private final ImageInputStream input;
+    private final int type;
+    private final int looping;
+    private final int width, height;
+    private final int[] hotSpots;
+    private final long[] durations;
+    private final int[] disposalModes;
+    private final int[] blendModes;
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+    public IIOFrameDecoder(ImageReader reader, ImageInputStream input, int type, int looping, int width, int height,
+                           int[] hotSpots, long[] durations, int[] disposalModes, int[] blendModes) {
+        this.reader = reader;
+        this.input = input;
+        this.type = type;
+        this.looping = looping;
+        this.width = width;
+        this.height = height;
+        this.hotSpots = hotSpots;
+        this.durations = durations;
+        this.disposalModes = disposalModes;
+        this.blendModes = blendModes;
+        CleanerSupport.register(this, () -> release(reader, input));
+    }
+
+    @Override
+    public int getFrameCount() {
+        return durations.length;
+    }
+
+    @Override
+    public int getLooping() {
+        return looping;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getType() {
+        return type;
+    }
+
+    @Override
+    public long getDuration(int index) {
+        return durations[index];
+    }
+
+    @Override
+    public Bitmap.Frame decode(int index) throws IOException {
+        if (isDisposed()) throw new IOException("Decoder already disposed");
+        synchronized (reader) {
+            return new Bitmap.Frame(new DesktopBitmap(BitmapSupport.getImage(reader.read(index), type, true)),
+                    hotSpots[index * 2], hotSpots[index * 2 + 1], durations[index], disposalModes[index], blendModes[index]);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (disposed.compareAndSet(false, true)) {
+            synchronized (reader) {
+                release(reader, input);
+            }
+        }
+    }
+
+    // Must not capture the decoder itself, otherwise the cleaner would keep it reachable
+    private static void release(ImageReader reader, ImageInputStream input) {
+        reader.dispose();
+        try {
+            input.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+}
@@ -0,0 +1,158 @@
+package unrefined.desktop;
+
+import java.awt.Shape;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * An immutable flattened copy of a path, with the cumulative length at every point,
+ * so that the position and the tangent at any distance along the path are found by binary search.
+ * Measures the same as {@link PathLength}, but is built once and can be shared between draws.
+ */
+public final class MeasuredPath {
+
+    private static final double FLATNESS = 0.01;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] lengths;
+    private final boolean[] moves;
+    private final int size;
+    private final float length;
+
+    public MeasuredPath(Shape path) {
+        int capacity = 32;
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        float[] lengths = new float[capacity];
+        boolean[] moves = new boolean[capacity];
+        // A leading move to the origin, as PathLength does, so that a path not starting with a move still measures
+        xs[0] = 0;
+        ys[0] = 0;
+        lengths[0] = 0;
+        moves[0] = true;
+        int size = 1;
+        float length = 0;
+        float currentX = 0, currentY = 0, lastMoveX = 0, lastMoveY = 0;
+        float[] coords = new float[6];
+        for (PathIterator iterator = new FlatteningPathIterator(path.getPathIterator(null), FLATNESS);
+             !iterator.isDone(); iterator.next()) {
+            int type = iterator.currentSegment(coords);
+            float x, y;
+            boolean move = false;
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    x = lastMoveX = coords[0];
+                    y = lastMoveY = coords[1];
+                    move = true;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    x = coords[0];
+                    y = coords[1];
+                    length += Point2D.distance(currentX, currentY, x, y);
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    x = lastMoveX;
+                    y = lastMoveY;
+                    length += Point2D.distance(currentX, currentY, x, y);
+                    break;
+                default:
+                    // FlatteningPathIterator returns no curves
+                    continue;
+            }
+            if (size == capacity) {
+                capacity <<= 1;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                moves = Arrays.copyOf(moves, capacity);
+            }
+            xs[size] = currentX = x;
+            ys[size] = currentY = y;
+            lengths[size] = length;
+            moves[size] = move;
+            size ++;
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.lengths = lengths;
+        this.moves = moves;
+        this.size = size;
+        this.length = length;
+    }
+
+    /**
+     * Returns the total length of the path.
+     */
+    public float getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the number of flattened points, including the leading move to the origin.
+     */
+    public int getPointCount() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first drawn point whose cumulative length is not less than the distance,
+     * or -1 if the distance is off the path.
+     */
+    private int findUpperIndex(float distance) {
+        if (distance < 0 || distance > length) return -1;
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lengths[middle] >= distance) high = middle;
+            else low = middle + 1;
+        }
+        // Moves share the length of the previous point, skip to the segment actually drawn
+        while (moves[high]) {
+            if (high == size - 1) return -1;
+            high ++;
+        }
+        return high;
+    }
+
+    /**
+     * Stores the point at the given distance along the path.
+     *
+     * @return false if the distance is off the path, in which case the point is unchanged
+     */
+    public boolean getPoint(float distance, Point2D point) {
+        int upper = findUpperIndex(distance);
+        if (upper == -1) return false;
+        int lower = upper - 1;
+        float dx = xs[upper] - xs[lower];
+        float dy = ys[upper] - ys[lower];
+        float segment = (float) Math.sqrt(dx * dx + dy * dy);
+        if (segment == 0) point.setLocation(xs[lower], ys[lower]);
+        else {
+            float t = (distance - lengths[lower]) / segment;
+            point.setLocation(xs[lower] + dx * t, ys[lower] + dy * t);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the point at the given distance along the path, or null if the distance is off the path.
+     */
+    public Point2D getPoint(float distance) {
+        Point2D.Float point = new Point2D.Float();
+        return getPoint(distance, point) ? point : null;
+    }
+
+    /**
+     * Returns the angle of the tangent at the given distance along the path, in radians in the range [-PI, PI],
+     * or 0 if the distance is off the path.
+     */
+    public float getAngle(float distance) {
+        int upper = findUpperIndex(distance);
+        if (upper == -1) return 0;
+        return (float) Math.atan2(ys[upper] - ys[upper - 1], xs[upper] - xs[upper - 1]);
+    }
+
+}
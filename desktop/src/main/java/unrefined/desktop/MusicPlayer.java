@@ -19,8 +19,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 import static unrefined.desktop.AudioSupport.*;
@@ -36,6 +38,7 @@ public class MusicPlayer implements AutoCloseable {
     private final AudioFormat playbackFormat;
     private final DataLine.Info playbackInfo;
     private final int streamBufferSize;
+    private final int readAheadSize;
 
     private volatile SourceDataLine sourceDataLine = null;
     private volatile AudioInputStream audioInputStream = null;
@@ -86,8 +89,9 @@ public class MusicPlayer implements AutoCloseable {
         setVolume(volume, volume);
     }
 
-    public MusicPlayer(Mixer mixer, AudioFormat playbackFormat, int bufferFrames, int threadPriority) {
+    public MusicPlayer(Mixer mixer, AudioFormat playbackFormat, int bufferFrames, int readAheadFrames, int threadPriority) {
         if (bufferFrames < 0) throw new ArrayIndexOutOfBoundsException(bufferFrames);
+        if (readAheadFrames < 0) throw new ArrayIndexOutOfBoundsException(readAheadFrames);
         this.mixer = mixer;
         if (playbackFormat == null) {
             this.playbackFormat = DEFAULT_AUDIO_FORMAT;
@@ -98,9 +102,14 @@ public class MusicPlayer implements AutoCloseable {
             this.playbackInfo = new DataLine.Info(SourceDataLine.class, playbackFormat);
         }
         this.streamBufferSize = bufferFrames * this.playbackFormat.getFrameSize();
+        this.readAheadSize = Math.max(readAheadFrames * this.playbackFormat.getFrameSize(), streamBufferSize);
         this.threadPriority = FastMath.clamp(threadPriority, Thread.MIN_PRIORITY, Thread.MAX_PRIORITY);
     }
 
+    public MusicPlayer(Mixer mixer, AudioFormat playbackFormat, int bufferFrames, int threadPriority) {
+        this(mixer, playbackFormat, bufferFrames, DEFAULT_READ_AHEAD_FRAMES, threadPriority);
+    }
+
     public MusicPlayer(Mixer mixer, AudioFormat playbackFormat, int streamBufferSize) {
         this(mixer, playbackFormat, streamBufferSize, Thread.MAX_PRIORITY);
     }
@@ -179,7 +188,16 @@ public class MusicPlayer implements AutoCloseable {
     public void seekToFrames(long framePosition) throws IOException {
         checkPrepared();
         if (isPlaying()) throw new IllegalStateException("You need to call the function before playing");
-        IOStreams.discardNBytes(audioInputStream, framePosition * playbackFormat.getFrameSize());
+        long remaining = framePosition * playbackFormat.getFrameSize();
+        // Skip first, PCM sources seek in place and only decoders that can't will decode and drop
+        while (remaining > 0) {
+            long skipped = audioInputStream.skip(remaining);
+            if (skipped <= 0) {
+                IOStreams.discardNBytes(audioInputStream, remaining);
+                break;
+            }
+            remaining -= skipped;
+        }
     }
 
     public void seekToMicroseconds(long microsecondPosition) throws IOException {
@@ -191,32 +209,108 @@ public class MusicPlayer implements AutoCloseable {
     }
 
     private volatile boolean playing = false;
+    private volatile Thread playbackThread = null;
+    private final AtomicLong underrunCount = new AtomicLong();
+    private volatile PCMRingBuffer ringBuffer = null;
     public void start() {
         checkPrepared();
         paused = false;
-        if (playing) return;
+        if (playing) {
+            LockSupport.unpark(playbackThread);
+            return;
+        }
         playing = true;
-        Thread t = new Thread(() -> {
-            sourceDataLine.start();
+        SourceDataLine line = sourceDataLine;
+        AudioInputStream stream = audioInputStream;
+        int frameSize = playbackFormat.getFrameSize();
+        PCMRingBuffer ring = new PCMRingBuffer(Integer.highestOneBit(readAheadSize - 1) << 1);
+        ringBuffer = ring;
+        int serialNumber = serialNumber();
+        AtomicBoolean decoding = new AtomicBoolean(true);
+        // Threads left over from a previous start() see they were replaced and quit
+        Thread playback = new Thread(() -> {
+            line.start();
             byte[] buffer = new byte[streamBufferSize];
-            int read = 0;
-            while (playing && read != -1) {
-                if (!paused) {
-                    try {
-                        read = audioInputStream.read(buffer, 0, buffer.length);
-                    } catch (Throwable e) {
-                        stop();
-                        return;
+            boolean primed = false, starved = false;
+            float left = (float) leftVolume, right = (float) rightVolume;
+            while (playing && playbackThread == Thread.currentThread()) {
+                if (paused) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                int read = ring.read(buffer, 0, buffer.length);
+                if (read == 0) {
+                    if (!decoding.get() && ring.available() == 0) break;
+                    // Count each dry spell once, not each time the thread wakes up during it
+                    if (primed && !starved) underrunCount.incrementAndGet();
+                    starved = true;
+                    LockSupport.parkNanos(this, 1_000_000L);
+                    continue;
+                }
+                primed = true;
+                starved = false;
+                LockSupport.unpark(decoderThread);
+                // ramped over the chunk, so that volume changes don't click
+                int frames = read / 4;
+                float targetLeft = (float) leftVolume, targetRight = (float) rightVolume;
+                applyGain(buffer, 0, frames, left, right, (targetLeft - left) / frames, (targetRight - right) / frames);
+                left = targetLeft;
+                right = targetRight;
+                line.write(buffer, 0, read);
+            }
+            if (playbackThread == Thread.currentThread()) stop0();
+        }, "MusicPlayback-" + serialNumber);
+        Thread decoder = new Thread(() -> {
+            byte[] buffer = new byte[streamBufferSize];
+            try {
+                while (playing && decoderThread == Thread.currentThread()) {
+                    int free = ring.free() / frameSize * frameSize;
+                    if (free == 0) {
+                        LockSupport.park(this);
+                        continue;
                     }
-                    adjustVolume(buffer, 0, read, leftVolume, rightVolume);
-                    if (read != -1) sourceDataLine.write(buffer, 0, read);
+                    int read = stream.read(buffer, 0, Math.min(free, buffer.length));
+                    if (read == -1) break;
+                    ring.write(buffer, 0, read);
+                    LockSupport.unpark(playback);
                 }
             }
-            stop();
-        }, "MusicPlayback-" + serialNumber());
-        t.setPriority(threadPriority);
-        t.setDaemon(true);
-        t.start();
+            catch (Throwable ignored) {
+                // Closed by stop() or failed, the player drains what is buffered either way
+            }
+            finally {
+                decoding.set(false);
+                LockSupport.unpark(playback);
+            }
+        }, "MusicDecoder-" + serialNumber);
+        decoder.setPriority(threadPriority);
+        decoder.setDaemon(true);
+        playback.setPriority(threadPriority);
+        playback.setDaemon(true);
+        decoderThread = decoder;
+        playbackThread = playback;
+        decoder.start();
+        playback.start();
+    }
+    private volatile Thread decoderThread = null;
+
+    /**
+     * @return how many times playback ran out of decoded data, since this player was created
+     */
+    public long getUnderrunCount() {
+        return underrunCount.get();
+    }
+
+    /**
+     * @return the decoded frames waiting to be played
+     */
+    public int getBufferedFrames() {
+        PCMRingBuffer ring = ringBuffer;
+        return ring == null ? 0 : ring.available() / playbackFormat.getFrameSize();
+    }
+
+    public int getReadAheadFrames() {
+        return readAheadSize / playbackFormat.getFrameSize();
     }
 
     public void pause() {
@@ -233,6 +327,9 @@ public class MusicPlayer implements AutoCloseable {
         if (!isPrepared()) return;
         synchronized (lock) {
             if (!isPlaying()) return;
+            playing = false;
+            LockSupport.unpark(playbackThread);
+            LockSupport.unpark(decoderThread);
             if (audioInputStream != null) {
                 try {
                     audioInputStream.close();
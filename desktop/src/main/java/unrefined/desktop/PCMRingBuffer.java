@@ -0,0 +1,64 @@
+package unrefined.desktop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single producer, single consumer ring of PCM bytes, e.g. between a decoder thread and a playback thread.
+ * Neither side ever blocks; callers decide how to wait when it is full or empty.
+ */
+final class PCMRingBuffer {
+
+    private final byte[] buffer;
+    private final int mask;
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    PCMRingBuffer(int capacity) {
+        if (capacity < 1 || (capacity & (capacity - 1)) != 0) throw new IllegalArgumentException("capacity must be a power of two");
+        buffer = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    int available() {
+        return (int) (writePosition.get() - readPosition.get());
+    }
+
+    int free() {
+        return buffer.length - available();
+    }
+
+    /**
+     * Producer side.
+     * @return the number of bytes written, less than length if the ring is full
+     */
+    int write(byte[] source, int offset, int length) {
+        long write = writePosition.get();
+        int count = Math.min(length, buffer.length - (int) (write - readPosition.get()));
+        int start = (int) write & mask;
+        int first = Math.min(count, buffer.length - start);
+        System.arraycopy(source, offset, buffer, start, first);
+        System.arraycopy(source, offset + first, buffer, 0, count - first);
+        writePosition.lazySet(write + count);
+        return count;
+    }
+
+    /**
+     * Consumer side.
+     * @return the number of bytes read, less than length if the ring is empty
+     */
+    int read(byte[] destination, int offset, int length) {
+        long read = readPosition.get();
+        int count = Math.min(length, (int) (writePosition.get() - read));
+        int start = (int) read & mask;
+        int first = Math.min(count, buffer.length - start);
+        System.arraycopy(buffer, start, destination, offset, first);
+        System.arraycopy(buffer, 0, destination, offset + first, count - first);
+        readPosition.lazySet(read + count);
+        return count;
+    }
+
+}
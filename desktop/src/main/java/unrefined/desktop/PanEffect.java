@@ -0,0 +1,62 @@
+package unrefined.desktop;
+
+import unrefined.math.FastMath;
+
+import static unrefined.desktop.AudioSupport.applyGain;
+
+/**
+ * Balances stereo: the channel panned away from fades along a constant power curve, the other one is left as is,
+ * so that the center leaves the signal untouched. Changes are ramped over a block.
+ */
+public class PanEffect implements AudioEffect {
+
+	private volatile float pan;
+	private float appliedLeftGain = 1, appliedRightGain = 1;
+
+	public PanEffect() {
+		this(0);
+	}
+
+	public PanEffect(float pan) {
+		setPan(pan);
+		appliedLeftGain = leftGain(this.pan);
+		appliedRightGain = rightGain(this.pan);
+	}
+
+	public float getPan() {
+		return pan;
+	}
+
+	/**
+	 * @param pan from -1, left only, to 1, right only
+	 */
+	public void setPan(float pan) {
+		this.pan = FastMath.clamp(pan, -1, 1);
+	}
+
+	private static float leftGain(float pan) {
+		return (float) Math.min(1, Math.cos((pan + 1) * Math.PI / 4) * Math.sqrt(2));
+	}
+
+	private static float rightGain(float pan) {
+		return (float) Math.min(1, Math.sin((pan + 1) * Math.PI / 4) * Math.sqrt(2));
+	}
+
+	@Override
+	public void process(float[] buffer, int offset, int frames) {
+		if (frames <= 0) return;
+		float pan = this.pan;
+		float left = leftGain(pan), right = rightGain(pan);
+		applyGain(buffer, offset, frames, appliedLeftGain, appliedRightGain,
+				(left - appliedLeftGain) / frames, (right - appliedRightGain) / frames);
+		appliedLeftGain = left;
+		appliedRightGain = right;
+	}
+
+	@Override
+	public void reset() {
+		appliedLeftGain = leftGain(pan);
+		appliedRightGain = rightGain(pan);
+	}
+
+}
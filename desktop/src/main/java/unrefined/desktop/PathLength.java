@@ -380,27 +380,18 @@ public class PathLength {
                 lb = curr + 1;
             }
         }
+        // Skip the moves sharing the length, the binary search result is
+        // the first drawn segment reaching the length, no linear scan needed.
         for (;;) {
             PathSegment ps = (PathSegment) segments.get(ub);
-            if (ps.getSegType() != PathIterator.SEG_MOVETO
-                    || ub == segments.size() - 1) {
-                break;
+            if (ps.getSegType() != PathIterator.SEG_MOVETO) {
+                return ub;
             }
-            ub++;
-        }
-
-        int upperIndex = -1;
-        int currentIndex = 0;
-        int numSegments = segments.size();
-        while (upperIndex <= 0 && currentIndex < numSegments) {
-            PathSegment ps = (PathSegment) segments.get(currentIndex);
-            if (ps.getLength() >= length
-                    && ps.getSegType() != PathIterator.SEG_MOVETO) {
-                upperIndex = currentIndex;
+            if (ub == segments.size() - 1) {
+                return -1;
             }
-            currentIndex++;
+            ub++;
         }
-        return upperIndex;
     }
 
     /**
@@ -0,0 +1,249 @@
+package unrefined.desktop;
+
+import unrefined.util.NotInstantiableError;
+
+/**
+ * Interpolation kernels for playing interleaved stereo PCM at any speed, and offline sample rate conversion.
+ * Mixing positions are 32.32 fixed point frames; the kernels read up to {@link #PADDING_FRAMES} frames
+ * around the played ones, so the PCM must be padded with silence on both sides.
+ */
+public final class Resampler {
+
+	public enum Interpolation {
+		/** Two taps, cheapest, aliases at any speed other than 1 */
+		LINEAR,
+		/** Four taps Catmull-Rom spline, smoother but not band-limited */
+		CUBIC,
+		/** Windowed sinc, band-limited to the lower of the source and playback Nyquist frequencies */
+		SINC
+	}
+
+	private Resampler() {
+		throw new NotInstantiableError(Resampler.class);
+	}
+
+	static final int FRACTION_BITS = 32;
+	static final long FRACTION_ONE = 1L << FRACTION_BITS;
+	static final long FRACTION_MASK = FRACTION_ONE - 1;
+	private static final float FRACTION_SCALE = 1f / FRACTION_ONE;
+
+	// Zero crossings on each side of the sinc, and table resolution per zero crossing
+	private static final int SINC_ZERO_CROSSINGS = 8;
+	private static final int SINC_TAPS = SINC_ZERO_CROSSINGS * 2;
+	private static final int SINC_PHASE_BITS = 8;
+	private static final int SINC_PHASES = 1 << SINC_PHASE_BITS;
+	private static final int PHASE_FRACTION_BITS = FRACTION_BITS - SINC_PHASE_BITS;
+	private static final long PHASE_FRACTION_MASK = (1L << PHASE_FRACTION_BITS) - 1;
+	private static final float PHASE_FRACTION_SCALE = 1f / (1L << PHASE_FRACTION_BITS);
+	private static final double KAISER_BETA = 8.0;
+	// Speeds are clamped to 8, where the sinc widens 8 times
+	static final int PADDING_FRAMES = SINC_ZERO_CROSSINGS * 8 + 2;
+
+	// The windowed sinc from 0 to one past the last zero crossing, zeros at the end, and the slope to the next entry
+	private static final float[] SINC = new float[(SINC_ZERO_CROSSINGS + 1) * SINC_PHASES + 2];
+	private static final float[] SINC_SLOPES = new float[SINC.length - 1];
+	// Polyphase rows for a cutoff of 1, normalized to unity gain: row p holds the taps for a fraction of p / SINC_PHASES,
+	// and the difference to the next row to interpolate between phases
+	private static final float[] SINC_ROWS = new float[(SINC_PHASES + 1) * SINC_TAPS];
+	private static final float[] SINC_DELTAS = new float[SINC_PHASES * SINC_TAPS];
+	static {
+		for (int i = 0; i < SINC.length; i ++) {
+			SINC[i] = (float) windowedSinc((double) i / SINC_PHASES);
+		}
+		for (int i = 0; i < SINC_SLOPES.length; i ++) {
+			SINC_SLOPES[i] = SINC[i + 1] - SINC[i];
+		}
+		for (int p = 0; p <= SINC_PHASES; p ++) {
+			double sum = 0;
+			double[] row = new double[SINC_TAPS];
+			for (int k = 0; k < SINC_TAPS; k ++) {
+				row[k] = windowedSinc(k - SINC_ZERO_CROSSINGS + 1 - (double) p / SINC_PHASES);
+				sum += row[k];
+			}
+			for (int k = 0; k < SINC_TAPS; k ++) {
+				SINC_ROWS[p * SINC_TAPS + k] = (float) (row[k] / sum);
+			}
+		}
+		for (int i = 0; i < SINC_DELTAS.length; i ++) {
+			SINC_DELTAS[i] = SINC_ROWS[i + SINC_TAPS] - SINC_ROWS[i];
+		}
+	}
+
+	private static double windowedSinc(double x) {
+		x = Math.abs(x);
+		if (x >= SINC_ZERO_CROSSINGS) return 0;
+		double sinc = x == 0 ? 1 : Math.sin(Math.PI * x) / (Math.PI * x);
+		double ratio = x / SINC_ZERO_CROSSINGS;
+		return sinc * besselI0(KAISER_BETA * Math.sqrt(1 - ratio * ratio)) / besselI0(KAISER_BETA);
+	}
+
+	private static double besselI0(double x) {
+		double sum = 1, term = 1;
+		for (int k = 1; k < 32; k ++) {
+			term *= (x / (2 * k)) * (x / (2 * k));
+			sum += term;
+		}
+		return sum;
+	}
+
+	// The windowed sinc at |x| < SINC_ZERO_CROSSINGS, linearly interpolated
+	private static float sinc(float x) {
+		float index = Math.abs(x) * SINC_PHASES;
+		int i = (int) index;
+		if (i >= SINC_ZERO_CROSSINGS * SINC_PHASES) return 0;
+		return SINC[i] + SINC_SLOPES[i] * (index - i);
+	}
+
+	/**
+	 * Adds frames read at a fractional fixed point position into the interleaved stereo buffer, the step ramping linearly.
+	 * @param base the index in pcm of frame 0
+	 */
+	static void mix(Interpolation interpolation, float[] pcm, int base, long position, long step, long stepIncr,
+					float[] buffer, int index, int frames, float left, float right, float leftIncr, float rightIncr) {
+		switch (interpolation) {
+			case CUBIC:
+				mixCubic(pcm, base, position, step, stepIncr, buffer, index, frames, left, right, leftIncr, rightIncr);
+				break;
+			case SINC:
+				long maxStep = stepIncr > 0 ? step + stepIncr * frames : step;
+				if (maxStep <= FRACTION_ONE) mixSinc(pcm, base, position, step, stepIncr, buffer, index, frames, left, right, leftIncr, rightIncr);
+				else mixSinc(pcm, base, position, step, stepIncr, buffer, index, frames, left, right, leftIncr, rightIncr,
+						(float) ((double) FRACTION_ONE / maxStep));
+				break;
+			default:
+				mixLinear(pcm, base, position, step, stepIncr, buffer, index, frames, left, right, leftIncr, rightIncr);
+				break;
+		}
+	}
+
+	// LERP between the two frames around the position
+	private static void mixLinear(float[] pcm, int base, long position, long step, long stepIncr,
+								  float[] buffer, int index, int frames, float left, float right, float leftIncr, float rightIncr) {
+		for (int i = 0; i < frames; i ++) {
+			int source = base + (int) (position >>> FRACTION_BITS) * 2;
+			float fraction = (position & FRACTION_MASK) * FRACTION_SCALE;
+			float leftSample = pcm[source], rightSample = pcm[source + 1];
+			buffer[index] += (leftSample + (pcm[source + 2] - leftSample) * fraction) * (left + i * leftIncr);
+			buffer[index + 1] += (rightSample + (pcm[source + 3] - rightSample) * fraction) * (right + i * rightIncr);
+			index += 2;
+			step += stepIncr;
+			position += step;
+		}
+	}
+
+	// Catmull-Rom spline through the four frames around the position
+	private static void mixCubic(float[] pcm, int base, long position, long step, long stepIncr,
+								 float[] buffer, int index, int frames, float left, float right, float leftIncr, float rightIncr) {
+		for (int i = 0; i < frames; i ++) {
+			int source = base + (int) (position >>> FRACTION_BITS) * 2;
+			float t = (position & FRACTION_MASK) * FRACTION_SCALE;
+			buffer[index] += hermite(pcm[source - 2], pcm[source], pcm[source + 2], pcm[source + 4], t) * (left + i * leftIncr);
+			buffer[index + 1] += hermite(pcm[source - 1], pcm[source + 1], pcm[source + 3], pcm[source + 5], t) * (right + i * rightIncr);
+			index += 2;
+			step += stepIncr;
+			position += step;
+		}
+	}
+
+	private static float hermite(float y0, float y1, float y2, float y3, float t) {
+		float c1 = 0.5f * (y2 - y0);
+		float c2 = y0 - 2.5f * y1 + 2 * y2 - 0.5f * y3;
+		float c3 = 0.5f * (y3 - y0) + 1.5f * (y1 - y2);
+		return ((c3 * t + c2) * t + c1) * t + y1;
+	}
+
+	// Up to unity speed: the polyphase rows, interpolated between the two nearest phases
+	private static void mixSinc(float[] pcm, int base, long position, long step, long stepIncr,
+								float[] buffer, int index, int frames, float left, float right, float leftIncr, float rightIncr) {
+		for (int i = 0; i < frames; i ++) {
+			int source = base + ((int) (position >>> FRACTION_BITS) - SINC_ZERO_CROSSINGS + 1) * 2;
+			// the top fraction bits select the phase, the others interpolate to the next one
+			int row = (int) ((position & FRACTION_MASK) >>> PHASE_FRACTION_BITS) * SINC_TAPS;
+			float t = (position & PHASE_FRACTION_MASK) * PHASE_FRACTION_SCALE;
+			float leftSum = 0, rightSum = 0;
+			for (int k = 0; k < SINC_TAPS; k ++) {
+				float weight = SINC_ROWS[row + k] + SINC_DELTAS[row + k] * t;
+				leftSum += pcm[source + k * 2] * weight;
+				rightSum += pcm[source + k * 2 + 1] * weight;
+			}
+			buffer[index] += leftSum * (left + i * leftIncr);
+			buffer[index + 1] += rightSum * (right + i * rightIncr);
+			index += 2;
+			step += stepIncr;
+			position += step;
+		}
+	}
+
+	// Above unity speed: the sinc widened by 1 / cutoff, so that it also filters out what would alias
+	private static void mixSinc(float[] pcm, int base, long position, long step, long stepIncr,
+								float[] buffer, int index, int frames, float left, float right, float leftIncr, float rightIncr, float cutoff) {
+		int half = (int) Math.ceil(SINC_ZERO_CROSSINGS / cutoff);
+		// distance between taps in table entries; the farthest tap is less than a zero crossing past the table's
+		float stride = cutoff * SINC_PHASES;
+		for (int i = 0; i < frames; i ++) {
+			int frame = (int) (position >>> FRACTION_BITS);
+			float fraction = (position & FRACTION_MASK) * FRACTION_SCALE;
+			int source = base + (frame - half + 1) * 2;
+			float leftSum = 0, rightSum = 0;
+			// taps up to the position, getting closer
+			float distance = (half - 1 + fraction) * stride;
+			for (int k = 0; k < half; k ++) {
+				int entry = (int) distance;
+				float weight = SINC[entry] + SINC_SLOPES[entry] * (distance - entry);
+				leftSum += pcm[source + k * 2] * weight;
+				rightSum += pcm[source + k * 2 + 1] * weight;
+				distance -= stride;
+			}
+			// taps past the position, getting farther
+			distance = (1 - fraction) * stride;
+			for (int k = half; k < half * 2; k ++) {
+				int entry = (int) distance;
+				float weight = SINC[entry] + SINC_SLOPES[entry] * (distance - entry);
+				leftSum += pcm[source + k * 2] * weight;
+				rightSum += pcm[source + k * 2 + 1] * weight;
+				distance += stride;
+			}
+			buffer[index] += leftSum * cutoff * (left + i * leftIncr);
+			buffer[index + 1] += rightSum * cutoff * (right + i * rightIncr);
+			index += 2;
+			step += stepIncr;
+			position += step;
+		}
+	}
+
+	/**
+	 * Converts interleaved PCM from one sample rate to another with the windowed sinc,
+	 * low-pass filtered at the lower Nyquist frequency of the two.
+	 */
+	public static float[] resample(float[] pcm, int channels, double sourceRate, double targetRate) {
+		if (channels < 1) throw new IllegalArgumentException("channels must be at least 1");
+		if (!(sourceRate > 0) || !(targetRate > 0)) throw new IllegalArgumentException("sample rates must be positive");
+		int sourceFrames = pcm.length / channels;
+		long targetFrames = (long) Math.ceil(sourceFrames * targetRate / sourceRate);
+		if (targetFrames * channels > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("resampled pcm too large");
+		float[] resampled = new float[(int) targetFrames * channels];
+		double step = sourceRate / targetRate;
+		float cutoff = (float) Math.min(1, targetRate / sourceRate);
+		int half = (int) Math.ceil(SINC_ZERO_CROSSINGS / cutoff);
+		float[] weights = new float[half * 2];
+		for (int i = 0; i < targetFrames; i ++) {
+			double position = i * step;
+			int frame = (int) position;
+			float fraction = (float) (position - frame);
+			int first = frame - half + 1;
+			for (int k = 0; k < weights.length; k ++) {
+				weights[k] = sinc((k - half + 1 - fraction) * cutoff) * cutoff;
+			}
+			for (int c = 0; c < channels; c ++) {
+				float sum = 0;
+				for (int k = 0; k < weights.length; k ++) {
+					int source = first + k;
+					if (source >= 0 && source < sourceFrames) sum += pcm[source * channels + c] * weights[k];
+				}
+				resampled[i * channels + c] = sum;
+			}
+		}
+		return resampled;
+	}
+
+}
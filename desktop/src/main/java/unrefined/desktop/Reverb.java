@@ -0,0 +1,154 @@
+package unrefined.desktop;
+
+import unrefined.math.FastMath;
+
+import java.util.Arrays;
+
+import static unrefined.desktop.AudioSupport.DEFAULT_AUDIO_FORMAT;
+
+/**
+ * Schroeder-Moorer reverb with the public domain Freeverb tuning: eight damped combs in parallel then four allpasses
+ * in series per channel, the right channel's delays slightly longer for width.
+ */
+public class Reverb implements AudioEffect {
+
+	// Delays in samples at 44.1 kHz
+	private static final int[] COMB_TUNING = { 1116, 1188, 1277, 1356, 1422, 1491, 1557, 1617 };
+	private static final int[] ALLPASS_TUNING = { 556, 441, 341, 225 };
+	private static final int STEREO_SPREAD = 23;
+	private static final float ALLPASS_FEEDBACK = 0.5f;
+	private static final float INPUT_GAIN = 0.015f;
+	// Keeps the feedback loops out of denormal numbers as the tail decays, far below audibility
+	private static final float ANTI_DENORMAL = 1e-18f;
+
+	private final float[][] leftCombs, rightCombs, leftAllpasses, rightAllpasses;
+	private final int[] leftCombIndices, rightCombIndices, leftAllpassIndices, rightAllpassIndices;
+	private final float[] leftCombFilters, rightCombFilters;
+
+	private volatile float roomSize, damping, wet, dry, width;
+
+	public Reverb() {
+		this(0.5f, 0.5f, 0.2f, 1, 1);
+	}
+
+	/**
+	 * All parameters range from 0 to 1.
+	 * @param roomSize the length of the tail
+	 * @param damping how fast high frequencies decay in the tail
+	 * @param wet the level of the reverberated signal
+	 * @param dry the level of the original signal
+	 * @param width the stereo separation of the reverberated signal
+	 */
+	public Reverb(float roomSize, float damping, float wet, float dry, float width) {
+		this(roomSize, damping, wet, dry, width, DEFAULT_AUDIO_FORMAT.getSampleRate());
+	}
+
+	public Reverb(float roomSize, float damping, float wet, float dry, float width, double sampleRate) {
+		if (!(sampleRate > 0)) throw new IllegalArgumentException("sample rate must be positive");
+		double scale = sampleRate / 44100;
+		leftCombs = new float[COMB_TUNING.length][];
+		rightCombs = new float[COMB_TUNING.length][];
+		for (int i = 0; i < COMB_TUNING.length; i ++) {
+			leftCombs[i] = new float[Math.max(1, (int) (COMB_TUNING[i] * scale))];
+			rightCombs[i] = new float[Math.max(1, (int) ((COMB_TUNING[i] + STEREO_SPREAD) * scale))];
+		}
+		leftAllpasses = new float[ALLPASS_TUNING.length][];
+		rightAllpasses = new float[ALLPASS_TUNING.length][];
+		for (int i = 0; i < ALLPASS_TUNING.length; i ++) {
+			leftAllpasses[i] = new float[Math.max(1, (int) (ALLPASS_TUNING[i] * scale))];
+			rightAllpasses[i] = new float[Math.max(1, (int) ((ALLPASS_TUNING[i] + STEREO_SPREAD) * scale))];
+		}
+		leftCombIndices = new int[COMB_TUNING.length];
+		rightCombIndices = new int[COMB_TUNING.length];
+		leftAllpassIndices = new int[ALLPASS_TUNING.length];
+		rightAllpassIndices = new int[ALLPASS_TUNING.length];
+		leftCombFilters = new float[COMB_TUNING.length];
+		rightCombFilters = new float[COMB_TUNING.length];
+		set(roomSize, damping, wet, dry, width);
+	}
+
+	public void set(float roomSize, float damping, float wet, float dry, float width) {
+		this.roomSize = FastMath.clamp(roomSize, 0, 1);
+		this.damping = FastMath.clamp(damping, 0, 1);
+		this.wet = FastMath.clamp(wet, 0, 1);
+		this.dry = FastMath.clamp(dry, 0, 1);
+		this.width = FastMath.clamp(width, 0, 1);
+	}
+
+	public float getRoomSize() {
+		return roomSize;
+	}
+
+	public float getDamping() {
+		return damping;
+	}
+
+	public float getWet() {
+		return wet;
+	}
+
+	public float getDry() {
+		return dry;
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	@Override
+	public void process(float[] buffer, int offset, int frames) {
+		// the Freeverb scaling of the parameters, but for the dry level which passes the input as is at 1
+		float feedback = roomSize * 0.28f + 0.7f;
+		float damping1 = damping * 0.4f, damping2 = 1 - damping1;
+		float wet = this.wet * 3, dry = this.dry, width = this.width;
+		float wet1 = wet * (width / 2 + 0.5f), wet2 = wet * ((1 - width) / 2);
+		for (int i = offset; i < offset + frames * 2; i += 2) {
+			float input = (buffer[i] + buffer[i + 1]) * INPUT_GAIN + ANTI_DENORMAL;
+			float left = 0, right = 0;
+			for (int c = 0; c < leftCombs.length; c ++) {
+				left += comb(leftCombs[c], leftCombIndices, leftCombFilters, c, input, feedback, damping1, damping2);
+				right += comb(rightCombs[c], rightCombIndices, rightCombFilters, c, input, feedback, damping1, damping2);
+			}
+			for (int a = 0; a < leftAllpasses.length; a ++) {
+				left = allpass(leftAllpasses[a], leftAllpassIndices, a, left);
+				right = allpass(rightAllpasses[a], rightAllpassIndices, a, right);
+			}
+			buffer[i] = left * wet1 + right * wet2 + buffer[i] * dry;
+			buffer[i + 1] = right * wet1 + left * wet2 + buffer[i + 1] * dry;
+		}
+	}
+
+	private static float comb(float[] delay, int[] indices, float[] filters, int c, float input,
+							  float feedback, float damping1, float damping2) {
+		int index = indices[c];
+		float output = delay[index];
+		float filter = output * damping2 + filters[c] * damping1;
+		filters[c] = filter;
+		delay[index] = input + filter * feedback;
+		indices[c] = index + 1 == delay.length ? 0 : index + 1;
+		return output;
+	}
+
+	private static float allpass(float[] delay, int[] indices, int a, float input) {
+		int index = indices[a];
+		float delayed = delay[index];
+		delay[index] = input + delayed * ALLPASS_FEEDBACK;
+		indices[a] = index + 1 == delay.length ? 0 : index + 1;
+		return delayed - input;
+	}
+
+	@Override
+	public void reset() {
+		for (float[] delay : leftCombs) Arrays.fill(delay, 0);
+		for (float[] delay : rightCombs) Arrays.fill(delay, 0);
+		for (float[] delay : leftAllpasses) Arrays.fill(delay, 0);
+		for (float[] delay : rightAllpasses) Arrays.fill(delay, 0);
+		Arrays.fill(leftCombIndices, 0);
+		Arrays.fill(rightCombIndices, 0);
+		Arrays.fill(leftAllpassIndices, 0);
+		Arrays.fill(rightAllpassIndices, 0);
+		Arrays.fill(leftCombFilters, 0);
+		Arrays.fill(rightCombFilters, 0);
+	}
+
+}
@@ -0,0 +1,166 @@
+package unrefined.desktop;
+
+import java.awt.Color;
+import java.awt.LinearGradientPaint;
+import java.awt.MultipleGradientPaint.ColorSpaceType;
+import java.awt.MultipleGradientPaint.CycleMethod;
+import java.awt.Paint;
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.ColorModel;
+
+/**
+ * A linear gradient paint whose contexts take their colors from the shared {@link GradientLookupTable}
+ * cache, instead of recalculating the lookup data for every paint instance.
+ * {@link LinearGradientPaint} is final, so it is wrapped; it still validates the arguments and backs the getters.
+ */
+public class SharedLinearGradientPaint implements Paint {
+
+    private final LinearGradientPaint paint;
+
+    public SharedLinearGradientPaint(float startX, float startY, float endX, float endY, float[] fractions, Color[] colors) {
+        this.paint = new LinearGradientPaint(startX, startY, endX, endY, fractions, colors);
+    }
+
+    public SharedLinearGradientPaint(float startX, float startY, float endX, float endY, float[] fractions, Color[] colors,
+                                     CycleMethod cycleMethod) {
+        this.paint = new LinearGradientPaint(startX, startY, endX, endY, fractions, colors, cycleMethod);
+    }
+
+    public SharedLinearGradientPaint(Point2D start, Point2D end, float[] fractions, Color[] colors,
+                                     CycleMethod cycleMethod, ColorSpaceType colorSpace, AffineTransform gradientTransform) {
+        this.paint = new LinearGradientPaint(start, end, fractions, colors, cycleMethod, colorSpace, gradientTransform);
+    }
+
+    public LinearGradientPaint getLinearGradientPaint() {
+        return paint;
+    }
+
+    public Point2D getStartPoint() {
+        return paint.getStartPoint();
+    }
+
+    public Point2D getEndPoint() {
+        return paint.getEndPoint();
+    }
+
+    public float[] getFractions() {
+        return paint.getFractions();
+    }
+
+    public Color[] getColors() {
+        return paint.getColors();
+    }
+
+    public CycleMethod getCycleMethod() {
+        return paint.getCycleMethod();
+    }
+
+    public ColorSpaceType getColorSpace() {
+        return paint.getColorSpace();
+    }
+
+    public AffineTransform getTransform() {
+        return paint.getTransform();
+    }
+
+    @Override
+    public int getTransparency() {
+        return paint.getTransparency();
+    }
+
+    @Override
+    public PaintContext createContext(ColorModel cm, Rectangle deviceBounds, Rectangle2D userBounds,
+                                      AffineTransform transform, RenderingHints hints) {
+        float[] fractions = getFractions();
+        // Two stop gradients are handled by the JDK's own GradientPaint context, which needs no lookup data
+        if (fractions.length == 2 && getCycleMethod() != CycleMethod.REPEAT && getColorSpace() == ColorSpaceType.SRGB) {
+            return paint.createContext(cm, deviceBounds, userBounds, transform, hints);
+        }
+        if (deviceBounds == null) throw new NullPointerException("Device bounds cannot be null");
+        if (userBounds == null) throw new NullPointerException("User bounds cannot be null");
+        if (hints == null) throw new NullPointerException("RenderingHints cannot be null");
+        // avoid modifying the user's transform...
+        transform = new AffineTransform(transform);
+        // incorporate the gradient transform
+        transform.concatenate(getTransform());
+        Point2D start = getStartPoint();
+        Point2D end = getEndPoint();
+        return new Context(GradientLookupTable.get(fractions, getColors(), getCycleMethod(), getColorSpace()), transform,
+                (float) start.getX(), (float) start.getY(), (float) end.getX(), (float) end.getY());
+    }
+
+    private static final class Context extends GradientPaintContext {
+
+        /**
+         * The following invariants are used to process the gradient value from
+         * a device space coordinate, (X, Y):
+         *     g(X, Y) = dgdX*X + dgdY*Y + gc
+         */
+        private final float dgdX, dgdY, gc;
+
+        public Context(GradientLookupTable table, AffineTransform t, float startX, float startY, float endX, float endY) {
+            super(table);
+
+            // The inverse transform is needed to go from device to user space.
+            AffineTransform tInv;
+            try {
+                t.invert();
+                tInv = t;
+            } catch (NoninvertibleTransformException e) {
+                // just use identity transform in this case; better to show
+                // (incorrect) results than to throw an exception and/or no-op
+                tInv = new AffineTransform();
+            }
+            double[] m = new double[6];
+            tInv.getMatrix(m);
+            float a00 = (float) m[0];
+            float a10 = (float) m[1];
+            float a01 = (float) m[2];
+            float a11 = (float) m[3];
+            float a02 = (float) m[4];
+            float a12 = (float) m[5];
+
+            // Project the device space point on the (start, end) vector, normalized by its squared length
+            float dx = endX - startX;
+            float dy = endY - startY;
+            float dSq = dx * dx + dy * dy;
+            float constX = dx / dSq;
+            float constY = dy / dSq;
+
+            dgdX = a00 * constX + a10 * constY;
+            dgdY = a01 * constX + a11 * constY;
+            gc = (a02 - startX) * constX + (a12 - startY) * constY;
+        }
+
+        @Override
+        protected void fillRaster(int[] pixels, int off, int adjust, int x, int y, int w, int h) {
+            float initConst = (dgdX * x) + gc;
+            for (int i = 0; i < h; i ++) {
+                float g = initConst + dgdY * (y + i);
+                int rowLimit = off + w;
+                if (dgdX == 0) {
+                    // the whole row shares one color
+                    int rgb = indexIntoGradientsArrays(g);
+                    while (off < rowLimit) {
+                        pixels[off ++] = rgb;
+                    }
+                }
+                else {
+                    while (off < rowLimit) {
+                        pixels[off ++] = indexIntoGradientsArrays(g);
+                        g += dgdX;
+                    }
+                }
+                off += adjust;
+            }
+        }
+
+    }
+
+}
@@ -2,8 +2,10 @@ package unrefined.desktop;
 
 import unrefined.io.IOStreams;
 import unrefined.math.FastMath;
+import unrefined.nio.Pointer;
 import unrefined.util.Arrays;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
@@ -11,22 +13,68 @@ import javax.sound.sampled.Mixer;
 import javax.sound.sampled.SourceDataLine;
 import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 import static unrefined.desktop.AudioSupport.*;
+import static unrefined.desktop.Resampler.FRACTION_BITS;
+import static unrefined.desktop.Resampler.FRACTION_MASK;
+import static unrefined.desktop.Resampler.FRACTION_ONE;
+import static unrefined.desktop.Resampler.PADDING_FRAMES;
+import static unrefined.desktop.SoundCommandQueue.*;
 
-public class SoundClip implements AutoCloseable {
-
-	private final LinkedBlockingDeque<SoundClipCursor> available;
+public class SoundClip implements AudioSource, AutoCloseable {
 
 	public int instanceCount() {
-		return polyphony - available.size();
+		int count = 0;
+		for (SoundClipCursor cursor : cursors) {
+			if (cursor.state.get() != SoundClipCursor.FREE) count ++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the instances playing, counting the ones scheduled to start, but not the ones of a {@link SoundSpace}
+	 */
+	@Override
+	public int getVoiceCount() {
+		int count = 0;
+		for (SoundClipCursor cursor : cursors) {
+			if (cursor.isPlaying && !cursor.spatial) count ++;
+		}
+		return count;
 	}
 
+	public enum Storage {
+		/** 32-bit float, mixed straight from memory */
+		FLOAT,
+		/** 16-bit, half the memory of FLOAT */
+		SHORT,
+		/** 16-bit outside the Java heap, freed when the clip is garbage collected */
+		OFF_HEAP,
+		/** 4-bit IMA ADPCM in blocks of {@value #ADPCM_BLOCK_FRAMES} frames, a quarter of SHORT */
+		ADPCM
+	}
+
+	private final Storage storage;
+	public Storage getStorage() {
+		return storage;
+	}
+
+	// FLOAT: padded with silence on both sides for the interpolation kernels
 	private final float[] pcm;
+	// the other storages are decoded per voice, into a window refilled as the voice moves on
+	private final short[] samples;
+	private final Pointer nativePCM;
+	private final byte[] adpcm;
+	private final int[] adpcmStates;
+
+	private static final int WINDOW_FRAMES = 1024;
+	private static final int ADPCM_BLOCK_FRAMES = 256;
+	private static final float SHORT_SCALE = 1 / 32767f;
 
 	private final int frameLength;
 	private final SoundClipCursor[] cursors;
@@ -34,9 +82,22 @@ public class SoundClip implements AutoCloseable {
 	public int getPolyphony() {
 		return polyphony;
 	}
+	private int nextInstance;
+
+	// Control threads only post commands, the mixing thread applies them at buffer boundaries
+	// and is known as such only while it mixes, whichever thread that is
+	private final SoundCommandQueue commands;
+	private volatile Thread mixingThread;
+	private volatile long mixFramePosition;
+	/**
+	 * The mixing clock, in frames: where the next buffer starts. Starts are scheduled against it with {@link #start(int, long)}.
+	 */
+	public long getMixFramePosition() {
+		return mixFramePosition;
+	}
 
 	private SoundClipPlayer player;
-	private SoundMuxer soundMuxer;
+	private volatile SoundMuxer soundMuxer;
 	public SoundMuxer getSoundMuxer() {
 		return soundMuxer;
 	}
@@ -61,42 +122,217 @@ public class SoundClip implements AutoCloseable {
 	}
 
 	public SoundClip(float[] pcm, int polyphony) {
-		this.pcm = pcm;
+		this(pcm, polyphony, Storage.FLOAT, null);
+	}
+
+	public SoundClip(float[] pcm, int polyphony, Storage storage) throws IOException {
+		this(pcm, polyphony, storage, storage == Storage.OFF_HEAP ? Pointer.allocateDirect(pcm.length / 2 * 4L) : null);
+	}
+
+	private SoundClip(float[] pcm, int polyphony, Storage storage, Pointer nativePCM) {
+		this.storage = Objects.requireNonNull(storage);
 		this.frameLength = pcm.length / 2;
+		this.nativePCM = nativePCM;
+		if (storage == Storage.FLOAT) {
+			this.pcm = new float[(frameLength + PADDING_FRAMES * 2) * 2];
+			System.arraycopy(pcm, 0, this.pcm, PADDING_FRAMES * 2, frameLength * 2);
+		}
+		else this.pcm = null;
+		if (storage == Storage.SHORT || storage == Storage.OFF_HEAP) {
+			short[] samples = new short[frameLength * 2];
+			for (int i = 0; i < samples.length; i ++) {
+				samples[i] = toShort(pcm[i]);
+			}
+			if (nativePCM == null) this.samples = samples;
+			else {
+				nativePCM.putShortArray(0, samples);
+				CleanerSupport.register(this, () -> IOStreams.closeQuietly(nativePCM));
+				this.samples = null;
+			}
+		}
+		else this.samples = null;
+		if (storage == Storage.ADPCM) {
+			int blocks = (frameLength + ADPCM_BLOCK_FRAMES - 1) / ADPCM_BLOCK_FRAMES;
+			adpcm = new byte[frameLength];
+			adpcmStates = new int[blocks * 2];
+			int left = 0, right = 0;
+			for (int frame = 0; frame < frameLength; frame ++) {
+				if (frame % ADPCM_BLOCK_FRAMES == 0) {
+					// every block starts from a known state, so that decoding can start at any block
+					adpcmStates[frame / ADPCM_BLOCK_FRAMES * 2] = left;
+					adpcmStates[frame / ADPCM_BLOCK_FRAMES * 2 + 1] = right;
+				}
+				int leftCode = adpcmEncode(left, toShort(pcm[frame * 2]));
+				int rightCode = adpcmEncode(right, toShort(pcm[frame * 2 + 1]));
+				left = adpcmDecode(left, leftCode);
+				right = adpcmDecode(right, rightCode);
+				adpcm[frame] = (byte) (leftCode | rightCode << 4);
+			}
+		}
+		else {
+			adpcm = null;
+			adpcmStates = null;
+		}
 		this.polyphony = polyphony;
 		
-		available = new LinkedBlockingDeque<>(polyphony);
+		commands = new SoundCommandQueue(SOUND_COMMAND_QUEUE_CAPACITY);
 		cursors = new SoundClipCursor[polyphony];
 		
 		for (int i = 0; i < polyphony; i ++) {
 			cursors[i] = new SoundClipCursor(i);
 			cursors[i].resetInstance();
-			available.add(cursors[i]);
+			if (storage != Storage.FLOAT) {
+				cursors[i].window = new float[(WINDOW_FRAMES + PADDING_FRAMES * 2) * 2];
+				if (storage == Storage.OFF_HEAP) cursors[i].scratch = new short[(WINDOW_FRAMES + PADDING_FRAMES * 2) * 2];
+			}
 		}
 
 		listeners = new CopyOnWriteArrayList<>();
 	}
 
 	public SoundClip(AudioInputStream stream, int polyphony) throws IOException {
-		this(load(getSupportedAudioInputStream(DEFAULT_AUDIO_FORMAT, stream)), polyphony);
+		this(load(getDecodedAudioInputStream(stream)), polyphony);
+	}
+
+	public SoundClip(AudioInputStream stream, int polyphony, Storage storage) throws IOException {
+		this(load(getDecodedAudioInputStream(stream)), polyphony, storage);
 	}
 
 	private static float[] load(AudioInputStream stream) throws IOException {
+		AudioFormat format = stream.getFormat();
 		byte[] buffer = IOStreams.readAllBytes(stream);
 		IOStreams.closeQuietly(stream);
 
-		// stereo output, so two entries per frame
-		float[] tmp = new float[buffer.length / 2];
+		// stereo output, so two entries per frame; mono is duplicated, further channels are dropped
+		int channels = format.getChannels();
+		float[] tmp = new float[buffer.length / (2 * channels) * 2];
 		int bufferIndex = 0;
-		for (int i = 0; i < tmp.length; i ++) {
-			tmp[i] = ((buffer[bufferIndex ++] & 0xFF) | (buffer[bufferIndex ++] << 8)) / 32767f;
+		for (int i = 0; i < tmp.length; i += 2) {
+			tmp[i] = (short) ((buffer[bufferIndex] & 0xFF) | (buffer[bufferIndex + 1] << 8)) / 32767f;
+			tmp[i + 1] = channels == 1 ? tmp[i] : (short) ((buffer[bufferIndex + 2] & 0xFF) | (buffer[bufferIndex + 3] << 8)) / 32767f;
+			bufferIndex += channels * 2;
+		}
+
+		// resampled here rather than by a format conversion of the stream
+		if (format.getSampleRate() != DEFAULT_AUDIO_FORMAT.getSampleRate()) {
+			tmp = Resampler.resample(tmp, 2, format.getSampleRate(), DEFAULT_AUDIO_FORMAT.getSampleRate());
 		}
 
 		return tmp;
 	}
 
 	public float[] copyPCM() {
-		return java.util.Arrays.copyOf(pcm, pcm.length);
+		float[] copy = new float[frameLength * 2];
+		decode(copy, 0, frameLength, storage == Storage.OFF_HEAP ? new short[(WINDOW_FRAMES + PADDING_FRAMES * 2) * 2] : null);
+		return copy;
+	}
+
+	/**
+	 * @return the bytes holding the samples, on or off the heap
+	 */
+	public long getStorageSize() {
+		switch (storage) {
+			case SHORT: return samples.length * 2L;
+			case OFF_HEAP: return frameLength * 4L;
+			case ADPCM: return adpcm.length + adpcmStates.length * 4L;
+			default: return pcm.length * 4L;
+		}
+	}
+
+	/**
+	 * @return the bytes of the window each voice decodes into, 0 if the storage is mixed from directly
+	 */
+	public int getVoiceBufferSize() {
+		return storage == Storage.FLOAT ? 0 : (WINDOW_FRAMES + PADDING_FRAMES * 2) * 2 * (storage == Storage.OFF_HEAP ? 6 : 4);
+	}
+
+	// Frames first to first + count as floats, silence outside the clip; scratch is only needed off the heap
+	private void decode(float[] destination, int first, int count, short[] scratch) {
+		int from = FastMath.clamp(first, 0, frameLength), to = FastMath.clamp(first + count, from, frameLength);
+		java.util.Arrays.fill(destination, 0, (from - first) * 2, 0);
+		java.util.Arrays.fill(destination, (to - first) * 2, count * 2, 0);
+		int index = (from - first) * 2;
+		switch (storage) {
+			case FLOAT:
+				System.arraycopy(pcm, (PADDING_FRAMES + from) * 2, destination, index, (to - from) * 2);
+				break;
+			case SHORT:
+				for (int i = from * 2; i < to * 2; i ++) {
+					destination[index ++] = samples[i] * SHORT_SCALE;
+				}
+				break;
+			case OFF_HEAP:
+				for (int i = from * 2; i < to * 2; i += scratch.length) {
+					int length = Math.min(scratch.length, to * 2 - i);
+					nativePCM.getShortArray(i * 2L, scratch, 0, length);
+					for (int j = 0; j < length; j ++) {
+						destination[index ++] = scratch[j] * SHORT_SCALE;
+					}
+				}
+				break;
+			case ADPCM:
+				for (int block = from / ADPCM_BLOCK_FRAMES; block * ADPCM_BLOCK_FRAMES < to; block ++) {
+					int left = adpcmStates[block * 2], right = adpcmStates[block * 2 + 1];
+					int start = block * ADPCM_BLOCK_FRAMES, end = Math.min(start + ADPCM_BLOCK_FRAMES, to);
+					// a block only decodes from its start, frames before the range are decoded and dropped
+					for (int frame = start; frame < end; frame ++) {
+						int codes = adpcm[frame];
+						left = adpcmDecode(left, codes & 0xF);
+						right = adpcmDecode(right, codes >>> 4 & 0xF);
+						if (frame >= from) {
+							destination[index ++] = (left >> 8) * SHORT_SCALE;
+							destination[index ++] = (right >> 8) * SHORT_SCALE;
+						}
+					}
+				}
+				break;
+		}
+	}
+
+	private static short toShort(float sample) {
+		return (short) Math.round(FastMath.clamp(sample, -1, 1) * 32767);
+	}
+
+	private static final int[] ADPCM_STEPS = {
+			7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 19, 21, 23, 25, 28, 31, 34, 37, 41, 45, 50, 55, 60, 66, 73, 80, 88, 97,
+			107, 118, 130, 143, 157, 173, 190, 209, 230, 253, 279, 307, 337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+			876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066, 2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871,
+			5358, 5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899, 15289, 16818, 18500, 20350, 22385, 24623,
+			27086, 29794, 32767
+	};
+	private static final int[] ADPCM_INDEX_STEPS = { -1, -1, -1, -1, 2, 4, 6, 8 };
+
+	// An ADPCM channel state packs the predicted sample above 8 bits and the step index below
+	private static int adpcmEncode(int state, int sample) {
+		int step = ADPCM_STEPS[state & 0xFF];
+		int difference = sample - (state >> 8);
+		int code = 0;
+		if (difference < 0) {
+			code = 8;
+			difference = -difference;
+		}
+		if (difference >= step) {
+			code |= 4;
+			difference -= step;
+		}
+		if (difference >= step >> 1) {
+			code |= 2;
+			difference -= step >> 1;
+		}
+		if (difference >= step >> 2) code |= 1;
+		return code;
+	}
+
+	private static int adpcmDecode(int state, int code) {
+		int index = state & 0xFF;
+		int step = ADPCM_STEPS[index];
+		int delta = step >> 3;
+		if ((code & 4) != 0) delta += step;
+		if ((code & 2) != 0) delta += step >> 1;
+		if ((code & 1) != 0) delta += step >> 2;
+		int predicted = FastMath.clamp((state >> 8) + ((code & 8) != 0 ? -delta : delta), Short.MIN_VALUE, Short.MAX_VALUE);
+		index = FastMath.clamp(index + ADPCM_INDEX_STEPS[code & 7], 0, ADPCM_STEPS.length - 1);
+		return predicted << 8 | index;
 	}
 
 	public void open() throws LineUnavailableException {
@@ -134,7 +370,6 @@ public class SoundClip implements AutoCloseable {
 		this.soundMuxer = soundMuxer;
 
 		soundMuxer.addClip(this);
-		soundMuxer.updateClips();
 
 		broadcastEvent(new SoundEvent(this, SoundEvent.Type.OPEN, NOT_SPECIFIED, NOT_SPECIFIED));
 	}
@@ -146,7 +381,6 @@ public class SoundClip implements AutoCloseable {
 
 		if (soundMuxer != null) {
 			soundMuxer.removeClip(this);
-			soundMuxer.updateClips();
 			soundMuxer = null;
 		}
 		else player.stopRunning();
@@ -164,20 +398,33 @@ public class SoundClip implements AutoCloseable {
 	}
 
 	public int obtainInstance() {
-		SoundClipCursor acc = available.pollLast();
-		
-		if (acc == null) return NOT_SPECIFIED;
-		else {
-			acc.isActive = true;
-			broadcastEvent(new SoundEvent(this, SoundEvent.Type.OBTAIN_INSTANCE, acc.id, acc.cursor));
-			return acc.id;
+		// Round robin, so that the least recently obtained instance is taken first
+		int first = nextInstance;
+		for (int i = 0; i < polyphony; i ++) {
+			SoundClipCursor acc = cursors[(first + i) % polyphony];
+			if (acc.state.compareAndSet(SoundClipCursor.FREE, SoundClipCursor.ACTIVE)) {
+				nextInstance = (acc.id + 1) % polyphony;
+				acc.requestedLeftVolume = acc.requestedRightVolume = 0;
+				acc.requestedSpeed = 1;
+				acc.requestedPlaying = false;
+				broadcastEvent(new SoundEvent(this, SoundEvent.Type.OBTAIN_INSTANCE, acc.id, acc.cursor));
+				return acc.id;
+			}
 		}
+		return NOT_SPECIFIED;
 	}
 
 	public void releaseInstance(int instanceID) {
-		cursors[instanceID].resetInstance();
-		available.offerFirst(cursors[instanceID]);
-		broadcastEvent(new SoundEvent(this, SoundEvent.Type.RELEASE_INSTANCE, instanceID, cursors[instanceID].cursor));
+		SoundClipCursor acc = cursors[instanceID];
+		if (acc.state.compareAndSet(SoundClipCursor.ACTIVE, SoundClipCursor.RELEASING)) {
+			// Queued before the instance can be obtained again, so the next owner's commands come after it
+			post(RELEASE, instanceID, 0, 0, 0);
+			// Volumes and speed set by the next owner must be posted after the release, not merged into earlier ones
+			acc.volumePending.set(false);
+			acc.speedPending.set(false);
+			acc.state.set(SoundClipCursor.FREE);
+			broadcastEvent(new SoundEvent(this, SoundEvent.Type.RELEASE_INSTANCE, instanceID, acc.cursor));
+		}
 	}
 
 	public int play() {
@@ -193,6 +440,10 @@ public class SoundClip implements AutoCloseable {
 	}
 	
 	public int play(double leftVolume, double rightVolume, double speed, int loop) {
+		return play(leftVolume, rightVolume, speed, loop, Long.MIN_VALUE);
+	}
+
+	public int play(double leftVolume, double rightVolume, double speed, int loop, long frame) {
 		int instanceID = obtainInstance();
 		if (instanceID < 0) return instanceID;
 		
@@ -201,24 +452,34 @@ public class SoundClip implements AutoCloseable {
 		setLooping(instanceID, loop);
 		setRecycleWhenDone(instanceID, true);
 		
-		start(instanceID);
+		start(instanceID, frame);
 
 		return instanceID;
 	}
 
 	public void start(int instanceID) {
+		start(instanceID, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Starts the instance exactly at the given frame of the mixing clock, or in the next buffer if it has passed.
+	 * @see #getMixFramePosition()
+	 */
+	public void start(int instanceID, long frame) {
 		checkActive(instanceID);
 		checkNotPlaying(instanceID);
 
-		cursors[instanceID].instantaneousUpdate();
-		cursors[instanceID].isPlaying = true;
+		SoundClipCursor acc = cursors[instanceID];
+		acc.requestedPlaying = true;
+		post(START, instanceID, ++ acc.requestedStart, 0, frame);
 		broadcastEvent(new SoundEvent(this, SoundEvent.Type.START_INSTANCE, instanceID, cursors[instanceID].cursor));
 	}
 
 	public void stop(int instanceID) {
 		checkActive(instanceID);
 		
-		cursors[instanceID].isPlaying = false;
+		cursors[instanceID].requestedPlaying = false;
+		post(STOP, instanceID, 0, 0, 0);
 		broadcastEvent(new SoundEvent(this, SoundEvent.Type.STOP_INSTANCE, instanceID, cursors[instanceID].cursor));
 	}
 
@@ -229,13 +490,15 @@ public class SoundClip implements AutoCloseable {
 	}
 
 	private void checkActive(int instanceID) {
-		if (!cursors[instanceID].isActive) {
+		if (cursors[instanceID].state.get() != SoundClipCursor.ACTIVE) {
 			throw new IllegalStateException("instance: " + instanceID + " is inactive");
 		}
 	}
 
+	// As requested by the control threads, the mixing thread only catches up at the next buffer
 	private void checkNotPlaying(int instanceID) {
-		if (cursors[instanceID].isPlaying) {
+		SoundClipCursor acc = cursors[instanceID];
+		if (acc.requestedPlaying && acc.endedStart != acc.requestedStart) {
 			throw new IllegalStateException("You need to call the function before instance: " + instanceID + " playing");
 		}
 	}
@@ -244,7 +507,7 @@ public class SoundClip implements AutoCloseable {
 		checkActive(instanceID);
 		checkNotPlaying(instanceID);
 		
-		cursors[instanceID].cursor = FastMath.clamp(framePosition, 0, getFrameLength() - 1);
+		post(SEEK, instanceID, FastMath.clamp(framePosition, 0, getFrameLength() - 1), 0, 0);
 	}
 	
 	public void seekToMicroseconds(int instanceID, long microsecondPosition) {
@@ -252,33 +515,35 @@ public class SoundClip implements AutoCloseable {
 		checkNotPlaying(instanceID);
 
 		double frames = Math.min(((double) DEFAULT_AUDIO_FORMAT.getFrameRate() * microsecondPosition) / 1000_000.0, Arrays.ARRAY_LENGTH_MAX / 2.0);
-		cursors[instanceID].cursor = FastMath.clamp(frameLength, 0, frames);
+		post(SEEK, instanceID, FastMath.clamp(frames, 0, getFrameLength() - 1), 0, 0);
 	}
 	
 	public double getLeftVolume(int instanceID) {
 		checkActive(instanceID);
 		
 		return cursors[instanceID].isPlaying ? 
-				cursors[instanceID].leftVolume : cursors[instanceID].newTargetLeftVolume; 				
+				cursors[instanceID].leftVolume : cursors[instanceID].requestedLeftVolume; 				
 	}
 	
 	public double getRightVolume(int instanceID) {
 		checkActive(instanceID);
 		
 		return cursors[instanceID].isPlaying ? 
-				cursors[instanceID].rightVolume : cursors[instanceID].newTargetRightVolume; 				
+				cursors[instanceID].rightVolume : cursors[instanceID].requestedRightVolume; 				
 	}
 	
 	public void setLeftVolume(int instanceID, double leftVolume) {
 		checkActive(instanceID);
 
-		cursors[instanceID].newTargetLeftVolume = FastMath.clamp(leftVolume, 0, 1);
+		cursors[instanceID].requestedLeftVolume = FastMath.clamp(leftVolume, 0, 1);
+		postVolume(instanceID);
 	}
 	
 	public void setRightVolume(int instanceID, double rightVolume) {
 		checkActive(instanceID);
 		
-		cursors[instanceID].newTargetRightVolume = FastMath.clamp(rightVolume, 0, 1);
+		cursors[instanceID].requestedRightVolume = FastMath.clamp(rightVolume, 0, 1);
+		postVolume(instanceID);
 	}
 	
 	public void setVolume(int instanceID, double volume) {
@@ -288,20 +553,28 @@ public class SoundClip implements AutoCloseable {
 	public void setVolume(int instanceID, double leftVolume, double rightVolume) {
 		checkActive(instanceID);
 
-		cursors[instanceID].newTargetLeftVolume = FastMath.clamp(leftVolume, 0, 1);
-		cursors[instanceID].newTargetRightVolume = FastMath.clamp(rightVolume, 0, 1);
+		cursors[instanceID].requestedLeftVolume = FastMath.clamp(leftVolume, 0, 1);
+		cursors[instanceID].requestedRightVolume = FastMath.clamp(rightVolume, 0, 1);
+		postVolume(instanceID);
+	}
+
+	// One volume command pending per instance at most, taking the latest requested volumes when applied
+	private void postVolume(int instanceID) {
+		if (cursors[instanceID].volumePending.compareAndSet(false, true)) post(VOLUME, instanceID, 0, 0, 0);
 	}
 	
 	public double getSpeed(int instanceID) {
 		checkActive(instanceID);
 
-		return cursors[instanceID].isPlaying ? cursors[instanceID].speed : cursors[instanceID].newTargetSpeed; 
+		return cursors[instanceID].isPlaying ? cursors[instanceID].speed : cursors[instanceID].requestedSpeed; 
 	}
 	
 	public void setSpeed(int instanceID, double speed) {
 		checkActive(instanceID);
 
-		cursors[instanceID].newTargetSpeed = FastMath.clamp(speed, 0.125, 8);
+		SoundClipCursor acc = cursors[instanceID];
+		acc.requestedSpeed = FastMath.clamp(speed, 0.125, 8);
+		if (acc.speedPending.compareAndSet(false, true)) post(SPEED, instanceID, 0, 0, 0);
 	}
 
 	public int getLooping(int instanceID) {
@@ -312,29 +585,117 @@ public class SoundClip implements AutoCloseable {
 	public void setLooping(int instanceID, int loops) {
 		checkActive(instanceID);
 		
-		cursors[instanceID].loop = Math.max(loops, -1);
+		post(LOOPING, instanceID, Math.max(loops, -1), 0, 0);
 	}
 	
 	public void setRecycleWhenDone(int instanceID, boolean recycleWhenDone) {
 		checkActive(instanceID);
 		
-		cursors[instanceID].recycleWhenDone = recycleWhenDone;
+		post(RECYCLE, instanceID, recycleWhenDone ? 1 : 0, 0, 0);
 	}
 	
 	public boolean isActive(int instanceID) {
-		return cursors[instanceID].isActive;
+		return cursors[instanceID].state.get() == SoundClipCursor.ACTIVE;
 	}
 	
 	public boolean isPlaying(int instanceID) {
 		return cursors[instanceID].isPlaying;
 	}
 	
+	private void post(int type, int instanceID, double first, double second, long frame) {
+		// The mixing thread itself, e.g. from a listener, owns the instances already, but only while it is mixing
+		if (Thread.currentThread() == mixingThread) apply(type, instanceID, first, second, frame);
+		else while (!commands.offer(type, instanceID, first, second, frame)) {
+			// Waiting is only worth it while a mixing thread drains the queue
+			SoundMuxer soundMuxer = this.soundMuxer;
+			if (!open || (soundMuxer != null && !soundMuxer.isPlaying()))
+				throw new IllegalStateException("Too many commands pending for a sound clip which is not being mixed");
+			Thread.yield();
+		}
+	}
+
+	private void applyCommands() {
+		SoundCommandQueue.Command command;
+		while ((command = commands.peek()) != null) {
+			apply(command.type, command.instanceID, command.first, command.second, command.frame);
+			commands.remove();
+		}
+	}
+
+	private void apply(int type, int instanceID, double first, double second, long frame) {
+		SoundClipCursor acc = cursors[instanceID];
+		switch (type) {
+			case START:
+				if (!acc.isPlaying) {
+					acc.instantaneousUpdate();
+					acc.fresh = true;
+					acc.startFrame = frame;
+					acc.isPlaying = true;
+				}
+				acc.start = (int) first;
+				break;
+			case STOP:
+				acc.isPlaying = false;
+				break;
+			case SEEK:
+				acc.cursor = first;
+				break;
+			case VOLUME:
+				// Cleared first, so that a volume requested while reading them is posted again
+				acc.volumePending.set(false);
+				acc.newTargetLeftVolume = acc.requestedLeftVolume;
+				acc.newTargetRightVolume = acc.requestedRightVolume;
+				break;
+			case SPEED:
+				acc.speedPending.set(false);
+				acc.newTargetSpeed = acc.requestedSpeed;
+				break;
+			case LOOPING:
+				acc.loop = (int) first;
+				break;
+			case RECYCLE:
+				acc.recycleWhenDone = first != 0;
+				break;
+			case RELEASE:
+				acc.resetInstance();
+				break;
+			case SPATIAL:
+				acc.spatial = first != 0;
+				break;
+		}
+	}
+
 	private static class SoundClipCursor {
+		static final int FREE = 0;
+		static final int ACTIVE = 1;
+		static final int RELEASING = 2;
+
+		// Owned by control threads
+		final AtomicInteger state = new AtomicInteger(FREE);
+		volatile double requestedLeftVolume, requestedRightVolume, requestedSpeed;
+		volatile boolean requestedPlaying;
+		// numbers every start, so that the end of a play is not taken for the end of a later one
+		volatile int requestedStart;
+		// whether a volume or speed command is queued already, which will take the requested values
+		final AtomicBoolean volumePending = new AtomicBoolean(), speedPending = new AtomicBoolean();
+
+		// Owned by the mixing thread
 		volatile boolean isPlaying;
-		volatile boolean isActive;
+		// mixed by a sound space instead of with the others, until released
+		volatile boolean spatial;
+		// started and not mixed by its sound space yet
+		boolean fresh;
+		// the start playing, and the last one played to its end
+		int start;
+		volatile int endedStart;
 		final int id;
 		
+		long startFrame;
 		double cursor;
+		// decoded storages only: frames windowStart - PADDING_FRAMES to windowStart + WINDOW_FRAMES + PADDING_FRAMES
+		float[] window;
+		short[] scratch;
+		int windowStart = -WINDOW_FRAMES;
 		double speed;
 		double leftVolume, rightVolume;
 		int loop;
@@ -364,8 +725,9 @@ public class SoundClip implements AutoCloseable {
 		 * and put in default settings.
 		 */
 		private void resetInstance() {
-			isActive = false;
 			isPlaying = false;
+			spatial = false;
+			startFrame = Long.MIN_VALUE;
 			cursor = 0;
 			
 			leftVolume = rightVolume = 0;
@@ -383,9 +745,6 @@ public class SoundClip implements AutoCloseable {
 		}
 		
 		private void instantaneousUpdate() {
-			if (!isActive) throw new IllegalStateException("instance: " + id + " is inactive");
-			if (isPlaying) throw new IllegalStateException("You need to call the function before instance: " + id + " playing");
-			
 			// OK to execute instantaneous changes
 			leftVolume = newTargetLeftVolume;
 			targetLeftVolume = newTargetLeftVolume;
@@ -427,7 +786,7 @@ public class SoundClip implements AutoCloseable {
 		public void run() {
 			while(open) {
 				read(audioData);
-				fromPcmToAudioBytes(audioBytes, audioData);
+				floatToS16LE(audioData, 0, audioBytes, 0, audioData.length);
 				sourceDataLine.write(audioBytes, 0, sdlBufferSize);
 			}
 			sourceDataLine.drain();
@@ -440,110 +799,245 @@ public class SoundClip implements AutoCloseable {
 	}
 	
 	void read(float[] buffer, int offset, int length) {
-		if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
-		else if (offset + length > buffer.length) throw new ArrayIndexOutOfBoundsException(offset + length);
 		// Start with 0-filled buffer, send out silence
 		// if nothing playing.
 		java.util.Arrays.fill(buffer, offset, offset + length, 0);
-		
-		for (int ci = 0; ci < polyphony; ci ++) {
-			if (cursors[ci].isPlaying) {
+		mix(buffer, offset, length);
+	}
+
+	/**
+	 * Adds every playing instance into the interleaved stereo buffer, without clearing or clamping it.
+	 * Pending commands are applied first, and nothing is allocated per frame.
+	 */
+	public void mix(float[] buffer, int offset, int length) {
+		mix(buffer, offset, length, mixFramePosition);
+	}
+
+	/**
+	 * @param frame the mixing clock at the start of the buffer, for a mixer driving several clips
+	 */
+	@Override
+	public void mix(float[] buffer, int offset, int length, long frame) {
+		if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
+		else if (offset + length > buffer.length) throw new ArrayIndexOutOfBoundsException(offset + length);
+
+		mixingThread = Thread.currentThread();
+		try {
+			applyCommands();
+			int frames = length / 2;
+			for (int ci = 0; ci < polyphony; ci ++) {
 				SoundClipCursor acc = cursors[ci];
-				
-				for (int i = offset; i < length; i += 2) {
-					// has volume setting changed? if so recalc
-					if (acc.newTargetLeftVolume != acc.targetLeftVolume) {
-						acc.targetLeftVolume = acc.newTargetLeftVolume;
-						acc.targetLeftVolumeIncr = (acc.targetLeftVolume - acc.leftVolume) / SOUND_VOLUME_STEPS;
-						acc.targetLeftVolumeSteps = SOUND_VOLUME_STEPS;
-					}
-					if (acc.newTargetRightVolume != acc.targetRightVolume) {
-						acc.targetRightVolume = acc.newTargetRightVolume;
-						acc.targetRightVolumeIncr = (acc.targetRightVolume - acc.rightVolume) / SOUND_VOLUME_STEPS;
-						acc.targetRightVolumeSteps = SOUND_VOLUME_STEPS;
-					}
-					// adjust volume if needed
-					if (acc.targetLeftVolumeSteps -- > 0) {
-						acc.leftVolume += acc.targetLeftVolumeIncr;
-						if (acc.targetLeftVolumeSteps == 0) {
-							acc.leftVolume = acc.targetLeftVolume;
-						}
-					}
-					if (acc.targetRightVolumeSteps -- > 0) {
-						acc.rightVolume += acc.targetRightVolumeIncr;
-						if (acc.targetRightVolumeSteps == 0) {
-							acc.rightVolume = acc.targetRightVolume;
-						}
-					}
-					
-					// get audioVals, with LERP for fractional cursor position
-					float[] audioVals = new float[2];
-					if (acc.cursor == (int) acc.cursor) {
-						audioVals[0] = pcm[(int) acc.cursor * 2];
-						audioVals[1] = pcm[(int) acc.cursor * 2 + 1];
-					} 
-					else readFractionalFrame(audioVals, acc.cursor);
-					
-					buffer[i] += audioVals[0] * acc.leftVolume;
-					buffer[i + 1] += audioVals[1] * acc.rightVolume;
-					
-					// SET UP FOR NEXT ITERATION
-					// has speed setting changed? if so, recalc
-					if (acc.newTargetSpeed != acc.targetSpeed) {
-						acc.targetSpeed = acc.newTargetSpeed;
-						acc.targetSpeedIncr = (acc.targetSpeed - acc.speed) / SOUND_SPEED_STEPS;
-						acc.targetSpeedSteps = SOUND_SPEED_STEPS;
-					}
-					// adjust speed if needed
-					if (acc.targetSpeedSteps -- > 0) {
-						acc.speed += acc.targetSpeedIncr;
-					}
-	
-					// set NEXT read position
-					acc.cursor += acc.speed;
-					
-					// test for "eof" and "looping"
-					if (acc.cursor > (frameLength - 1)) {
-						// keep looping indefinitely
-						if (acc.loop == -1) {
-							acc.cursor = 0;
-							broadcastEvent(new SoundEvent(this, SoundEvent.Type.LOOP_INSTANCE, acc.id, acc.cursor));
-						}
-						// loop specific number of times
-						else if (acc.loop > 0) {
-							acc.loop --;
-							acc.cursor = 0;
-							broadcastEvent(new SoundEvent(this, SoundEvent.Type.LOOP_INSTANCE, acc.id, acc.cursor));
-						}
-						// no more loops to do
-						else {
-							acc.isPlaying = false;
-							broadcastEvent(new SoundEvent(this, SoundEvent.Type.STOP_INSTANCE, acc.id, acc.cursor));
-							if (acc.recycleWhenDone) {
-								acc.resetInstance();
-								available.offerFirst(acc);
-								broadcastEvent(new SoundEvent(this, SoundEvent.Type.RELEASE_INSTANCE, acc.id, acc.cursor));
-							}
-							// cursor is at end of clip before
-							// buffer filled, no need to
-							// process further (default 0's)
-							break;
-						}
-					}
+				if (acc.isPlaying && !acc.spatial) mix(acc, buffer, offset, frames, frame);
+			}
+			mixFramePosition = frame + frames;
+		}
+		finally {
+			mixingThread = null;
+		}
+	}
+
+	// Hands the instance over to a sound space, in order with the other commands so that a release before comes first
+	void setSpatial(int instanceID, boolean spatial) {
+		checkActive(instanceID);
+
+		post(SPATIAL, instanceID, spatial ? 1 : 0, 0, 0);
+	}
+
+	/*
+	 * Adds a spatial instance alone, its volumes and speed retargeted for the block by its sound space,
+	 * on the mixing thread of the clip. A freshly started instance takes them at once instead of ramping.
+	 * Returns whether the instance was mixed.
+	 */
+	boolean mixSpatial(int instanceID, float[] buffer, int offset, int length, long frame,
+					double leftVolume, double rightVolume, double speed) {
+		mixingThread = Thread.currentThread();
+		try {
+			applyCommands();
+			SoundClipCursor acc = cursors[instanceID];
+			if (!acc.isPlaying || !acc.spatial) return false;
+			acc.newTargetLeftVolume = FastMath.clamp(leftVolume, 0, 1);
+			acc.newTargetRightVolume = FastMath.clamp(rightVolume, 0, 1);
+			acc.newTargetSpeed = FastMath.clamp(speed, 0.125, 8);
+			if (acc.fresh) {
+				acc.fresh = false;
+				acc.instantaneousUpdate();
+			}
+			mix(acc, buffer, offset, length / 2, frame);
+			return true;
+		}
+		finally {
+			mixingThread = null;
+		}
+	}
+
+	boolean isSpatial(int instanceID) {
+		return cursors[instanceID].spatial;
+	}
+
+	private volatile Resampler.Interpolation interpolation = Resampler.Interpolation.SINC;
+	public Resampler.Interpolation getInterpolation() {
+		return interpolation;
+	}
+	/**
+	 * How instances playing at a speed other than 1 are resampled, taken into account from the next buffer.
+	 */
+	public void setInterpolation(Resampler.Interpolation interpolation) {
+		this.interpolation = Objects.requireNonNull(interpolation);
+	}
+
+	private void mix(SoundClipCursor acc, float[] buffer, int offset, int frames, long frame) {
+		// scheduled start later in this block, or in a later one
+		if (acc.startFrame > frame) {
+			if (acc.startFrame - frame >= frames) return;
+			int delay = (int) (acc.startFrame - frame);
+			offset += delay * 2;
+			frames -= delay;
+		}
+
+		// has volume or speed setting changed? if so recalc, once per block
+		if (acc.newTargetLeftVolume != acc.targetLeftVolume) {
+			acc.targetLeftVolume = acc.newTargetLeftVolume;
+			acc.targetLeftVolumeIncr = (acc.targetLeftVolume - acc.leftVolume) / SOUND_VOLUME_STEPS;
+			acc.targetLeftVolumeSteps = SOUND_VOLUME_STEPS;
+		}
+		if (acc.newTargetRightVolume != acc.targetRightVolume) {
+			acc.targetRightVolume = acc.newTargetRightVolume;
+			acc.targetRightVolumeIncr = (acc.targetRightVolume - acc.rightVolume) / SOUND_VOLUME_STEPS;
+			acc.targetRightVolumeSteps = SOUND_VOLUME_STEPS;
+		}
+		if (acc.newTargetSpeed != acc.targetSpeed) {
+			acc.targetSpeed = acc.newTargetSpeed;
+			acc.targetSpeedIncr = (acc.targetSpeed - acc.speed) / SOUND_SPEED_STEPS;
+			acc.targetSpeedSteps = SOUND_SPEED_STEPS;
+		}
+
+		int leftSteps = Math.max(acc.targetLeftVolumeSteps, 0);
+		int rightSteps = Math.max(acc.targetRightVolumeSteps, 0);
+		int speedSteps = Math.max(acc.targetSpeedSteps, 0);
+		float left = (float) acc.leftVolume, right = (float) acc.rightVolume;
+		float leftIncr = leftSteps > 0 ? (float) acc.targetLeftVolumeIncr : 0;
+		float rightIncr = rightSteps > 0 ? (float) acc.targetRightVolumeIncr : 0;
+		Resampler.Interpolation interpolation = this.interpolation;
+		long position = (long) (acc.cursor * FRACTION_ONE);
+		long step = (long) (acc.speed * FRACTION_ONE);
+		long stepIncr = speedSteps > 0 ? (long) (acc.targetSpeedIncr * FRACTION_ONE) : 0;
+		long end = (long) (frameLength - 1) << FRACTION_BITS;
+		float[] source = pcm;
+		int base = PADDING_FRAMES * 2;
+		long windowLast = end;
+		int index = offset;
+		boolean stopped = false;
+
+		// Mix in segments over which volumes and speed are either constant or ramping linearly,
+		// cut at the end of every ramp and at the end of the clip
+		for (;;) {
+			// test for "eof" and "looping"
+			if (position > end) {
+				if (acc.loop != 0 && frameLength > 0) {
+					// loop specific number of times, or keep looping indefinitely
+					if (acc.loop > 0) acc.loop --;
+					position = 0;
+					broadcastEvent(SoundEvent.Type.LOOP_INSTANCE, acc.id, 0);
+				}
+				// no more loops to do, the rest of the buffer is left as is
+				else {
+					stopped = true;
+					break;
 				}
 			}
+			if (frames <= 0) break;
+
+			if (pcm == null) {
+				// the voice plays from its window, refilled when the position leaves it
+				int first = (int) (position >>> FRACTION_BITS);
+				if (first < acc.windowStart || first >= acc.windowStart + WINDOW_FRAMES) {
+					decode(acc.window, first - PADDING_FRAMES, WINDOW_FRAMES + PADDING_FRAMES * 2, acc.scratch);
+					acc.windowStart = first;
+				}
+				source = acc.window;
+				base = (PADDING_FRAMES - acc.windowStart) * 2;
+				windowLast = (long) (acc.windowStart + WINDOW_FRAMES - 1) << FRACTION_BITS;
+			}
+
+			int n = frames;
+			if (leftSteps > 0) n = Math.min(n, leftSteps);
+			if (rightSteps > 0) n = Math.min(n, rightSteps);
+			if (speedSteps > 0) n = Math.min(n, speedSteps);
+			boolean unity = step == FRACTION_ONE && stepIncr == 0;
+			if ((position & FRACTION_MASK) == 0 && (unity || position == end)) {
+				// whole frames at unity speed, or the very last frame which has nothing to interpolate with
+				if (unity) n = (int) Math.min(n, ((Math.min(end, windowLast) - position) >>> FRACTION_BITS) + 1);
+				else n = 1;
+				mixFrames(source, base + (int) (position >>> FRACTION_BITS) * 2, buffer, index, n, left, right, leftIncr, rightIncr);
+			}
+			else {
+				long maxStep = stepIncr > 0 ? step + stepIncr * n : step;
+				n = (int) Math.min(n, (Math.min(end - 1, windowLast + FRACTION_MASK) - position) / maxStep + 1);
+				Resampler.mix(interpolation, source, base, position, step, stepIncr, buffer, index, n, left, right, leftIncr, rightIncr);
+			}
+
+			// SET UP FOR NEXT SEGMENT, exactly where the kernels left off
+			position += n * step + stepIncr * ((long) n * (n + 1) / 2);
+			step += n * stepIncr;
+			left += n * leftIncr;
+			right += n * rightIncr;
+			index += n * 2;
+			frames -= n;
+			if (leftSteps > 0 && (leftSteps -= n) == 0) {
+				left = (float) acc.targetLeftVolume;
+				leftIncr = 0;
+			}
+			if (rightSteps > 0 && (rightSteps -= n) == 0) {
+				right = (float) acc.targetRightVolume;
+				rightIncr = 0;
+			}
+			if (speedSteps > 0 && (speedSteps -= n) == 0) {
+				step = (long) (acc.targetSpeed * FRACTION_ONE);
+				stepIncr = 0;
+			}
+		}
+
+		acc.cursor = position / (double) FRACTION_ONE;
+		acc.speed = step / (double) FRACTION_ONE;
+		acc.leftVolume = left;
+		acc.rightVolume = right;
+		acc.targetLeftVolumeSteps = leftSteps;
+		acc.targetRightVolumeSteps = rightSteps;
+		acc.targetSpeedSteps = speedSteps;
+
+		if (stopped) {
+			acc.isPlaying = false;
+			acc.endedStart = acc.start;
+			broadcastEvent(SoundEvent.Type.STOP_INSTANCE, acc.id, acc.cursor);
+			if (acc.recycleWhenDone && acc.state.compareAndSet(SoundClipCursor.ACTIVE, SoundClipCursor.RELEASING)) {
+				acc.resetInstance();
+				acc.state.set(SoundClipCursor.FREE);
+				broadcastEvent(SoundEvent.Type.RELEASE_INSTANCE, acc.id, acc.cursor);
+			}
 		}
 	}
-	
-	private void readFractionalFrame(float[] audioVals, double index) {
-		int intIndex = (int) index;
-		int stereoIndex = intIndex * 2;
-		
-		audioVals[0] = (float)(pcm[stereoIndex + 2] * (index - intIndex)
-				+ pcm[stereoIndex] * ((intIndex + 1) - index));
-		
-		audioVals[1] = (float)(pcm[stereoIndex + 3] * (index - intIndex)
-				+ pcm[stereoIndex + 1] * ((intIndex + 1) - index));
+
+	// Unity speed from a whole frame at index source: a plain multiply-add, volumes ramping linearly from left and right
+	private static void mixFrames(float[] pcm, int source, float[] buffer, int index, int frames,
+								  float left, float right, float leftIncr, float rightIncr) {
+		if (leftIncr == 0 && rightIncr == 0) {
+			for (int i = 0; i < frames * 2; i += 2) {
+				buffer[index + i] += pcm[source + i] * left;
+				buffer[index + i + 1] += pcm[source + i + 1] * right;
+			}
+		}
+		else {
+			for (int i = 0; i < frames; i ++) {
+				int j = i * 2;
+				buffer[index + j] += pcm[source + j] * (left + i * leftIncr);
+				buffer[index + j + 1] += pcm[source + j + 1] * (right + i * rightIncr);
+			}
+		}
+	}
+
+	// Events from the mixing thread are only created when someone listens
+	private void broadcastEvent(SoundEvent.Type type, int instanceID, double position) {
+		if (!listeners.isEmpty()) broadcastEvent(new SoundEvent(this, type, instanceID, position));
 	}
 
 	private void broadcastEvent(SoundEvent event) {
@@ -0,0 +1,87 @@
+package unrefined.desktop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of sound commands, offered by any number of control threads
+ * and drained by the single mixing thread at buffer boundaries.
+ * Commands live in preallocated slots, so neither side allocates.
+ */
+final class SoundCommandQueue {
+
+	static final int START = 0;
+	static final int STOP = 1;
+	static final int SEEK = 2;
+	static final int VOLUME = 3;
+	static final int SPEED = 4;
+	static final int LOOPING = 5;
+	static final int RECYCLE = 6;
+	static final int RELEASE = 7;
+	static final int SPATIAL = 8;
+
+	static final class Command {
+		int type;
+		int instanceID;
+		double first, second;
+		long frame;
+	}
+
+	private final Command[] commands;
+	// A slot is free to write at sequence n when it holds n, and readable when it holds n + 1
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	SoundCommandQueue(int capacity) {
+		if (capacity < 1 || (capacity & (capacity - 1)) != 0) throw new IllegalArgumentException("capacity must be a power of two");
+		commands = new Command[capacity];
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i ++) {
+			commands[i] = new Command();
+			sequences.set(i, i);
+		}
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return false if the queue is full
+	 */
+	boolean offer(int type, int instanceID, double first, double second, long frame) {
+		for (;;) {
+			long sequence = tail.get();
+			int slot = (int) sequence & mask;
+			long available = sequences.get(slot);
+			if (available == sequence) {
+				if (tail.compareAndSet(sequence, sequence + 1)) {
+					Command command = commands[slot];
+					command.type = type;
+					command.instanceID = instanceID;
+					command.first = first;
+					command.second = second;
+					command.frame = frame;
+					sequences.set(slot, sequence + 1);
+					return true;
+				}
+			}
+			else if (available < sequence) return false;
+			// else another producer took the slot first, retry
+		}
+	}
+
+	/**
+	 * The oldest command, left in the queue until {@link #remove()}; mixing thread only.
+	 */
+	Command peek() {
+		int slot = (int) head & mask;
+		return sequences.get(slot) == head + 1 ? commands[slot] : null;
+	}
+
+	void remove() {
+		int slot = (int) head & mask;
+		sequences.lazySet(slot, head + commands.length);
+		head ++;
+	}
+
+}
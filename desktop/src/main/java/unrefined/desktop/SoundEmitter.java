@@ -0,0 +1,146 @@
+package unrefined.desktop;
+
+import java.util.Objects;
+
+/**
+ * The position of an instance of a {@link SoundClip} in a {@link SoundSpace}, which sets its volumes and speed from it
+ * every block. Obtain the instance and add its emitter to the space before starting it, so that it is never heard
+ * from nowhere; releasing the instance ends its spatial mixing, and the emitter is to be removed then.
+ * <p>
+ * Distances and velocities are in the units of the space's speed of sound, meters per second by default.
+ */
+public class SoundEmitter {
+
+	private final SoundClip clip;
+	private final int instanceID;
+
+	private volatile double x, y, z, velocityX, velocityY, velocityZ;
+	private volatile double gain = 1, pitch = 1;
+	private volatile double referenceDistance = 1, maxDistance = Double.MAX_VALUE, rolloffFactor = 1;
+	private volatile boolean relative;
+
+	// Owned by the mixing thread: the mono input of the last HRTF taps, and the HRTF direction mixed last
+	float[] history = new float[0];
+	int direction = -1;
+
+	public SoundEmitter(SoundClip clip, int instanceID) {
+		this.clip = Objects.requireNonNull(clip);
+		if (instanceID < 0 || instanceID >= clip.getPolyphony()) throw new ArrayIndexOutOfBoundsException(instanceID);
+		this.instanceID = instanceID;
+	}
+
+	public SoundClip getClip() {
+		return clip;
+	}
+
+	public int getInstanceID() {
+		return instanceID;
+	}
+
+	public void setPosition(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	/**
+	 * Only used for the Doppler effect, the position is not moved by it.
+	 */
+	public void setVelocity(double x, double y, double z) {
+		velocityX = x;
+		velocityY = y;
+		velocityZ = z;
+	}
+
+	public double getVelocityX() {
+		return velocityX;
+	}
+
+	public double getVelocityY() {
+		return velocityY;
+	}
+
+	public double getVelocityZ() {
+		return velocityZ;
+	}
+
+	public double getGain() {
+		return gain;
+	}
+
+	/**
+	 * The volume before the distance attenuation; the volumes of the instance are set by the space.
+	 */
+	public void setGain(double gain) {
+		this.gain = Math.max(gain, 0);
+	}
+
+	public double getPitch() {
+		return pitch;
+	}
+
+	/**
+	 * The speed before the Doppler shift; the speed of the instance is set by the space.
+	 */
+	public void setPitch(double pitch) {
+		this.pitch = Math.max(pitch, 0);
+	}
+
+	public double getReferenceDistance() {
+		return referenceDistance;
+	}
+
+	/**
+	 * @param referenceDistance where the gain is not attenuated yet
+	 */
+	public void setReferenceDistance(double referenceDistance) {
+		this.referenceDistance = Math.max(referenceDistance, 0);
+	}
+
+	public double getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * @param maxDistance beyond which the gain is attenuated no further, or where the linear models reach silence
+	 */
+	public void setMaxDistance(double maxDistance) {
+		this.maxDistance = Math.max(maxDistance, 0);
+	}
+
+	public double getRolloffFactor() {
+		return rolloffFactor;
+	}
+
+	/**
+	 * @param rolloffFactor how fast the gain is attenuated with the distance, 0 for not at all
+	 */
+	public void setRolloffFactor(double rolloffFactor) {
+		this.rolloffFactor = Math.max(rolloffFactor, 0);
+	}
+
+	public boolean isRelative() {
+		return relative;
+	}
+
+	/**
+	 * @param relative whether the position and velocity are relative to the listener, x to its right, y up
+	 *                 and -z to its front, e.g. for sounds following it
+	 */
+	public void setRelative(boolean relative) {
+		this.relative = relative;
+	}
+
+}
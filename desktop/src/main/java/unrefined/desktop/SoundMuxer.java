@@ -1,28 +1,45 @@
 package unrefined.desktop;
 
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.Mixer;
 import javax.sound.sampled.SourceDataLine;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import static unrefined.desktop.AudioSupport.*;
 
 public class SoundMuxer implements AutoCloseable {
 
-	private SoundClip[] clipCache;
-	private final CopyOnWriteArrayList<SoundClip> clipManager;
-	private volatile boolean clipCacheUpdated;
-	private int clipCount;
+	// Copied on write and published atomically, the player thread takes it once per buffer
+	private final AtomicReference<AudioSource[]> sources = new AtomicReference<>(new AudioSource[0]);
+	private volatile int clipCount;
 
 	public int getClipCount() {
 		return clipCount;
 	}
 
 	public int getClipCacheCount() {
-		return clipCache == null ? 0 : clipCache.length;
+		return sources.get().length;
+	}
+
+	private volatile long framePosition;
+	/**
+	 * The mixing clock of every clip played by this muxer, in frames.
+	 * @see SoundClip#start(int, long)
+	 */
+	public long getFramePosition() {
+		return framePosition;
 	}
 
 	private final int bufferFrames;
@@ -53,6 +70,73 @@ public class SoundMuxer implements AutoCloseable {
 		return playing;
 	}
 
+	// The thread of the latest start, an older one still draining its line quits instead of mixing
+	private volatile Thread playbackThread;
+	private volatile boolean nullDevice;
+	/**
+	 * @return whether the muxer is playing into no line at all
+	 * @see #startNullDevice(boolean)
+	 */
+	public boolean isNullDevice() {
+		return nullDevice;
+	}
+
+	private volatile boolean lowLatency;
+	public boolean isLowLatency() {
+		return lowLatency;
+	}
+	/**
+	 * In the low latency mode the player thread writes small quanta, sized from how the line drains, only while the line
+	 * holds less than a target, instead of blocking on full buffers. The target starts at two quanta and grows by one
+	 * on every underrun. Takes effect on the next start.
+	 */
+	public void setLowLatency(boolean lowLatency) {
+		this.lowLatency = lowLatency;
+	}
+
+	private volatile int lineBufferFrames, writeQuantumFrames, targetLatencyFrames, outputLatencyFrames;
+	/**
+	 * @return the buffer size the line was opened with, in frames
+	 */
+	public int getLineBufferFrames() {
+		return lineBufferFrames;
+	}
+	/**
+	 * @return the frames mixed and written at a time
+	 */
+	public int getWriteQuantumFrames() {
+		return writeQuantumFrames;
+	}
+	/**
+	 * @return the frames the low latency mode keeps queued in the line, grown on underruns
+	 */
+	public int getTargetLatencyFrames() {
+		return targetLatencyFrames;
+	}
+	/**
+	 * @return the frames queued in the line after the latest write, before the latest mixed frame is played
+	 */
+	public int getOutputLatencyFrames() {
+		return outputLatencyFrames;
+	}
+	public double getOutputLatencyMillis() {
+		return outputLatencyFrames * 1000.0 / DEFAULT_AUDIO_FORMAT.getSampleRate();
+	}
+
+	private final AtomicLong underrunCount = new AtomicLong();
+	/**
+	 * @return how many times the line was found empty before a write while playing, since the muxer was created,
+	 *         measuring the device period included; as only the line buffer is seen, a write just in time
+	 *         for the next device period counts too
+	 */
+	public long getUnderrunCount() {
+		return underrunCount.get();
+	}
+
+	// The conversion buffers of offline rendering, allocated on first use
+	private float[] renderBuffer;
+	private byte[] renderBytes;
+
 	public SoundMuxer() {
 		this(DEFAULT_BUFFER_FRAMES);
 	}
@@ -66,7 +150,6 @@ public class SoundMuxer implements AutoCloseable {
 	}
 
 	public SoundMuxer(Mixer mixer, int bufferFrames, int threadPriority) {
-		clipManager = new CopyOnWriteArrayList<>();
 		this.bufferFrames = bufferFrames;
 		this.readBufferSize = bufferFrames * 2;
 		this.sdlByteBufferSize = bufferFrames * 4;
@@ -75,21 +158,52 @@ public class SoundMuxer implements AutoCloseable {
 	}
 
 	public void addClip(SoundClip clip) {
-		clipManager.add(clip);
+		addSource(clip);
 	}
 
 	public void removeClip(SoundClip clip) {
-		clipManager.remove(clip);
+		removeSource(clip);
 	}
 
+	/**
+	 * Does nothing: added and removed sources are published to the player thread at once.
+	 *
+	 * @deprecated no longer needed after adding or removing clips
+	 */
+	@Deprecated
 	public void updateClips() {
-		int size = clipManager.size();
-		SoundClip[] workCopyClips = new SoundClip[size];
-		for (int i = 0; i < size; i ++) {
-			workCopyClips[i] = clipManager.get(i);
+	}
+
+	/**
+	 * Mixes the source on the player thread until removed, e.g. an {@link AudioBus} at the root of an effect graph.
+	 */
+	public void addSource(AudioSource source) {
+		AudioSource[] current, updated;
+		do {
+			current = sources.get();
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = source;
+		}
+		while (!sources.compareAndSet(current, updated));
+	}
+
+	public void removeSource(AudioSource source) {
+		AudioSource[] current, updated;
+		do {
+			current = sources.get();
+			int index = -1;
+			for (int i = 0; i < current.length; i ++) {
+				if (current[i] == source) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) return;
+			updated = new AudioSource[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
 		}
-		clipCache = workCopyClips;
-		clipCacheUpdated = true;
+		while (!sources.compareAndSet(current, updated));
 	}
 
 	private static final AtomicInteger nextSerialNumber = new AtomicInteger();
@@ -99,14 +213,29 @@ public class SoundMuxer implements AutoCloseable {
 
 	public void start() throws LineUnavailableException {
 		if (playing) return;
-		playing = true;
-		
-		updateClips();
-		
-		SoundMuxerPlayer player = new SoundMuxerPlayer(mixer);
+		start(new SoundMuxerPlayer(mixer, lowLatency));
+	}
+
+	/**
+	 * Plays without audio hardware: the player thread mixes and converts every buffer as usual but discards it,
+	 * e.g. for headless tests or to benchmark the mixing.
+	 * @param paced whether buffers are mixed in real time, or as fast as the CPU allows
+	 */
+	public void startNullDevice(boolean paced) {
+		if (playing) return;
+		start(new SoundMuxerPlayer(paced));
+	}
+
+	private void start(SoundMuxerPlayer player) {
 		Thread t = new Thread(player, "SoundMuxerPlayback-" + serialNumber());
 		t.setDaemon(true);
 		t.setPriority(threadPriority);
+		nullDevice = player.sourceDataLine == null;
+		lineBufferFrames = player.lineFrames;
+		writeQuantumFrames = bufferFrames;
+		targetLatencyFrames = outputLatencyFrames = 0;
+		playbackThread = t;
+		playing = true;
 		t.start();
 	}
 
@@ -119,63 +248,251 @@ public class SoundMuxer implements AutoCloseable {
 	public void close() {
 		stop();
 	}
+
+	/**
+	 * Mixes the next frames into the buffer on the calling thread, as fast as the CPU allows, in blocks of
+	 * {@link #getBufferFrames()} like the player thread, advancing {@link #getFramePosition()} alike.
+	 * The samples are summed into the buffer, not clamped.
+	 * @param length in samples, two per frame
+	 * @throws IllegalStateException if the muxer is playing
+	 */
+	public void render(float[] buffer, int offset, int length) {
+		if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
+		else if (offset + length > buffer.length) throw new ArrayIndexOutOfBoundsException(offset + length);
+		checkNotPlaying();
+		Arrays.fill(buffer, offset, offset + length, 0);
+		for (int i = 0; i < length; i += readBufferSize) {
+			mixBlock(buffer, offset + i, Math.min(readBufferSize, length - i));
+		}
+	}
+
+	/**
+	 * Renders the next frames into the buffer at its position as 16-bit samples in its byte order, and advances it.
+	 * @throws IllegalStateException if the muxer is playing
+	 */
+	public void render(ByteBuffer buffer, int frames) {
+		checkNotPlaying();
+		if (buffer.remaining() < frames * 4) throw new BufferOverflowException();
+		float[] renderBuffer = renderBuffer();
+		for (int i = 0; i < frames; i += bufferFrames) {
+			int length = Math.min(bufferFrames, frames - i) * 2;
+			Arrays.fill(renderBuffer, 0, length, 0);
+			mixBlock(renderBuffer, 0, length);
+			floatToS16(renderBuffer, 0, buffer, length);
+		}
+	}
+
+	/**
+	 * The next frames rendered on the reading thread, in the {@link AudioSupport#DEFAULT_AUDIO_FORMAT}.
+	 * The muxer must not be started before the stream is read to its end.
+	 */
+	public AudioInputStream getRenderStream(long frames) {
+		return new AudioInputStream(new RenderInputStream(frames), DEFAULT_AUDIO_FORMAT, frames);
+	}
+
+	/**
+	 * Renders the next frames into a WAV file.
+	 * @throws IllegalStateException if the muxer is playing
+	 */
+	public void render(File file, long frames) throws IOException {
+		checkNotPlaying();
+		try (AudioInputStream stream = getRenderStream(frames)) {
+			AudioSystem.write(stream, AudioFileFormat.Type.WAVE, file);
+		}
+	}
+
+	private void checkNotPlaying() {
+		if (playing) throw new IllegalStateException("Can't render offline while the muxer is playing");
+	}
+
+	private float[] renderBuffer() {
+		if (renderBuffer == null) renderBuffer = new float[readBufferSize];
+		return renderBuffer;
+	}
+
+	// Sums every source into the zeroed buffer, then advances the mixing clock
+	private void mixBlock(float[] normalizedOut, int offset, int length) {
+		AudioSource[] mixerSources = sources.get();
+		clipCount = mixerSources.length;
+		// loop through all sources, summing straight into the output, clamped once when converted
+		for (AudioSource source : mixerSources) {
+			if (!(source instanceof SoundClip) || ((SoundClip) source).isPlaying()) {
+				try {
+					source.mix(normalizedOut, offset, length, framePosition);
+				}
+				catch (Exception ignored) {
+				}
+			}
+		}
+		framePosition += length / 2;
+	}
+
+	private final class RenderInputStream extends InputStream {
+		private long remaining;
+		private int position, limit;
+		private RenderInputStream(long frames) {
+			remaining = Math.max(frames, 0) * 4;
+		}
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) return 0;
+			if (position == limit) {
+				if (remaining == 0) return -1;
+				checkNotPlaying();
+				if (renderBytes == null) renderBytes = new byte[sdlByteBufferSize];
+				float[] renderBuffer = renderBuffer();
+				int length = (int) Math.min(readBufferSize, remaining / 2);
+				Arrays.fill(renderBuffer, 0, length, 0);
+				mixBlock(renderBuffer, 0, length);
+				floatToS16LE(renderBuffer, 0, renderBytes, 0, length);
+				position = 0;
+				limit = length * 2;
+				remaining -= limit;
+			}
+			int count = Math.min(len, limit - position);
+			System.arraycopy(renderBytes, position, b, off, count);
+			position += count;
+			return count;
+		}
+		@Override
+		public int available() {
+			return limit - position;
+		}
+	}
 	
 	private final class SoundMuxerPlayer implements Runnable {
+		// null for the null device
 		private final SourceDataLine sourceDataLine;
+		private final int lineFrames;
+		private final boolean paced, lowLatency;
 		private final float[] readBuffer;
-		private final float[] audioData;
 		private final byte[] audioBytes;
-		private SoundClip[] mixerClips;
 
-		private SoundMuxerPlayer(Mixer mixer) throws LineUnavailableException {
+		private SoundMuxerPlayer(Mixer mixer, boolean lowLatency) throws LineUnavailableException {
 			audioBytes = new byte[sdlByteBufferSize];
 			readBuffer = new float[readBufferSize];
-			audioData = new float[readBufferSize];
+			paced = true;
+			this.lowLatency = lowLatency;
 
 			sourceDataLine = (SourceDataLine) (mixer == null ? AudioSystem.getLine(DEFAULT_AUDIO_LINE_INFO) : mixer.getLine(DEFAULT_AUDIO_LINE_INFO));
-			sourceDataLine.open(DEFAULT_AUDIO_FORMAT, sdlByteBufferSize);
+			sourceDataLine.open(DEFAULT_AUDIO_FORMAT, (lowLatency ? Math.min(bufferFrames, LOW_LATENCY_LINE_FRAMES) : bufferFrames) * 4);
+			// the line may not grant the size asked for
+			lineFrames = sourceDataLine.getBufferSize() / 4;
 			sourceDataLine.start();
 		}
 
+		private SoundMuxerPlayer(boolean paced) {
+			audioBytes = new byte[sdlByteBufferSize];
+			readBuffer = new float[readBufferSize];
+			this.paced = paced;
+			lowLatency = false;
+			sourceDataLine = null;
+			lineFrames = 0;
+		}
+
 		public void run() {
-			while(playing) {
-		    	if (clipCacheUpdated) {
-		    		/*
-		    		 * Concurrency plan: Better to allow a late  
-		    		 * or redundant update than to skip an update.
-		    		 */
-		    		clipCacheUpdated = false;
-		    		mixerClips = clipCache;
-		    		clipCount = mixerClips.length;
-		    	}
+			if (lowLatency) runLowLatency();
+			else runBlocking();
+
+			if (sourceDataLine != null) {
+				sourceDataLine.drain();
+				sourceDataLine.close();
+			}
+		}
+
+		private boolean isCurrent() {
+			return playing && playbackThread == Thread.currentThread();
+		}
+
+		private void runBlocking() {
+			long bufferNanos = (long) (bufferFrames * 1_000_000_000L / DEFAULT_AUDIO_FORMAT.getSampleRate());
+			long deadline = System.nanoTime();
+			boolean primed = false;
+			while (isCurrent()) {
 				Arrays.fill(readBuffer, 0);
-				fillBufferFromClips(readBuffer);
-				fromPcmToAudioBytes(audioBytes, readBuffer);
-				sourceDataLine.write(audioBytes, 0, sdlByteBufferSize);
+				mixBlock(readBuffer, 0, readBufferSize);
+				floatToS16LE(readBuffer, 0, audioBytes, 0, readBufferSize);
+				if (sourceDataLine != null) {
+					if (primed && sourceDataLine.available() >= lineFrames * 4) underrunCount.incrementAndGet();
+					sourceDataLine.write(audioBytes, 0, sdlByteBufferSize);
+					outputLatencyFrames = lineFrames - sourceDataLine.available() / 4;
+					primed = true;
+				}
+				else if (paced) {
+					// the device clock stand-in: one buffer per buffer duration, late buffers are not caught up on
+					deadline = Math.max(deadline + bufferNanos, System.nanoTime() - bufferNanos);
+					long wait;
+					while ((wait = deadline - System.nanoTime()) > 0 && playing) {
+						LockSupport.parkNanos(this, wait);
+					}
+				}
 			}
+		}
+
+		private void runLowLatency() {
+			float sampleRate = DEFAULT_AUDIO_FORMAT.getSampleRate();
+			int quantum = measureQuantum();
+			int target = Math.min(quantum * 2, lineFrames);
+			writeQuantumFrames = quantum;
+			targetLatencyFrames = target;
+			// primed with silence while measuring, from then on an empty line has run dry
+			while (isCurrent()) {
+				int queued = lineFrames - sourceDataLine.available() / 4;
+				if (queued + quantum <= target) {
+					// room for a quantum, so the write does not block
+					int length = quantum * 2;
+					Arrays.fill(readBuffer, 0, length, 0);
+					mixBlock(readBuffer, 0, length);
+					floatToS16LE(readBuffer, 0, audioBytes, 0, length);
+					// after the mixing, which is what takes long enough for the line to run dry
+					queued = lineFrames - sourceDataLine.available() / 4;
+					if (queued <= 0) {
+						// one more quantum of safety per dry spell, a write always ends it
+						underrunCount.incrementAndGet();
+						target = Math.min(target + quantum, lineFrames);
+						targetLatencyFrames = target;
+					}
+					sourceDataLine.write(audioBytes, 0, quantum * 4);
+					outputLatencyFrames = queued + quantum;
+				}
+				// until about enough has been played for the next quantum, a little early rather than late
+				else LockSupport.parkNanos(this, (long) ((queued + quantum - target) * 1_000_000_000L / sampleRate / 2));
+			}
+		}
 
-			sourceDataLine.drain();
-			sourceDataLine.close();
-		}
-		
-	   private void fillBufferFromClips(float[] normalizedOut) {
-	    	// loop through all clips, summing
-			for (int n = 0; n < clipCount; n ++) {
-				if (mixerClips[n].isPlaying()) {
-					try {
-						mixerClips[n].read(audioData, 0, readBufferSize);
-						for (int i = 0; i < readBufferSize; i ++) {
-							normalizedOut[i] += audioData[i];
-						}
-					} 
-					catch (Exception ignored) {
-					}							
+		// The smallest step the line's available frames move by is the period the device takes them in, the quantum
+		// to keep up with it; lines which don't move in time get the default
+		private int measureQuantum() {
+			int maximum = Math.max(Math.min(bufferFrames, lineFrames / 4), 1);
+			int minimum = Math.min(LOW_LATENCY_MIN_QUANTUM_FRAMES, maximum);
+			// silence to drain while measuring, topped up before the line runs dry, which would be an underrun
+			int silence = Math.min(lineFrames / 2, bufferFrames);
+			Arrays.fill(audioBytes, (byte) 0);
+			sourceDataLine.write(audioBytes, 0, silence * 4);
+			int period = Integer.MAX_VALUE, steps = 0;
+			int last = sourceDataLine.available() / 4;
+			long deadline = System.nanoTime() + 50_000_000L;
+			while (steps < 8 && System.nanoTime() < deadline && isCurrent()) {
+				LockSupport.parkNanos(this, 100_000L);
+				int available = sourceDataLine.available() / 4;
+				if (available > last) {
+					period = Math.min(period, available - last);
+					steps ++;
 				}
-				for (int i = 0; i < readBufferSize; i ++) {
-					if (normalizedOut[i] > 1) normalizedOut[i] = 1;
-					else if (normalizedOut[i] < -1) normalizedOut[i] = -1;
+				if (lineFrames - available <= lineFrames / 4) {
+					if (available >= lineFrames) underrunCount.incrementAndGet();
+					sourceDataLine.write(audioBytes, 0, silence * 4);
+					available = sourceDataLine.available() / 4;
 				}
+				last = available;
 			}
+			if (steps == 0) period = LOW_LATENCY_QUANTUM_FRAMES;
+			return Math.max(minimum, Math.min(period, maximum));
 		}
 
 	}
@@ -0,0 +1,402 @@
+package unrefined.desktop;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Positional mixing of clip instances around a listener, in pure Java: every block, each {@link SoundEmitter} is
+ * attenuated by its distance, panned by its direction at equal power or convolved with an {@link HRTF}, and
+ * Doppler shifted through the resampler by the relative velocities. The formulas are those of OpenAL 1.1,
+ * in a right-handed space with the listener facing -z and y up by default.
+ * <p>
+ * Mixed as a source of a {@link SoundMuxer} or an {@link AudioBus}, on the same thread as the clips of its emitters;
+ * the clips mix their other instances as usual.
+ */
+public class SoundSpace implements AudioSource {
+
+	public enum DistanceModel {
+		/** No attenuation */
+		NONE,
+		/** reference / (reference + rolloff * (distance - reference)) */
+		INVERSE,
+		/** Inverse, the distance clamped between the reference and the maximum */
+		INVERSE_CLAMPED,
+		/** 1 - rolloff * (distance - reference) / (maximum - reference), the distance at most the maximum */
+		LINEAR,
+		/** Linear, the distance clamped between the reference and the maximum */
+		LINEAR_CLAMPED,
+		/** (distance / reference) ^ -rolloff */
+		EXPONENTIAL,
+		/** Exponential, the distance clamped between the reference and the maximum */
+		EXPONENTIAL_CLAMPED
+	}
+
+	// Copied on write and published atomically, the mixing thread takes it once per block
+	private final AtomicReference<SoundEmitter[]> emitters = new AtomicReference<>(new SoundEmitter[0]);
+
+	private volatile double listenerX, listenerY, listenerZ;
+	private volatile double listenerVelocityX, listenerVelocityY, listenerVelocityZ;
+	private volatile double forwardX, forwardY, forwardZ = -1, upX, upY = 1, upZ;
+	private volatile double listenerGain = 1;
+
+	private volatile DistanceModel distanceModel = DistanceModel.INVERSE_CLAMPED;
+	private volatile double speedOfSound = 343.3, dopplerFactor = 1;
+	private volatile HRTF hrtf;
+
+	// Owned by the mixing thread
+	private float[] scratch = new float[0];
+	private HRTF mixedHRTF;
+
+	public void setListenerPosition(double x, double y, double z) {
+		listenerX = x;
+		listenerY = y;
+		listenerZ = z;
+	}
+
+	public double getListenerX() {
+		return listenerX;
+	}
+
+	public double getListenerY() {
+		return listenerY;
+	}
+
+	public double getListenerZ() {
+		return listenerZ;
+	}
+
+	public void setListenerVelocity(double x, double y, double z) {
+		listenerVelocityX = x;
+		listenerVelocityY = y;
+		listenerVelocityZ = z;
+	}
+
+	public double getListenerVelocityX() {
+		return listenerVelocityX;
+	}
+
+	public double getListenerVelocityY() {
+		return listenerVelocityY;
+	}
+
+	public double getListenerVelocityZ() {
+		return listenerVelocityZ;
+	}
+
+	/**
+	 * The listener faces the forward vector, the top of its head toward the up vector made perpendicular to it.
+	 */
+	public void setListenerOrientation(double forwardX, double forwardY, double forwardZ, double upX, double upY, double upZ) {
+		this.forwardX = forwardX;
+		this.forwardY = forwardY;
+		this.forwardZ = forwardZ;
+		this.upX = upX;
+		this.upY = upY;
+		this.upZ = upZ;
+	}
+
+	public double getListenerGain() {
+		return listenerGain;
+	}
+
+	public void setListenerGain(double gain) {
+		this.listenerGain = Math.max(gain, 0);
+	}
+
+	public DistanceModel getDistanceModel() {
+		return distanceModel;
+	}
+
+	public void setDistanceModel(DistanceModel distanceModel) {
+		this.distanceModel = Objects.requireNonNull(distanceModel);
+	}
+
+	public double getSpeedOfSound() {
+		return speedOfSound;
+	}
+
+	/**
+	 * @param speedOfSound in the units of the positions per second
+	 */
+	public void setSpeedOfSound(double speedOfSound) {
+		if (!(speedOfSound > 0)) throw new IllegalArgumentException("speed of sound must be positive");
+		this.speedOfSound = speedOfSound;
+	}
+
+	public double getDopplerFactor() {
+		return dopplerFactor;
+	}
+
+	/**
+	 * @param dopplerFactor scales the Doppler shift, 0 to turn it off
+	 */
+	public void setDopplerFactor(double dopplerFactor) {
+		this.dopplerFactor = Math.max(dopplerFactor, 0);
+	}
+
+	public HRTF getHRTF() {
+		return hrtf;
+	}
+
+	/**
+	 * @param hrtf convolves the emitters instead of panning them, null to pan
+	 */
+	public void setHRTF(HRTF hrtf) {
+		this.hrtf = hrtf;
+	}
+
+	/**
+	 * Mixes the emitter's instance here from the next block on, instead of with the other instances of its clip.
+	 * An emitter is in one space at most.
+	 */
+	public void addEmitter(SoundEmitter emitter) {
+		Objects.requireNonNull(emitter);
+		emitter.getClip().setSpatial(emitter.getInstanceID(), true);
+		SoundEmitter[] current, updated;
+		do {
+			current = emitters.get();
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = emitter;
+		}
+		while (!emitters.compareAndSet(current, updated));
+	}
+
+	/**
+	 * Hands the emitter's instance back to its clip, if it has not been released.
+	 */
+	public void removeEmitter(SoundEmitter emitter) {
+		SoundEmitter[] current, updated;
+		do {
+			current = emitters.get();
+			int index = -1;
+			for (int i = 0; i < current.length; i ++) {
+				if (current[i] == emitter) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0) return;
+			updated = new SoundEmitter[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+		}
+		while (!emitters.compareAndSet(current, updated));
+		SoundClip clip = emitter.getClip();
+		if (clip.isActive(emitter.getInstanceID())) clip.setSpatial(emitter.getInstanceID(), false);
+	}
+
+	public SoundEmitter[] getEmitters() {
+		return emitters.get().clone();
+	}
+
+	/**
+	 * @return the emitters playing
+	 */
+	@Override
+	public int getVoiceCount() {
+		int count = 0;
+		for (SoundEmitter emitter : emitters.get()) {
+			if (emitter.getClip().isPlaying(emitter.getInstanceID())) count ++;
+		}
+		return count;
+	}
+
+	@Override
+	public void mix(float[] buffer, int offset, int length, long frame) {
+		if (offset < 0) throw new ArrayIndexOutOfBoundsException(offset);
+		else if (offset + length > buffer.length) throw new ArrayIndexOutOfBoundsException(offset + length);
+
+		// the listener's axes, orthonormal, taken once per block
+		double forwardX = this.forwardX, forwardY = this.forwardY, forwardZ = this.forwardZ;
+		double upX = this.upX, upY = this.upY, upZ = this.upZ;
+		double norm = Math.sqrt(forwardX * forwardX + forwardY * forwardY + forwardZ * forwardZ);
+		if (norm == 0) {
+			forwardX = forwardY = 0;
+			forwardZ = -1;
+		}
+		else {
+			forwardX /= norm;
+			forwardY /= norm;
+			forwardZ /= norm;
+		}
+		double rightX = forwardY * upZ - forwardZ * upY;
+		double rightY = forwardZ * upX - forwardX * upZ;
+		double rightZ = forwardX * upY - forwardY * upX;
+		norm = Math.sqrt(rightX * rightX + rightY * rightY + rightZ * rightZ);
+		if (norm == 0) {
+			// up along the front, any perpendicular will do
+			rightX = -forwardZ;
+			rightY = 0;
+			rightZ = forwardX;
+			norm = Math.sqrt(rightX * rightX + rightZ * rightZ);
+			if (norm == 0) {
+				rightX = 1;
+				norm = 1;
+			}
+		}
+		rightX /= norm;
+		rightY /= norm;
+		rightZ /= norm;
+		upX = rightY * forwardZ - rightZ * forwardY;
+		upY = rightZ * forwardX - rightX * forwardZ;
+		upZ = rightX * forwardY - rightY * forwardX;
+
+		double listenerX = this.listenerX, listenerY = this.listenerY, listenerZ = this.listenerZ;
+		double listenerVelocityX = this.listenerVelocityX, listenerVelocityY = this.listenerVelocityY, listenerVelocityZ = this.listenerVelocityZ;
+		double listenerGain = this.listenerGain, speedOfSound = this.speedOfSound, dopplerFactor = this.dopplerFactor;
+		DistanceModel distanceModel = this.distanceModel;
+		HRTF hrtf = this.hrtf;
+		if (hrtf != mixedHRTF) {
+			// the histories and directions belong to the former one
+			for (SoundEmitter emitter : emitters.get()) {
+				emitter.direction = -1;
+				Arrays.fill(emitter.history, 0);
+			}
+			mixedHRTF = hrtf;
+		}
+
+		for (SoundEmitter emitter : emitters.get()) {
+			SoundClip clip = emitter.getClip();
+			int instanceID = emitter.getInstanceID();
+
+			// the emitter relative to the listener, in world axes
+			double x, y, z, velocityX, velocityY, velocityZ;
+			if (emitter.isRelative()) {
+				double relativeX = emitter.getX(), relativeY = emitter.getY(), relativeZ = emitter.getZ();
+				x = rightX * relativeX + upX * relativeY - forwardX * relativeZ;
+				y = rightY * relativeX + upY * relativeY - forwardY * relativeZ;
+				z = rightZ * relativeX + upZ * relativeY - forwardZ * relativeZ;
+				relativeX = emitter.getVelocityX();
+				relativeY = emitter.getVelocityY();
+				relativeZ = emitter.getVelocityZ();
+				velocityX = rightX * relativeX + upX * relativeY - forwardX * relativeZ + listenerVelocityX;
+				velocityY = rightY * relativeX + upY * relativeY - forwardY * relativeZ + listenerVelocityY;
+				velocityZ = rightZ * relativeX + upZ * relativeY - forwardZ * relativeZ + listenerVelocityZ;
+			}
+			else {
+				x = emitter.getX() - listenerX;
+				y = emitter.getY() - listenerY;
+				z = emitter.getZ() - listenerZ;
+				velocityX = emitter.getVelocityX();
+				velocityY = emitter.getVelocityY();
+				velocityZ = emitter.getVelocityZ();
+			}
+			double distance = Math.sqrt(x * x + y * y + z * z);
+
+			double gain = listenerGain * emitter.getGain() * attenuation(distanceModel, distance,
+					emitter.getReferenceDistance(), emitter.getMaxDistance(), emitter.getRolloffFactor());
+
+			double speed = emitter.getPitch();
+			if (dopplerFactor > 0 && distance > 0) {
+				// the velocities toward the listener along the line between them, below the speed of sound
+				double limit = speedOfSound / dopplerFactor;
+				double listenerSpeed = -(x * listenerVelocityX + y * listenerVelocityY + z * listenerVelocityZ) / distance;
+				double emitterSpeed = -(x * velocityX + y * velocityY + z * velocityZ) / distance;
+				listenerSpeed = Math.min(listenerSpeed, limit);
+				emitterSpeed = Math.min(emitterSpeed, limit);
+				double shift = (speedOfSound - dopplerFactor * listenerSpeed) / (speedOfSound - dopplerFactor * emitterSpeed);
+				if (shift > 0 && shift < Double.POSITIVE_INFINITY) speed *= shift;
+			}
+
+			// the direction in listener space: x to the right, y up, z to the front
+			double directionX = 0, directionY = 0, directionZ = 1;
+			if (distance > 0) {
+				directionX = (x * rightX + y * rightY + z * rightZ) / distance;
+				directionY = (x * upX + y * upY + z * upZ) / distance;
+				directionZ = (x * forwardX + y * forwardY + z * forwardZ) / distance;
+			}
+
+			if (hrtf == null) {
+				double angle = (directionX + 1) * Math.PI / 4;
+				clip.mixSpatial(instanceID, buffer, offset, length, frame, gain * Math.cos(angle), gain * Math.sin(angle), speed);
+			}
+			else {
+				if (scratch.length < length) scratch = new float[length];
+				Arrays.fill(scratch, 0, length, 0);
+				if (clip.mixSpatial(instanceID, scratch, 0, length, frame, gain, gain, speed))
+					convolve(hrtf, emitter, hrtf.nearest(directionX, directionY, directionZ), buffer, offset, length / 2);
+				else if (emitter.direction >= 0) {
+					// stopped, the next start convolves from silence
+					emitter.direction = -1;
+					Arrays.fill(emitter.history, 0);
+				}
+			}
+		}
+	}
+
+	static double attenuation(DistanceModel model, double distance, double reference, double maximum, double rolloff) {
+		switch (model) {
+			case INVERSE_CLAMPED:
+				distance = Math.max(reference, Math.min(distance, maximum));
+				// fall through
+			case INVERSE:
+				if (reference + rolloff * (distance - reference) <= 0) return 1;
+				return Math.min(reference / (reference + rolloff * (distance - reference)), 1);
+			case LINEAR_CLAMPED:
+				distance = Math.max(reference, distance);
+				// fall through
+			case LINEAR:
+				if (maximum <= reference) return 1;
+				distance = Math.min(distance, maximum);
+				return Math.max(0, Math.min(1 - rolloff * (distance - reference) / (maximum - reference), 1));
+			case EXPONENTIAL_CLAMPED:
+				distance = Math.max(reference, Math.min(distance, maximum));
+				// fall through
+			case EXPONENTIAL:
+				if (distance <= 0 || reference <= 0) return 1;
+				return Math.min(Math.pow(distance / reference, -rolloff), 1);
+			default:
+				return 1;
+		}
+	}
+
+	// The downmixed instance in the scratch buffer through the responses of the direction, into the output, crossfaded
+	// over the block from the responses of the former direction when it changed
+	private void convolve(HRTF hrtf, SoundEmitter emitter, int direction, float[] buffer, int offset, int frames) {
+		int taps = hrtf.getLength();
+		// the last taps - 1 samples of the previous block, then this block's
+		float[] history = emitter.history;
+		if (history.length < taps - 1 + frames) {
+			history = Arrays.copyOf(history, taps - 1 + frames);
+			emitter.history = history;
+		}
+		for (int i = 0; i < frames; i ++) {
+			history[taps - 1 + i] = (scratch[i * 2] + scratch[i * 2 + 1]) * 0.5f;
+		}
+		float[] left = hrtf.leftResponse(direction), right = hrtf.rightResponse(direction);
+		int former = emitter.direction;
+		if (former < 0 || former == direction) {
+			for (int i = 0; i < frames; i ++) {
+				float leftSum = 0, rightSum = 0;
+				for (int k = 0; k < taps; k ++) {
+					float sample = history[i + taps - 1 - k];
+					leftSum += left[k] * sample;
+					rightSum += right[k] * sample;
+				}
+				buffer[offset + i * 2] += leftSum;
+				buffer[offset + i * 2 + 1] += rightSum;
+			}
+		}
+		else {
+			float[] formerLeft = hrtf.leftResponse(former), formerRight = hrtf.rightResponse(former);
+			float incr = 1f / frames;
+			for (int i = 0; i < frames; i ++) {
+				float leftSum = 0, rightSum = 0, formerLeftSum = 0, formerRightSum = 0;
+				for (int k = 0; k < taps; k ++) {
+					float sample = history[i + taps - 1 - k];
+					leftSum += left[k] * sample;
+					rightSum += right[k] * sample;
+					formerLeftSum += formerLeft[k] * sample;
+					formerRightSum += formerRight[k] * sample;
+				}
+				float mix = i * incr;
+				buffer[offset + i * 2] += formerLeftSum + (leftSum - formerLeftSum) * mix;
+				buffer[offset + i * 2 + 1] += formerRightSum + (rightSum - formerRightSum) * mix;
+			}
+		}
+		System.arraycopy(history, frames, history, 0, taps - 1);
+		emitter.direction = direction;
+	}
+
+}
@@ -0,0 +1,274 @@
+package unrefined.desktop;
+
+import unrefined.media.graphics.Brush;
+import unrefined.media.graphics.Text;
+import unrefined.runtime.DesktopGraphics;
+import unrefined.util.LruCache;
+import unrefined.util.NotInstantiableError;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class TextLayoutCache {
+
+    private TextLayoutCache() {
+        throw new NotInstantiableError(TextLayoutCache.class);
+    }
+
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    public static final class Entry {
+
+        private final AttributedCharSequence sequence;
+        private final TextLayout textLayout;
+        private final List<Object[]> backgroundList;
+        private final List<Object[]> foregroundList;
+        private volatile TextLayout backgroundTextLayout;
+        private volatile TextLayout foregroundTextLayout;
+        private volatile GlyphBitmap glyphBitmap;
+
+        private Entry(AttributedCharSequence sequence, TextLayout textLayout, List<Object[]> backgroundList, List<Object[]> foregroundList) {
+            this.sequence = sequence;
+            this.textLayout = textLayout;
+            this.backgroundList = backgroundList;
+            this.foregroundList = foregroundList;
+        }
+
+        public AttributedCharSequence getSequence() {
+            return sequence;
+        }
+
+        public TextLayout getTextLayout() {
+            return textLayout;
+        }
+
+        public List<Object[]> getBackgroundList() {
+            return backgroundList;
+        }
+
+        public List<Object[]> getForegroundList() {
+            return foregroundList;
+        }
+
+        public TextLayout getBackgroundTextLayout() {
+            return backgroundTextLayout;
+        }
+
+        public void setBackgroundTextLayout(TextLayout backgroundTextLayout) {
+            this.backgroundTextLayout = backgroundTextLayout;
+        }
+
+        public TextLayout getForegroundTextLayout() {
+            return foregroundTextLayout;
+        }
+
+        public void setForegroundTextLayout(TextLayout foregroundTextLayout) {
+            this.foregroundTextLayout = foregroundTextLayout;
+        }
+
+        /**
+         * Returns the text pre-rendered in the given color, rendering it on first use.
+         * The image origin is offset from the text origin by (getX(), getY()) of the returned bitmap.
+         */
+        public GlyphBitmap getGlyphBitmap(Color color, RenderingHints hints) {
+            GlyphBitmap glyphBitmap = this.glyphBitmap;
+            if (glyphBitmap != null && glyphBitmap.color.equals(color) && glyphBitmap.hints.equals(hints)) return glyphBitmap;
+            Rectangle2D bounds = textLayout.getBounds();
+            int x = (int) Math.floor(bounds.getX()) - 1;
+            int y = (int) Math.floor(bounds.getY()) - 1;
+            int width = Math.max(1, (int) Math.ceil(bounds.getMaxX()) + 1 - x);
+            int height = Math.max(1, (int) Math.ceil(bounds.getMaxY()) + 1 - y);
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D graphics2D = image.createGraphics();
+            try {
+                graphics2D.setRenderingHints(hints);
+                graphics2D.setColor(color);
+                textLayout.draw(graphics2D, -x, -y);
+            }
+            finally {
+                graphics2D.dispose();
+            }
+            glyphBitmapCount.incrementAndGet();
+            return this.glyphBitmap = new GlyphBitmap(image, x, y, color, hints);
+        }
+
+    }
+
+    public static final class GlyphBitmap {
+
+        private final BufferedImage image;
+        private final int x, y;
+        private final Color color;
+        private final RenderingHints hints;
+
+        private GlyphBitmap(BufferedImage image, int x, int y, Color color, RenderingHints hints) {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+            this.color = color;
+            this.hints = hints;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+    }
+
+    private static final class Key {
+
+        private final String text;
+        private final Font font;
+        private final FontRenderContext fontRenderContext;
+        private final List<Text.SpanMark> spanMarks;
+        private final int style;
+        private final Brush textBackground;
+        private final Brush textForeground;
+        private final int hashCode;
+
+        private Key(String text, Font font, FontRenderContext fontRenderContext,
+                    List<Text.SpanMark> spanMarks, int style, Brush textBackground, Brush textForeground) {
+            this.text = text;
+            this.font = font;
+            this.fontRenderContext = fontRenderContext;
+            this.spanMarks = spanMarks;
+            this.style = style;
+            this.textBackground = textBackground;
+            this.textForeground = textForeground;
+            int result = text.hashCode();
+            result = 31 * result + font.hashCode();
+            result = 31 * result + fontRenderContext.hashCode();
+            result = 31 * result + (spanMarks == null ? 0 : spanMarks.hashCode());
+            result = 31 * result + style;
+            result = 31 * result + System.identityHashCode(textBackground);
+            result = 31 * result + System.identityHashCode(textForeground);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+            return hashCode == key.hashCode && style == key.style
+                    && textBackground == key.textBackground && textForeground == key.textForeground
+                    && text.equals(key.text) && font.equals(key.font)
+                    && fontRenderContext.equals(key.fontRenderContext) && Objects.equals(spanMarks, key.spanMarks);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+    private static final LruCache<Key, Entry> CACHE = new LruCache<>(DEFAULT_MAX_SIZE);
+    private static volatile int glyphBitmapMaxLength = 0;
+    private static final AtomicInteger glyphBitmapCount = new AtomicInteger();
+
+    public static Entry getEntry(CharSequence text, int start, int end, Font font, FontRenderContext fontRenderContext) {
+        String string = text.subSequence(start, end).toString();
+        Key key = new Key(string, font, fontRenderContext, null, 0, null, null);
+        Entry entry = CACHE.get(key);
+        if (entry == null) {
+            AttributedCharSequence sequence = new AttributedCharSequence(string, font.getAttributes());
+            entry = new Entry(sequence, new TextLayout(sequence.getIterator(), fontRenderContext), null, null);
+            CACHE.put(key, entry);
+        }
+        return entry;
+    }
+
+    public static Entry getEntry(Text text, int start, int end, DesktopGraphics graphics) {
+        Graphics2D graphics2D = graphics.getGraphics2D();
+        Font font = graphics2D.getFont();
+        FontRenderContext fontRenderContext = graphics2D.getFontRenderContext();
+        // The span marks of the range only, moved to start with it, so that equal ranges share their layout
+        String string = new StringBuilder(end - start).append(text, start, end).toString();
+        List<Text.SpanMark> spanMarks = new ArrayList<>();
+        for (Text.SpanMark spanMark : text.spanMarks()) {
+            int spanStart = Math.max(spanMark.getStart(), start);
+            int spanEnd = Math.min(spanMark.getEnd(), end);
+            if (spanStart < spanEnd) spanMarks.add(new Text.SpanMark(spanStart - start, spanEnd - start, spanMark.getAttributes()));
+        }
+        Key key = new Key(string, font, fontRenderContext, spanMarks,
+                graphics.getStyle(), graphics.getTextBackground(), graphics.getTextForeground());
+        Entry entry = CACHE.get(key);
+        if (entry == null) {
+            List<Object[]> backgroundList = new ArrayList<>();
+            List<Object[]> foregroundList = new ArrayList<>();
+            AttributedCharSequence sequence = AWTSupport.toAttributedCharSequence(new Text(string, spanMarks), 0, string.length(),
+                    graphics, backgroundList, foregroundList);
+            entry = new Entry(sequence, new TextLayout(sequence.getIterator(), fontRenderContext), backgroundList, foregroundList);
+            CACHE.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Strings no longer than this many chars are drawn from pre-rendered glyph bitmaps when the text is drawn with
+     * a solid color, no shadow, no text background/foreground and a translation-only transform. 0 disables it.
+     */
+    public static void setGlyphBitmapMaxLength(int length) {
+        if (length < 0) throw new IllegalArgumentException("length < 0");
+        glyphBitmapMaxLength = length;
+    }
+
+    public static int getGlyphBitmapMaxLength() {
+        return glyphBitmapMaxLength;
+    }
+
+    public static int getGlyphBitmapCount() {
+        return glyphBitmapCount.get();
+    }
+
+    public static void resize(int maxSize) {
+        CACHE.resize(maxSize);
+    }
+
+    public static int maxSize() {
+        return CACHE.maxSize();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.evictAll();
+    }
+
+    public static int hitCount() {
+        return CACHE.hitCount();
+    }
+
+    public static int missCount() {
+        return CACHE.missCount();
+    }
+
+    public static float hitRate() {
+        int hitCount = CACHE.hitCount();
+        int accesses = hitCount + CACHE.missCount();
+        return accesses == 0 ? 0 : (float) hitCount / accesses;
+    }
+
+}
@@ -91,10 +91,23 @@ public class TextPathLayout {
                                           float startOffset,
                                           float textLength,
                                           int lengthAdjustMode) {
+        return layoutGlyphVector(glyphs, path == null ? null : new MeasuredPath(path),
+                align, startOffset, textLength, lengthAdjustMode);
+    }
+
+    /**
+     * Wraps the GlyphVector around the given measured path, which may be
+     * reused across calls so the path is flattened only once.
+     *
+     * @see #layoutGlyphVector(GlyphVector, Shape, int, float, float, int)
+     */
+    public static Shape layoutGlyphVector(GlyphVector glyphs,
+                                          MeasuredPath path, int align,
+                                          float startOffset,
+                                          float textLength,
+                                          int lengthAdjustMode) {
 
         GeneralPath newPath = new GeneralPath();
-        PathLength pl = new PathLength(path);
-        float pathLength = pl.lengthOfPath();
 
         if ( glyphs == null ){
             return newPath;
@@ -104,10 +117,12 @@ public class TextPathLayout {
         // return from the ugly cases
         if (path == null ||
             glyphs.getNumGlyphs() == 0 ||
-            pl.lengthOfPath() == 0f ||
+            path.getLength() == 0f ||
             glyphsLength == 0f) {
             return newPath;
         }
+        float pathLength = path.getLength();
+        Point2D.Float charMidPoint = new Point2D.Float();
 
         // work out the expansion/contraction per character
         float lengthRatio = textLength / glyphsLength;
@@ -164,14 +179,12 @@ public class TextPathLayout {
             float charMidPos = currentPosition + glyphWidth / 2f;
 
             // Calculate the actual point to place the glyph around
-            Point2D charMidPoint = pl.pointAtLength(charMidPos);
-
-            // Check if the glyph is actually on the path
+            // and check if the glyph is actually on the path
 
-            if (charMidPoint != null) {
+            if (path.getPoint(charMidPos, charMidPoint)) {
 
                 // Calculate the normal to the path (midline of glyph)
-                float angle = pl.angleAtLength(charMidPos);
+                float angle = path.getAngle(charMidPos);
 
                 // Define the transform of the glyph
                 AffineTransform glyphTrans = new AffineTransform();
@@ -25,8 +25,11 @@ public class TransformedGraphics2D extends FilteredGraphics2D {
     }
 
     private void applyClip() {
-        if (clip == null) graphics2D.setClip(null);
-        else graphics2D.clip(transform.createTransformedShape(clip));
+        // The original clip always applies, the clip set here is within it and relative to the original transform
+        graphics2D.setTransform(originalTransform);
+        graphics2D.setClip(originalClip);
+        if (clip != null) graphics2D.clip(transform.createTransformedShape(clip));
+        applyTransform();
     }
 
     @Override
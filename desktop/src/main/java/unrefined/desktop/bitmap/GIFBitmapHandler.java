@@ -2,8 +2,11 @@ package unrefined.desktop.bitmap;
 
 import unrefined.desktop.BitmapSupport;
 import unrefined.desktop.IIOBitmapHandler;
+import unrefined.desktop.IIOFrameDecoder;
 import unrefined.math.FastMath;
 import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Dimension;
+import unrefined.media.graphics.LazyMultiFrame;
 import unrefined.runtime.DesktopBitmap;
 
 import javax.imageio.IIOImage;
@@ -30,6 +33,7 @@ public class GIFBitmapHandler extends IIOBitmapHandler {
     public static final GIFBitmapHandler INSTANCE = new GIFBitmapHandler();
 
     private static final String METADATA_FORMAT_NAME = "javax_imageio_gif_image_1.0";
+    private static final String STREAM_METADATA_FORMAT_NAME = "javax_imageio_gif_stream_1.0";
 
     private static final Set<String> READER_FORMAT_NAMES = Collections.singleton( "gif" );
     private static final Set<String> WRITER_FORMAT_NAMES = Collections.singleton( "gif" );
@@ -123,7 +127,12 @@ public class GIFBitmapHandler extends IIOBitmapHandler {
     }
 
     @Override
-    public Bitmap read(ImageInputStream input, int type) throws IOException {
+    public Bitmap read(ImageInputStream input, int type, Bitmap.ReadOptions options) throws IOException {
+        return null;
+    }
+
+    @Override
+    public Dimension readSize(ImageInputStream input) throws IOException {
         return null;
     }
 
@@ -177,7 +186,7 @@ public class GIFBitmapHandler extends IIOBitmapHandler {
                 }
                 frames[i] = new Bitmap.Frame(
                         new DesktopBitmap(BitmapSupport.getImage(reader.read(i), type, true)),
-                        hotSpotX, hotSpotY, duration, disposalMode, Bitmap.BlendMode.SOURCE);
+                        hotSpotX, hotSpotY, duration, disposalMode, Bitmap.BlendMode.OVER);
             }
             Bitmap.MultiFrame result = new Bitmap.MultiFrame(frames);
             result.setLooping(loops);
@@ -238,7 +247,7 @@ public class GIFBitmapHandler extends IIOBitmapHandler {
                 }
                 frames[i] = new Bitmap.Frame(
                         new DesktopBitmap(BitmapSupport.getImage(reader.read(i), types[i + typesOffset], true)),
-                        hotSpotX, hotSpotY, duration, disposalMode, Bitmap.BlendMode.SOURCE);
+                        hotSpotX, hotSpotY, duration, disposalMode, Bitmap.BlendMode.OVER);
             }
             Bitmap.MultiFrame result = new Bitmap.MultiFrame(frames);
             result.setLooping(loops);
@@ -254,6 +263,84 @@ public class GIFBitmapHandler extends IIOBitmapHandler {
         }
     }
 
+    @Override
+    public LazyMultiFrame.Decoder readFrameDecoder(ImageInputStream input, int type) throws IOException {
+        if (!isGIF(input)) return null;
+        ImageReader reader = getGIFImageReader();
+        if (reader == null) return null;
+        reader.setInput(input);
+        boolean success = false;
+        try {
+            int count = reader.getNumImages(true);
+            int[] hotSpots = new int[count * 2];
+            long[] durations = new long[count];
+            int[] disposalModes = new int[count];
+            int[] blendModes = new int[count];
+            int width = 0, height = 0, loops = 0;
+            IIOMetadata streamMetadata = reader.getStreamMetadata();
+            if (streamMetadata != null) {
+                IIOMetadataNode node = (IIOMetadataNode) streamMetadata.getAsTree(STREAM_METADATA_FORMAT_NAME).getFirstChild();
+                while (node != null) {
+                    if (node.getNodeName().equals("LogicalScreenDescriptor")) {
+                        width = Integer.parseInt(node.getAttribute("logicalScreenWidth"));
+                        height = Integer.parseInt(node.getAttribute("logicalScreenHeight"));
+                    }
+                    node = (IIOMetadataNode) node.getNextSibling();
+                }
+            }
+            // Only the metadata is parsed here, pixels are decoded on demand by the decoder
+            for (int i = 0; i < count; i ++) {
+                IIOMetadataNode node = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(METADATA_FORMAT_NAME).getFirstChild();
+                disposalModes[i] = Bitmap.DisposalMode.NONE;
+                // Transparent GIF pixels leave the previous canvas visible
+                blendModes[i] = Bitmap.BlendMode.OVER;
+                while (node != null) {
+                    switch (node.getNodeName()) {
+                        case "ImageDescriptor":
+                            hotSpots[i * 2] = Integer.parseInt(node.getAttribute("imageLeftPosition"));
+                            hotSpots[i * 2 + 1] = Integer.parseInt(node.getAttribute("imageTopPosition"));
+                            width = Math.max(width, hotSpots[i * 2] + Integer.parseInt(node.getAttribute("imageWidth")));
+                            height = Math.max(height, hotSpots[i * 2 + 1] + Integer.parseInt(node.getAttribute("imageHeight")));
+                            break;
+                        case "GraphicControlExtension":
+                            durations[i] = Integer.parseInt(node.getAttribute("delayTime")) * 10L;
+                            disposalModes[i] = parseDisposalMethod(node.getAttribute("disposalMethod"));
+                            break;
+                        case "ApplicationExtensions":
+                            IIOMetadataNode appExtNode = (IIOMetadataNode) node.getFirstChild();
+                            while (appExtNode != null) {
+                                if (appExtNode.getNodeName().equals("ApplicationExtension") &&
+                                        appExtNode.getAttribute("applicationID").equals("NETSCAPE") &&
+                                        appExtNode.getAttribute("authenticationCode").equals("2.0")) {
+                                    Object userObject = appExtNode.getUserObject();
+                                    if (userObject instanceof byte[]) {
+                                        loops = ByteBuffer.wrap((byte[]) userObject).getShort() - 1;
+                                    }
+                                }
+                                appExtNode = (IIOMetadataNode) appExtNode.getNextSibling();
+                            }
+                            break;
+                    }
+                    node = (IIOMetadataNode) node.getNextSibling();
+                }
+            }
+            LazyMultiFrame.Decoder decoder = new IIOFrameDecoder(reader, input, type, loops, width, height,
+                    hotSpots, durations, disposalModes, blendModes);
+            success = true;
+            return decoder;
+        }
+        finally {
+            if (!success) {
+                reader.dispose();
+                try {
+                    input.close();
+                }
+                catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
     @Override
     public boolean writeMultiFrame(Bitmap.MultiFrame frames, ImageOutputStream output, String format, float quality) throws IOException {
         if (!WRITER_FORMAT_NAMES.contains(format.toLowerCase(Locale.ENGLISH))) return false;
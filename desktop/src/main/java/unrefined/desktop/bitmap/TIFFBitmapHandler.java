@@ -2,8 +2,11 @@ package unrefined.desktop.bitmap;
 
 import unrefined.desktop.BitmapSupport;
 import unrefined.desktop.IIOBitmapHandler;
+import unrefined.desktop.IIOFrameDecoder;
 import unrefined.math.FastMath;
 import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Dimension;
+import unrefined.media.graphics.LazyMultiFrame;
 import unrefined.runtime.DesktopBitmap;
 
 import javax.imageio.IIOImage;
@@ -107,7 +110,12 @@ public class TIFFBitmapHandler extends IIOBitmapHandler {
     }
 
     @Override
-    public Bitmap read(ImageInputStream input, int type) throws IOException {
+    public Bitmap read(ImageInputStream input, int type, Bitmap.ReadOptions options) throws IOException {
+        return null;
+    }
+
+    @Override
+    public Dimension readSize(ImageInputStream input) throws IOException {
         return null;
     }
 
@@ -174,6 +182,80 @@ public class TIFFBitmapHandler extends IIOBitmapHandler {
         }
     }
 
+    @Override
+    public LazyMultiFrame.Decoder readFrameDecoder(ImageInputStream input, int type) throws IOException {
+        if (!isTIFF(input)) return null;
+        ImageReader reader = getTIFFImageReader();
+        if (reader == null) return null;
+        reader.setInput(input);
+        boolean success = false;
+        try {
+            int count = reader.getNumImages(true);
+            int[] hotSpots = new int[count * 2];
+            long[] durations = new long[count];
+            int[] disposalModes = new int[count];
+            int[] blendModes = new int[count];
+            int width = 0, height = 0;
+            IIOMetadataNode ifd;
+            IIOMetadataNode node;
+            String[] tmp;
+            long xrf, xrd, xpf, xpd, yrf, yrd, ypf, ypd;
+            xrf = xrd = xpf = xpd = yrf = yrd = ypf = ypd = 1;
+            // Only the metadata and image headers are parsed here, pixels are decoded on demand by the decoder
+            for (int i = 0; i < count; i ++) {
+                ifd = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(NATIVE_FORMAT_NAME).getFirstChild();
+                node = (IIOMetadataNode) ifd.getFirstChild();
+                while (node != null) {
+                    if ("TIFFField".equals(node.getNodeName())) {
+                        switch (Integer.parseInt(node.getAttribute("number"))) {
+                            case TAG_X_RESOLUTION:
+                                tmp = ((IIOMetadataNode) node.getFirstChild().getFirstChild()).getAttribute("value").split("/");
+                                xrf = Long.parseLong(tmp[0]);
+                                xrd = Long.parseLong(tmp[1]);
+                                break;
+                            case TAG_Y_RESOLUTION:
+                                tmp = ((IIOMetadataNode) node.getFirstChild().getFirstChild()).getAttribute("value").split("/");
+                                yrf = Long.parseLong(tmp[0]);
+                                yrd = Long.parseLong(tmp[1]);
+                                break;
+                            case TAG_X_POSITION:
+                                tmp = ((IIOMetadataNode) node.getFirstChild().getFirstChild()).getAttribute("value").split("/");
+                                xpf = Long.parseLong(tmp[0]);
+                                xpd = Long.parseLong(tmp[1]);
+                                break;
+                            case TAG_Y_POSITION:
+                                tmp = ((IIOMetadataNode) node.getFirstChild().getFirstChild()).getAttribute("value").split("/");
+                                ypf = Long.parseLong(tmp[0]);
+                                ypd = Long.parseLong(tmp[1]);
+                                break;
+                        }
+                    }
+                    node = (IIOMetadataNode) node.getNextSibling();
+                }
+                hotSpots[i * 2] = (int) (xpf * xrf / xpd / xrd);
+                hotSpots[i * 2 + 1] = (int) (ypf * yrf / ypd / yrd);
+                disposalModes[i] = Bitmap.DisposalMode.NONE;
+                blendModes[i] = Bitmap.BlendMode.SOURCE;
+                width = Math.max(width, hotSpots[i * 2] + reader.getWidth(i));
+                height = Math.max(height, hotSpots[i * 2 + 1] + reader.getHeight(i));
+            }
+            LazyMultiFrame.Decoder decoder = new IIOFrameDecoder(reader, input, type, 0, width, height,
+                    hotSpots, durations, disposalModes, blendModes);
+            success = true;
+            return decoder;
+        }
+        finally {
+            if (!success) {
+                reader.dispose();
+                try {
+                    input.close();
+                }
+                catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
     @Override
     public Bitmap.MultiFrame readMultiFrame(ImageInputStream input, int[] types, int typesOffset) throws IOException {
         if (!isTIFF(input)) return null;
@@ -3,6 +3,7 @@ package unrefined.desktop.bitmap;
 import unrefined.desktop.BitmapSupport;
 import unrefined.desktop.IIOBitmapHandler;
 import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Dimension;
 import unrefined.runtime.DesktopBitmap;
 
 import javax.imageio.IIOImage;
@@ -94,13 +95,13 @@ public class WBMPBitmapHandler extends IIOBitmapHandler {
     }
 
     @Override
-    public Bitmap read(ImageInputStream input, int type) throws IOException {
+    public Bitmap read(ImageInputStream input, int type, Bitmap.ReadOptions options) throws IOException {
         if (!isWBMP(input)) return null;
         ImageReader reader = getWBMPImageReader();
         if (reader == null) return null;
         reader.setInput(input, false, true);
         try {
-            return new DesktopBitmap(BitmapSupport.getImage(reader.read(0), type, true));
+            return new DesktopBitmap(BitmapSupport.getImage(reader.read(0, getImageReadParam(reader, 0, options)), type, true));
         }
         finally {
             reader.dispose();
@@ -112,6 +113,14 @@ public class WBMPBitmapHandler extends IIOBitmapHandler {
         }
     }
 
+    @Override
+    public Dimension readSize(ImageInputStream input) throws IOException {
+        if (!isWBMP(input)) return null;
+        ImageReader reader = getWBMPImageReader();
+        if (reader == null) return null;
+        return readSize(reader, input);
+    }
+
     @Override
     public boolean write(Bitmap bitmap, ImageOutputStream output, String format, float quality) throws IOException {
         if (!WRITER_FORMAT_NAMES.contains(format.toLowerCase(Locale.ENGLISH))) return false;
@@ -124,6 +124,12 @@ public class DesktopBitmap extends Bitmap {
         return bitmapType;
     }
 
+    @Override
+    public Bitmap convert(int type) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        return new DesktopBitmap(BitmapSupport.convertImage(bufferedImage, Bitmap.Type.checkValid(type)));
+    }
+
     @Override
     public Bitmap clone() {
         if (isDisposed()) throw new AlreadyDisposedException();
@@ -1,6 +1,7 @@
 package unrefined.runtime;
 
 import unrefined.desktop.BiRadialGradientPaint;
+import unrefined.desktop.SharedLinearGradientPaint;
 import unrefined.desktop.TransformedTexturePaint;
 import unrefined.media.graphics.Brush;
 
@@ -17,7 +18,7 @@ public class DesktopBrush extends Brush {
     public DesktopBrush(Paint paint) {
         this.paint = paint == null ? Color.BLACK : paint;
         if (this.paint instanceof Color) this.type = Type.COLOR;
-        else if (this.paint instanceof LinearGradientPaint) this.type = Type.LINEAR_GRADIENT;
+        else if (this.paint instanceof LinearGradientPaint || this.paint instanceof SharedLinearGradientPaint) this.type = Type.LINEAR_GRADIENT;
         else if (this.paint instanceof BiRadialGradientPaint) this.type = Type.RADIAL_GRADIENT;
         else if (this.paint instanceof TransformedTexturePaint) this.type = Type.BITMAP_PATTERN;
         else this.type = Type.CUSTOM;
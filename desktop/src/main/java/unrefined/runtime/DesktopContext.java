@@ -4,28 +4,48 @@ import unrefined.context.Container;
 import unrefined.context.ContextListener;
 import unrefined.desktop.AWTSupport;
 import unrefined.desktop.BitmapSupport;
+import unrefined.desktop.DirtyRegion;
 import unrefined.desktop.TransformedGraphics2D;
 import unrefined.media.graphics.Bitmap;
+import unrefined.util.FPSCounter;
 import unrefined.util.function.Slot;
 
 import javax.swing.JPanel;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.DisplayMode;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class DesktopContext extends DesktopEmbeddedContext {
 
     private final Object graphicsLock = new Object();
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+    private final DirtyRegion paintRegion = new DirtyRegion();
     private volatile DesktopGraphics graphics = null;
 
+    private static final int MAX_UPDATES_PER_FRAME = 5;
+    private final FPSCounter fpsCounter = new FPSCounter(1000);
+    private volatile RenderCanvas renderCanvas = null;
+    private volatile long updatePeriod = 1_000_000_000L / 60;
+    private volatile int frameRate = 0;
+    private volatile float interpolation = 1;
+
     public DesktopContext(Container container, ContextListener contextListener) {
         super(container, contextListener, new GraphicsComponent(false));
         GraphicsComponent component = (GraphicsComponent) getComponent();
@@ -97,10 +117,18 @@ public class DesktopContext extends DesktopEmbeddedContext {
                     int width = getWidth();
                     int height = getHeight();
                     if (width > 0 && height > 0) {
+                        dirtyRegion.drainTo(paintRegion);
                         graphics.setGraphics2D(new TransformedGraphics2D((Graphics2D) graphics2D.create(),
                                 graphics2D.getTransform(), graphics2D.getClip()));
-                        graphics.clearBackground(component.getBackground());
+                        Rectangle clipBounds = graphics2D.getClipBounds();
+                        DesktopPath damaged = null;
+                        if (isPartial(paintRegion, clipBounds)) {
+                            damaged = new DesktopPath(new Path2D.Float(clipBounds));
+                            graphics.clearBackground(component.getBackground(), damaged.getPath2D());
+                        }
+                        else graphics.clearBackground(component.getBackground());
                         graphics.reset();
+                        if (damaged != null) graphics.setClip(damaged);
                         try {
                             listener.onPaint(this, graphics, component.isPaintingForPrint());
                         }
@@ -113,11 +141,227 @@ public class DesktopContext extends DesktopEmbeddedContext {
         };
     }
 
+    // Swing repaints the union of the requested rectangles, so the whole clip is damaged, gaps included;
+    // it only counts as partial if nothing else (resize, expose, full request) asked for a repaint meanwhile
+    private static boolean isPartial(DirtyRegion region, Rectangle clipBounds) {
+        if (region.isEmpty() || region.isFull() || clipBounds == null) return false;
+        return region.getBounds().contains(clipBounds);
+    }
+
     @Override
     public void requestPaint() {
+        if (renderCanvas != null) return;
+        dirtyRegion.addAll();
         getGraphicsComponent().repaint();
     }
 
+    @Override
+    public void requestPaint(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0 || renderCanvas != null) return;
+        dirtyRegion.add(x, y, width, height);
+        getGraphicsComponent().repaint(x, y, width, height);
+    }
+
+    /**
+     * Switches between passive painting, driven by {@link #requestPaint()} through Swing,
+     * and active rendering, where a dedicated thread draws every frame through a page-flipping {@link BufferStrategy}.
+     * In active mode {@link ContextListener#onUpdate} and {@link ContextListener#onPaint} are called on the render thread.
+     */
+    public void setActiveRendering(boolean activeRendering) {
+        if (!EventQueue.isDispatchThread()) {
+            EventQueue.invokeLater(() -> setActiveRendering(activeRendering));
+            return;
+        }
+        GraphicsComponent component = getGraphicsComponent();
+        if (activeRendering) {
+            if (renderCanvas != null) return;
+            RenderCanvas canvas = new RenderCanvas();
+            canvas.setBounds(0, 0, component.getWidth(), component.getHeight());
+            component.content.setVisible(false);
+            renderCanvas = canvas;
+            component.add(canvas);
+            component.revalidate();
+        }
+        else {
+            RenderCanvas canvas = renderCanvas;
+            if (canvas == null) return;
+            component.remove(canvas);
+            renderCanvas = null;
+            interpolation = 1;
+            component.content.setVisible(true);
+            component.revalidate();
+            requestPaint();
+        }
+    }
+
+    public boolean isActiveRendering() {
+        return renderCanvas != null;
+    }
+
+    /**
+     * Sets the rate of fixed-step updates in active mode, independent of the frame rate.
+     */
+    public void setUpdateRate(int updatesPerSecond) {
+        if (updatesPerSecond <= 0) throw new IllegalArgumentException("updatesPerSecond <= 0");
+        updatePeriod = 1_000_000_000L / updatesPerSecond;
+    }
+
+    public int getUpdateRate() {
+        return (int) (1_000_000_000L / updatePeriod);
+    }
+
+    /**
+     * Sets the target frame rate in active mode; 0 paces frames to the refresh rate of the display.
+     */
+    public void setFrameRate(int framesPerSecond) {
+        if (framesPerSecond < 0) throw new IllegalArgumentException("framesPerSecond < 0");
+        frameRate = framesPerSecond;
+    }
+
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Returns the counter updated by the render thread on every frame shown in active mode.
+     * Like {@link FPSCounter} itself it is not thread-safe, query it from {@link ContextListener#onPaint}.
+     */
+    public FPSCounter getFPSCounter() {
+        return fpsCounter;
+    }
+
+    @Override
+    public float getInterpolation() {
+        return interpolation;
+    }
+
+    private final class RenderCanvas extends Canvas implements Runnable {
+
+        private static final long serialVersionUID = 5391473306452018376L;
+
+        private volatile Thread thread;
+
+        public RenderCanvas() {
+            setIgnoreRepaint(true);
+            setFocusable(false);
+            enableInputMethods(false);
+            // The heavyweight canvas covers the context component, so pointer events have to be forwarded
+            addMouseListener(DesktopContext.this);
+            addMouseMotionListener(DesktopContext.this);
+            addMouseWheelListener(DesktopContext.this);
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            createBufferStrategy(2);
+            fpsCounter.reset();
+            Thread thread = new Thread(this, "DesktopContext Render Thread");
+            thread.setDaemon(true);
+            this.thread = thread;
+            thread.start();
+        }
+
+        @Override
+        public void removeNotify() {
+            Thread thread = this.thread;
+            this.thread = null;
+            // Only signalled: joining here, on the event dispatch thread under the tree lock,
+            // would stall as long as the render thread waits for that lock or the buffer strategy
+            if (thread != null) LockSupport.unpark(thread);
+            super.removeNotify();
+        }
+
+        @Override
+        public void run() {
+            BufferStrategy strategy = getBufferStrategy();
+            long previous = System.nanoTime();
+            long deadline = previous;
+            long accumulator = 0;
+            while (thread == Thread.currentThread()) {
+                long period = updatePeriod;
+                long now = System.nanoTime();
+                // Drop the backlog after a stall rather than running a burst of catch-up updates
+                accumulator = Math.min(accumulator + now - previous, period * MAX_UPDATES_PER_FRAME);
+                previous = now;
+                ContextListener listener = listener();
+                while (accumulator >= period) {
+                    if (listener != null) listener.onUpdate(DesktopContext.this, period / 1_000_000_000f);
+                    accumulator -= period;
+                }
+                interpolation = (float) accumulator / period;
+                try {
+                    if (render(strategy, listener)) fpsCounter.update();
+                }
+                catch (RuntimeException e) {
+                    // The peer and its buffer strategy went away under the last frame
+                    if (thread == Thread.currentThread()) throw e;
+                    else break;
+                }
+                deadline = pace(deadline);
+            }
+        }
+
+        private boolean render(BufferStrategy strategy, ContextListener listener) {
+            int width = getWidth();
+            int height = getHeight();
+            if (listener == null || width <= 0 || height <= 0) return false;
+            do {
+                do {
+                    Graphics2D graphics2D = (Graphics2D) strategy.getDrawGraphics();
+                    synchronized (graphicsLock) {
+                        if (graphics == null) {
+                            graphics2D.dispose();
+                            return false;
+                        }
+                        Color background = getGraphicsComponent().getBackground();
+                        // Pages are opaque, a translucent background clears to its color channels
+                        graphics2D.setBackground(background);
+                        graphics2D.clearRect(0, 0, width, height);
+                        graphics.setGraphics2D(new TransformedGraphics2D(graphics2D, graphics2D.getTransform(), null));
+                        graphics.reset();
+                        try {
+                            listener.onPaint(DesktopContext.this, graphics, false);
+                        }
+                        finally {
+                            graphics.cleanup();
+                        }
+                    }
+                }
+                while (strategy.contentsRestored());
+                strategy.show();
+            }
+            while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            return true;
+        }
+
+        private long pace(long deadline) {
+            long period = 1_000_000_000L / (frameRate > 0 ? frameRate : getRefreshRate());
+            long now = System.nanoTime();
+            deadline += period;
+            // Fell behind by more than a frame: restart the cadence instead of rendering back-to-back
+            if (now - deadline > period) return now;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0 && thread == Thread.currentThread()) {
+                // Sleep coarsely, then yield through the last millisecond to hit the deadline precisely
+                if (remaining > 2_000_000) LockSupport.parkNanos(remaining - 1_000_000);
+                else Thread.yield();
+            }
+            return deadline;
+        }
+
+        private int getRefreshRate() {
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            if (configuration != null) {
+                int refreshRate = configuration.getDevice().getDisplayMode().getRefreshRate();
+                if (refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN && refreshRate > 0) return refreshRate;
+            }
+            return 60;
+        }
+
+    }
+
     @Override
     public void requestSnapshot() {
         if (graphics == null) return;
@@ -147,10 +391,11 @@ public class DesktopContext extends DesktopEmbeddedContext {
         private volatile Runnable onCreate;
         private volatile Runnable onDispose;
         private volatile Slot<Graphics2D> onPaint;
+        private final JPanel content;
 
         public GraphicsComponent(boolean isDoubleBuffered) {
             super(null, isDoubleBuffered);
-            JPanel content = new JPanel(null, isDoubleBuffered) {
+            content = new JPanel(null, isDoubleBuffered) {
                 @Override
                 protected void paintComponent(Graphics g) {
                     super.paintComponent(g);
@@ -167,7 +412,9 @@ public class DesktopContext extends DesktopEmbeddedContext {
             addComponentListener(new ComponentAdapter() {
                 @Override
                 public void componentResized(ComponentEvent e) {
-                    content.setSize(e.getComponent().getWidth(), e.getComponent().getHeight());
+                    for (Component child : getComponents()) {
+                        child.setSize(e.getComponent().getWidth(), e.getComponent().getHeight());
+                    }
                 }
             });
             add(content);
@@ -6,6 +6,7 @@ import unrefined.desktop.CursorSupport;
 import unrefined.desktop.ExtendedComposite;
 import unrefined.desktop.ExtendedPaint;
 import unrefined.desktop.FontSupport;
+import unrefined.desktop.SharedLinearGradientPaint;
 import unrefined.desktop.TransformedTexturePaint;
 import unrefined.desktop.bitmap.BMPBitmapHandler;
 import unrefined.desktop.bitmap.GIFBitmapHandler;
@@ -28,7 +29,6 @@ import unrefined.util.function.IntBiOperator;
 
 import java.awt.Color;
 import java.awt.GraphicsEnvironment;
-import java.awt.LinearGradientPaint;
 import java.awt.Point;
 import java.io.File;
 import java.io.IOException;
@@ -64,7 +64,7 @@ public class DesktopDrawing extends Drawing {
     public Brush createBrush(float x1, float y1, float x2, float y2,
                              float[] stops, int stopsOffset, int[] colors, int colorsOffset, int length,
                              int tileMode) {
-        return new DesktopBrush(new LinearGradientPaint(x1, y1, x2, y2,
+        return new DesktopBrush(new SharedLinearGradientPaint(x1, y1, x2, y2,
                 Arrays.copyOfRange(stops, stopsOffset, stopsOffset + length),
                 AWTSupport.toColors(colors, colorsOffset, length),
                 AWTSupport.toCycleMethod(tileMode)));
@@ -72,7 +72,7 @@ public class DesktopDrawing extends Drawing {
 
     @Override
     public Brush createBrush(float x1, float y1, float x2, float y2, float[] stops, int[] colors, int tileMode) {
-        return new DesktopBrush(new LinearGradientPaint(x1, y1, x2, y2, stops, AWTSupport.toColors(colors), AWTSupport.toCycleMethod(tileMode)));
+        return new DesktopBrush(new SharedLinearGradientPaint(x1, y1, x2, y2, stops, AWTSupport.toColors(colors), AWTSupport.toCycleMethod(tileMode)));
     }
 
     @Override
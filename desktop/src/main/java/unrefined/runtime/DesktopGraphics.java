@@ -8,6 +8,7 @@ import unrefined.desktop.CleanerSupport;
 import unrefined.desktop.DropShadow;
 import unrefined.desktop.FontSupport;
 import unrefined.desktop.TextHints;
+import unrefined.desktop.TextLayoutCache;
 import unrefined.desktop.TextPathLayout;
 import unrefined.desktop.TransformedGraphics2D;
 import unrefined.media.graphics.Bitmap;
@@ -48,7 +49,6 @@ import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.text.AttributedCharacterIterator;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -80,6 +80,12 @@ public class DesktopGraphics extends Graphics {
         graphics2D.fillRect(0, 0, width, height);
     }
 
+    void clearBackground(Color color, Shape area) {
+        graphics2D.setBackground(color);
+        graphics2D.setColor(color);
+        graphics2D.fill(area);
+    }
+
     void setGraphics2D(Graphics2D graphics2D) {
         cleanup();
         this.graphics2D = graphics2D;
@@ -102,6 +108,15 @@ public class DesktopGraphics extends Graphics {
         this(image.createGraphics(), image.getWidth(), image.getHeight());
     }
 
+    // Reused by the primitive draw methods; drawShape consumes them before returning
+    private final Line2D.Float line = new Line2D.Float();
+    private final QuadCurve2D.Float quadCurve = new QuadCurve2D.Float();
+    private final CubicCurve2D.Float cubicCurve = new CubicCurve2D.Float();
+    private final Arc2D.Float arc = new Arc2D.Float(Arc2D.OPEN);
+    private final Ellipse2D.Float ellipse = new Ellipse2D.Float();
+    private final Rectangle2D.Float rectangle = new Rectangle2D.Float();
+    private final RoundRectangle2D.Float roundRectangle = new RoundRectangle2D.Float();
+
     private final Set<DesktopGraphics> subgraphics = new ConcurrentHashSet<>();
     private volatile DesktopGraphics attachment;
 
@@ -215,47 +230,114 @@ public class DesktopGraphics extends Graphics {
 
     @Override
     public void drawPoint(float x, float y) {
-        drawShape(new Line2D.Float(x, y, x, y));
+        if (isDisposed()) throw new AlreadyDisposedException();
+        drawLineShape(x, y, x, y);
+    }
+
+    @Override
+    public void drawPoints(float[] points, int offset, int count) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (info.getStyle() == Style.FILL) return;
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 2;
+            drawLineShape(points[index], points[index + 1], points[index], points[index + 1]);
+        }
     }
 
     @Override
     public void drawLine(float x1, float y1, float x2, float y2) {
-        drawShape(new Line2D.Float(x1, y1, x2, y2));
+        if (isDisposed()) throw new AlreadyDisposedException();
+        drawLineShape(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawLines(float[] lines, int offset, int count) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (info.getStyle() == Style.FILL) return;
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 4;
+            drawLineShape(lines[index], lines[index + 1], lines[index + 2], lines[index + 3]);
+        }
+    }
+
+    // A filled line has no area, only stroked lines produce pixels
+    private void drawLineShape(float x1, float y1, float x2, float y2) {
+        if (info.getStyle() == Style.FILL) return;
+        if (info.getShadowColor() == unrefined.media.graphics.Color.TRANSPARENT
+                && isIntegral(x1) && isIntegral(y1) && isIntegral(x2) && isIntegral(y2)) {
+            graphics2D.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
+        }
+        else {
+            line.setLine(x1, y1, x2, y2);
+            drawShape(line);
+        }
+    }
+
+    private static boolean isIntegral(float value) {
+        return value == (int) value;
     }
 
     @Override
     public void drawQuadLine(float x1, float y1, float cx1, float cy1, float x2, float y2) {
-        drawShape(new QuadCurve2D.Float(x1, y1, cx1, cy1, x2, y2));
+        quadCurve.setCurve(x1, y1, cx1, cy1, x2, y2);
+        drawShape(quadCurve);
     }
 
     @Override
     public void drawCubicLine(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2) {
-        drawShape(new CubicCurve2D.Float(x1, y1, cx1, cy1, cx2, cy2, x2, y2));
+        cubicCurve.setCurve(x1, y1, cx1, cy1, cx2, cy2, x2, y2);
+        drawShape(cubicCurve);
     }
 
     @Override
     public void drawArc(float x, float y, float width, float height, float startAngle, float sweepAngle) {
-        drawShape(new Arc2D.Float(x, y, width, height, startAngle, sweepAngle, Arc2D.OPEN));
+        arc.setArc(x, y, width, height, startAngle, sweepAngle, Arc2D.OPEN);
+        drawShape(arc);
     }
 
     @Override
     public void drawCircle(float x, float y, float radius) {
-        drawShape(new Ellipse2D.Float(x - radius, y - radius, radius * 2, radius * 2));
+        ellipse.setFrame(x - radius, y - radius, radius * 2, radius * 2);
+        drawShape(ellipse);
     }
 
     @Override
     public void drawEllipse(float x, float y, float width, float height) {
-        drawShape(new Ellipse2D.Float(x, y, width, height));
+        ellipse.setFrame(x, y, width, height);
+        drawShape(ellipse);
     }
 
     @Override
     public void drawRectangle(float x, float y, float width, float height) {
-        drawShape(new Rectangle2D.Float(x, y, width, height));
+        if (isDisposed()) throw new AlreadyDisposedException();
+        drawRectangleShape(x, y, width, height);
+    }
+
+    @Override
+    public void drawRectangles(float[] rectangles, int offset, int count) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        for (int i = 0; i < count; i ++) {
+            int index = offset + i * 4;
+            drawRectangleShape(rectangles[index], rectangles[index + 1], rectangles[index + 2], rectangles[index + 3]);
+        }
+    }
+
+    private void drawRectangleShape(float x, float y, float width, float height) {
+        if (info.getShadowColor() == unrefined.media.graphics.Color.TRANSPARENT
+                && isIntegral(x) && isIntegral(y) && isIntegral(width) && isIntegral(height)) {
+            if (info.getStyle() == Style.FILL) graphics2D.fillRect((int) x, (int) y, (int) width, (int) height);
+            else graphics2D.drawRect((int) x, (int) y, (int) width, (int) height);
+        }
+        else {
+            rectangle.setRect(x, y, width, height);
+            drawShape(rectangle);
+        }
     }
 
     @Override
     public void drawRoundRectangle(float x, float y, float width, float height, float rx, float ry) {
-        drawShape(new RoundRectangle2D.Float(x, y, width, height, rx, ry));
+        roundRectangle.setRoundRect(x, y, width, height, rx, ry);
+        drawShape(roundRectangle);
     }
 
     @Override
@@ -271,6 +353,55 @@ public class DesktopGraphics extends Graphics {
         graphics2D.drawRenderedImage(((DesktopBitmap) bitmap).getBufferedImage(), AffineTransform.getTranslateInstance(x, y));
     }
 
+    @Override
+    public void drawBitmap(Bitmap bitmap, int srcX, int srcY, int srcWidth, int srcHeight,
+                           float dstX, float dstY, float dstWidth, float dstHeight) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        BufferedImage image = ((DesktopBitmap) bitmap).getBufferedImage();
+        AffineTransform transform = graphics2D.getTransform();
+        try {
+            drawImageRegion(image, srcX, srcY, srcWidth, srcHeight, dstX, dstY, dstWidth, dstHeight, transform);
+        }
+        finally {
+            graphics2D.setTransform(transform);
+        }
+    }
+
+    @Override
+    public void drawBitmapBatch(Bitmap bitmap, int[] srcRects, int srcRectsOffset, float[] dstRects, int dstRectsOffset, int count) {
+        if (isDisposed()) throw new AlreadyDisposedException();
+        if (count < 1) return;
+        // Single state setup for the whole batch: resolve the image and the base transform once
+        BufferedImage image = ((DesktopBitmap) bitmap).getBufferedImage();
+        AffineTransform transform = graphics2D.getTransform();
+        try {
+            for (int i = 0; i < count; i ++) {
+                int srcIndex = srcRectsOffset + i * 4;
+                int dstIndex = dstRectsOffset + i * 4;
+                drawImageRegion(image, srcRects[srcIndex], srcRects[srcIndex + 1], srcRects[srcIndex + 2], srcRects[srcIndex + 3],
+                        dstRects[dstIndex], dstRects[dstIndex + 1], dstRects[dstIndex + 2], dstRects[dstIndex + 3], transform);
+            }
+        }
+        finally {
+            graphics2D.setTransform(transform);
+        }
+    }
+
+    private void drawImageRegion(BufferedImage image, int srcX, int srcY, int srcWidth, int srcHeight,
+                                 float dstX, float dstY, float dstWidth, float dstHeight, AffineTransform transform) {
+        int x = (int) dstX, y = (int) dstY, width = (int) dstWidth, height = (int) dstHeight;
+        if (x == dstX && y == dstY && width == dstWidth && height == dstHeight) {
+            graphics2D.drawImage(image, x, y, x + width, y + height, srcX, srcY, srcX + srcWidth, srcY + srcHeight, null);
+        }
+        else {
+            // Sub-pixel placement or scaling; adjust the transform in place and restore it without allocating
+            graphics2D.translate(dstX, dstY);
+            graphics2D.scale(dstWidth / srcWidth, dstHeight / srcHeight);
+            graphics2D.drawImage(image, 0, 0, srcWidth, srcHeight, srcX, srcY, srcX + srcWidth, srcY + srcHeight, null);
+            graphics2D.setTransform(transform);
+        }
+    }
+
     @Override
     public void drawBitmapFrame(Bitmap.Frame frame, Transform transform) {
         if (isDisposed()) throw new AlreadyDisposedException();
@@ -306,6 +437,11 @@ public class DesktopGraphics extends Graphics {
     }
 
     public void drawText(AttributedCharSequence sequence, TextLayout textLayout, AffineTransform transform, List<Object[]> backgroundList, List<Object[]> foregroundList) {
+        drawText(sequence, textLayout, transform, backgroundList, foregroundList, null);
+    }
+
+    private void drawText(AttributedCharSequence sequence, TextLayout textLayout, AffineTransform transform, List<Object[]> backgroundList, List<Object[]> foregroundList,
+                          TextLayoutCache.Entry entry) {
         AffineTransform originalTransform = graphics2D.getTransform();
         graphics2D.transform(transform);
         try {
@@ -324,13 +460,17 @@ public class DesktopGraphics extends Graphics {
                 Paint originalPaint = graphics2D.getPaint();
                 if (drawBackground) {
                     graphics2D.setColor(AWTSupport.TRANSPARENT);
-                    AttributedCharSequence backgroundSequence = sequence.clone();
-                    if (info.getTextBackground() != null) backgroundSequence.addAttribute(TextAttribute.BACKGROUND, ((DesktopBrush) info.getTextBackground()).getPaint());
                     try {
-                        for (Object[] backgroundEntry : backgroundList) {
-                            backgroundSequence.addAttribute(TextAttribute.BACKGROUND, backgroundEntry[0], (Integer) backgroundEntry[1], (Integer) backgroundEntry[2]);
+                        TextLayout backgroundTextLayout = entry == null ? null : entry.getBackgroundTextLayout();
+                        if (backgroundTextLayout == null) {
+                            AttributedCharSequence backgroundSequence = sequence.clone();
+                            if (info.getTextBackground() != null) backgroundSequence.addAttribute(TextAttribute.BACKGROUND, ((DesktopBrush) info.getTextBackground()).getPaint());
+                            for (Object[] backgroundEntry : backgroundList) {
+                                backgroundSequence.addAttribute(TextAttribute.BACKGROUND, backgroundEntry[0], (Integer) backgroundEntry[1], (Integer) backgroundEntry[2]);
+                            }
+                            backgroundTextLayout = new TextLayout(backgroundSequence.getIterator(), graphics2D.getFontRenderContext());
+                            if (entry != null) entry.setBackgroundTextLayout(backgroundTextLayout);
                         }
-                        TextLayout backgroundTextLayout = new TextLayout(backgroundSequence.getIterator(), graphics2D.getFontRenderContext());
                         backgroundTextLayout.draw(graphics2D, baseX, 0);
                     }
                     finally {
@@ -340,13 +480,17 @@ public class DesktopGraphics extends Graphics {
                 drawTextWithShadow(textLayout, baseX);
                 if (drawForeground) {
                     graphics2D.setColor(AWTSupport.TRANSPARENT);
-                    AttributedCharSequence foregroundSequence = sequence.clone();
-                    if (info.getTextForeground() != null) foregroundSequence.addAttribute(TextAttribute.BACKGROUND, ((DesktopBrush) info.getTextForeground()).getPaint());
                     try {
-                        for (Object[] foregroundEntry : foregroundList) {
-                            foregroundSequence.addAttribute(TextAttribute.BACKGROUND, foregroundEntry[0], (Integer) foregroundEntry[1], (Integer) foregroundEntry[2]);
+                        TextLayout foregroundTextLayout = entry == null ? null : entry.getForegroundTextLayout();
+                        if (foregroundTextLayout == null) {
+                            AttributedCharSequence foregroundSequence = sequence.clone();
+                            if (info.getTextForeground() != null) foregroundSequence.addAttribute(TextAttribute.BACKGROUND, ((DesktopBrush) info.getTextForeground()).getPaint());
+                            for (Object[] foregroundEntry : foregroundList) {
+                                foregroundSequence.addAttribute(TextAttribute.BACKGROUND, foregroundEntry[0], (Integer) foregroundEntry[1], (Integer) foregroundEntry[2]);
+                            }
+                            foregroundTextLayout = new TextLayout(foregroundSequence.getIterator(), graphics2D.getFontRenderContext());
+                            if (entry != null) entry.setForegroundTextLayout(foregroundTextLayout);
                         }
-                        TextLayout foregroundTextLayout = new TextLayout(foregroundSequence.getIterator(), graphics2D.getFontRenderContext());
                         foregroundTextLayout.draw(graphics2D, baseX, 0);
                     }
                     finally {
@@ -411,24 +555,34 @@ public class DesktopGraphics extends Graphics {
         if (transform == null) transform = new AffineTransform();
 
         if (text instanceof Text && !((Text) text).spanMarks().isEmpty()) {
-
-            List<Object[]> backgroundList = new ArrayList<>();
-            List<Object[]> foregroundList = new ArrayList<>();
-
-            AttributedCharSequence sequence = AWTSupport.toAttributedCharSequence((Text) text, start, end, this, backgroundList, foregroundList);
-
-            AttributedCharacterIterator iterator = sequence.getIterator();
-            TextLayout textLayout = new TextLayout(iterator, graphics2D.getFontRenderContext());
-            drawText(sequence, textLayout, transform, backgroundList, foregroundList);
+            TextLayoutCache.Entry entry = TextLayoutCache.getEntry((Text) text, start, end, this);
+            drawText(entry.getSequence(), entry.getTextLayout(), transform, entry.getBackgroundList(), entry.getForegroundList(), entry);
         }
         else {
+            TextLayoutCache.Entry entry = TextLayoutCache.getEntry(text, start, end, graphics2D.getFont(), graphics2D.getFontRenderContext());
+            if (end - start > TextLayoutCache.getGlyphBitmapMaxLength() || !drawGlyphBitmap(entry, transform))
+                drawText(entry.getTextLayout(), transform);
+        }
+    }
 
-            TextLayout textLayout = new TextLayout(
-                    new AttributedCharSequence(text.subSequence(start, end), graphics2D.getFont().getAttributes()).getIterator(),
-                    graphics2D.getFontRenderContext());
-            drawText(textLayout, transform);
-
+    private boolean drawGlyphBitmap(TextLayoutCache.Entry entry, AffineTransform transform) {
+        if (info.getTextBackground() != null || info.getTextForeground() != null) return false;
+        if (info.getShadowColor() != unrefined.media.graphics.Color.TRANSPARENT || info.getStyle() == Style.STROKE) return false;
+        if ((transform.getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) return false;
+        if ((graphics2D.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) != 0) return false;
+        Paint paint = graphics2D.getPaint();
+        if (!(paint instanceof Color)) return false;
+        TextLayoutCache.GlyphBitmap glyphBitmap = entry.getGlyphBitmap((Color) paint, graphics2D.getRenderingHints());
+        TextLayout textLayout = entry.getTextLayout();
+        float baseX = 0;
+        switch (info.getTextAlignment()) {
+            case Text.Alignment.END: baseX -= textLayout.getAdvance(); break;
+            case Text.Alignment.MIDDLE: baseX -= textLayout.getAdvance() / 2; break;
         }
+        graphics2D.drawImage(glyphBitmap.getImage(),
+                Math.round((float) transform.getTranslateX() + baseX) + glyphBitmap.getX(),
+                Math.round((float) transform.getTranslateY()) + glyphBitmap.getY(), null);
+        return true;
     }
 
     private void drawTextWithShadow(TextLayout textLayout, float baseX) {
@@ -507,7 +661,7 @@ public class DesktopGraphics extends Graphics {
         else glyphVector = graphics2D.getFont()
                 .layoutGlyphVector(graphics2D.getFontRenderContext(), text, offset, offset + length,
                         FontSupport.toFontLayout(info.getTextDirection()));
-        Shape textOnPath = TextPathLayout.layoutGlyphVector(glyphVector, ((DesktopPath) path).getPath2D(),
+        Shape textOnPath = TextPathLayout.layoutGlyphVector(glyphVector, ((DesktopPath) path).getMeasuredPath(),
                 info.getTextAlignment(), startOffset, (float) glyphVector.getVisualBounds().getWidth(), TextPathLayout.ADJUST_SPACING);
         if (transform == null) drawShape(textOnPath);
         else drawShape(transform.createTransformedShape(textOnPath));
@@ -527,7 +681,7 @@ public class DesktopGraphics extends Graphics {
             bounds2D = fontMetrics.getStringBounds(string.array(), start, end, graphics2D);
         }
         else if (text instanceof Text) {
-            bounds2D = fontMetrics.getStringBounds(AWTSupport.toAttributedCharSequence((Text) text, this).getIterator(), start, end, graphics2D);
+            bounds2D = fontMetrics.getStringBounds(CharSequences.toCharArray(text, start, end), 0, end - start, graphics2D);
         }
         else {
             AttributedCharacterIterator iterator = new AttributedCharSequence(text).getIterator();
@@ -561,9 +715,9 @@ public class DesktopGraphics extends Graphics {
             bounds2D = fontMetrics.getStringBounds(string.array(), start, end, graphics2D);
         }
         else if (text instanceof Text) {
-            AttributedCharacterIterator iterator = AWTSupport.toAttributedCharSequence((Text) text, this).getIterator();
-            lineMetrics = fontMetrics.getLineMetrics(iterator, start, end, graphics2D);
-            bounds2D = fontMetrics.getStringBounds(iterator, start, end, graphics2D);
+            char[] chars = CharSequences.toCharArray(text, start, end);
+            lineMetrics = fontMetrics.getLineMetrics(chars, 0, chars.length, graphics2D);
+            bounds2D = fontMetrics.getStringBounds(chars, 0, chars.length, graphics2D);
         }
         else {
             AttributedCharacterIterator iterator = new AttributedCharSequence(text).getIterator();
@@ -590,7 +744,8 @@ public class DesktopGraphics extends Graphics {
             lineMetrics = fontMetrics.getLineMetrics(string.array(), start, end, graphics2D);
         }
         else if (text instanceof Text) {
-            lineMetrics = fontMetrics.getLineMetrics(AWTSupport.toAttributedCharSequence((Text) text, this).getIterator(), start, end, graphics2D);
+            char[] chars = CharSequences.toCharArray(text, start, end);
+            lineMetrics = fontMetrics.getLineMetrics(chars, 0, chars.length, graphics2D);
         }
         else {
             AttributedCharacterIterator iterator = new AttributedCharSequence(text).getIterator();
@@ -615,7 +770,7 @@ public class DesktopGraphics extends Graphics {
             bounds2D = fontMetrics.getStringBounds(string.array(), start, end, graphics2D);
         }
         else if (text instanceof Text) {
-            bounds2D = fontMetrics.getStringBounds(AWTSupport.toAttributedCharSequence((Text) text, this).getIterator(), start, end, graphics2D);
+            bounds2D = fontMetrics.getStringBounds(CharSequences.toCharArray(text, start, end), 0, end - start, graphics2D);
         }
         else {
             AttributedCharacterIterator iterator = new AttributedCharSequence(text).getIterator();
@@ -657,9 +812,7 @@ public class DesktopGraphics extends Graphics {
     @Override
     public void hitText(CharSequence text, int start, int end, float xOffset, float yOffset, Text.HitInfo hitInfo) {
         if (isDisposed()) throw new AlreadyDisposedException();
-        TextLayout textLayout = new TextLayout(
-                new AttributedCharSequence(text.subSequence(start, end), graphics2D.getFont().getAttributes()).getIterator(),
-                graphics2D.getFontRenderContext());
+        TextLayout textLayout = TextLayoutCache.getEntry(text, start, end, graphics2D.getFont(), graphics2D.getFontRenderContext()).getTextLayout();
         TextHitInfo textHitInfo = textLayout.hitTestChar(xOffset, yOffset);
         int insertionIndex = textHitInfo.getInsertionIndex();
         Rectangle2D bounds = textLayout.getBounds();
@@ -1,6 +1,7 @@
 package unrefined.runtime;
 
 import unrefined.desktop.AWTSupport;
+import unrefined.desktop.MeasuredPath;
 import unrefined.media.graphics.Path;
 import unrefined.media.graphics.PointF;
 import unrefined.media.graphics.Rectangle;
@@ -14,6 +15,7 @@ import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.QuadCurve2D;
 import java.awt.geom.Rectangle2D;
@@ -24,6 +26,7 @@ import static java.awt.geom.Path2D.WIND_NON_ZERO;
 public class DesktopPath extends Path {
 
     private volatile Path2D.Float path2D;
+    private volatile MeasuredPath measuredPath;
 
     public DesktopPath(Path2D.Float path2D) {
         this.path2D = path2D == null ? new Path2D.Float() : path2D;
@@ -41,105 +44,181 @@ public class DesktopPath extends Path {
         return path2D;
     }
 
+    /**
+     * Returns the flattened and measured path, computed once and kept until the path is modified.
+     * Modifying the {@link #getPath2D() Path2D} directly requires {@link #invalidateMeasuredPath()}.
+     */
+    public MeasuredPath getMeasuredPath() {
+        MeasuredPath measuredPath = this.measuredPath;
+        if (measuredPath == null) {
+            measuredPath = new MeasuredPath(path2D);
+            this.measuredPath = measuredPath;
+        }
+        return measuredPath;
+    }
+
+    public void invalidateMeasuredPath() {
+        measuredPath = null;
+    }
+
     @Override
     public void addPath(Path path, Transform transform) {
         if (transform == null) path2D.append(((DesktopPath) path).path2D, false);
         else path2D.append(((DesktopTransform) transform).getAffineTransform().createTransformedShape(((DesktopPath) path).path2D), false);
+        measuredPath = null;
     }
 
     @Override
     public void addPoint(float x, float y) {
         path2D.append(new Line2D.Float(x, y, x, y), false);
+        measuredPath = null;
     }
 
     @Override
     public void addLine(float x1, float y1, float x2, float y2) {
         path2D.append(new Line2D.Float(x1, y1, x2, y2), false);
+        measuredPath = null;
     }
 
     @Override
     public void addQuadLine(float x1, float y1, float cx, float cy, float x2, float y2) {
         path2D.append(new QuadCurve2D.Float(x1, y1, cx, cy, x2, y2), false);
+        measuredPath = null;
     }
 
     @Override
     public void addCubicLine(float x1, float y1, float cx1, float cy1, float cx2, float cy2, float x2, float y2) {
         path2D.append(new CubicCurve2D.Float(x1, y1, cx1, cy1, cx2, cy2, x2, y2), false);
+        measuredPath = null;
     }
 
     @Override
     public void addArc(float x, float y, float width, float height, float startAngle, float sweepAngle) {
         path2D.append(new Arc2D.Float(x, y, width, height, startAngle, sweepAngle, Arc2D.OPEN), false);
+        measuredPath = null;
     }
 
     @Override
     public void addCircle(float x, float y, float radius) {
         path2D.append(new Ellipse2D.Float(x - radius, y - radius, radius * 2, radius * 2), false);
+        measuredPath = null;
     }
 
     @Override
     public void addEllipse(float x, float y, float width, float height) {
         path2D.append(new Ellipse2D.Float(x, y, width, height), false);
+        measuredPath = null;
     }
 
     @Override
     public void addRectangle(float x, float y, float width, float height) {
         path2D.append(new Rectangle2D.Float(x, y, width, height), false);
+        measuredPath = null;
     }
 
     @Override
     public void addRoundRectangle(float x, float y, float width, float height, float rx, float ry) {
         path2D.append(new RoundRectangle2D.Float(x, y, width, height, rx, ry), false);
+        measuredPath = null;
     }
 
     @Override
     public void moveTo(float x, float y) {
         path2D.moveTo(x, y);
+        measuredPath = null;
     }
 
     @Override
     public void lineTo(float x, float y) {
         path2D.lineTo(x, y);
+        measuredPath = null;
     }
 
     @Override
     public void quadTo(float cx, float cy, float x, float y) {
         path2D.quadTo(cx, cy, x, y);
+        measuredPath = null;
     }
 
     @Override
     public void cubicTo(float cx1, float cy1, float cx2, float cy2, float x, float y) {
         path2D.curveTo(cx1, cy1, cx2, cy2, x, y);
+        measuredPath = null;
+    }
+
+    @Override
+    public void addPolyline(float[] points, int offset, int count, boolean close) {
+        if (count < 1) return;
+        path2D.append(new ArrayPathIterator(null, 0, points, offset, count, close, path2D.getWindingRule()), false);
+        measuredPath = null;
+    }
+
+    @Override
+    public void addSegments(byte[] types, int typesOffset, float[] coords, int coordsOffset, int count) {
+        if (count < 1) return;
+        path2D.append(new ArrayPathIterator(types, typesOffset, coords, coordsOffset, count, false, path2D.getWindingRule()), false);
+        measuredPath = null;
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return AWTSupport.getNumTypes(path2D);
+    }
+
+    @Override
+    public int getCoordCount() {
+        return AWTSupport.getNumCoords(path2D);
+    }
+
+    @Override
+    public int getSegments(byte[] types, int typesOffset, float[] coords, int coordsOffset) {
+        // Path2D segment types have the same values as Path.SegmentType
+        float[] segment = new float[6];
+        int count = 0;
+        for (PathIterator iterator = path2D.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            int type = iterator.currentSegment(segment);
+            types[typesOffset + count] = (byte) type;
+            int coordCount = SegmentType.getCoordCount(type);
+            System.arraycopy(segment, 0, coords, coordsOffset, coordCount);
+            coordsOffset += coordCount;
+            count ++;
+        }
+        return count;
     }
 
     @Override
     public void arcTo(float x, float y, float width, float height, float startAngle, float sweepAngle) {
         path2D.lineTo(x, y);
         path2D.append(new Arc2D.Float(x, y, width, height, startAngle, sweepAngle, Arc2D.OPEN), false);
+        measuredPath = null;
     }
 
     @Override
     public void rMoveTo(float dx, float dy) {
         Point2D point = path2D.getCurrentPoint();
         path2D.moveTo(point.getX() + dx, point.getY() + dy);
+        measuredPath = null;
     }
 
     @Override
     public void rLineTo(float dx, float dy) {
         Point2D point = path2D.getCurrentPoint();
         path2D.lineTo(point.getX() + dx, point.getY() + dy);
+        measuredPath = null;
     }
 
     @Override
     public void rQuadTo(float dx1, float dy1, float dx2, float dy2) {
         Point2D point = path2D.getCurrentPoint();
         path2D.quadTo(point.getX() + dx1, point.getY() + dy1, dx2, dy2);
+        measuredPath = null;
     }
 
     @Override
     public void rCubicTo(float dx1, float dy1, float dx2, float dy2, float dx3, float dy3) {
         Point2D point = path2D.getCurrentPoint();
         path2D.curveTo(point.getX() + dx1, point.getY() + dy1, dx2, dy2, dx3, dy3);
+        measuredPath = null;
     }
 
     @Override
@@ -147,6 +226,7 @@ public class DesktopPath extends Path {
         Point2D point = path2D.getCurrentPoint();
         path2D.append(AffineTransform.getTranslateInstance(point.getX(), point.getY())
                 .createTransformedShape(new Arc2D.Float(dx, dy, width, height, startAngle, sweepAngle, Arc2D.OPEN)), false);
+        measuredPath = null;
     }
 
     @Override
@@ -168,12 +248,14 @@ public class DesktopPath extends Path {
     @Override
     public void transform(Transform transform) {
         path2D.transform(((DesktopTransform) transform).getAffineTransform());
+        measuredPath = null;
     }
 
     @Override
     public void transform(Transform transform, Path dst) {
         (((DesktopPath) dst).path2D =
                 new Path2D.Float(path2D)).transform(((DesktopTransform) transform).getAffineTransform());
+        ((DesktopPath) dst).measuredPath = null;
     }
 
     @Override
@@ -184,6 +266,7 @@ public class DesktopPath extends Path {
     @Override
     public void close() {
         path2D.closePath();
+        measuredPath = null;
     }
 
     @Override
@@ -223,6 +306,7 @@ public class DesktopPath extends Path {
         Area area = new Area(new Rectangle2D.Float(x, y, width, height));
         area.subtract(new Area(path2D));
         ((DesktopPath) dst).path2D = new Path2D.Float(area);
+        ((DesktopPath) dst).measuredPath = null;
     }
 
     @Override
@@ -230,6 +314,7 @@ public class DesktopPath extends Path {
         Area area = new Area(((DesktopPath) other).path2D);
         area.subtract(new Area(path2D));
         ((DesktopPath) dst).path2D = new Path2D.Float(area);
+        ((DesktopPath) dst).measuredPath = null;
     }
 
     @Override
@@ -250,11 +335,13 @@ public class DesktopPath extends Path {
     @Override
     public void to(Object dst) {
         ((DesktopPath) dst).path2D = (Path2D.Float) path2D.clone();
+        ((DesktopPath) dst).measuredPath = measuredPath;
     }
 
     @Override
     public void from(Object src) {
         path2D = (Path2D.Float) ((DesktopPath) src).path2D.clone();
+        measuredPath = ((DesktopPath) src).measuredPath;
     }
 
     @Override
@@ -263,11 +350,15 @@ public class DesktopPath extends Path {
         Path2D.Float path2D = that.path2D;
         that.path2D = this.path2D;
         this.path2D = path2D;
+        MeasuredPath measuredPath = that.measuredPath;
+        that.measuredPath = this.measuredPath;
+        this.measuredPath = measuredPath;
     }
 
     @Override
     public void reset() {
         AWTSupport.reset(path2D);
+        measuredPath = null;
     }
 
     @Override
@@ -290,4 +381,70 @@ public class DesktopPath extends Path {
         return path2D.hashCode();
     }
 
+    /**
+     * Iterates over primitive arrays, either typed segments, or a polyline when types is null.
+     */
+    private static final class ArrayPathIterator implements PathIterator {
+
+        private final byte[] types;
+        private final int typesOffset;
+        private final float[] coords;
+        private final int count;
+        private final boolean close;
+        private final int windingRule;
+        private int coordsOffset;
+        private int index = 0;
+
+        public ArrayPathIterator(byte[] types, int typesOffset, float[] coords, int coordsOffset, int count, boolean close, int windingRule) {
+            this.types = types;
+            this.typesOffset = typesOffset;
+            this.coords = coords;
+            this.coordsOffset = coordsOffset;
+            this.count = close ? count + 1 : count;
+            this.close = close;
+            this.windingRule = windingRule;
+        }
+
+        private int type() {
+            if (types != null) return types[typesOffset + index];
+            else if (index == 0) return SEG_MOVETO;
+            else if (close && index == count - 1) return SEG_CLOSE;
+            else return SEG_LINETO;
+        }
+
+        @Override
+        public int getWindingRule() {
+            return windingRule;
+        }
+
+        @Override
+        public boolean isDone() {
+            return index >= count;
+        }
+
+        @Override
+        public void next() {
+            coordsOffset += SegmentType.getCoordCount(type());
+            index ++;
+        }
+
+        @Override
+        public int currentSegment(float[] coords) {
+            int type = type();
+            System.arraycopy(this.coords, coordsOffset, coords, 0, SegmentType.getCoordCount(type));
+            return type;
+        }
+
+        @Override
+        public int currentSegment(double[] coords) {
+            int type = type();
+            int coordCount = SegmentType.getCoordCount(type);
+            for (int i = 0; i < coordCount; i ++) {
+                coords[i] = this.coords[coordsOffset + i];
+            }
+            return type;
+        }
+
+    }
+
 }
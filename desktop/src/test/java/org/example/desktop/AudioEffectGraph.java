@@ -0,0 +1,139 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.AudioBus;
+import unrefined.desktop.BiquadFilter;
+import unrefined.desktop.Compressor;
+import unrefined.desktop.PanEffect;
+import unrefined.desktop.Reverb;
+import unrefined.desktop.SoundClip;
+import unrefined.desktop.SoundMuxer;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures a low pass filter and a compressor against their textbook curves, then renders the same effect graph
+ * sequentially and with its buses in parallel, and compares the results sample by sample. Needs no audio hardware.
+ */
+public class AudioEffectGraph {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUSES = 4, VOICES = 16;
+    private static final int BLOCK_FRAMES = 1024, BLOCKS = 400;
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        // A second order low pass at 1 kHz: flat below, -3 dB at the cutoff, -12 dB per octave above
+        double[] frequencies = new double[] { 100, 1000, 8000 };
+        double[] expected = new double[] { 0, -3.01, -36 };
+        double[] tolerances = new double[] { 0.5, 0.5, 3 };
+        for (int i = 0; i < frequencies.length; i ++) {
+            float[] tone = sine(frequencies[i], SAMPLE_RATE, 0.5f);
+            new BiquadFilter(BiquadFilter.Type.LOW_PASS, 1000, Math.sqrt(0.5), 0).process(tone, 0, SAMPLE_RATE);
+            double attenuation = decibels(rms(tone, SAMPLE_RATE / 2) / (0.5 / Math.sqrt(2)));
+            log.info("Audio Graph", String.format("Low pass at 1 kHz, %.0f Hz: %.2f dB", frequencies[i], attenuation));
+            check(Math.abs(attenuation - expected[i]) <= tolerances[i], "Low pass attenuation at " + frequencies[i] + " Hz: " + attenuation + " dB");
+        }
+
+        // Threshold -20 dB, ratio 4: unchanged below the threshold, a quarter of the level above it
+        for (double level : new double[] { -30, -20, -10, 0 }) {
+            float[] tone = sine(440, SAMPLE_RATE, (float) Math.pow(10, level / 20));
+            new Compressor(-20, 4, 1, 200, 0).process(tone, 0, SAMPLE_RATE);
+            double output = decibels(peak(tone, SAMPLE_RATE / 2));
+            double curve = level <= -20 ? level : -20 + (level + 20) / 4;
+            log.info("Audio Graph", String.format("Compressor, %.0f dB in: %.2f dB out, %.2f dB expected", level, output, curve));
+            check(Math.abs(output - curve) <= 0.5, "Compressor output at " + level + " dB: " + output + " dB");
+        }
+
+        Random random = new Random(9);                                 // Fixed seed, both graphs play the same noise
+        float[] noise = new float[SAMPLE_RATE * 2];
+        for (int i = 0; i < noise.length; i ++) noise[i] = random.nextFloat() - 0.5f;
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUSES - 1);
+        try (SoundMuxer sequential = new SoundMuxer(); SoundMuxer parallel = new SoundMuxer()) {
+            AudioBus parallelRoot = graph(noise);
+            parallelRoot.setExecutor(executor);                        // Buses mixed on the executor...
+            parallelRoot.setParallelVoiceThreshold(VOICES);            // ...as soon as there is more than one bus of voices
+            sequential.addSource(graph(noise));
+            parallel.addSource(parallelRoot);
+
+            float[] expectedBlock = new float[BLOCK_FRAMES * 2];
+            float[] actualBlock = new float[BLOCK_FRAMES * 2];
+            int different = 0;
+            long sequentialTime = 0, parallelTime = 0;
+            for (int block = 0; block < BLOCKS; block ++) {
+                long time = System.nanoTime();
+                sequential.render(expectedBlock, 0, expectedBlock.length);
+                sequentialTime += System.nanoTime() - time;
+                time = System.nanoTime();
+                parallel.render(actualBlock, 0, actualBlock.length);
+                parallelTime += System.nanoTime() - time;
+                for (int i = 0; i < expectedBlock.length; i ++) {
+                    if (Float.floatToIntBits(expectedBlock[i]) != Float.floatToIntBits(actualBlock[i])) different ++;
+                }
+            }
+            log.info("Audio Graph", String.format("%d voices on %d buses, sequential %.1f us, parallel %.1f us per block, %d different samples",
+                    parallelRoot.getVoiceCount(), BUSES, sequentialTime / 1000.0 / BLOCKS, parallelTime / 1000.0 / BLOCKS, different));
+            check(different == 0, "Parallel output differs from sequential output in " + different + " samples");
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AudioBus graph(float[] noise) {
+        AudioBus root = new AudioBus();
+        for (int i = 0; i < BUSES; i ++) {
+            SoundClip clip = new SoundClip(noise, VOICES);
+            for (int voice = 0; voice < VOICES; voice ++) {
+                clip.play(0.3, 0.3, 0.8 + voice * 0.03, -1);           // Looping, each voice at its own speed
+            }
+            AudioBus bus = new AudioBus();
+            bus.addInput(clip);
+            bus.addEffect(new BiquadFilter(BiquadFilter.Type.values()[i], 800 + i * 1000, 0.9, 6));
+            bus.addEffect(new PanEffect(-0.6f + i * 0.4f));
+            bus.addEffect(new Compressor(-12, 4, 5, 80, 3));
+            if (i == BUSES - 1) bus.addEffect(new Reverb());
+            root.addInput(bus);
+        }
+        root.addEffect(Compressor.limiter(-1, 50));
+        return root;
+    }
+
+    private static float[] sine(double frequency, int frames, float amplitude) {
+        float[] pcm = new float[frames * 2];
+        for (int i = 0; i < frames; i ++) {
+            pcm[i * 2] = pcm[i * 2 + 1] = (float) (amplitude * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return pcm;
+    }
+
+    // Over the frames from the given one on, once the filters have settled
+    private static double rms(float[] pcm, int frame) {
+        double sum = 0;
+        for (int i = frame * 2; i < pcm.length; i ++) sum += pcm[i] * pcm[i];
+        return Math.sqrt(sum / (pcm.length - frame * 2));
+    }
+
+    private static double peak(float[] pcm, int frame) {
+        double peak = 0;
+        for (int i = frame * 2; i < pcm.length; i ++) peak = Math.max(peak, Math.abs(pcm[i]));
+        return peak;
+    }
+
+    private static double decibels(double ratio) {
+        return 20 * Math.log10(ratio);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+}
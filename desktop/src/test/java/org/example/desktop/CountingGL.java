@@ -0,0 +1,1828 @@
+package org.example.desktop;
+
+import unrefined.media.opengl.GL30;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A GL backend which executes nothing and only counts the calls it receives, to measure GL wrappers without a GPU.
+ */
+public class CountingGL extends GL30 {
+
+    private int calls = 0;
+
+    public int getCallCount() {
+        return calls;
+    }
+
+    public void resetCallCount() {
+        calls = 0;
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        calls ++;
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindRenderbuffer(int target, int renderbuffer) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlendColor(float red, float green, float blue, float alpha) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        calls ++;
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        calls ++;
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        calls ++;
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glClear(int mask) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        calls ++;
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        calls ++;
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public int glCreateProgram() {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        calls ++;
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        calls ++;
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        calls ++;
+    }
+
+    @Override
+    public void glDepthRangef(float zNear, float zFar) {
+        calls ++;
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        calls ++;
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        calls ++;
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        calls ++;
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        calls ++;
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        calls ++;
+    }
+
+    @Override
+    public void glFinish() {
+        calls ++;
+    }
+
+    @Override
+    public void glFlush() {
+        calls ++;
+    }
+
+    @Override
+    public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        calls ++;
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        calls ++;
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, int[] renderbuffers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveAttrib(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, IntBuffer size, IntBuffer type) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glGetActiveUniform(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, IntBuffer size, IntBuffer type) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, int[] count, int countOffset, int[] shaders, int shadersOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+        calls ++;
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, boolean[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public int glGetError() {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, int[] range, int rangeOffset, int[] precision, int precisionOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetShaderSource(int shader, int bufsize, int[] length, int lengthOffset, byte[] source, int sourceOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetShaderSource(int shader, int bufsize, IntBuffer length, byte source) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetShaderSource(int shader) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public String glGetString(int name) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsFramebuffer(int framebuffer) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsProgram(int program) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsRenderbuffer(int renderbuffer) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsShader(int shader) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        calls ++;
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        calls ++;
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        calls ++;
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        calls ++;
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        calls ++;
+    }
+
+    @Override
+    public void glReleaseShaderCompiler() {
+        calls ++;
+    }
+
+    @Override
+    public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        calls ++;
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glShaderBinary(int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+        calls ++;
+    }
+
+    @Override
+    public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        calls ++;
+    }
+
+    @Override
+    public void glShaderSource(int shader, String... string) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilMaskSeparate(int face, int mask) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        calls ++;
+    }
+
+    @Override
+    public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, float[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, FloatBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, float[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, FloatBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2i(int location, int x, int y) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, FloatBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3i(int location, int x, int y, int z) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4f(int location, float x, float y, float z, float w) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, FloatBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4i(int location, int x, int y, int z, int w) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        calls ++;
+    }
+
+    @Override
+    public void glValidateProgram(int program) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib1f(int indx, float x) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, float[] values, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib2f(int indx, float x, float y) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, float[] values, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib3f(int indx, float x, float y, float z) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, float[] values, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, float[] values, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        calls ++;
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glReadBuffer(int mode) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawRangeElements(int mode, int start, int end, int count, int type, Buffer indices) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawRangeElements(int mode, int start, int end, int count, int type, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, Buffer pixels) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, Buffer pixels) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glCopyTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int imageSize, Buffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int imageSize, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int imageSize, Buffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glCompressedTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int imageSize, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenQueries(int n, int[] ids, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenQueries(int n, IntBuffer ids) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteQueries(int n, int[] ids, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteQueries(int n, IntBuffer ids) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glIsQuery(int id) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glBeginQuery(int target, int id) {
+        calls ++;
+    }
+
+    @Override
+    public void glEndQuery(int target) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetQueryiv(int target, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetQueryiv(int target, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetQueryObjectuiv(int id, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetQueryObjectuiv(int id, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glUnmapBuffer(int target) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public Buffer glGetBufferPointerv(int target, int pname) {
+        calls ++;
+        return null;
+    }
+
+    @Override
+    public void glDrawBuffers(int n, int[] bufs, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawBuffers(int n, IntBuffer bufs) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2x3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3x2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2x4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix2x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4x2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3x4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix3x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4x3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniformMatrix4x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glBlitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
+        calls ++;
+    }
+
+    @Override
+    public void glRenderbufferStorageMultisample(int target, int samples, int internalformat, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glFramebufferTextureLayer(int target, int attachment, int texture, int level, int layer) {
+        calls ++;
+    }
+
+    @Override
+    public Buffer glMapBufferRange(int target, int offset, int length, int access) {
+        calls ++;
+        return null;
+    }
+
+    @Override
+    public void glFlushMappedBufferRange(int target, int offset, int length) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindVertexArray(int array) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteVertexArrays(int n, int[] arrays, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteVertexArrays(int n, IntBuffer arrays) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenVertexArrays(int n, int[] arrays, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenVertexArrays(int n, IntBuffer arrays) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glIsVertexArray(int array) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glGetIntegeri_v(int target, int index, int[] data, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetIntegeri_v(int target, int index, IntBuffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glBeginTransformFeedback(int primitiveMode) {
+        calls ++;
+    }
+
+    @Override
+    public void glEndTransformFeedback() {
+        calls ++;
+    }
+
+    @Override
+    public void glBindBufferRange(int target, int index, int buffer, int offset, int size) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindBufferBase(int target, int index, int buffer) {
+        calls ++;
+    }
+
+    @Override
+    public void glTransformFeedbackVaryings(int program, String[] varyings, int bufferMode) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetTransformFeedbackVarying(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetTransformFeedbackVarying(int program, int index, int bufsize, IntBuffer length, IntBuffer size, IntBuffer type, ByteBuffer name) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetTransformFeedbackVarying(int program, int index, int[] size, int sizeOffset, int[] type, int typeOffset) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public String glGetTransformFeedbackVarying(int program, int index, IntBuffer size, IntBuffer type) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glVertexAttribIPointer(int index, int size, int type, int stride, Buffer pointer) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribIPointer(int index, int size, int type, int stride, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribIiv(int index, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribIiv(int index, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribIuiv(int index, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetVertexAttribIuiv(int index, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4i(int index, int x, int y, int z, int w) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4ui(int index, int x, int y, int z, int w) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4iv(int index, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4iv(int index, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4uiv(int index, int[] v, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribI4uiv(int index, IntBuffer v) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformuiv(int program, int location, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformuiv(int program, int location, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public int glGetFragDataLocation(int program, String name) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glUniform1ui(int location, int v0) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2ui(int location, int v0, int v1) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3ui(int location, int v0, int v1, int v2) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4ui(int location, int v0, int v1, int v2, int v3) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1uiv(int location, int count, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform1uiv(int location, int count, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2uiv(int location, int count, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform2uiv(int location, int count, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3uiv(int location, int count, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform3uiv(int location, int count, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4uiv(int location, int count, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glUniform4uiv(int location, int count, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferiv(int buffer, int drawbuffer, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferiv(int buffer, int drawbuffer, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferuiv(int buffer, int drawbuffer, int[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferuiv(int buffer, int drawbuffer, IntBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferfv(int buffer, int drawbuffer, float[] value, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferfv(int buffer, int drawbuffer, FloatBuffer value) {
+        calls ++;
+    }
+
+    @Override
+    public void glClearBufferfi(int buffer, int drawbuffer, float depth, int stencil) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetStringi(int name, int index) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glCopyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset, int size) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformIndices(int program, String[] uniformNames, int[] uniformIndices, int uniformIndicesOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetUniformIndices(int program, String[] uniformNames, IntBuffer uniformIndices) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveUniformsiv(int program, int uniformCount, int[] uniformIndices, int uniformIndicesOffset, int pname, int[] params, int paramsOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveUniformsiv(int program, int uniformCount, IntBuffer uniformIndices, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public int glGetUniformBlockIndex(int program, String uniformBlockName) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glGetActiveUniformBlockiv(int program, int uniformBlockIndex, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveUniformBlockiv(int program, int uniformBlockIndex, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveUniformBlockName(int program, int uniformBlockIndex, int bufSize, int[] length, int lengthOffset, byte[] uniformBlockName, int uniformBlockNameOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetActiveUniformBlockName(int program, int uniformBlockIndex, Buffer length, Buffer uniformBlockName) {
+        calls ++;
+    }
+
+    @Override
+    public String glGetActiveUniformBlockName(int program, int uniformBlockIndex) {
+        calls ++;
+        return "";
+    }
+
+    @Override
+    public void glUniformBlockBinding(int program, int uniformBlockIndex, int uniformBlockBinding) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, Buffer indices, int instanceCount) {
+        calls ++;
+    }
+
+    @Override
+    public void glDrawElementsInstanced(int mode, int count, int type, int indicesOffset, int instanceCount) {
+        calls ++;
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public boolean glIsSync(long sync) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        calls ++;
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        calls ++;
+        return 0;
+    }
+
+    @Override
+    public void glWaitSync(long sync, int flags, long timeout) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInteger64v(int pname, long[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInteger64v(int pname, LongBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSynciv(long sync, int pname, int bufSize, int[] length, int lengthOffset, int[] values, int valuesOffset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSynciv(long sync, int pname, int bufSize, IntBuffer length, IntBuffer values) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInteger64i_v(int target, int index, long[] data, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInteger64i_v(int target, int index, LongBuffer data) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetBufferParameteri64v(int target, int pname, long[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetBufferParameteri64v(int target, int pname, LongBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenSamplers(int count, int[] samplers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenSamplers(int count, IntBuffer samplers) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteSamplers(int count, int[] samplers, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteSamplers(int count, IntBuffer samplers) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glIsSampler(int sampler) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glBindSampler(int unit, int sampler) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameteri(int sampler, int pname, int param) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameteriv(int sampler, int pname, int[] param, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameteriv(int sampler, int pname, IntBuffer param) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameterf(int sampler, int pname, float param) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameterfv(int sampler, int pname, float[] param, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glSamplerParameterfv(int sampler, int pname, FloatBuffer param) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSamplerParameteriv(int sampler, int pname, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSamplerParameteriv(int sampler, int pname, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSamplerParameterfv(int sampler, int pname, float[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetSamplerParameterfv(int sampler, int pname, FloatBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        calls ++;
+    }
+
+    @Override
+    public void glBindTransformFeedback(int target, int id) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteTransformFeedbacks(int n, int[] ids, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glDeleteTransformFeedbacks(int n, IntBuffer ids) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenTransformFeedbacks(int n, int[] ids, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGenTransformFeedbacks(int n, IntBuffer ids) {
+        calls ++;
+    }
+
+    @Override
+    public boolean glIsTransformFeedback(int id) {
+        calls ++;
+        return false;
+    }
+
+    @Override
+    public void glPauseTransformFeedback() {
+        calls ++;
+    }
+
+    @Override
+    public void glResumeTransformFeedback() {
+        calls ++;
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset, int[] binaryFormat, int binaryFormatOffset, Buffer binary) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, IntBuffer length, IntBuffer binaryFormat, Buffer binary) {
+        calls ++;
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, Buffer binary, int length) {
+        calls ++;
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+        calls ++;
+    }
+
+    @Override
+    public void glInvalidateFramebuffer(int target, int numAttachments, int[] attachments, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glInvalidateFramebuffer(int target, int numAttachments, IntBuffer attachments) {
+        calls ++;
+    }
+
+    @Override
+    public void glInvalidateSubFramebuffer(int target, int numAttachments, int[] attachments, int offset, int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glInvalidateSubFramebuffer(int target, int numAttachments, IntBuffer attachments, int x, int y, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexStorage2D(int target, int levels, int internalformat, int width, int height) {
+        calls ++;
+    }
+
+    @Override
+    public void glTexStorage3D(int target, int levels, int internalformat, int width, int height, int depth) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInternalformativ(int target, int internalformat, int pname, int bufSize, int[] params, int offset) {
+        calls ++;
+    }
+
+    @Override
+    public void glGetInternalformativ(int target, int internalformat, int pname, int bufSize, IntBuffer params) {
+        calls ++;
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, int offset) {
+        calls ++;
+    }
+
+}
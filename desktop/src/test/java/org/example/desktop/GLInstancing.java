@@ -0,0 +1,128 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.media.opengl.GLInstanceBatch;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Feeds sprites through GLInstanceBatch into a mock GL which keeps the buffer contents,
+ * then checks every instance read back by the instanced draw calls, and the number of draw calls and orphanings.
+ * Runs without a GPU.
+ */
+public class GLInstancing {
+
+    private static final int SPRITES = 10000;
+    private static final int FLOATS = 8;                               // x, y, width, height, u, v, color, rotation
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Random random = new Random(42);
+        float[] sprites = new float[SPRITES * FLOATS];
+        for (int i = 0; i < sprites.length; i ++) {
+            sprites[i] = random.nextFloat() * 1000;
+        }
+        for (GLInstanceBatch.Strategy strategy : GLInstanceBatch.Strategy.values()) {
+            BufferingGL gl = new BufferingGL();
+            GLInstanceBatch batch = new GLInstanceBatch(512, strategy, new int[] { 1, 2, 3 }, new int[] { 4, 3, 1 });
+            for (int frame = 0; frame < 3; frame ++) {
+                gl.drawn = new float[SPRITES * FLOATS];
+                gl.drawnCount = 0;
+                gl.drawCalls = 0;
+                batch.begin(gl);
+                batch.setProgram(7);
+                for (int i = 0; i < SPRITES; i ++) {
+                    batch.setTexture(1 + i / 1000);                   // 10 atlas pages, 1000 sprites each
+                    batch.add(sprites, i * FLOATS);
+                }
+                batch.end();
+                // Each page of 1000 sprites takes 2 draws of at most 512 instances
+                int expectedDraws = 10 * 2;
+                if (gl.drawCalls != expectedDraws) throw new AssertionError(strategy + ": " + gl.drawCalls + " draw calls, expected " + expectedDraws);
+                if (batch.getRenderCalls() != expectedDraws) throw new AssertionError(strategy + ": render call count mismatch");
+                if (gl.drawnCount != SPRITES) throw new AssertionError(strategy + ": " + gl.drawnCount + " instances drawn");
+                for (int i = 0; i < sprites.length; i ++) {
+                    if (gl.drawn[i] != sprites[i]) throw new AssertionError(strategy + ": instance " + i / FLOATS + " drawn with wrong attributes");
+                }
+            }
+            log.info("GL Instancing", strategy + ": " + batch.getTotalRenderCalls() + " draw calls in 3 frames, "
+                    + batch.getOrphanCount() + " orphanings, " + gl.getCallCount() + " GL calls");
+            batch.disposeGL();
+            batch.dispose();
+        }
+    }
+
+    /**
+     * Keeps the contents of GL_ARRAY_BUFFER and the instance attribute pointers, and reads the instances back on every instanced draw.
+     */
+    private static class BufferingGL extends CountingGL {
+
+        private ByteBuffer storage;
+        private final Map<Integer, int[]> pointers = new HashMap<>();  // location -> size, stride, offset
+        private int texture;
+        private int lastTexture = 0;
+        float[] drawn;
+        int drawnCount;
+        int drawCalls;
+
+        @Override
+        public void glBufferData(int target, int size, Buffer data, int usage) {
+            super.glBufferData(target, size, data, usage);
+            storage = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public void glBufferSubData(int target, int offset, int size, Buffer data) {
+            super.glBufferSubData(target, offset, size, data);
+            ByteBuffer source = ((ByteBuffer) data).duplicate();
+            if (offset + size > storage.capacity()) throw new AssertionError("glBufferSubData out of the buffer storage");
+            if (source.remaining() < size) throw new AssertionError("glBufferSubData with too little data");
+            source.limit(source.position() + size);
+            ByteBuffer destination = storage.duplicate();
+            destination.position(offset);
+            destination.put(source);
+        }
+
+        @Override
+        public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int offset) {
+            super.glVertexAttribPointer(indx, size, type, normalized, stride, offset);
+            pointers.put(indx, new int[] { size, stride, offset });
+        }
+
+        @Override
+        public void glBindTexture(int target, int texture) {
+            super.glBindTexture(target, texture);
+            this.texture = texture;
+        }
+
+        @Override
+        public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+            super.glDrawArraysInstanced(mode, first, count, instanceCount);
+            if (texture < lastTexture) throw new AssertionError("Texture runs drawn out of order");
+            lastTexture = texture;
+            drawCalls ++;
+            for (int instance = 0; instance < instanceCount; instance ++) {
+                for (int location = 1; location <= 3; location ++) {
+                    int[] pointer = pointers.get(location);
+                    for (int component = 0; component < pointer[0]; component ++) {
+                        drawn[drawnCount * FLOATS + (location == 1 ? 0 : location == 2 ? 4 : 7) + component] =
+                                storage.getFloat(pointer[2] + instance * pointer[1] + component * 4);
+                    }
+                }
+                drawnCount ++;
+            }
+            if (drawnCount == SPRITES) lastTexture = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.media.opengl.GL;
+import unrefined.media.opengl.GLCommandBuffer;
+
+import static unrefined.media.opengl.GL20.*;
+
+/**
+ * Counts the driver calls of a typical sprite frame with and without the GLCommandBuffer state elision,
+ * then records the frame on another thread and submits it on this one. Runs without a GPU.
+ */
+public class GLStateElision {
+
+    private static final int SPRITES = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        CountingGL backend = new CountingGL();
+
+        drawFrame(backend);
+        int direct = backend.getCallCount();
+        log.info("GL State Elision", "Direct: " + direct + " calls per frame");
+
+        GLCommandBuffer buffer = new GLCommandBuffer(backend);
+        backend.resetCallCount();
+        drawFrame(buffer);
+        int elided = backend.getCallCount();
+        log.info("GL State Elision", "Elided: " + elided + " calls per frame, " + buffer.getElidedCount() + " dropped");
+        if (elided != buffer.getSubmittedCount()) throw new AssertionError("Submitted count mismatch");
+        if (elided * 3 > direct) throw new AssertionError("Expected at least a 3x reduction, got " + direct + " -> " + elided);
+
+        // Record on a worker thread, submit on the "GL thread"
+        buffer.invalidate();
+        buffer.resetCounters();
+        backend.resetCallCount();
+        Thread recorder = new Thread(() -> {
+            buffer.begin();
+            drawFrame(buffer);
+            buffer.end();
+        });
+        recorder.start();
+        recorder.join();
+        if (backend.getCallCount() != 0) throw new AssertionError("Recorded calls reached the backend");
+        int submitted = buffer.submit();
+        log.info("GL State Elision", "Recorded: " + buffer.getRecordedCount() + " commands, submitted " + submitted + ", " + backend.getCallCount() + " calls");
+        if (backend.getCallCount() != elided) throw new AssertionError("Recorded frame differs from immediate frame");
+    }
+
+    private static void drawFrame(GL gl) {
+        int program = 1, colorLocation = 0, offsetLocation = 1;
+        gl.glViewport(0, 0, 1280, 720);
+        gl.glClearColor(0, 0, 0, 1);
+        gl.glClear(GL_COLOR_BUFFER_BIT);
+        for (int i = 0; i < SPRITES; i ++) {
+            // Every sprite sets its full state, as naive renderers do
+            gl.glUseProgram(program);
+            gl.glActiveTexture(GL_TEXTURE0);
+            gl.glBindTexture(GL_TEXTURE_2D, 1 + i / 250);
+            gl.glEnable(GL_BLEND);
+            gl.glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+            gl.glBindBuffer(GL_ARRAY_BUFFER, 1);
+            gl.glUniform4f(colorLocation, 1, 1, 1, 1);
+            gl.glUniform2f(offsetLocation, i % 40 * 32, i / 40 * 32);
+            gl.glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
+        }
+    }
+
+}
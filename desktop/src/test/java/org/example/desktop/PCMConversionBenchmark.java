@@ -0,0 +1,62 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.AudioSupport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Times the PCM conversions of AudioSupport on a mixing buffer, and reports the time per sample.
+ */
+public class PCMConversionBenchmark {
+
+    private static final int SAMPLES = 4096;
+    private static final int ITERATIONS = 20000;
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Random random = new Random(42);
+        float[] pcm = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i ++) {
+            pcm[i] = random.nextFloat() * 2.2f - 1.1f;                 // A little out of range, as a mix can be
+        }
+        float[] floats = new float[SAMPLES * 2];
+        byte[] bytes = new byte[SAMPLES * 4];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int pass = 0; pass < 2; pass ++) {                        // The first pass warms up
+            boolean report = pass == 1;
+            measure(log, report, "float to s16", () -> AudioSupport.floatToS16LE(pcm, 0, bytes, 0, SAMPLES));
+            measure(log, report, "s16 to float", () -> AudioSupport.s16LEToFloat(bytes, 0, floats, 0, SAMPLES));
+            measure(log, report, "float to s24", () -> AudioSupport.floatToS24LE(pcm, 0, bytes, 0, SAMPLES));
+            measure(log, report, "s24 to float", () -> AudioSupport.s24LEToFloat(bytes, 0, floats, 0, SAMPLES));
+            measure(log, report, "float to s32", () -> AudioSupport.floatToS32LE(pcm, 0, bytes, 0, SAMPLES));
+            measure(log, report, "s32 to float", () -> AudioSupport.s32LEToFloat(bytes, 0, floats, 0, SAMPLES));
+            measure(log, report, "float to s16 buffer", () -> {
+                buffer.clear();
+                AudioSupport.floatToS16(pcm, 0, buffer, SAMPLES);
+            });
+            measure(log, report, "float to s16 dithered", () -> AudioSupport.floatToS16LEDithered(pcm, 0, bytes, 0, SAMPLES, 1));
+            measure(log, report, "interleave", () -> AudioSupport.interleave(pcm, 0, pcm, 0, floats, 0, SAMPLES));
+            measure(log, report, "mono to stereo", () -> AudioSupport.monoToStereo(pcm, 0, floats, 0, SAMPLES));
+            measure(log, report, "gain ramp", () -> AudioSupport.applyGain(floats, 0, SAMPLES / 2, 0.5f, 0.5f, 0.0001f, -0.0001f));
+            measure(log, report, "gain ramp s16", () -> AudioSupport.applyGain(bytes, 0, SAMPLES / 2, 0.5f, 0.5f, 0.0001f, -0.0001f));
+        }
+    }
+
+    private static void measure(Log log, boolean report, String name, Runnable conversion) {
+        long time = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i ++) {
+            conversion.run();
+        }
+        long elapsed = System.nanoTime() - time;
+        if (report) log.info("PCM Conversion", name + ": " + String.format("%.3f", elapsed / (double) (ITERATIONS * SAMPLES)) + " ns per sample");
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Composite;
+import unrefined.media.graphics.Graphics;
+
+import java.util.Random;
+
+/**
+ * Converts a bitmap between every pair of bitmap types with Bitmap.convert, checks the result against pixels computed
+ * by hand from the documented formats and against the same conversion drawn by Java2D, and times both once warmed up.
+ */
+public class PixelFormatConversion {
+
+    private static final int WIDTH = 2048, HEIGHT = 2048;
+    private static final int WARM_UP = 5, RUNS = 5;
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Random random = new Random(42);
+        Bitmap source = Bitmap.of(WIDTH, HEIGHT, Bitmap.Type.RGBA_8888);
+        int[] row = new int[WIDTH];
+        for (int y = 0; y < HEIGHT; y ++) {
+            for (int x = 0; x < WIDTH; x ++) {
+                row[x] = x < WIDTH / 2 ? random.nextInt() | 0xFF000000 : random.nextInt();
+            }
+            source.setPixels(row, 0, WIDTH, 0, y, WIDTH, 1);
+        }
+
+        for (int from = Bitmap.Type.RGBA_8888; from <= Bitmap.Type.ALPHA_8; from ++) {
+            Bitmap src = source.convert(from);
+            for (int to = Bitmap.Type.RGBA_8888; to <= Bitmap.Type.ALPHA_8; to ++) {
+                for (int i = 0; i < WARM_UP; i ++) {                   // Compiled before timing
+                    convert(src, to).dispose();
+                    draw(src, to).dispose();
+                }
+                long convertTime = Long.MAX_VALUE, drawTime = Long.MAX_VALUE;
+                for (int i = 0; i < RUNS; i ++) {
+                    long time = System.nanoTime();
+                    convert(src, to).dispose();
+                    convertTime = Math.min(convertTime, System.nanoTime() - time);
+                    time = System.nanoTime();
+                    draw(src, to).dispose();
+                    drawTime = Math.min(drawTime, System.nanoTime() - time);
+                }
+
+                Bitmap converted = convert(src, to);
+                Bitmap drawn = draw(src, to);
+                int different = diff(src, converted, to);
+                int differentDrawn = diffDrawn(converted, drawn);
+                log.info("Pixel Format Conversion", String.format("%s -> %s: %.1f ms, drawing %.1f ms, %d different pixels, %d differ from drawing",
+                        Bitmap.Type.toString(from), Bitmap.Type.toString(to), convertTime / 1e6, drawTime / 1e6, different, differentDrawn));
+                converted.dispose();
+                drawn.dispose();
+                if (different != 0) throw new AssertionError(Bitmap.Type.toString(from) + " -> " + Bitmap.Type.toString(to) + " differs");
+                // Java2D rounds 4444 blending off by a step, every other conversion must match it exactly
+                if (to != Bitmap.Type.RGBA_4444 && differentDrawn != 0)
+                    throw new AssertionError(Bitmap.Type.toString(from) + " -> " + Bitmap.Type.toString(to) + " differs from drawing");
+            }
+            src.dispose();
+        }
+        source.dispose();
+    }
+
+    private static Bitmap convert(Bitmap src, int type) {
+        return src.convert(type);
+    }
+
+    private static Bitmap draw(Bitmap src, int type) {
+        Bitmap drawn = Bitmap.of(WIDTH, HEIGHT, type);
+        Graphics graphics = drawn.getGraphics();
+        // Over black onto the opaque type, stored as is rather than blended onto the translucent ones
+        if (type != Bitmap.Type.RGB_565) graphics.setComposite(Composite.ofMode(Composite.Mode.DISCARD));
+        graphics.drawBitmap(src, 0, 0);
+        return drawn;
+    }
+
+    // Expected pixels are the source pixels stored into the target type by hand, channel by channel
+    private static int diff(Bitmap src, Bitmap converted, int type) {
+        int[] expected = new int[WIDTH];
+        int[] actual = new int[WIDTH];
+        int different = 0;
+        for (int y = 0; y < HEIGHT; y ++) {
+            src.getPixels(expected, 0, WIDTH, 0, y, WIDTH, 1);
+            for (int x = 0; x < WIDTH; x ++) {
+                if (src.getType() == Bitmap.Type.RGB_565 && type == Bitmap.Type.RGBA_8888) {
+                    // The Java2D loop between the two expands 5 and 6 bits channels by repeating their high bits
+                    int color = expected[x];
+                    int r = (color >>> 19) & 0x1F, g = (color >>> 10) & 0x3F, b = (color >>> 3) & 0x1F;
+                    expected[x] = 0xFF000000 | ((r << 3) | (r >>> 2)) << 16 | ((g << 2) | (g >>> 4)) << 8 | ((b << 3) | (b >>> 2));
+                }
+                else expected[x] = expected(expected[x], type);
+            }
+            converted.getPixels(actual, 0, WIDTH, 0, y, WIDTH, 1);
+            for (int x = 0; x < WIDTH; x ++) {
+                if (expected[x] != actual[x]) different ++;
+            }
+        }
+        return different;
+    }
+
+    private static int expected(int color, int type) {
+        int a = color >>> 24, r = (color >>> 16) & 0xFF, g = (color >>> 8) & 0xFF, b = color & 0xFF;
+        switch (type) {
+            case Bitmap.Type.RGB_565:
+                // Over black, truncated to 5, 6 and 5 bits, then expanded back to the nearest 8 bits value
+                r = (int) Math.round(a * r / 255.0) >> 3;
+                g = (int) Math.round(a * g / 255.0) >> 2;
+                b = (int) Math.round(a * b / 255.0) >> 3;
+                return 0xFF000000 | (int) Math.round(r * 255 / 31.0) << 16 | (int) Math.round(g * 255 / 63.0) << 8 | (int) Math.round(b * 255 / 31.0);
+            case Bitmap.Type.RGBA_4444:
+                // Every channel rounded to 4 bits, then repeated in both nibbles
+                return (int) Math.round(a * 15 / 255.0) * 0x11 << 24 | (int) Math.round(r * 15 / 255.0) * 0x11 << 16
+                        | (int) Math.round(g * 15 / 255.0) * 0x11 << 8 | (int) Math.round(b * 15 / 255.0) * 0x11;
+            case Bitmap.Type.ALPHA_8:
+                return a << 24;
+            default:
+                return color;
+        }
+    }
+
+    private static int diffDrawn(Bitmap converted, Bitmap drawn) {
+        int[] expected = new int[WIDTH];
+        int[] actual = new int[WIDTH];
+        int different = 0;
+        for (int y = 0; y < HEIGHT; y ++) {
+            drawn.getPixels(expected, 0, WIDTH, 0, y, WIDTH, 1);
+            converted.getPixels(actual, 0, WIDTH, 0, y, WIDTH, 1);
+            for (int x = 0; x < WIDTH; x ++) {
+                if (expected[x] != actual[x]) different ++;
+            }
+        }
+        return different;
+    }
+
+}
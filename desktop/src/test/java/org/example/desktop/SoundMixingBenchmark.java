@@ -0,0 +1,75 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.Resampler;
+import unrefined.desktop.SoundClip;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Mixes a growing number of looping voices, at unity and fractional speeds with volume ramps, with every interpolation,
+ * and reports the time per mixed frame and the bytes allocated by the mixing thread.
+ */
+public class SoundMixingBenchmark {
+
+    private static final int BUFFER_FRAMES = 1024;
+    private static final int BLOCKS = 2000;
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Random random = new Random(42);
+        float[] pcm = new float[44100 * 2];                            // One second of stereo noise
+        for (int i = 0; i < pcm.length; i ++) {
+            pcm[i] = random.nextFloat() * 2 - 1;
+        }
+
+        float[] buffer = new float[BUFFER_FRAMES * 2];
+        for (Resampler.Interpolation interpolation : Resampler.Interpolation.values()) for (int voices : new int[] { 1, 8, 32, 64 }) {
+            SoundClip clip = new SoundClip(pcm, voices);
+            clip.setInterpolation(interpolation);
+            int[] instances = new int[voices];
+            for (int i = 0; i < voices; i ++) {
+                // Every other voice off unity speed, taking the interpolating path
+                instances[i] = clip.play(0.5, 0.5, i % 2 == 0 ? 1 : 0.75 + random.nextDouble(), -1);
+            }
+            mix(clip, instances, buffer, random);                      // Warm up
+            long allocated = allocatedBytes();
+            long time = System.nanoTime();
+            mix(clip, instances, buffer, random);
+            long elapsed = System.nanoTime() - time;
+            allocated = allocatedBytes() - allocated;
+            log.info("Sound Mixing", interpolation + ", " + voices + " voices: " + String.format("%.2f", elapsed / (double) (BLOCKS * BUFFER_FRAMES)) + " ns per frame, "
+                    + String.format("%.3f", elapsed / (double) (BLOCKS * BUFFER_FRAMES) / voices) + " ns per voice frame, "
+                    + (allocated < 0 ? "allocation unknown" : allocated + " bytes allocated"));
+            clip.close();
+        }
+    }
+
+    private static void mix(SoundClip clip, int[] instances, float[] buffer, Random random) {
+        for (int block = 0; block < BLOCKS; block ++) {
+            if (block % 64 == 0) {
+                // Retarget the volumes now and then, so that ramps are part of the measure
+                for (int instance : instances) {
+                    clip.setVolume(instance, random.nextDouble(), random.nextDouble());
+                }
+            }
+            java.util.Arrays.fill(buffer, 0);
+            clip.mix(buffer, 0, buffer.length);
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        else return -1;
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.AudioSource;
+import unrefined.desktop.SoundMuxer;
+
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+import java.lang.reflect.Proxy;
+
+/**
+ * Plays a SoundMuxer into a simulated line draining in fixed periods, in the default and the low latency modes,
+ * then with stalls in mixing, and compares the latency and underruns it reports with what the line saw.
+ * Needs no audio hardware.
+ */
+public class SoundMuxerLatency {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BUFFER_FRAMES = 2048;
+
+    public static void main(String[] args) throws LineUnavailableException, InterruptedException {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Result blocking = run(log, 256, false, 0);
+        Result lowLatency = run(log, 256, true, 0);
+        run(log, 128, true, 0);
+        run(log, 32, true, 0);
+        Result stalled = run(log, 128, true, 300);                     // An 8 ms stall in mixing every 300 ms
+
+        check(lowLatency.latency < blocking.latency / 2, "Low latency mode is not lower: " + lowLatency.latency + " ms");
+        check(stalled.underruns > 0, "No underrun counted while mixing stalled");
+        check(stalled.targetFrames > 2 * stalled.quantumFrames, "The target latency did not grow after underruns");
+    }
+
+    private static final class Result {
+        double latency;
+        long underruns, deviceUnderruns;
+        int quantumFrames, targetFrames;
+    }
+
+    private static Result run(Log log, int period, boolean lowLatency, long stallMillis) throws LineUnavailableException, InterruptedException {
+        Device device = new Device(period);
+        Result result = new Result();
+        try (SoundMuxer muxer = new SoundMuxer(device.mixer(), BUFFER_FRAMES, Thread.MAX_PRIORITY)) {
+            muxer.setLowLatency(lowLatency);
+            muxer.addSource(new AudioSource() {                        // Silence, sometimes late
+                private long lastStall = System.nanoTime();
+                @Override
+                public void mix(float[] buffer, int offset, int length, long frame) {
+                    if (stallMillis > 0 && System.nanoTime() - lastStall > stallMillis * 1_000_000L) {
+                        lastStall = System.nanoTime();
+                        try {
+                            Thread.sleep(8);
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+                @Override
+                public int getVoiceCount() {
+                    return 1;
+                }
+            });
+            muxer.start();
+            Thread.sleep(500);                                         // Settle the quantum and target first
+            double latency = 0;
+            for (int i = 0; i < 30; i ++) {
+                Thread.sleep(50);
+                latency += muxer.getOutputLatencyMillis();
+            }
+            muxer.stop();
+            result.latency = latency / 30;
+            result.underruns = muxer.getUnderrunCount();
+            result.deviceUnderruns = device.getUnderruns();
+            result.quantumFrames = muxer.getWriteQuantumFrames();
+            result.targetFrames = muxer.getTargetLatencyFrames();
+            log.info("Sound Muxer", String.format("Period %d, low latency %b, stalls %b: line %d, quantum %d, target %d frames, "
+                    + "latency %.2f ms, %d underruns counted, %d seen by the line", period, lowLatency, stallMillis > 0,
+                    muxer.getLineBufferFrames(), result.quantumFrames, result.targetFrames, result.latency, result.underruns, result.deviceUnderruns));
+        }
+        check(result.underruns >= result.deviceUnderruns,                 // Near misses are counted as well
+                "Counted " + result.underruns + " underruns, the line ran dry " + result.deviceUnderruns + " times");
+        return result;
+    }
+
+    /**
+     * A line consuming one period of frames every period, out of the buffer size it was opened with.
+     */
+    private static final class Device {
+
+        private final int period;
+        private final long periodNanos;
+        private int bufferFrames;
+        private long written, consumed, clock, underruns;
+        private boolean started, empty;
+
+        Device(int period) {
+            this.period = period;
+            this.periodNanos = (long) (period * 1e9 / SAMPLE_RATE);
+        }
+
+        private synchronized void tick() {
+            if (!started) return;
+            long now = System.nanoTime();
+            while (now - clock >= periodNanos) {
+                clock += periodNanos;
+                long queued = written - consumed;
+                if (queued == 0) {
+                    if (!empty && written > 0) underruns ++;               // Once per time it runs dry
+                    empty = true;
+                }
+                else empty = false;
+                consumed += Math.min(period, queued);
+            }
+        }
+
+        private synchronized int available() {
+            tick();
+            return (int) (bufferFrames - (written - consumed)) * 4;
+        }
+
+        synchronized long getUnderruns() {
+            return underruns;
+        }
+
+        Mixer mixer() {
+            ClassLoader loader = SoundMuxerLatency.class.getClassLoader();
+            SourceDataLine line = (SourceDataLine) Proxy.newProxyInstance(loader, new Class<?>[] { SourceDataLine.class }, (proxy, method, arguments) -> {
+                switch (method.getName()) {
+                    case "open":
+                        bufferFrames = (int) arguments[1] / 4;
+                        return null;
+                    case "start":
+                        synchronized (this) {
+                            started = true;
+                            clock = System.nanoTime();
+                        }
+                        return null;
+                    case "getBufferSize":
+                        return bufferFrames * 4;
+                    case "available":
+                        return available();
+                    case "write":
+                        int frames = (int) arguments[2] / 4;
+                        while (available() / 4 < frames) Thread.yield();   // Blocks like a real line
+                        synchronized (this) {
+                            written += frames;
+                        }
+                        return arguments[2];
+                    default:
+                        Class<?> type = method.getReturnType();
+                        if (type == boolean.class) return false;
+                        else if (type == int.class) return 0;
+                        else if (type == long.class) return 0L;
+                        else return null;
+                }
+            });
+            return (Mixer) Proxy.newProxyInstance(loader, new Class<?>[] { Mixer.class },
+                    (proxy, method, arguments) -> method.getName().equals("getLine") ? line : null);
+        }
+
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.SoundClip;
+import unrefined.desktop.SoundMuxer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Renders a mix offline into a WAV file, then plays it on the null device as fast as the CPU allows,
+ * and reports both speeds relative to real time. Needs no audio hardware.
+ */
+public class SoundMuxerRendering {
+
+    private static final int VOICES = 32;
+    private static final int SECONDS = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        float[] pcm = new float[44100 * 2];                            // One second of a tone
+        for (int i = 0; i < pcm.length; i += 2) {
+            pcm[i] = pcm[i + 1] = (float) (0.5 * Math.sin(2 * Math.PI * 440 * (i / 2) / 44100.0));
+        }
+
+        File file = File.createTempFile("render", ".wav");
+        try (SoundMuxer muxer = new SoundMuxer(); SoundClip clip = new SoundClip(pcm, VOICES)) {
+            clip.open(muxer);
+            for (int i = 0; i < VOICES; i ++) {
+                clip.play(0.5 / VOICES, 0.5 / VOICES, 0.5 + i / (double) VOICES, -1);
+            }
+
+            long time = System.nanoTime();
+            muxer.render(file, SECONDS * 44100L);                      // Offline, on this thread
+            long elapsed = System.nanoTime() - time;
+            log.info("Sound Muxer", "Rendered " + SECONDS + " s into " + file + " (" + file.length() + " bytes) at "
+                    + String.format("%.1f", SECONDS * 1e9 / elapsed) + "x real time");
+
+            long position = muxer.getFramePosition();
+            muxer.startNullDevice(false);                              // The player thread, discarding its output
+            Thread.sleep(SECONDS * 100L);
+            muxer.stop();
+            log.info("Sound Muxer", "Null device mixed at " + String.format("%.1f", (muxer.getFramePosition() - position) / 44100.0 / (SECONDS / 10.0)) + "x real time");
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+}
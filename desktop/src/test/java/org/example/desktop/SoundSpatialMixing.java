@@ -0,0 +1,151 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.HRTF;
+import unrefined.desktop.SoundClip;
+import unrefined.desktop.SoundEmitter;
+import unrefined.desktop.SoundMuxer;
+import unrefined.desktop.SoundSpace;
+
+import java.util.Random;
+
+/**
+ * Renders emitters of a sound space offline through a SoundMuxer and checks the panning law, the distance attenuation,
+ * the Doppler shifts and the interaural delays of the spherical head HRTF against their formulas. Needs no audio hardware.
+ */
+public class SoundSpatialMixing {
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int BLOCK_FRAMES = 1024;
+    private static final double AMPLITUDE = 0.5;
+    private static final double SPEED_OF_SOUND = 343.3;
+
+    public static void main(String[] args) {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        float[] tone = new float[SAMPLE_RATE * 2];                     // One second of a looping tone
+        for (int i = 0; i < SAMPLE_RATE; i ++) {
+            tone[i * 2] = tone[i * 2 + 1] = (float) (AMPLITUDE * Math.sin(2 * Math.PI * 441 * i / SAMPLE_RATE));
+        }
+        double toneRMS = AMPLITUDE / Math.sqrt(2);
+
+        // Equal power panning by the direction across the listener, the angle being (x + 1) * PI / 4
+        double[][] positions = new double[][] { { 0, 0, -1 }, { 1, 0, 0 }, { -1, 0, 0 }, { Math.sqrt(0.5), 0, -Math.sqrt(0.5) } };
+        for (double[] position : positions) {
+            Scene scene = new Scene(tone, null);
+            scene.emitter.setPosition(position[0], position[1], position[2]);
+            float[] block = scene.render(4);
+            double angle = (position[0] + 1) * Math.PI / 4;
+            double left = rms(block, 0) / toneRMS, right = rms(block, 1) / toneRMS;
+            log.info("Spatial Mixing", String.format("Emitter at (%.2f, %.2f, %.2f): left %.4f, right %.4f, expected %.4f, %.4f",
+                    position[0], position[1], position[2], left, right, Math.cos(angle), Math.sin(angle)));
+            check(Math.abs(left - Math.cos(angle)) < 0.01 && Math.abs(right - Math.sin(angle)) < 0.01, "Panning law");
+        }
+
+        // Inverse distance clamped at the reference distance of 1
+        for (double distance : new double[] { 0.5, 1, 2, 4, 8 }) {
+            Scene scene = new Scene(tone, null);
+            scene.emitter.setPosition(0, 0, -distance);
+            float[] block = scene.render(4);
+            double gain = rms(block, 0) / (toneRMS * Math.sqrt(0.5));  // Straight ahead, each ear at -3 dB
+            double expected = Math.min(1, 1 / distance);
+            log.info("Spatial Mixing", String.format("Emitter %.1f away: gain %.4f, expected %.4f", distance, gain, expected));
+            check(Math.abs(gain - expected) < 0.01, "Distance attenuation at " + distance);
+        }
+
+        // Doppler: (c - listener speed) / (c - emitter speed), both toward the other one
+        double[][] velocities = new double[][] { { 34.33, 0 }, { -34.33, 0 }, { 0, 34.33 } };
+        for (double[] velocity : velocities) {
+            Scene scene = new Scene(tone, null);
+            scene.emitter.setPosition(0, 0, -10);
+            scene.emitter.setVelocity(0, 0, velocity[0]);              // +z is toward the listener
+            scene.space.setListenerVelocity(0, 0, -velocity[1]);       // -z is toward the emitter
+            scene.render(10);
+            double speed = scene.clip.getSpeed(scene.emitter.getInstanceID());
+            double expected = (SPEED_OF_SOUND + velocity[1]) / (SPEED_OF_SOUND - velocity[0]);
+            log.info("Spatial Mixing", String.format("Emitter at %.2f m/s, listener at %.2f m/s toward each other: speed %.4f, expected %.4f",
+                    velocity[0], velocity[1], speed, expected));
+            check(Math.abs(speed - expected) < 0.001, "Doppler shift");
+        }
+
+        // The far ear hears the head's radius times (angle + sin(angle)) later, 8.75 cm at 343.3 m/s
+        Random random = new Random(1);                                 // Noise, so that one lag correlates best
+        float[] noise = new float[SAMPLE_RATE * 2];
+        for (int i = 0; i < noise.length; i += 2) noise[i] = noise[i + 1] = random.nextFloat() - 0.5f;
+        HRTF hrtf = HRTF.sphericalHead();
+        int[] azimuths = new int[] { 0, 30, 90, -90 };
+        int[] delays = new int[] { 0, 12, 29, -29 };
+        for (int i = 0; i < azimuths.length; i ++) {
+            Scene scene = new Scene(noise, hrtf);
+            double azimuth = Math.toRadians(azimuths[i]);
+            scene.emitter.setPosition(Math.sin(azimuth), 0, -Math.cos(azimuth));
+            float[] block = scene.render(8);
+            int delay = delay(block);
+            log.info("Spatial Mixing", String.format("HRTF at %d degrees: left %.4f, right %.4f, left ear %d samples behind",
+                    azimuths[i], rms(block, 0), rms(block, 1), delay));
+            check(delay == delays[i], "Interaural delay at " + azimuths[i] + " degrees: " + delay + " samples");
+        }
+    }
+
+    /**
+     * A clip with one looping instance, mixed by a space, both sources of a muxer rendering offline.
+     */
+    private static final class Scene {
+
+        final SoundMuxer muxer = new SoundMuxer();
+        final SoundClip clip;
+        final SoundSpace space = new SoundSpace();
+        final SoundEmitter emitter;
+
+        Scene(float[] pcm, HRTF hrtf) {
+            clip = new SoundClip(pcm, 1);
+            clip.open(muxer);
+            space.setHRTF(hrtf);
+            muxer.addSource(space);
+            emitter = new SoundEmitter(clip, clip.obtainInstance());
+            space.addEmitter(emitter);                                 // Before starting, so it is never heard unpanned
+            clip.setLooping(emitter.getInstanceID(), -1);
+            clip.setVolume(emitter.getInstanceID(), 1);
+            clip.start(emitter.getInstanceID());
+        }
+
+        // Renders the blocks and returns the last one, once the volume and speed ramps are over
+        float[] render(int blocks) {
+            float[] block = new float[BLOCK_FRAMES * 2];
+            for (int i = 0; i < blocks; i ++) muxer.render(block, 0, block.length);
+            clip.close();
+            muxer.close();
+            return block;
+        }
+
+    }
+
+    private static double rms(float[] block, int channel) {
+        double sum = 0;
+        for (int i = channel; i < block.length; i += 2) sum += block[i] * block[i];
+        return Math.sqrt(sum / (block.length / 2));
+    }
+
+    // The lag of the left channel behind the right one which correlates them best
+    private static int delay(float[] block) {
+        int delay = 0;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int lag = -40; lag <= 40; lag ++) {
+            double correlation = 0;
+            for (int i = 50; i < BLOCK_FRAMES - 50; i ++) correlation += block[(i + lag) * 2] * block[i * 2 + 1];
+            if (correlation > best) {
+                best = correlation;
+                delay = lag;
+            }
+        }
+        return delay;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+}
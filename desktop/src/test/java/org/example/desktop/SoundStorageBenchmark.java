@@ -0,0 +1,73 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.desktop.Resampler;
+import unrefined.desktop.SoundClip;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Stores the same sound in every storage mode, and reports the memory each takes, the error against the float samples,
+ * and the time per mixed voice frame at unity and fractional speeds.
+ */
+public class SoundStorageBenchmark {
+
+    private static final int VOICES = 32;
+    private static final int BUFFER_FRAMES = 1024;
+    private static final int BLOCKS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        Random random = new Random(42);
+        float[] pcm = new float[44100 * 2 * 2];                        // Two seconds of a tone with some noise, 16-bit precision
+        for (int i = 0; i < pcm.length; i += 2) {
+            double time = i / 2 / 44100.0;
+            pcm[i] = Math.round((0.5 * Math.sin(2 * Math.PI * 440 * time) + 0.1 * (random.nextFloat() - 0.5)) * 32767) / 32767f;
+            pcm[i + 1] = Math.round(0.4 * Math.sin(2 * Math.PI * 1234 * time) * 32767) / 32767f;
+        }
+
+        float[] buffer = new float[BUFFER_FRAMES * 2];
+        for (SoundClip.Storage storage : SoundClip.Storage.values()) {
+            SoundClip clip = new SoundClip(pcm, VOICES, storage);
+            float[] decoded = clip.copyPCM();
+            double error = 0;
+            for (int i = 0; i < pcm.length; i ++) {
+                error += (decoded[i] - pcm[i]) * (decoded[i] - pcm[i]);
+            }
+            log.info("Sound Storage", storage + ": " + clip.getStorageSize() + " bytes of samples, "
+                    + (long) clip.getVoiceBufferSize() * VOICES + " bytes of voice buffers, "
+                    + String.format("%.6f", Math.sqrt(error / pcm.length)) + " rms error");
+            for (Resampler.Interpolation interpolation : Resampler.Interpolation.values()) {
+                clip.setInterpolation(interpolation);
+                for (int i = 0; i < VOICES; i ++) {
+                    // Every other voice off unity speed, taking the interpolating path
+                    clip.play(0.5, 0.5, i % 2 == 0 ? 1 : 0.75 + random.nextDouble(), -1);
+                }
+                mix(clip, buffer);                                     // Warm up
+                long time = System.nanoTime();
+                mix(clip, buffer);
+                long elapsed = System.nanoTime() - time;
+                log.info("Sound Storage", storage + ", " + interpolation + ": "
+                        + String.format("%.3f", elapsed / (double) (BLOCKS * BUFFER_FRAMES) / VOICES) + " ns per voice frame");
+                for (int i = 0; i < VOICES; i ++) {
+                    if (clip.isActive(i)) clip.releaseInstance(i);
+                }
+                mix(clip, buffer);                                     // Apply the releases
+            }
+            clip.close();
+        }
+    }
+
+    private static void mix(SoundClip clip, float[] buffer) {
+        for (int block = 0; block < BLOCKS; block ++) {
+            java.util.Arrays.fill(buffer, 0);
+            clip.mix(buffer, 0, buffer.length);
+        }
+    }
+
+}
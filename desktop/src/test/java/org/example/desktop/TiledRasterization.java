@@ -0,0 +1,121 @@
+package org.example.desktop;
+
+import unrefined.Lifecycle;
+import unrefined.app.Log;
+import unrefined.media.graphics.Bitmap;
+import unrefined.media.graphics.Brush;
+import unrefined.media.graphics.Color;
+import unrefined.media.graphics.DisplayList;
+import unrefined.media.graphics.Graphics;
+import unrefined.media.graphics.Path;
+import unrefined.media.graphics.TileRasterizer;
+import unrefined.media.graphics.Transform;
+
+import java.util.Random;
+
+/**
+ * Renders the same recorded scene single-threaded and tiled in parallel, then compares the results pixel by pixel.
+ */
+public class TiledRasterization {
+
+    private static final int WIDTH = 3000, HEIGHT = 2000;
+
+    public static void main(String[] args) {
+        // Exact antialiased edges across tile borders, as documented in TileRasterizer, before Java2D is loaded
+        if (System.getProperty("sun.java2d.renderer.clip") == null) System.setProperty("sun.java2d.renderer.clip", "false");
+        Lifecycle.onMain(args);                                        // Initialize the Unrefined runtime environment
+
+        Log log = Log.defaultInstance();
+
+        DisplayList list = DisplayList.of(WIDTH, HEIGHT);              // Record the scene once
+        record(list);
+        log.info("Tiled Rasterization", "Recorded " + list.getCommandCount() + " commands");
+
+        Bitmap expected = Bitmap.of(WIDTH, HEIGHT, Bitmap.Type.RGBA_8888);
+        long time = System.nanoTime();
+        list.replay(expected.getGraphics());                           // Reference: one thread, whole bitmap
+        log.info("Tiled Rasterization", "Single-threaded: " + (System.nanoTime() - time) / 1_000_000 + " ms");
+
+        int[] tileSizes = new int[] { 64, 160, 512 };                   // Multiples of 32, see TileRasterizer
+        for (int tileSize : tileSizes) {
+            Bitmap actual = Bitmap.of(WIDTH, HEIGHT, Bitmap.Type.RGBA_8888);
+            time = System.nanoTime();
+            new TileRasterizer(tileSize, tileSize).render(list, actual);
+            long elapsed = System.nanoTime() - time;
+            int different = diff(expected, actual);
+            log.info("Tiled Rasterization", "Tiles of " + tileSize + ": " + elapsed / 1_000_000 + " ms, " + different + " different pixels");
+            actual.dispose();
+            if (different != 0) throw new AssertionError("Tiled output differs from single-threaded output with tiles of " + tileSize);
+        }
+
+        expected.dispose();
+        list.dispose();
+    }
+
+    private static void record(Graphics graphics) {
+        Random random = new Random(42);                                // Fixed seed, the scene must be reproducible
+        graphics.clearColor();
+        graphics.setBrush(Brush.ofLinearGradient(0, 0, WIDTH, HEIGHT,
+                new float[] { 0, 1 }, new int[] { Color.WHITE, Color.BLACK }, Brush.TileMode.CLAMP));
+        graphics.drawRectangle(0, 0, WIDTH, HEIGHT);
+        for (int i = 0; i < 2000; i ++) {
+            graphics.setBrush(Brush.ofColor(random.nextInt() | 0x40000000));
+            if (i == 1000) {                                           // Washes over the whole surface, whatever the style
+                graphics.setStyle(Graphics.Style.STROKE);
+                graphics.drawColor();
+            }
+            else if (i == 1500) {
+                graphics.setTransform(Transform.ofRotate(0.3f, WIDTH / 2f, HEIGHT / 2f));
+                graphics.drawColor();
+                graphics.clearRectangle(WIDTH / 4, HEIGHT / 4, WIDTH / 8, HEIGHT / 8);
+                graphics.setTransform(null);
+            }
+            float x = random.nextFloat() * WIDTH, y = random.nextFloat() * HEIGHT;
+            float size = 5 + random.nextFloat() * 120;
+            switch (i % 5) {
+                case 0:
+                    graphics.setStyle(Graphics.Style.FILL);
+                    graphics.drawCircle(x, y, size / 2);
+                    break;
+                case 1:
+                    graphics.setStyle(Graphics.Style.STROKE);
+                    graphics.setStrokeWidth(1 + random.nextFloat() * 8);
+                    graphics.drawLine(x, y, x + size * 2, y + size);
+                    break;
+                case 2:
+                    graphics.setStyle(Graphics.Style.STROKE);
+                    graphics.drawRoundRectangle(x, y, size, size * 0.6f, 8);
+                    break;
+                case 3:
+                    Path path = Path.of();
+                    path.moveTo(x, y);
+                    path.cubicTo(x + size, y - size, x + size * 2, y + size, x + size * 3, y);
+                    path.close();
+                    graphics.setStyle(Graphics.Style.FILL);
+                    graphics.drawPath(path);
+                    break;
+                case 4:
+                    graphics.setTransform(Transform.ofRotate(random.nextFloat(), x, y));
+                    graphics.setTextSize(10 + size / 4);
+                    graphics.drawText("Tile " + i, x, y);
+                    graphics.setTransform(null);
+                    break;
+            }
+        }
+    }
+
+    private static int diff(Bitmap expected, Bitmap actual) {
+        int[] expectedRow = new int[WIDTH];
+        int[] actualRow = new int[WIDTH];
+        int different = 0;
+        for (int y = 0; y < HEIGHT; y ++) {
+            expected.getPixels(expectedRow, 0, WIDTH, 0, y, WIDTH, 1);
+            actual.getPixels(actualRow, 0, WIDTH, 0, y, WIDTH, 1);
+            for (int x = 0; x < WIDTH; x ++) {
+                if (expectedRow[x] != actualRow[x]) different ++;
+            }
+        }
+        return different;
+    }
+
+}